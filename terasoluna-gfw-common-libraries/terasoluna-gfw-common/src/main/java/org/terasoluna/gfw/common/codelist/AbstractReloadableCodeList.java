@@ -15,29 +15,78 @@
  */
 package org.terasoluna.gfw.common.codelist;
 
-import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.store.CodeListSnapshotStore;
 
 /**
  * Abstract implementation of reloadable {@link CodeList}
+ * <p>
+ * The codelist is published as an immutable {@link CodeListSnapshot}. The version of the snapshot
+ * is incremented and {@link CodeListChangeListener}s are notified only when the content of the
+ * codelist is changed by refreshing.
+ * </p>
+ * <p>
+ * If a {@link CodeListSnapshotStore} is set, the codelist starts from the stored content without
+ * waiting for {@link #retrieveMap()}, and is reconciled with the source in the background. The
+ * content is stored each time it is loaded or changed.
+ * </p>
  */
 public abstract class AbstractReloadableCodeList extends AbstractCodeList
-        implements ReloadableCodeList, InitializingBean {
+        implements ReloadableCodeList, VersionedCodeList, InitializingBean {
 
     /**
-     * Codelist information visible externally. It is unmodifiable and thread safe.
+     * Number of threads of the default executor to reconcile the restored content.
+     * @since 5.12.0
      */
-    private Map<String, String> exposedMap = null;
+    protected static final int DEFAULT_RECONCILE_THREADS = 2;
+
+    /**
+     * Codelist information visible externally. It is immutable and thread safe.
+     * <p>
+     * Replaced as a whole on each refresh, so readers always see either the previous or the new
+     * codelist and never a partially loaded one.
+     * </p>
+     */
+    private volatile CodeListSnapshot snapshot = null;
+
+    /**
+     * Lock to allow only one loading of the codelist at a time.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * Listeners notified when the content is changed.
+     */
+    private final List<CodeListChangeListener> changeListeners =
+            new CopyOnWriteArrayList<CodeListChangeListener>();
 
     /**
      * Lazy initialization flag
      */
     private boolean lazyInit = false;
 
+    /**
+     * Store of the last known content. Not stored if {@code null}.
+     */
+    private CodeListSnapshotStore snapshotStore;
+
+    /**
+     * Executor to reconcile the restored content with the source.
+     */
+    private Executor reconcileExecutor;
+
     /**
      * logger
      */
@@ -50,13 +99,77 @@ public abstract class AbstractReloadableCodeList extends AbstractCodeList
      */
     @Override
     public final Map<String, String> asMap() {
+        return getSnapshot().asMap();
+    }
 
-        // If exposedMap is null, that means it is called for the first time
+    /**
+     * Returns the membership test of codes in the current snapshot.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#getMembership()
+     * @since 5.12.0
+     */
+    @Override
+    public final CodeMembership getMembership() {
+        return getSnapshot().getMembership();
+    }
+
+    /**
+     * Returns the current snapshot of the codelist.
+     * <p>
+     * If the codelist has not been loaded yet (lazyInit is set to true), loads it. Concurrent
+     * first callers wait for a single loading instead of loading by themselves.
+     * </p>
+     * @return current snapshot
+     * @since 5.12.0
+     */
+    public final CodeListSnapshot getSnapshot() {
+        CodeListSnapshot current = snapshot;
+        // If snapshot is null, that means it is called for the first time
         // and lazyInit must be set to true
-        if (exposedMap == null) {
-            refresh();
+        if (current == null) {
+            CodeListChangeEvent event = null;
+            synchronized (refreshLock) {
+                current = snapshot;
+                if (current == null) {
+                    event = load();
+                    current = snapshot;
+                }
+            }
+            // notify outside of the lock as well as refresh()
+            fireCodeListChanged(event);
         }
-        return exposedMap;
+        return current;
+    }
+
+    /**
+     * Returns the version of the codelist.
+     * @see org.terasoluna.gfw.common.codelist.VersionedCodeList#getVersion()
+     * @since 5.12.0
+     */
+    @Override
+    public final long getVersion() {
+        CodeListSnapshot current = snapshot;
+        return (current == null) ? 0L : current.getVersion();
+    }
+
+    /**
+     * Adds the listener notified when the content is changed.
+     * @see org.terasoluna.gfw.common.codelist.VersionedCodeList#addChangeListener(org.terasoluna.gfw.common.codelist.CodeListChangeListener)
+     * @since 5.12.0
+     */
+    @Override
+    public void addChangeListener(CodeListChangeListener listener) {
+        Assert.notNull(listener, "listener must not be null");
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes the listener notified when the content is changed.
+     * @see org.terasoluna.gfw.common.codelist.VersionedCodeList#removeChangeListener(org.terasoluna.gfw.common.codelist.CodeListChangeListener)
+     * @since 5.12.0
+     */
+    @Override
+    public void removeChangeListener(CodeListChangeListener listener) {
+        changeListeners.remove(listener);
     }
 
     /**
@@ -67,16 +180,93 @@ public abstract class AbstractReloadableCodeList extends AbstractCodeList
         this.lazyInit = lazyInit;
     }
 
+    /**
+     * Returns whether the codelist is loaded on the first access instead of initialization.
+     * @return lazy initialization flag
+     * @since 5.12.0
+     */
+    public boolean isLazyInit() {
+        return lazyInit;
+    }
+
+    /**
+     * Sets the store of the last known content of the codelist.
+     * <p>
+     * If the content is stored, the codelist starts from it and is reconciled with the source by
+     * {@link #refresh()} in the background. Otherwise the codelist is loaded from the source as
+     * usual. Failures of the store are logged and do not prevent the codelist from being loaded.
+     * </p>
+     * @param snapshotStore store of the content. not stored if {@code null}
+     * @since 5.12.0
+     */
+    public void setSnapshotStore(CodeListSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Sets the executor to reconcile the restored content with the source.
+     * <p>
+     * By default, an executor shared by all codelists is used, which runs at most
+     * {@value #DEFAULT_RECONCILE_THREADS} reconciliations at a time on daemon threads, so that a
+     * restart with many stored codelists does not query the source all at once.
+     * </p>
+     * @param reconcileExecutor executor
+     * @since 5.12.0
+     */
+    public void setReconcileExecutor(Executor reconcileExecutor) {
+        this.reconcileExecutor = reconcileExecutor;
+    }
+
     /**
      * Reloads the codelist.
+     * <p>
+     * Only one reloading runs at a time for a codelist. While reloading, {@link #asMap()} keeps
+     * returning the previously loaded codelist without blocking.<br>
+     * If the content is changed, publishes a new snapshot and notifies the listeners after that.
+     * </p>
      * @see org.terasoluna.gfw.common.codelist.ReloadableCodeList#refresh()
      */
     @Override
     public final void refresh() {
+        CodeListChangeEvent event;
+        synchronized (refreshLock) {
+            event = doRefresh();
+        }
+        // notify outside of the lock not to block the other refreshing
+        fireCodeListChanged(event);
+    }
+
+    /**
+     * Reloads the codelist and publishes a new snapshot if the content is changed.
+     * <p>
+     * Must be called holding {@code refreshLock}. The listeners are not notified here so that the
+     * caller can notify them after releasing the lock.
+     * </p>
+     * @return change event. {@code null} if not changed
+     */
+    private CodeListChangeEvent doRefresh() {
         if (logger.isDebugEnabled()) {
             logger.debug("refresh codelist codeListId={}", getCodeListId());
         }
-        exposedMap = Collections.unmodifiableMap(retrieveMap());
+        Map<String, String> retrieved = retrieveMap();
+        long contentHash = contentHashOf(retrieved);
+        CodeListSnapshot current = snapshot;
+        if (current != null && current.getContentHash() == contentHash && hasSameContent(current
+                .asMap(), retrieved)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("codelist is not changed codeListId={}, version={}",
+                        getCodeListId(), current.getVersion());
+            }
+            return null;
+        }
+        Map<String, String> map = toSnapshotMap(retrieved);
+        long version = (current == null) ? 1L : current.getVersion() + 1;
+        CodeListSnapshot published = new CodeListSnapshot(map, version, contentHash,
+                createMembership(map));
+        snapshot = published;
+        // stored in the lock so that an older content never overwrites a newer one
+        saveSnapshot(map);
+        return new CodeListChangeEvent(this, version, published.getContentHash());
     }
 
     /**
@@ -93,7 +283,99 @@ public abstract class AbstractReloadableCodeList extends AbstractCodeList
     @Override
     public void afterPropertiesSet() {
         if (!lazyInit) {
-            refresh();
+            if (snapshotStore == null) {
+                refresh();
+            } else {
+                CodeListChangeEvent event = null;
+                synchronized (refreshLock) {
+                    if (snapshot == null) {
+                        event = load();
+                    }
+                }
+                fireCodeListChanged(event);
+            }
+        }
+    }
+
+    /**
+     * Loads the codelist for the first time.
+     * <p>
+     * Restores the stored content if exists and reconciles it in the background, otherwise
+     * refreshes the codelist. Must be called holding {@code refreshLock}.
+     * </p>
+     * @return change event to be notified after releasing the lock. {@code null} if not changed
+     */
+    private CodeListChangeEvent load() {
+        if (restoreSnapshot()) {
+            reconcile();
+            return null;
+        }
+        return doRefresh();
+    }
+
+    /**
+     * Publishes the stored content as the first snapshot.
+     * @return {@code true} if restored
+     */
+    private boolean restoreSnapshot() {
+        if (snapshotStore == null) {
+            return false;
+        }
+        Map<String, String> stored;
+        try {
+            stored = snapshotStore.load(getCodeListId());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to restore codelist snapshot. codeListId={}", getCodeListId(),
+                    e);
+            return false;
+        }
+        if (stored == null) {
+            return false;
+        }
+        synchronized (refreshLock) {
+            if (snapshot != null) {
+                return false;
+            }
+            snapshot = new CodeListSnapshot(toSnapshotMap(stored), 1L);
+        }
+        logger.info("restored codelist from snapshot. codeListId={}, size={}", getCodeListId(),
+                stored.size());
+        return true;
+    }
+
+    /**
+     * Refreshes the restored codelist in the background.
+     * <p>
+     * If refreshing fails, the restored content is kept until the next refresh.
+     * </p>
+     */
+    private void reconcile() {
+        Runnable task = () -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to reconcile codelist with the source."
+                        + " The restored snapshot is used until the next refresh. codeListId={}",
+                        getCodeListId(), e);
+            }
+        };
+        Executor executor = (reconcileExecutor != null) ? reconcileExecutor
+                : DefaultReconcileExecutorHolder.EXECUTOR;
+        executor.execute(task);
+    }
+
+    /**
+     * Stores the content of the codelist if the store is set.
+     * @param map content
+     */
+    private void saveSnapshot(Map<String, String> map) {
+        if (snapshotStore == null) {
+            return;
+        }
+        try {
+            snapshotStore.save(getCodeListId(), map);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to store codelist snapshot. codeListId={}", getCodeListId(), e);
         }
     }
 
@@ -102,4 +384,108 @@ public abstract class AbstractReloadableCodeList extends AbstractCodeList
      * @return Map codelist information
      */
     abstract protected Map<String, String> retrieveMap();
+
+    /**
+     * Converts the retrieved map to the immutable map held by the snapshot.
+     * <p>
+     * By default, copies it to {@link CompactCodeListMap}. Override this method if the retrieved
+     * map is already immutable and should not be copied (e.g. the map is not on the heap).
+     * </p>
+     * @param retrieved map returned by {@link #retrieveMap()}
+     * @return immutable map
+     * @since 5.12.0
+     */
+    protected Map<String, String> toSnapshotMap(Map<String, String> retrieved) {
+        return CompactCodeListMap.copyOf(retrieved);
+    }
+
+    /**
+     * Calculates the hash of the content to detect changes on refreshing.
+     * <p>
+     * By default, calculated from all entries by {@link CodeListSnapshot#contentHashOf(Map)}.
+     * Override this method if the content can be identified without reading the entries.
+     * </p>
+     * @param retrieved map returned by {@link #retrieveMap()}
+     * @return content hash
+     * @since 5.12.0
+     */
+    protected long contentHashOf(Map<String, String> retrieved) {
+        return CodeListSnapshot.contentHashOf(retrieved);
+    }
+
+    /**
+     * Returns whether the retrieved map has the same content as the current one. Called only when
+     * their content hashes are equal.
+     * <p>
+     * By default, compares all entries by {@link CodeListSnapshot#sameContent(Map, Map)}.
+     * </p>
+     * @param current map of the current snapshot
+     * @param retrieved map returned by {@link #retrieveMap()}
+     * @return {@code true} if not changed
+     * @since 5.12.0
+     */
+    protected boolean hasSameContent(Map<String, String> current,
+            Map<String, String> retrieved) {
+        return CodeListSnapshot.sameContent(current, retrieved);
+    }
+
+    /**
+     * Creates the membership test of codes of a new snapshot.
+     * <p>
+     * By default, returns {@code null} and the snapshot compiles it on the first use by
+     * {@link CodeMembership#compile(Map)}. Override this method if the compiled form should not be
+     * built (e.g. the map is not on the heap).
+     * </p>
+     * @param map map held by the snapshot
+     * @return membership. compiled on the first use if {@code null}
+     * @since 5.12.0
+     */
+    protected CodeMembership createMembership(Map<String, String> map) {
+        return null;
+    }
+
+    /**
+     * Notifies the listeners that the content is changed.
+     * <p>
+     * An exception thrown by a listener is logged and does not prevent the other listeners from
+     * being notified.
+     * </p>
+     * @param event change event. nothing is notified if {@code null}
+     */
+    private void fireCodeListChanged(CodeListChangeEvent event) {
+        if (event == null) {
+            return;
+        }
+        for (CodeListChangeListener listener : changeListeners) {
+            try {
+                listener.codeListChanged(event);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify the change of codelist. codeListId={}, listener={}",
+                        getCodeListId(), listener, e);
+            }
+        }
+    }
+
+    /**
+     * Holder of the default executor to reconcile the restored content, created on the first use.
+     */
+    private static final class DefaultReconcileExecutorHolder {
+
+        private static final Executor EXECUTOR = createExecutor();
+
+        private static Executor createExecutor() {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_RECONCILE_THREADS,
+                    DEFAULT_RECONCILE_THREADS, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), r -> {
+                        Thread thread = new Thread(r, "codelist-reconcile-" + threadNumber
+                                .incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // threads are not kept while no codelist is restored
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
 }
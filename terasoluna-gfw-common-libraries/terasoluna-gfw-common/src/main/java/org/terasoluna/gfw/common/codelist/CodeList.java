@@ -37,4 +37,18 @@ public interface CodeList {
      * @return String Bean Id of the codelist bean
      */
     String getCodeListId();
+
+    /**
+     * Returns the membership test of codes in the codelist.
+     * <p>
+     * By default, tests {@link #asMap()} of each call directly. Codelists holding immutable maps
+     * override this method to return the membership precompiled by
+     * {@link CodeMembership#compile(Map)}.
+     * </p>
+     * @return membership
+     * @since 5.12.0
+     */
+    default CodeMembership getMembership() {
+        return CodeMembership.of(asMap());
+    }
 }
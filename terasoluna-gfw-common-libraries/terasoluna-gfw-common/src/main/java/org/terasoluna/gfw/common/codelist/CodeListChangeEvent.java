@@ -0,0 +1,76 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.EventObject;
+
+/**
+ * Event that notifies the content of a codelist is changed.
+ * @since 5.12.0
+ */
+public class CodeListChangeEvent extends EventObject {
+
+    /**
+     * serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Version of the codelist after changed.
+     */
+    private final long version;
+
+    /**
+     * Hash of the content of the codelist after changed.
+     */
+    private final long contentHash;
+
+    /**
+     * Constructor.
+     * @param codeList changed codelist
+     * @param version version of the codelist after changed
+     * @param contentHash hash of the content of the codelist after changed
+     */
+    public CodeListChangeEvent(CodeList codeList, long version, long contentHash) {
+        super(codeList);
+        this.version = version;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Returns the changed codelist.
+     * @return changed codelist
+     */
+    public CodeList getCodeList() {
+        return (CodeList) getSource();
+    }
+
+    /**
+     * Returns the version of the codelist after changed.
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the hash of the content of the codelist after changed.
+     * @return content hash
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.EventListener;
+
+/**
+ * Listener that is notified when the content of a {@link VersionedCodeList} is changed.
+ * <p>
+ * Listeners are called by the thread which refreshed the codelist, after the new content is
+ * published. Listeners must not take a long time.
+ * </p>
+ * @since 5.12.0
+ */
+@FunctionalInterface
+public interface CodeListChangeListener extends EventListener {
+
+    /**
+     * Called when the content of a codelist is changed.
+     * @param event change event
+     */
+    void codeListChanged(CodeListChangeEvent event);
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the codelist published by {@link AbstractReloadableCodeList}.
+ * <p>
+ * A snapshot consists of the codelist map, the version and the hash of the content. The version
+ * is incremented only when the content of the codelist is changed. So structures derived from a
+ * codelist can be rebuilt only when the version is changed.
+ * </p>
+ * @since 5.12.0
+ */
+public final class CodeListSnapshot {
+
+    /**
+     * Initial value of the content hash.
+     */
+    private static final long HASH_SEED = 1125899906842597L;
+
+    /**
+     * Codelist map. It is unmodifiable.
+     */
+    private final Map<String, String> map;
+
+    /**
+     * Version of the codelist.
+     */
+    private final long version;
+
+    /**
+     * Hash of the content of the codelist.
+     */
+    private final long contentHash;
+
+    /**
+     * Membership compiled on the first use.
+     */
+    private volatile CodeMembership membership;
+
+    /**
+     * Constructor.
+     * @param map unmodifiable codelist map
+     * @param version version of the codelist
+     */
+    public CodeListSnapshot(Map<String, String> map, long version) {
+        this(map, version, contentHashOf(map), null);
+    }
+
+    /**
+     * Constructor with the content hash and the membership determined by the codelist.
+     * @param map unmodifiable codelist map
+     * @param version version of the codelist
+     * @param contentHash hash of the content of the codelist
+     * @param membership membership test of codes. compiled on the first use if {@code null}
+     */
+    public CodeListSnapshot(Map<String, String> map, long version, long contentHash,
+            CodeMembership membership) {
+        this.map = map;
+        this.version = version;
+        this.contentHash = contentHash;
+        this.membership = membership;
+    }
+
+    /**
+     * Returns the codelist map.
+     * @return unmodifiable codelist map
+     */
+    public Map<String, String> asMap() {
+        return map;
+    }
+
+    /**
+     * Returns the membership test of codes in the snapshot.
+     * <p>
+     * Compiled on the first call and reused until the snapshot is replaced, unless given by the
+     * constructor.
+     * </p>
+     * @return membership
+     * @see CodeMembership#compile(Map)
+     */
+    public CodeMembership getMembership() {
+        CodeMembership current = membership;
+        if (current == null) {
+            // compiling twice on a race is harmless as the result is the same
+            current = CodeMembership.compile(map);
+            membership = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the version of the codelist.
+     * <p>
+     * The version starts from 1 and is incremented every time the content is changed.
+     * </p>
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the hash of the content of the codelist.
+     * <p>
+     * The hash depends on the order of entries.
+     * </p>
+     * @return content hash
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Returns whether the specified map has the same content as this snapshot.
+     * @param other map to compare
+     * @return {@code true} if both have the same entries in the same order
+     */
+    public boolean hasSameContent(Map<String, String> other) {
+        return contentHashOf(other) == contentHash && sameContent(map, other);
+    }
+
+    /**
+     * Calculates the hash of the content of the codelist map.
+     * <p>
+     * The hash depends on the order of entries.
+     * </p>
+     * @param map codelist map
+     * @return content hash
+     */
+    public static long contentHashOf(Map<String, String> map) {
+        long hash = HASH_SEED;
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            hash = 31 * hash + hashOf(e.getKey());
+            hash = 31 * hash + hashOf(e.getValue());
+        }
+        return hash;
+    }
+
+    /**
+     * Returns whether the specified maps have the same entries in the same order.
+     * @param map1 codelist map
+     * @param map2 codelist map
+     * @return {@code true} if both have the same entries in the same order
+     */
+    public static boolean sameContent(Map<String, String> map1, Map<String, String> map2) {
+        if (map1 == map2) {
+            return true;
+        }
+        if (map1.size() != map2.size()) {
+            return false;
+        }
+        Iterator<Map.Entry<String, String>> it1 = map1.entrySet().iterator();
+        Iterator<Map.Entry<String, String>> it2 = map2.entrySet().iterator();
+        while (it1.hasNext() && it2.hasNext()) {
+            Map.Entry<String, String> e1 = it1.next();
+            Map.Entry<String, String> e2 = it2.next();
+            if (!equals(e1.getKey(), e2.getKey()) || !equals(e1.getValue(), e2.getValue())) {
+                return false;
+            }
+        }
+        return !it1.hasNext() && !it2.hasNext();
+    }
+
+    private static long hashOf(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        // spread the 32 bit hash of String to 64 bit
+        long h = value.hashCode() * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32) ^ value.length();
+    }
+
+    private static boolean equals(String value1, String value2) {
+        return (value1 == null) ? value2 == null : value1.equals(value2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CodeListSnapshot [version=" + version + ", contentHash=" + contentHash + ", size="
+                + map.size() + "]";
+    }
+}
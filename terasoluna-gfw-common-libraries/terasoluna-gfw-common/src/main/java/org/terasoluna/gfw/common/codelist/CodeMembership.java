@@ -0,0 +1,80 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Map;
+
+/**
+ * Membership test of codes in a codelist.
+ * <p>
+ * Numbers and characters are tested without being converted to String, so that validators such as
+ * {@link ExistInCodeList} do not allocate per validation. A number is a member if the code
+ * representing it exists, that is its decimal string for most codelists, or the code formatted by
+ * the value format for {@link NumberRangeCodeList}. A character is a member if the code of the
+ * single character exists.
+ * </p>
+ * <p>
+ * {@link #of(Map)} tests the map directly, and {@link #compile(Map)} precompiles the codes into
+ * primitive-specialized structures. Codelists holding immutable maps provide compiled ones by
+ * {@link CodeList#getMembership()}.
+ * </p>
+ * @since 5.12.0
+ */
+public interface CodeMembership {
+
+    /**
+     * Returns whether the code exists.
+     * @param code code
+     * @return {@code true} if the code exists
+     */
+    boolean contains(String code);
+
+    /**
+     * Returns whether the code representing the number exists.
+     * @param number number
+     * @return {@code true} if the code exists
+     */
+    boolean contains(long number);
+
+    /**
+     * Returns whether the code of the single character exists.
+     * @param code character
+     * @return {@code true} if the code exists
+     */
+    boolean contains(char code);
+
+    /**
+     * Returns the membership which tests the map directly.
+     * @param codeList codelist map
+     * @return membership
+     */
+    static CodeMembership of(Map<String, ?> codeList) {
+        return new MapCodeMembership(codeList);
+    }
+
+    /**
+     * Returns the membership precompiled from the codes of the map.
+     * <p>
+     * Numeric codes are compiled into a bitset (or a sorted array if sparse) and single-character
+     * codes into a bitmap. Other codes are tested by the map, so the map must not be modified.
+     * </p>
+     * @param codeList immutable codelist map
+     * @return membership
+     */
+    static CodeMembership compile(Map<String, ?> codeList) {
+        return new CompiledCodeMembership(codeList);
+    }
+}
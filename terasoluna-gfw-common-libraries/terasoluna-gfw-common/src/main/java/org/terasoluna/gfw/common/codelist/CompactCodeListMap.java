@@ -0,0 +1,191 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * Compact immutable map which keeps the order of entries.
+ * <p>
+ * Keys and values are held in parallel arrays in the order of entries, and keys are looked up
+ * through an open addressing hash index which holds positions in the arrays. Compared with
+ * {@code Collections.unmodifiableMap(new LinkedHashMap(...))}, no node object is allocated per
+ * entry, so the footprint is less than half.
+ * </p>
+ * <p>
+ * {@code null} keys and values are permitted. Instances are immutable and thread safe.
+ * </p>
+ * @since 5.12.0
+ */
+public final class CompactCodeListMap extends AbstractMap<String, String> {
+
+    /**
+     * empty map
+     */
+    private static final CompactCodeListMap EMPTY = new CompactCodeListMap(new String[0],
+            new String[0], new int[1]);
+
+    /**
+     * keys in the order of entries
+     */
+    private final String[] keys;
+
+    /**
+     * values in the order of entries
+     */
+    private final String[] values;
+
+    /**
+     * hash index. each slot holds (position in the arrays + 1), or 0 if empty.
+     */
+    private final int[] index;
+
+    /**
+     * entry set view
+     */
+    private final Set<Map.Entry<String, String>> entrySet = new EntrySet();
+
+    private CompactCodeListMap(String[] keys, String[] values, int[] index) {
+        this.keys = keys;
+        this.values = values;
+        this.index = index;
+    }
+
+    /**
+     * Returns a compact immutable copy of the map.
+     * <p>
+     * The order of entries is the iteration order of the specified map. If the specified map is
+     * already a {@code CompactCodeListMap}, it is returned as it is.
+     * </p>
+     * @param map map to copy
+     * @return compact immutable map
+     */
+    public static CompactCodeListMap copyOf(Map<String, String> map) {
+        Assert.notNull(map, "map must not be null");
+        if (map instanceof CompactCodeListMap) {
+            return (CompactCodeListMap) map;
+        }
+        int size = map.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+        String[] keys = new String[size];
+        String[] values = new String[size];
+        int i = 0;
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            keys[i] = e.getKey();
+            values[i] = e.getValue();
+            i++;
+        }
+        // keep the load factor 0.5 or less
+        int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+        int[] index = new int[capacity];
+        int mask = capacity - 1;
+        for (int p = 0; p < size; p++) {
+            int slot = hash(keys[p]) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = p + 1;
+        }
+        return new CompactCodeListMap(keys, values, index);
+    }
+
+    @Override
+    public String get(Object key) {
+        int p = positionOf(key);
+        return (p < 0) ? null : values[p];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positionOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return entrySet;
+    }
+
+    /**
+     * Returns the position of the key in the arrays.
+     * @param key key
+     * @return position. {@code -1} if not found
+     */
+    private int positionOf(Object key) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        int p;
+        while ((p = index[slot]) != 0) {
+            if (Objects.equals(keys[p - 1], key)) {
+                return p - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Entries in the order of the arrays.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int position = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return position < keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (position >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    int p = position++;
+                    return new AbstractMap.SimpleImmutableEntry<String, String>(keys[p],
+                            values[p]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * {@link CodeMembership} precompiled from the codes of an immutable map.
+ * <p>
+ * Codes in the canonical decimal form of {@code long} are held in a bitset offset by the minimum
+ * number if they are dense, or in a sorted array otherwise. Single-character codes are held in a
+ * bitmap. String codes are tested by the map, which is {@link CompactCodeListMap} for most
+ * codelists and needs no further compilation.
+ * </p>
+ * @since 5.12.0
+ */
+final class CompiledCodeMembership implements CodeMembership {
+
+    /**
+     * minimum span of numbers held in a bitset regardless of the number of codes
+     */
+    private static final long MIN_BITSET_SPAN = 4096L;
+
+    /**
+     * maximum number of bits per code held in a bitset
+     */
+    private static final long MAX_BITS_PER_CODE = 64L;
+
+    /**
+     * codelist map
+     */
+    private final Map<String, ?> codeList;
+
+    /**
+     * minimum numeric code
+     */
+    private final long minNumber;
+
+    /**
+     * maximum numeric code
+     */
+    private final long maxNumber;
+
+    /**
+     * numeric codes offset by {@link #minNumber}. {@code null} if held in {@link #sortedNumbers}.
+     */
+    private final BitSet numberBits;
+
+    /**
+     * sorted numeric codes if sparse. {@code null} if held in {@link #numberBits}.
+     */
+    private final long[] sortedNumbers;
+
+    /**
+     * single-character codes
+     */
+    private final BitSet chars;
+
+    /**
+     * Constructor.
+     * @param codeList immutable codelist map
+     */
+    CompiledCodeMembership(Map<String, ?> codeList) {
+        this.codeList = codeList;
+        long[] numbers = new long[codeList.size()];
+        int count = 0;
+        BitSet charBits = new BitSet();
+        for (String code : codeList.keySet()) {
+            if (code == null) {
+                continue;
+            }
+            if (code.length() == 1) {
+                charBits.set(code.charAt(0));
+            }
+            if (isCanonicalNumber(code)) {
+                numbers[count++] = Long.parseLong(code);
+            }
+        }
+        this.chars = charBits;
+
+        numbers = Arrays.copyOf(numbers, count);
+        Arrays.sort(numbers);
+        if (count == 0) {
+            this.minNumber = 0L;
+            this.maxNumber = -1L;
+            this.numberBits = null;
+            this.sortedNumbers = numbers;
+            return;
+        }
+        this.minNumber = numbers[0];
+        this.maxNumber = numbers[count - 1];
+        long span = maxNumber - minNumber;
+        if (span >= 0 && span < Math.max(MIN_BITSET_SPAN, MAX_BITS_PER_CODE * count)) {
+            BitSet bits = new BitSet((int) span + 1);
+            for (long number : numbers) {
+                bits.set((int) (number - minNumber));
+            }
+            this.numberBits = bits;
+            this.sortedNumbers = null;
+        } else {
+            this.numberBits = null;
+            this.sortedNumbers = numbers;
+        }
+    }
+
+    @Override
+    public boolean contains(String code) {
+        return codeList.containsKey(code);
+    }
+
+    @Override
+    public boolean contains(long number) {
+        if (number < minNumber || number > maxNumber) {
+            return false;
+        }
+        if (numberBits != null) {
+            return numberBits.get((int) (number - minNumber));
+        }
+        return Arrays.binarySearch(sortedNumbers, number) >= 0;
+    }
+
+    @Override
+    public boolean contains(char code) {
+        return chars.get(code);
+    }
+
+    /**
+     * Returns whether the code is the same as {@link Long#toString(long)} of some number.
+     * @param code code
+     * @return {@code true} if canonical decimal form of {@code long}
+     */
+    static boolean isCanonicalNumber(String code) {
+        int length = code.length();
+        int start = (length > 1 && code.charAt(0) == '-') ? 1 : 0;
+        int digits = length - start;
+        if (digits == 0 || digits > 19) {
+            return false;
+        }
+        if (code.charAt(start) == '0' && (digits > 1 || start == 1)) {
+            // leading zero or "-0"
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (digits == 19) {
+            try {
+                Long.parseLong(code);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
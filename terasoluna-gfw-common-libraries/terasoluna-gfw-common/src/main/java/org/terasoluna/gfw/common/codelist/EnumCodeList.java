@@ -16,7 +16,6 @@
 package org.terasoluna.gfw.common.codelist;
 
 import java.lang.reflect.Method;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -56,6 +55,11 @@ public class EnumCodeList extends AbstractCodeList {
      */
     private final Map<String, String> codeListMap;
 
+    /**
+     * membership compiled from the map.
+     */
+    private final CodeMembership membership;
+
     /**
      * Constructor.
      * @param enumClass Enum class of which this codelist consists. Must implement
@@ -75,7 +79,8 @@ public class EnumCodeList extends AbstractCodeList {
             codeList.put(item.getCodeValue(), item.getCodeLabel());
         }
 
-        this.codeListMap = Collections.unmodifiableMap(codeList);
+        this.codeListMap = CompactCodeListMap.copyOf(codeList);
+        this.membership = CodeMembership.compile(this.codeListMap);
     }
 
     /**
@@ -90,4 +95,14 @@ public class EnumCodeList extends AbstractCodeList {
         return this.codeListMap;
     }
 
+    /**
+     * Returns the membership test of codes compiled from the map.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#getMembership()
+     * @since 5.12.0
+     */
+    @Override
+    public CodeMembership getMembership() {
+        return this.membership;
+    }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.terasoluna.gfw.common.codelist.ExistInHierarchicalCodeList.List;
+import org.terasoluna.gfw.common.codelist.validator.ExistInHierarchicalCodeListValidator;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+/**
+ * Class level constraint which checks that the code of {@link #childField()} is a child of the
+ * code of {@link #parentField()} in the {@link HierarchicalCodeList}.
+ * <p>
+ * The pair is valid if either of the codes is {@code null} or empty. A violation is reported on
+ * {@link #childField()}.
+ * </p>
+ *
+ * <pre>
+ * &#064;ExistInHierarchicalCodeList(codeListId = &quot;CL_AREA&quot;, parentField = &quot;prefecture&quot;, childField = &quot;city&quot;)
+ * public class AddressForm {
+ *     &#064;ExistInCodeList(codeListId = &quot;CL_AREA&quot;)
+ *     private String prefecture;
+ *     private String city;
+ *     // ...
+ * }
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+@Documented
+@Target({TYPE, ANNOTATION_TYPE})
+@Retention(RUNTIME)
+@Repeatable(List.class)
+@Constraint(validatedBy = {ExistInHierarchicalCodeListValidator.class})
+public @interface ExistInHierarchicalCodeList {
+
+    /**
+     * Error message or message key
+     * @return error message or message key
+     */
+    String message() default "{org.terasoluna.gfw.common.codelist.ExistInHierarchicalCodeList.message}";
+
+    /**
+     * Bean ID of the {@link HierarchicalCodeList} in which check the pair
+     * @return bean ID of the codelist
+     */
+    String codeListId();
+
+    /**
+     * Name of the property holding the code of the parent
+     * @return property name
+     */
+    String parentField();
+
+    /**
+     * Name of the property holding the code of the child
+     * @return property name
+     */
+    String childField();
+
+    /**
+     * Constraint groups
+     * @return constraint groups
+     */
+    Class<?>[] groups() default {};
+
+    /**
+     * Payload
+     * @return payload
+     */
+    Class<? extends Payload>[] payload() default {};
+
+    /**
+     * Defines several <code>@ExistInHierarchicalCodeList</code> annotations on the same element
+     * @see ExistInHierarchicalCodeList
+     */
+    @Target({TYPE, ANNOTATION_TYPE})
+    @Retention(RUNTIME)
+    @Documented
+    @interface List {
+        /**
+         * <code>@ExistInHierarchicalCodeList</code> annotations
+         * @return annotations
+         */
+        ExistInHierarchicalCodeList[] value();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Map;
+
+/**
+ * Interface of codelist whose codes form a hierarchy, such as prefecture, city and district.
+ * <p>
+ * {@link #asMap()} returns the codes at the top of the hierarchy, and {@link #asMap(String)}
+ * returns the children of a code.
+ * </p>
+ * @since 5.12.0
+ */
+public interface HierarchicalCodeList extends CodeList {
+
+    /**
+     * Returns the children of the code as an Immutable Thread-safe Map instance.
+     * @param parentCode code of the parent
+     * @return children in the form of an Immutable Thread-safe Map. empty if the code does not
+     *         have children
+     */
+    Map<String, String> asMap(String parentCode);
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link HierarchicalCodeList} loaded from a parent/child table using JDBC.
+ * <p>
+ * The results of {@link #querySql} are loaded by one query. Each row is put to the children of the
+ * code in {@link #parentColumn}, or to the top of the hierarchy if it is {@code null}, unless value
+ * or label of it is {@code null}. The order of the rows is kept in each level.
+ * </p>
+ * <p>
+ * The children are indexed by the parent code in {@link CompactCodeListMap}s, so that
+ * {@link #asMap(String)} is a hash lookup returning a prebuilt map and a pair of parent and child
+ * is validated by {@code asMap(parentCode).containsKey(childCode)} without any query (see
+ * {@link ExistInHierarchicalCodeList}).
+ * </p>
+ * <p>
+ * As the children are indexed by the code of the parent alone, a code which has children must be
+ * unique across the whole table. A code without children (e.g. a district {@code 001} under
+ * several cities) may appear under more than one parent. If a code having children appears under
+ * more than one parent, the load fails with {@link IllegalStateException} and the previously
+ * loaded hierarchy is kept.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;CL_AREA&quot; class=&quot;org.terasoluna.gfw.common.codelist.JdbcHierarchicalCodeList&quot;&gt;
+ *     &lt;property name=&quot;dataSource&quot; ref=&quot;dataSource&quot; /&gt;
+ *     &lt;property name=&quot;querySql&quot;
+ *         value=&quot;SELECT parent_code, code, name FROM m_area ORDER BY sort_order&quot; /&gt;
+ *     &lt;property name=&quot;parentColumn&quot; value=&quot;parent_code&quot; /&gt;
+ *     &lt;property name=&quot;valueColumn&quot; value=&quot;code&quot; /&gt;
+ *     &lt;property name=&quot;labelColumn&quot; value=&quot;name&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class JdbcHierarchicalCodeList extends AbstractCodeList
+        implements HierarchicalCodeList, ReloadableCodeList, InitializingBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(JdbcHierarchicalCodeList.class);
+
+    /**
+     * Database access information
+     */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * SQL Query to access the database
+     */
+    private String querySql;
+
+    /**
+     * name of the column holding the code of the parent
+     */
+    private String parentColumn;
+
+    /**
+     * name of the column holding the value part of the codelist
+     */
+    private String valueColumn;
+
+    /**
+     * name of the column holding the label part of the codelist
+     */
+    private String labelColumn;
+
+    /**
+     * Lazy initialization flag
+     */
+    private boolean lazyInit = false;
+
+    /**
+     * loaded hierarchy. replaced as a whole on each refresh.
+     */
+    private volatile Hierarchy hierarchy;
+
+    /**
+     * Lock to allow only one loading at a time.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * Returns the codes at the top of the hierarchy.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#asMap()
+     */
+    @Override
+    public Map<String, String> asMap() {
+        return getHierarchy().roots;
+    }
+
+    /**
+     * Returns the children of the code.
+     * @see org.terasoluna.gfw.common.codelist.HierarchicalCodeList#asMap(java.lang.String)
+     */
+    @Override
+    public Map<String, String> asMap(String parentCode) {
+        Map<String, String> children = getHierarchy().children.get(parentCode);
+        return (children == null) ? Collections.<String, String> emptyMap() : children;
+    }
+
+    /**
+     * Reloads the hierarchy by one query.
+     * <p>
+     * While reloading, the previously loaded hierarchy keeps being returned.
+     * </p>
+     * @see org.terasoluna.gfw.common.codelist.ReloadableCodeList#refresh()
+     */
+    @Override
+    public void refresh() {
+        synchronized (refreshLock) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("refresh codelist codeListId={}", getCodeListId());
+            }
+            hierarchy = load();
+        }
+    }
+
+    /**
+     * Checks the properties and loads the hierarchy unless lazyInit is set to true.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.hasLength(querySql, "querySql is empty");
+        Assert.hasLength(parentColumn, "parentColumn is empty");
+        Assert.hasLength(valueColumn, "valueColumn is empty");
+        Assert.hasLength(labelColumn, "labelColumn is empty");
+        Assert.notNull(jdbcTemplate, "jdbcTemplate (or dataSource) is empty");
+        if (!lazyInit) {
+            refresh();
+        }
+    }
+
+    /**
+     * Returns the loaded hierarchy, loading it for the first time if lazyInit is set to true.
+     * @return hierarchy
+     */
+    private Hierarchy getHierarchy() {
+        Hierarchy current = hierarchy;
+        if (current == null) {
+            synchronized (refreshLock) {
+                current = hierarchy;
+                if (current == null) {
+                    refresh();
+                    current = hierarchy;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Fetches the rows and indexes them by the parent code.
+     * @return hierarchy
+     * @throws IllegalStateException if a code having children appears under more than one parent
+     */
+    private Hierarchy load() {
+        Map<String, String> roots = new LinkedHashMap<String, String>();
+        Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+        // parent of each code. null for the top of the hierarchy
+        Map<String, String> parents = new HashMap<String, String>();
+        Set<String> codesUnderParents = new HashSet<String>();
+        jdbcTemplate.query(querySql, rs -> {
+            Object parent = rs.getObject(parentColumn);
+            Object key = rs.getObject(valueColumn);
+            Object value = rs.getObject(labelColumn);
+            if (key == null || value == null) {
+                return;
+            }
+            String code = key.toString();
+            String parentCode = (parent == null) ? null : parent.toString();
+            if (parents.containsKey(code)) {
+                if (!Objects.equals(parents.get(code), parentCode)) {
+                    codesUnderParents.add(code);
+                }
+            } else {
+                parents.put(code, parentCode);
+            }
+            Map<String, String> level = (parentCode == null) ? roots
+                    : rows.computeIfAbsent(parentCode, p -> new LinkedHashMap<String, String>());
+            level.put(code, value.toString());
+        });
+        for (String code : codesUnderParents) {
+            if (rows.containsKey(code)) {
+                throw new IllegalStateException(
+                        "code having children appears under more than one parent. codeListId="
+                                + getCodeListId() + ", code=" + code);
+            }
+        }
+        Map<String, Map<String, String>> children = new HashMap<String, Map<String, String>>(
+                (int) (rows.size() / 0.75f) + 1);
+        for (Map.Entry<String, Map<String, String>> e : rows.entrySet()) {
+            children.put(e.getKey(), CompactCodeListMap.copyOf(e.getValue()));
+        }
+        return new Hierarchy(CompactCodeListMap.copyOf(roots), Collections.unmodifiableMap(
+                children));
+    }
+
+    /**
+     * Sets DataSource.
+     * @param dataSource DataSource instance for fetching code list records
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate
+     * @param jdbcTemplate JdbcTemplate instance for fetching code list records
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Setter method for querySql
+     * @param querySql sql for fetching code list records from database
+     */
+    public void setQuerySql(String querySql) {
+        this.querySql = querySql;
+    }
+
+    /**
+     * Setter method for parentColumn
+     * @param parentColumn column name for fetch the code of the parent
+     */
+    public void setParentColumn(String parentColumn) {
+        this.parentColumn = parentColumn;
+    }
+
+    /**
+     * Setter method for valueColumn
+     * @param valueColumn column name for fetch code value
+     */
+    public void setValueColumn(String valueColumn) {
+        this.valueColumn = valueColumn;
+    }
+
+    /**
+     * Setter method for labelColumn
+     * @param labelColumn column name for fetch a code label
+     */
+    public void setLabelColumn(String labelColumn) {
+        this.labelColumn = labelColumn;
+    }
+
+    /**
+     * Flag that determines whether the codelist information needs to be eager fetched.
+     * @param lazyInit flag
+     */
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
+    }
+
+    /**
+     * Loaded hierarchy. Immutable.
+     */
+    private static final class Hierarchy {
+
+        /**
+         * codes at the top of the hierarchy
+         */
+        private final Map<String, String> roots;
+
+        /**
+         * children per code of the parent
+         */
+        private final Map<String, Map<String, String>> children;
+
+        Hierarchy(Map<String, String> roots, Map<String, Map<String, String>> children) {
+            this.roots = roots;
+            this.children = children;
+        }
+    }
+}
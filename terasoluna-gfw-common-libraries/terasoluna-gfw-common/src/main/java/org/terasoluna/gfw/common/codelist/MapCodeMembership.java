@@ -0,0 +1,53 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.Map;
+
+/**
+ * {@link CodeMembership} which tests the map directly.
+ * @since 5.12.0
+ */
+final class MapCodeMembership implements CodeMembership {
+
+    /**
+     * codelist map
+     */
+    private final Map<String, ?> codeList;
+
+    /**
+     * Constructor.
+     * @param codeList codelist map
+     */
+    MapCodeMembership(Map<String, ?> codeList) {
+        this.codeList = codeList;
+    }
+
+    @Override
+    public boolean contains(String code) {
+        return codeList.containsKey(code);
+    }
+
+    @Override
+    public boolean contains(long number) {
+        return codeList.containsKey(Long.toString(number));
+    }
+
+    @Override
+    public boolean contains(char code) {
+        return codeList.containsKey(String.valueOf(code));
+    }
+}
@@ -15,17 +15,45 @@
  */
 package org.terasoluna.gfw.common.codelist;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 
 /**
  * Codelist consisting of range of numbers
+ * <p>
+ * If the value format consists of a single {@code %s} or {@code %d} conversion with literal prefix
+ * and suffix (e.g. {@code "%s"}, {@code "%04d"}, {@code "Y%d"}), the codelist is not materialized
+ * and its map computes entries on demand. {@code containsKey} and {@code get} run in constant time
+ * by parsing the number from the code and checking whether it is in the range and on the interval.
+ * Otherwise all entries are materialized at initialization.
+ * </p>
  */
 public class NumberRangeCodeList extends AbstractCodeList implements InitializingBean {
+    /**
+     * Value formats which can be parsed back to numbers.<br>
+     * group 1 : prefix, group 2 : conversion, group 3 : suffix
+     */
+    private static final Pattern PARSABLE_FORMAT_PATTERN = Pattern.compile(
+            "([^%]*)(%[-#+ 0,(]*\\d*[sd])([^%]*)");
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NumberRangeCodeList.class);
+
     /**
      * Start point of range of numbers(default 0)
      */
@@ -56,6 +84,11 @@ public class NumberRangeCodeList extends AbstractCodeList implements Initializin
      */
     private Map<String, String> map;
 
+    /**
+     * Membership of the codelist
+     */
+    private CodeMembership membership;
+
     /**
      * Returns the codelist as a Map<br>
      * <p>
@@ -69,6 +102,20 @@ public class NumberRangeCodeList extends AbstractCodeList implements Initializin
         return map;
     }
 
+    /**
+     * Returns the membership test of codes in the codelist.<br>
+     * <p>
+     * A number is a member if the code formatted from it by the value format exists. If the codes
+     * can be parsed back to numbers, it is tested arithmetically without formatting.
+     * </p>
+     * @see org.terasoluna.gfw.common.codelist.CodeList#getMembership()
+     * @since 5.12.0
+     */
+    @Override
+    public CodeMembership getMembership() {
+        return membership;
+    }
+
     /**
      * Initializes the codelist with the range of numbers.<br>
      * <p>
@@ -83,6 +130,20 @@ public class NumberRangeCodeList extends AbstractCodeList implements Initializin
         Assert.hasLength(valueFormat, "valueFormat must not be empty");
         Assert.hasLength(labelFormat, "labelFormat must not be empty");
 
+        NumberRangeMap rangeMap = new NumberRangeMap(from, to, interval, valueFormat,
+                labelFormat);
+        if (rangeMap.isParsable()) {
+            // format a label in advance to detect invalid labelFormat at initialization
+            String.format(labelFormat, from);
+            map = rangeMap;
+            membership = new NumberRangeMembership(rangeMap, valueFormat);
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("valueFormat '{}' can not be parsed. codelist is materialized.",
+                    valueFormat);
+        }
+
         LinkedHashMap<String, String> numbers = new LinkedHashMap<String, String>();
         if (from <= to) {
             for (int i = from; i <= to; i = i + interval) {
@@ -94,6 +155,7 @@ public class NumberRangeCodeList extends AbstractCodeList implements Initializin
             }
         }
         map = Collections.unmodifiableMap(numbers);
+        membership = new NumberRangeMembership(map, valueFormat);
     }
 
     private void putInMap(Map<String, String> numbers, int index) {
@@ -153,4 +215,225 @@ public class NumberRangeCodeList extends AbstractCodeList implements Initializin
     public void setLabelFormat(String labelFormat) {
         this.labelFormat = labelFormat;
     }
+
+    /**
+     * Membership of the range of numbers.
+     */
+    private static final class NumberRangeMembership implements CodeMembership {
+
+        private final Map<String, String> map;
+
+        private final String valueFormat;
+
+        NumberRangeMembership(Map<String, String> map, String valueFormat) {
+            this.map = map;
+            this.valueFormat = valueFormat;
+        }
+
+        @Override
+        public boolean contains(String code) {
+            return map.containsKey(code);
+        }
+
+        @Override
+        public boolean contains(long number) {
+            if (map instanceof NumberRangeMap) {
+                return ((NumberRangeMap) map).indexOf(number) >= 0;
+            }
+            // same as formatting Integer for the numbers which can be in the range
+            Object value = (number == (int) number) ? Integer.valueOf((int) number)
+                    : Long.valueOf(number);
+            return map.containsKey(String.format(valueFormat, value));
+        }
+
+        @Override
+        public boolean contains(char code) {
+            return map.containsKey(String.valueOf(code));
+        }
+    }
+
+    /**
+     * Unmodifiable map of the range of numbers which computes entries on demand.
+     */
+    private static final class NumberRangeMap extends AbstractMap<String, String> {
+
+        private final int from;
+
+        private final int to;
+
+        /**
+         * signed interval. negative if descending.
+         */
+        private final long step;
+
+        /**
+         * number of entries. may exceed {@link Integer#MAX_VALUE}.
+         */
+        private final long count;
+
+        private final String valueFormat;
+
+        private final String labelFormat;
+
+        private final String prefix;
+
+        private final String suffix;
+
+        private final Set<Map.Entry<String, String>> entrySet = new EntrySet();
+
+        NumberRangeMap(int from, int to, int interval, String valueFormat, String labelFormat) {
+            this.from = from;
+            this.to = to;
+            this.step = (from <= to) ? interval : -(long) interval;
+            this.count = Math.abs((long) to - from) / interval + 1;
+            this.valueFormat = valueFormat;
+            this.labelFormat = labelFormat;
+            Matcher matcher = PARSABLE_FORMAT_PATTERN.matcher(valueFormat);
+            if (matcher.matches()) {
+                this.prefix = matcher.group(1);
+                this.suffix = matcher.group(3);
+            } else {
+                this.prefix = null;
+                this.suffix = null;
+            }
+        }
+
+        /**
+         * Returns whether codes can be parsed back to numbers.
+         * <p>
+         * Checks with the first and the last numbers which have the largest absolute values, so
+         * that locale-dependent formatting such as grouping separators is detected.
+         * </p>
+         */
+        boolean isParsable() {
+            if (prefix == null) {
+                return false;
+            }
+            int last = valueAt(count - 1);
+            return parse(format(valueFormat, from)) == from && parse(format(valueFormat,
+                    last)) == last;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public String get(Object key) {
+            long index = indexOf(key);
+            return (index < 0) ? null : format(labelFormat, valueAt(index));
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return entrySet;
+        }
+
+        int valueAt(long index) {
+            return (int) (from + step * index);
+        }
+
+        /**
+         * Returns the index of the number represented by the code.
+         * @param key code
+         * @return index. {@code -1} if the code is not in the codelist
+         */
+        private long indexOf(Object key) {
+            if (!(key instanceof String)) {
+                return -1;
+            }
+            String code = (String) key;
+            long number = parse(code);
+            if (number == Long.MIN_VALUE) {
+                return -1;
+            }
+            long index = indexOf(number);
+            // parsing is lenient, so confirm that the code is formatted exactly
+            return (index >= 0 && format(valueFormat, (int) number).equals(code)) ? index : -1;
+        }
+
+        /**
+         * Returns the index of the number.
+         * @param number number
+         * @return index. {@code -1} if the number is not in the range or not on the interval
+         */
+        long indexOf(long number) {
+            if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                return -1;
+            }
+            long offset = number - from;
+            if (offset % step != 0) {
+                return -1;
+            }
+            long index = offset / step;
+            return (index < 0 || index >= count) ? -1 : index;
+        }
+
+        /**
+         * Parses the number from the code.
+         * @param code code
+         * @return number. {@link Long#MIN_VALUE} if not parsable
+         */
+        private long parse(String code) {
+            if (code.length() < prefix.length() + suffix.length() || !code.startsWith(prefix)
+                    || !code.endsWith(suffix)) {
+                return Long.MIN_VALUE;
+            }
+            String number = code.substring(prefix.length(), code.length() - suffix.length())
+                    .trim();
+            if (number.isEmpty() || number.length() > 12) {
+                return Long.MIN_VALUE;
+            }
+            try {
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        private static String format(String format, int number) {
+            return String.format(format, number);
+        }
+
+        private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private long index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < count;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (index >= count) {
+                            throw new NoSuchElementException();
+                        }
+                        int number = valueAt(index++);
+                        return new SimpleImmutableEntry<String, String>(format(valueFormat,
+                                number), format(labelFormat, number));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return NumberRangeMap.this.size();
+            }
+        }
+    }
 }
@@ -15,7 +15,6 @@
  */
 package org.terasoluna.gfw.common.codelist;
 
-import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -28,6 +27,11 @@ public class SimpleMapCodeList extends AbstractCodeList {
      */
     private Map<String, String> map;
 
+    /**
+     * Membership compiled on the first use. Reset when the map is set.
+     */
+    private volatile CodeMembership membership;
+
     /**
      * Returns the codelist Information as a Map instance
      * @return Map codelist information
@@ -38,12 +42,32 @@ public class SimpleMapCodeList extends AbstractCodeList {
         return map;
     }
 
+    /**
+     * Returns the membership test of codes compiled from the map.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#getMembership()
+     * @since 5.12.0
+     */
+    @Override
+    public CodeMembership getMembership() {
+        CodeMembership current = membership;
+        if (current == null) {
+            current = CodeMembership.compile(map);
+            membership = current;
+        }
+        return current;
+    }
+
     /**
      * Sets codelist information in a Map This map is stored as an unmodifiable Map
+     * <p>
+     * The map is copied to {@link CompactCodeListMap}, so later changes of the specified map are
+     * not reflected.
+     * </p>
      * @param map codelist information
      */
     public void setMap(Map<String, String> map) {
-        this.map = Collections.unmodifiableMap(map);
+        this.map = CompactCodeListMap.copyOf(map);
+        this.membership = null;
     }
 
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+/**
+ * Interface of the codelist which has a version incremented when its content is changed.
+ * <p>
+ * Structures derived from a codelist (e.g. tables of {@code I18nCodeList}, indexes, serialized
+ * forms) can be rebuilt only when the version is changed, instead of every refresh.
+ * </p>
+ * @since 5.12.0
+ */
+public interface VersionedCodeList extends CodeList {
+
+    /**
+     * Returns the version of the codelist.
+     * <p>
+     * The version starts from 1 and is incremented every time the content is changed.
+     * </p>
+     * @return version. {@code 0} if the codelist has not been loaded yet
+     */
+    long getVersion();
+
+    /**
+     * Adds the listener notified when the content is changed.
+     * @param listener listener
+     */
+    void addChangeListener(CodeListChangeListener listener);
+
+    /**
+     * Removes the listener notified when the content is changed.
+     * @param listener listener
+     */
+    void removeChangeListener(CodeListChangeListener listener);
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.category;
+
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+
+/**
+ * Codelist of a category loaded by {@link JdbcCategorizedCodeListLoader}.
+ * <p>
+ * This codelist takes the codelist of the category from the loader, whose map is shared without
+ * copying. {@link #refresh()} makes the loader reload all categories, so that this codelist can be
+ * refreshed by {@link org.terasoluna.gfw.common.codelist.refresh.CodeListRefreshCoordinator} or
+ * invalidation like other codelists. Refreshes of codelists of the same loader within
+ * {@link JdbcCategorizedCodeListLoader#setMinReloadInterval(long) minReloadInterval} or
+ * requested concurrently share one query.
+ * </p>
+ * <p>
+ * The first load and the refresh by {@link JdbcCategorizedCodeListLoader#refresh()} do not reload
+ * the categories and take them from the loader.
+ * </p>
+ * @since 5.12.0
+ */
+public class CategorizedCodeList extends AbstractReloadableCodeList {
+
+    /**
+     * loader of the categories
+     */
+    private JdbcCategorizedCodeListLoader loader;
+
+    /**
+     * category of this codelist
+     */
+    private String category;
+
+    /**
+     * Returns the codelist of the category held by the loader, reloading the categories on
+     * refreshing.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#retrieveMap()
+     */
+    @Override
+    protected Map<String, String> retrieveMap() {
+        if (getVersion() == 0L || loader.isRefreshingCodeLists()) {
+            return loader.getCategory(category);
+        }
+        return loader.reloadCategory(category);
+    }
+
+    /**
+     * Checks the properties and registers this codelist to the loader.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(loader, "loader is empty");
+        Assert.hasLength(category, "category is empty");
+        loader.addCodeList(this);
+        super.afterPropertiesSet();
+    }
+
+    /**
+     * Setter method for loader
+     * @param loader loader of the categories
+     */
+    public void setLoader(JdbcCategorizedCodeListLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Setter method for category
+     * @param category category of this codelist
+     */
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
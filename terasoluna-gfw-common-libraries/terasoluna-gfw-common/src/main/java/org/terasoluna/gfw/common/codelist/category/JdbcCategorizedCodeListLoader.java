@@ -0,0 +1,374 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.category;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.CompactCodeListMap;
+
+/**
+ * Loader of many codelists stored in one table, distinguished by a category column.
+ * <p>
+ * Fetches the rows of all categories by one query and partitions them into a codelist per
+ * category. {@link CategorizedCodeList}s are views of a category over this loader and do not
+ * access the database by themselves, so that refreshing all of them costs only one query.
+ * </p>
+ * <p>
+ * The rows are streamed and each row is put to the codelist of its category unless category,
+ * value or label of it is {@code null}. The order of the rows is kept in each codelist.
+ * </p>
+ * <p>
+ * {@link #refresh()} reloads all categories and then refreshes the registered
+ * {@link CategorizedCodeList}s. Only the ones whose content is changed are versioned up.<br>
+ * Refreshing a {@link CategorizedCodeList} also reloads all categories, unless the last reload
+ * started within {@link #setMinReloadInterval(long) minReloadInterval} (default 5 seconds). So
+ * the views refreshed one after another by
+ * {@link org.terasoluna.gfw.common.codelist.refresh.CodeListRefreshCoordinator} share one query
+ * per refresh cycle. Reloads requested while another reload is running are coalesced into one
+ * reload after it.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;codeListLoader&quot;
+ *     class=&quot;org.terasoluna.gfw.common.codelist.category.JdbcCategorizedCodeListLoader&quot;&gt;
+ *     &lt;property name=&quot;dataSource&quot; ref=&quot;dataSource&quot; /&gt;
+ *     &lt;property name=&quot;querySql&quot;
+ *         value=&quot;SELECT category, code, label FROM m_code ORDER BY category, sort_order&quot; /&gt;
+ *     &lt;property name=&quot;categoryColumn&quot; value=&quot;category&quot; /&gt;
+ *     &lt;property name=&quot;valueColumn&quot; value=&quot;code&quot; /&gt;
+ *     &lt;property name=&quot;labelColumn&quot; value=&quot;label&quot; /&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean id=&quot;CL_ORDERSTATUS&quot;
+ *     class=&quot;org.terasoluna.gfw.common.codelist.category.CategorizedCodeList&quot;&gt;
+ *     &lt;property name=&quot;loader&quot; ref=&quot;codeListLoader&quot; /&gt;
+ *     &lt;property name=&quot;category&quot; value=&quot;ORDER_STATUS&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class JdbcCategorizedCodeListLoader implements InitializingBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(
+            JdbcCategorizedCodeListLoader.class);
+
+    /**
+     * Database access information
+     */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * SQL Query to access the database
+     */
+    private String querySql;
+
+    /**
+     * name of the column holding the category
+     */
+    private String categoryColumn;
+
+    /**
+     * name of the column holding the value part of the codelist
+     */
+    private String valueColumn;
+
+    /**
+     * name of the column holding the label part of the codelist
+     */
+    private String labelColumn;
+
+    /**
+     * Lazy initialization flag
+     */
+    private boolean lazyInit = false;
+
+    /**
+     * interval in milliseconds in which a refresh of a view reuses the last reload (default 5000)
+     */
+    private long minReloadInterval = 5000L;
+
+    /**
+     * codelists per category. {@code null} if not loaded yet.
+     */
+    private volatile Map<String, Map<String, String>> categories;
+
+    /**
+     * Lock to allow only one loading at a time.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * number of loads started
+     */
+    private final AtomicLong startedLoads = new AtomicLong();
+
+    /**
+     * number of the last load completed
+     */
+    private volatile long completedLoad = 0L;
+
+    /**
+     * {@link System#nanoTime()} when the last load completed was started
+     */
+    private volatile long completedLoadStartedAt;
+
+    /**
+     * whether the current thread is refreshing the views after loading
+     */
+    private final ThreadLocal<Boolean> refreshingCodeLists = new ThreadLocal<Boolean>();
+
+    /**
+     * views refreshed after loading
+     */
+    private final List<CategorizedCodeList> codeLists =
+            new CopyOnWriteArrayList<CategorizedCodeList>();
+
+    /**
+     * Returns the codelist of the category.
+     * <p>
+     * If the categories have not been loaded yet (lazyInit is set to true), loads them.
+     * </p>
+     * @param category category
+     * @return codelist of the category. empty if the category does not exist
+     */
+    public Map<String, String> getCategory(String category) {
+        Map<String, String> codeList = getCategories().get(category);
+        return (codeList == null) ? Collections.<String, String> emptyMap() : codeList;
+    }
+
+    /**
+     * Returns the codelists of all categories.
+     * <p>
+     * If the categories have not been loaded yet (lazyInit is set to true), loads them.
+     * </p>
+     * @return unmodifiable map of codelists per category
+     */
+    public Map<String, Map<String, String>> getCategories() {
+        Map<String, Map<String, String>> current = categories;
+        if (current == null) {
+            synchronized (refreshLock) {
+                current = categories;
+                if (current == null) {
+                    current = load();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reloads all categories by one query and refreshes the registered codelists.
+     * <p>
+     * While reloading, the previously loaded categories keep being returned.
+     * </p>
+     */
+    public void refresh() {
+        synchronized (refreshLock) {
+            load();
+        }
+        refreshingCodeLists.set(Boolean.TRUE);
+        try {
+            for (CategorizedCodeList codeList : codeLists) {
+                try {
+                    codeList.refresh();
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to refresh codelist. codeListId={}", codeList
+                            .getCodeListId(), e);
+                }
+            }
+        } finally {
+            refreshingCodeLists.remove();
+        }
+    }
+
+    /**
+     * Reloads all categories and returns the codelist of the category.
+     * <p>
+     * If the last reload started within {@code minReloadInterval} before this method is called, or
+     * another reload is started after this method is called and completes while waiting for the
+     * lock, its result is returned without reloading again.
+     * </p>
+     * @param category category
+     * @return codelist of the category. empty if the category does not exist
+     */
+    Map<String, String> reloadCategory(String category) {
+        // loads numbered up to this may have started before this call
+        long requested = startedLoads.get();
+        long now = System.nanoTime();
+        synchronized (refreshLock) {
+            if (completedLoad <= requested && (completedLoad == 0L
+                    || now - completedLoadStartedAt >= TimeUnit.MILLISECONDS.toNanos(
+                            minReloadInterval))) {
+                load();
+            }
+        }
+        return getCategory(category);
+    }
+
+    /**
+     * Returns whether the current thread is refreshing the views in {@link #refresh()}.
+     * @return {@code true} if refreshing the views after loading
+     */
+    boolean isRefreshingCodeLists() {
+        return Boolean.TRUE.equals(refreshingCodeLists.get());
+    }
+
+    /**
+     * Registers the view refreshed after reloading.
+     * @param codeList view of a category
+     */
+    void addCodeList(CategorizedCodeList codeList) {
+        codeLists.add(codeList);
+    }
+
+    /**
+     * Checks the properties and loads the categories unless lazyInit is set to true.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.hasLength(querySql, "querySql is empty");
+        Assert.hasLength(categoryColumn, "categoryColumn is empty");
+        Assert.hasLength(valueColumn, "valueColumn is empty");
+        Assert.hasLength(labelColumn, "labelColumn is empty");
+        Assert.notNull(jdbcTemplate, "jdbcTemplate (or dataSource) is empty");
+        Assert.isTrue(minReloadInterval >= 0, "minReloadInterval should not be negative");
+        if (!lazyInit) {
+            synchronized (refreshLock) {
+                load();
+            }
+        }
+    }
+
+    /**
+     * Fetches all categories and publishes them. Must be called with the lock held.
+     * @return loaded categories
+     */
+    private Map<String, Map<String, String>> load() {
+        long number = startedLoads.incrementAndGet();
+        long startedAt = System.nanoTime();
+        long start = System.currentTimeMillis();
+        Map<String, Map<String, String>> rows = new LinkedHashMap<String, Map<String, String>>();
+        int[] rowCount = new int[1];
+        jdbcTemplate.query(querySql, rs -> {
+            rowCount[0]++;
+            Object category = rs.getObject(categoryColumn);
+            Object key = rs.getObject(valueColumn);
+            Object value = rs.getObject(labelColumn);
+            if (category != null && key != null && value != null) {
+                Map<String, String> codeList = rows.computeIfAbsent(category.toString(),
+                        c -> new LinkedHashMap<String, String>());
+                codeList.put(key.toString(), value.toString());
+            }
+        });
+        Map<String, Map<String, String>> loaded = new LinkedHashMap<String, Map<String, String>>();
+        for (Map.Entry<String, Map<String, String>> e : rows.entrySet()) {
+            loaded.put(e.getKey(), CompactCodeListMap.copyOf(e.getValue()));
+        }
+        Map<String, Map<String, String>> published = Collections.unmodifiableMap(loaded);
+        categories = published;
+        completedLoadStartedAt = startedAt;
+        completedLoad = number;
+        if (logger.isDebugEnabled()) {
+            logger.debug("loaded {} categories from {} rows in {} ms", published.size(),
+                    rowCount[0], System.currentTimeMillis() - start);
+        }
+        return published;
+    }
+
+    /**
+     * Sets DataSource.
+     * @param dataSource DataSource instance for fetching code list records
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate. Use this to set 'fetch size' of streaming the rows.
+     * @param jdbcTemplate JdbcTemplate instance for fetching code list records
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Setter method for querySql
+     * @param querySql sql for fetching code list records of all categories from database
+     */
+    public void setQuerySql(String querySql) {
+        this.querySql = querySql;
+    }
+
+    /**
+     * Setter method for categoryColumn
+     * @param categoryColumn column name for fetch a category
+     */
+    public void setCategoryColumn(String categoryColumn) {
+        this.categoryColumn = categoryColumn;
+    }
+
+    /**
+     * Setter method for valueColumn
+     * @param valueColumn column name for fetch code value
+     */
+    public void setValueColumn(String valueColumn) {
+        this.valueColumn = valueColumn;
+    }
+
+    /**
+     * Setter method for labelColumn
+     * @param labelColumn column name for fetch a code label
+     */
+    public void setLabelColumn(String labelColumn) {
+        this.labelColumn = labelColumn;
+    }
+
+    /**
+     * Sets the interval in which a refresh of a {@link CategorizedCodeList} reuses the last reload
+     * instead of reloading all categories. {@link #refresh()} of this loader always reloads.
+     * @param minReloadInterval interval in milliseconds (default 5000). {@code 0} to reload on
+     *        every refresh
+     */
+    public void setMinReloadInterval(long minReloadInterval) {
+        this.minReloadInterval = minReloadInterval;
+    }
+
+    /**
+     * Flag that determines whether the categories need to be eager fetched.
+     * @param lazyInit flag
+     */
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
+    }
+}
@@ -15,9 +15,13 @@
  */
 package org.terasoluna.gfw.common.codelist.i18n;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,10 +30,14 @@ import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.terasoluna.gfw.common.codelist.AbstractCodeList;
+import org.terasoluna.gfw.common.codelist.CompactCodeListMap;
 
 /**
  * Abstract extended implementation of {@link AbstractCodeList}. Adds Internationalization support
  * to {@link AbstractCodeList} by implementing {I18nCodeList} interface.
+ * <p>
+ * Resolved locales are cached per requested locale, up to {@value #MAX_RESOLVED_LOCALES} locales.
+ * </p>
  */
 public abstract class AbstractI18nCodeList extends AbstractCodeList
         implements I18nCodeList, InitializingBean {
@@ -39,11 +47,23 @@ public abstract class AbstractI18nCodeList extends AbstractCodeList
      */
     private static final Logger logger = LoggerFactory.getLogger(AbstractI18nCodeList.class);
 
+    /**
+     * Maximum number of cached resolved locales.
+     * @since 5.12.0
+     */
+    protected static final int MAX_RESOLVED_LOCALES = 256;
+
     /**
      * The locales codelist available.
      */
     private Set<Locale> codeListLocales;
 
+    /**
+     * Cache of resolved locales keyed by requested locale.
+     */
+    private final ConcurrentMap<Locale, Locale> resolvedLocales =
+            new ConcurrentHashMap<Locale, Locale>();
+
     /**
      * The default locale as fallback.<br>
      * if extend this and override default value of fallbackTo, affects {@link #afterPropertiesSet
@@ -60,6 +80,7 @@ public abstract class AbstractI18nCodeList extends AbstractCodeList
     public void setFallbackTo(Locale fallbackTo) {
         Assert.notNull(fallbackTo, "fallbackTo must not be null");
         this.fallbackTo = fallbackTo;
+        resolvedLocales.clear();
     }
 
     /**
@@ -102,6 +123,8 @@ public abstract class AbstractI18nCodeList extends AbstractCodeList
     public void afterPropertiesSet() {
         codeListLocales = registerCodeListLocales();
         Assert.notNull(codeListLocales, "codeListLocales must not null.");
+        // resolutions cached here do not depend on fallbackTo, so clearing once is enough
+        resolvedLocales.clear();
 
         if (fallbackTo == null) {
             Locale defaultLocale = Locale.getDefault();
@@ -123,10 +146,31 @@ public abstract class AbstractI18nCodeList extends AbstractCodeList
      * <li>Returns the language part of the specified locale if defined corresponding codelist.</li>
      * <li>Returns the {@code fallbackTo} locale.</li>
      * </ol>
+     * <p>
+     * The resolved locale is cached, so the resolution is performed only once per locale.
+     * </p>
      * @param locale locale for codelist
      * @return resolved locale
      */
     protected Locale resolveLocale(Locale locale) {
+        Locale resolved = resolvedLocales.get(locale);
+        if (resolved != null) {
+            return resolved;
+        }
+        resolved = doResolveLocale(locale);
+        // fallbackTo is null while resolving it in afterPropertiesSet
+        if (resolved != null && resolvedLocales.size() < MAX_RESOLVED_LOCALES) {
+            resolvedLocales.putIfAbsent(locale, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Resolves the locale without the cache.
+     * @param locale locale for codelist
+     * @return resolved locale
+     */
+    private Locale doResolveLocale(Locale locale) {
         if (codeListLocales.contains(locale)) {
             logger.debug("Found codelist for specified locale '{}'.", locale);
             return locale;
@@ -146,6 +190,25 @@ public abstract class AbstractI18nCodeList extends AbstractCodeList
         return fallbackTo;
     }
 
+    /**
+     * Creates the immutable rows of the codelist table.
+     * <p>
+     * Each row is copied to {@link CompactCodeListMap}, so that returning a row is just a lookup.
+     * </p>
+     * @param rowMap rows keyed by locale
+     * @return immutable rows keyed by locale
+     * @since 5.12.0
+     */
+    protected static Map<Locale, Map<String, String>> toImmutableRows(
+            Map<Locale, Map<String, String>> rowMap) {
+        Map<Locale, Map<String, String>> rows = new LinkedHashMap<Locale, Map<String, String>>(
+                rowMap.size() * 2);
+        for (Map.Entry<Locale, Map<String, String>> e : rowMap.entrySet()) {
+            rows.put(e.getKey(), CompactCodeListMap.copyOf(e.getValue()));
+        }
+        return Collections.unmodifiableMap(rows);
+    }
+
     /**
      * Register the locales codelist available.
      * <p>
@@ -15,6 +15,7 @@
  */
 package org.terasoluna.gfw.common.codelist.i18n;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -33,8 +34,8 @@ import com.google.common.collect.Tables;
  * Simple implementation of {@link I18nCodeList}<br>
  * <p>
  * {@link I18nCodeList} has a table of codelist.<br>
- * Each row is a codelist for each language and represented as <strong>unmodifiable linked hash
- * maps</strong>.<br>
+ * Each row is a codelist for each language and represented as <strong>unmodifiable ordered
+ * maps</strong> ({@link org.terasoluna.gfw.common.codelist.CompactCodeListMap}).<br>
  * The key of rows is {@link Locale}.The key of columns is {@link String}(code). <br>
  * There are 3 ways to express the following table.
  * </p>
@@ -220,9 +221,9 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements Initiali
     private static final Logger logger = LoggerFactory.getLogger(SimpleI18nCodeList.class);
 
     /**
-     * codelist table.
+     * codelist table. immutable rows keyed by locale.
      */
-    Table<Locale, String, String> codeListTable;
+    Map<Locale, Map<String, String>> codeListRows;
 
     /**
      * supplier to return a {@link LinkedHashMap} object.
@@ -254,7 +255,7 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements Initiali
                 table.put(locale, value, label);
             }
         }
-        this.codeListTable = Tables.unmodifiableTable(table);
+        setTable(table);
     }
 
     /**
@@ -276,7 +277,7 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements Initiali
                 table.put(locale, value, label);
             }
         }
-        this.codeListTable = Tables.unmodifiableTable(table);
+        setTable(table);
     }
 
     /**
@@ -298,7 +299,7 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements Initiali
                 table.put(locale, value, label);
             }
         }
-        this.codeListTable = Tables.unmodifiableTable(table);
+        setTable(table);
     }
 
     /**
@@ -307,29 +308,30 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements Initiali
      */
     @Override
     protected Map<String, String> obtainMap(Locale locale) {
-        return codeListTable.row(resolveLocale(locale));
+        Map<String, String> row = codeListRows.get(resolveLocale(locale));
+        return (row == null) ? Collections.<String, String> emptyMap() : row;
     }
 
     /**
      * This method is called after the properties of the codelist are set.
      * <p>
-     * check whether codeListTable is initialized.
+     * check whether codelist table is initialized.
      * </p>
      * @see org.terasoluna.gfw.common.codelist.i18n.AbstractI18nCodeList#afterPropertiesSet()
      */
     @Override
     public void afterPropertiesSet() {
-        Assert.notNull(codeListTable, "codeListTable is not initialized!");
+        Assert.notNull(codeListRows, "codeListTable is not initialized!");
         super.afterPropertiesSet();
     }
 
     /**
-     * Register locales of {@link #codeListTable}.
+     * Register locales of {@link #codeListRows}.
      * @see org.terasoluna.gfw.common.codelist.i18n.AbstractI18nCodeList#registerCodeListLocales()
      */
     @Override
     protected Set<Locale> registerCodeListLocales() {
-        return codeListTable.rowKeySet();
+        return codeListRows.keySet();
     }
 
     /**
@@ -339,11 +341,19 @@ public class SimpleI18nCodeList extends AbstractI18nCodeList implements Initiali
      * </p>
      */
     private void checkTable() {
-        if (codeListTable != null) {
+        if (codeListRows != null) {
             logger.warn("Codelist table has already built, but re-build");
         }
     }
 
+    /**
+     * set the rows of the table.
+     * @param table table
+     */
+    private void setTable(Table<Locale, String, String> table) {
+        this.codeListRows = toImmutableRows(table.rowMap());
+    }
+
     /**
      * create table which consist of {@link LinkedHashMap} factory.
      * @return table
@@ -15,26 +15,30 @@
  */
 package org.terasoluna.gfw.common.codelist.i18n;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.CodeListChangeEvent;
+import org.terasoluna.gfw.common.codelist.CodeListChangeListener;
+import org.terasoluna.gfw.common.codelist.CodeListSnapshot;
 import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
-import com.google.common.base.Supplier;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
-import com.google.common.collect.Tables;
+import org.terasoluna.gfw.common.codelist.VersionedCodeList;
 
 /**
  * Reloadable implementation of {@link I18nCodeList}<br>
  * <p>
  * {@link I18nCodeList} has a table of codelist.<br>
- * Each row is a codelist for each language and represented as <strong>unmodifiable linked hash
- * maps</strong>.<br>
+ * Each row is a codelist for each language and represented as <strong>unmodifiable ordered
+ * maps</strong> ({@link org.terasoluna.gfw.common.codelist.CompactCodeListMap}).<br>
  * The key of rows is {@link Locale}. <br>
  * </p>
  * <p>
@@ -74,11 +78,16 @@ import com.google.common.collect.Tables;
  *     &lt;property name=&quot;labelColumn&quot; value=&quot;label&quot; /&gt;
  * &lt;/bean&gt;
  * </pre>
+ * <p>
+ * The codelists of each locale which implement {@link VersionedCodeList} are observed, and the
+ * table is rebuilt when one of them is changed. The table is not rebuilt if none of them is
+ * changed since the last build.
+ * </p>
  *
  * @since 5.4.2
  */
 public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
-        implements ReloadableI18nCodeList, InitializingBean {
+        implements ReloadableI18nCodeList, VersionedCodeList, InitializingBean {
     /**
      * Logger.
      */
@@ -86,9 +95,39 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
             LoggerFactory.getLogger(SimpleReloadableI18nCodeList.class);
 
     /**
-     * Codelist table.
+     * Codelist table with its version. It is replaced as a whole on each refresh.
+     */
+    private volatile TableSnapshot snapshot;
+
+    /**
+     * Lock to allow only one building of the codelist table at a time.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * Listeners notified when the content is changed.
+     */
+    private final List<CodeListChangeListener> changeListeners =
+            new CopyOnWriteArrayList<CodeListChangeListener>();
+
+    /**
+     * whether the current thread is refreshing the codelists of each locale in
+     * {@link #refresh(boolean)}
      */
-    private Table<Locale, String, String> codeListTable;
+    private final ThreadLocal<Boolean> refreshingRows = new ThreadLocal<Boolean>();
+
+    /**
+     * Listener to rebuild the table when a codelist of a locale is changed.
+     * <p>
+     * The table not built yet is built on the first access instead. The changes made by the
+     * recursive refresh of this codelist are ignored, as the table is rebuilt once after it.
+     * </p>
+     */
+    private final CodeListChangeListener rowChangeListener = event -> {
+        if (snapshot != null && !Boolean.TRUE.equals(refreshingRows.get())) {
+            refresh(false);
+        }
+    };
 
     /**
      * Codelist for each locale.
@@ -100,17 +139,6 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
      */
     private boolean lazyInit = false;
 
-    /**
-     * Supplier to return a {@link LinkedHashMap} object.
-     */
-    private static final Supplier<LinkedHashMap<String, String>> LINKED_HASH_MAP_SUPPLIER =
-            new Supplier<LinkedHashMap<String, String>>() {
-                @Override
-                public LinkedHashMap<String, String> get() {
-                    return Maps.newLinkedHashMap();
-                }
-            };
-
     /**
      * Set ({@link ReloadableCodeList}) for each locale.
      * <p>
@@ -130,6 +158,15 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
         this.lazyInit = lazyInit;
     }
 
+    /**
+     * Returns whether the codelist is loaded on the first access instead of initialization.
+     * @return lazy initialization flag
+     * @since 5.12.0
+     */
+    public boolean isLazyInit() {
+        return lazyInit;
+    }
+
     /**
      * Reloads the codelist.
      * @see org.terasoluna.gfw.common.codelist.ReloadableCodeList#refresh()
@@ -142,31 +179,107 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
 
     /**
      * Reloads the codelist recursively.
+     * <p>
+     * The table is rebuilt only if one of the codelists of each locale is changed since the last
+     * build. If the content of the rebuilt table is changed, the version is incremented and the
+     * listeners are notified. A recursive refresh rebuilds the table once after refreshing all
+     * codelists of each locale.
+     * </p>
      * @param recursive whether or not reload recursively.
      * @see org.terasoluna.gfw.common.codelist.i18n.ReloadableI18nCodeList#refresh(boolean)
      */
     @Override
     public void refresh(boolean recursive) {
+        CodeListChangeEvent event;
+        synchronized (refreshLock) {
+            event = doRefresh(recursive);
+        }
+        // notify outside of the lock not to block the other refreshing
+        fireCodeListChanged(event);
+    }
+
+    /**
+     * Rebuilds the table if needed. Must be called with the lock held.
+     * @param recursive whether or not reload recursively.
+     * @return event to be notified. {@code null} if the content is not changed
+     */
+    private CodeListChangeEvent doRefresh(boolean recursive) {
         if (recursive) {
-            for (ReloadableCodeList codeList : codeLists.values()) {
-                codeList.refresh();
+            refreshingRows.set(Boolean.TRUE);
+            try {
+                for (ReloadableCodeList codeList : codeLists.values()) {
+                    codeList.refresh();
+                }
+            } finally {
+                refreshingRows.remove();
             }
         }
 
+        TableSnapshot current = snapshot;
+        long[] rowVersions = rowVersions();
+        if (current != null && rowVersions != null
+                && Arrays.equals(current.rowVersions, rowVersions)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("codelists of each locale are not changed codeListId={}",
+                        getCodeListId());
+            }
+            return null;
+        }
+
         if (logger.isDebugEnabled()) {
             logger.debug("refresh codelist codeListId={}", getCodeListId());
         }
-        Table<Locale, String, String> table = createTable();
+        Map<Locale, Map<String, String>> rowMap = new LinkedHashMap<Locale, Map<String, String>>();
         for (Map.Entry<Locale, ReloadableCodeList> e : codeLists.entrySet()) {
-            Locale locale = e.getKey();
-            Map<String, String> row = e.getValue().asMap();
-            for (Map.Entry<String, String> re : row.entrySet()) {
-                String value = re.getKey();
-                String label = re.getValue();
-                table.put(locale, value, label);
-            }
+            rowMap.put(e.getKey(), e.getValue().asMap());
         }
-        this.codeListTable = Tables.unmodifiableTable(table);
+        // rows of AbstractReloadableCodeList are shared without copying
+        Map<Locale, Map<String, String>> rows = toImmutableRows(rowMap);
+        // versions may be changed while building the table, in which case build again next time
+        long[] builtRowVersions = Arrays.equals(rowVersions, rowVersions()) ? rowVersions : null;
+
+        long contentHash = contentHashOf(rows);
+        if (current != null && current.contentHash == contentHash
+                && sameContent(current.rows, rows)) {
+            snapshot = new TableSnapshot(current.rows, current.version, contentHash,
+                    builtRowVersions);
+            return null;
+        }
+        long version = (current == null) ? 1L : current.version + 1;
+        snapshot = new TableSnapshot(rows, version, contentHash, builtRowVersions);
+        return new CodeListChangeEvent(this, version, contentHash);
+    }
+
+    /**
+     * Returns the version of the codelist table.
+     * @see org.terasoluna.gfw.common.codelist.VersionedCodeList#getVersion()
+     * @since 5.12.0
+     */
+    @Override
+    public long getVersion() {
+        TableSnapshot current = snapshot;
+        return (current == null) ? 0L : current.version;
+    }
+
+    /**
+     * Adds the listener notified when the content is changed.
+     * @see org.terasoluna.gfw.common.codelist.VersionedCodeList#addChangeListener(org.terasoluna.gfw.common.codelist.CodeListChangeListener)
+     * @since 5.12.0
+     */
+    @Override
+    public void addChangeListener(CodeListChangeListener listener) {
+        Assert.notNull(listener, "listener must not be null");
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes the listener notified when the content is changed.
+     * @see org.terasoluna.gfw.common.codelist.VersionedCodeList#removeChangeListener(org.terasoluna.gfw.common.codelist.CodeListChangeListener)
+     * @since 5.12.0
+     */
+    @Override
+    public void removeChangeListener(CodeListChangeListener listener) {
+        changeListeners.remove(listener);
     }
 
     /**
@@ -175,18 +288,30 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
      */
     @Override
     protected Map<String, String> obtainMap(Locale locale) {
-        // If codeListTable is null, that means it is called for the first time
-        // and lazyInit must be set to true
-        if (codeListTable == null) {
-            refresh(true);
+        TableSnapshot current = snapshot;
+        // If snapshot is null, that means it is called for the first time
+        // and lazyInit must be set to true.
+        // Concurrent first callers wait for a single loading instead of loading by themselves.
+        if (current == null) {
+            CodeListChangeEvent event = null;
+            synchronized (refreshLock) {
+                current = snapshot;
+                if (current == null) {
+                    event = doRefresh(true);
+                    current = snapshot;
+                }
+            }
+            fireCodeListChanged(event);
         }
-        return codeListTable.row(resolveLocale(locale));
+        Map<String, String> row = current.rows.get(resolveLocale(locale));
+        return (row == null) ? Collections.<String, String> emptyMap() : row;
     }
 
     /**
      * This method is called after the properties of the codelist are set.
      * <p>
      * check whether codeLists is initialized. <br>
+     * Starts observing the change of codelists of each locale. <br>
      * Checks the lazyInit flag to determine whether the codelist should be refreshed after the
      * properties are set.<br>
      * If lazyInit flag is set to true, the codelist is not refreshed immediately. <br>
@@ -200,6 +325,12 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
         Assert.notEmpty(codeLists, "codeLists is not initialized!");
         super.afterPropertiesSet();
 
+        for (ReloadableCodeList codeList : codeLists.values()) {
+            if (codeList instanceof VersionedCodeList) {
+                ((VersionedCodeList) codeList).addChangeListener(rowChangeListener);
+            }
+        }
+
         if (!lazyInit) {
             refresh();
         }
@@ -215,13 +346,102 @@ public class SimpleReloadableI18nCodeList extends AbstractI18nCodeList
     }
 
     /**
-     * Create table which consist of {@link LinkedHashMap} factory.
-     * @return table
+     * Returns the versions of codelists of each locale.
+     * @return versions. {@code null} if one of codelists is not {@link VersionedCodeList} or not
+     *         loaded yet
+     */
+    private long[] rowVersions() {
+        long[] versions = new long[codeLists.size()];
+        int i = 0;
+        for (ReloadableCodeList codeList : codeLists.values()) {
+            if (!(codeList instanceof VersionedCodeList)) {
+                return null;
+            }
+            long version = ((VersionedCodeList) codeList).getVersion();
+            if (version == 0L) {
+                return null;
+            }
+            versions[i++] = version;
+        }
+        return versions;
+    }
+
+    /**
+     * Calculates the hash of the content of the table.
+     * @param rows rows of codelist table
+     * @return content hash
+     */
+    private static long contentHashOf(Map<Locale, Map<String, String>> rows) {
+        long hash = 1L;
+        for (Map.Entry<Locale, Map<String, String>> e : rows.entrySet()) {
+            hash = 31 * hash + e.getKey().hashCode();
+            hash = 31 * hash + CodeListSnapshot.contentHashOf(e.getValue());
+        }
+        return hash;
+    }
+
+    /**
+     * Returns whether the specified tables have the same rows in the same order.
+     * @param rows1 rows of codelist table
+     * @param rows2 rows of codelist table
+     * @return {@code true} if both have the same rows in the same order
+     */
+    private static boolean sameContent(Map<Locale, Map<String, String>> rows1,
+            Map<Locale, Map<String, String>> rows2) {
+        if (!rows1.keySet().equals(rows2.keySet())) {
+            return false;
+        }
+        for (Map.Entry<Locale, Map<String, String>> e : rows1.entrySet()) {
+            if (!CodeListSnapshot.sameContent(e.getValue(), rows2.get(e.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Notifies the listeners that the content is changed.
+     * @param event change event. nothing is notified if {@code null}
      */
-    private Table<Locale, String, String> createTable() {
-        Map<Locale, Map<String, String>> backingMap = Maps.newLinkedHashMap();
-        Table<Locale, String, String> table =
-                Tables.newCustomTable(backingMap, LINKED_HASH_MAP_SUPPLIER);
-        return table;
+    private void fireCodeListChanged(CodeListChangeEvent event) {
+        if (event == null) {
+            return;
+        }
+        for (CodeListChangeListener listener : changeListeners) {
+            try {
+                listener.codeListChanged(event);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify the change of codelist. codeListId={}, listener={}",
+                        getCodeListId(), listener, e);
+            }
+        }
+    }
+
+    /**
+     * Codelist table with its version.
+     */
+    private static final class TableSnapshot {
+
+        /**
+         * immutable rows of the table keyed by locale
+         */
+        private final Map<Locale, Map<String, String>> rows;
+
+        private final long version;
+
+        private final long contentHash;
+
+        /**
+         * versions of codelists of each locale used to build the table
+         */
+        private final long[] rowVersions;
+
+        TableSnapshot(Map<Locale, Map<String, String>> rows, long version, long contentHash,
+                long[] rowVersions) {
+            this.rows = rows;
+            this.version = version;
+            this.contentHash = contentHash;
+            this.rowVersions = rowVersions;
+        }
     }
 }
@@ -0,0 +1,395 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable index of a codelist for reverse lookup and prefix search.
+ * <p>
+ * The index has the following structures built from a snapshot of the codelist.
+ * </p>
+ * <ul>
+ * <li>label to codes map, to find codes by label in O(1)</li>
+ * <li>sorted arrays of codes and labels with segment trees of their positions, to find the first k
+ * entries by prefix in O((k + 1) log n)</li>
+ * </ul>
+ * <p>
+ * If the index is built as normalized, codes, labels and search keys are normalized by
+ * {@link Normalizer.Form#NFKC NFKC}, so that full-width and half-width characters are matched
+ * each other (e.g. {@code "ＡＢＣ"} and {@code "ABC"}, {@code "ｶﾞ"} and {@code "ガ"}).
+ * </p>
+ * <p>
+ * Results of searching are ordered by the order of the codelist.
+ * </p>
+ * @since 5.12.0
+ * @see IndexedCodeList
+ */
+public final class CodeListIndex {
+
+    /**
+     * whether keys are normalized
+     */
+    private final boolean normalized;
+
+    /**
+     * codes in the order of the codelist
+     */
+    private final String[] codes;
+
+    /**
+     * labels in the order of the codelist
+     */
+    private final String[] labels;
+
+    /**
+     * positions of entries per label
+     */
+    private final Map<String, int[]> positionsByLabel;
+
+    /**
+     * sorted search keys of codes
+     */
+    private final String[] sortedCodeKeys;
+
+    /**
+     * positions of entries corresponding to {@link #sortedCodeKeys}
+     */
+    private final int[] sortedCodePositions;
+
+    /**
+     * segment tree to find the minimum position in a range of {@link #sortedCodePositions}
+     */
+    private final int[] codePositionTree;
+
+    /**
+     * sorted search keys of labels
+     */
+    private final String[] sortedLabelKeys;
+
+    /**
+     * positions of entries corresponding to {@link #sortedLabelKeys}
+     */
+    private final int[] sortedLabelPositions;
+
+    /**
+     * segment tree to find the minimum position in a range of {@link #sortedLabelPositions}
+     */
+    private final int[] labelPositionTree;
+
+    private CodeListIndex(Map<String, String> map, boolean normalized) {
+        this.normalized = normalized;
+        int size = map.size();
+        this.codes = new String[size];
+        this.labels = new String[size];
+        int i = 0;
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            codes[i] = e.getKey();
+            labels[i] = e.getValue();
+            i++;
+        }
+
+        String[] codeKeys = new String[size];
+        String[] labelKeys = new String[size];
+        Map<String, List<Integer>> labelPositions = new HashMap<String, List<Integer>>();
+        for (int p = 0; p < size; p++) {
+            codeKeys[p] = key(codes[p]);
+            labelKeys[p] = key(labels[p]);
+            if (labelKeys[p] != null) {
+                labelPositions.computeIfAbsent(labelKeys[p], k -> new ArrayList<Integer>(1))
+                        .add(p);
+            }
+        }
+
+        Map<String, int[]> positions = new HashMap<String, int[]>(labelPositions.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : labelPositions.entrySet()) {
+            positions.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.positionsByLabel = positions;
+
+        this.sortedCodePositions = sortedPositions(codeKeys);
+        this.sortedCodeKeys = sortedKeys(codeKeys, sortedCodePositions);
+        this.sortedLabelPositions = sortedPositions(labelKeys);
+        this.sortedLabelKeys = sortedKeys(labelKeys, sortedLabelPositions);
+        this.codePositionTree = minPositionTree(sortedCodePositions);
+        this.labelPositionTree = minPositionTree(sortedLabelPositions);
+    }
+
+    /**
+     * Builds an index of the codelist map.
+     * @param map codelist map
+     * @return index
+     */
+    public static CodeListIndex of(Map<String, String> map) {
+        return of(map, false);
+    }
+
+    /**
+     * Builds an index of the codelist map.
+     * @param map codelist map
+     * @param normalized whether codes and labels are normalized by NFKC
+     * @return index
+     */
+    public static CodeListIndex of(Map<String, String> map, boolean normalized) {
+        Assert.notNull(map, "map must not be null");
+        return new CodeListIndex(map, normalized);
+    }
+
+    /**
+     * Returns the first code which has the specified label.
+     * @param label label
+     * @return code. {@code null} if not found
+     */
+    public String findCodeByLabel(String label) {
+        int[] positions = positionsByLabel.get(key(label));
+        return (positions == null) ? null : codes[positions[0]];
+    }
+
+    /**
+     * Returns the codes which have the specified label.
+     * @param label label
+     * @return codes in the order of the codelist. empty if not found
+     */
+    public List<String> findCodesByLabel(String label) {
+        int[] positions = positionsByLabel.get(key(label));
+        if (positions == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<String>(positions.length);
+        for (int p : positions) {
+            result.add(codes[p]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns the entries whose code starts with the specified prefix.
+     * @param prefix prefix of code
+     * @return entries in the order of the codelist
+     */
+    public Map<String, String> findByCodePrefix(String prefix) {
+        return findByCodePrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the entries whose code starts with the specified prefix.
+     * @param prefix prefix of code
+     * @param limit maximum number of entries
+     * @return entries in the order of the codelist
+     */
+    public Map<String, String> findByCodePrefix(String prefix, int limit) {
+        return findByPrefix(sortedCodeKeys, sortedCodePositions, codePositionTree, prefix,
+                limit);
+    }
+
+    /**
+     * Returns the entries whose label starts with the specified prefix.
+     * @param prefix prefix of label
+     * @return entries in the order of the codelist
+     */
+    public Map<String, String> findByLabelPrefix(String prefix) {
+        return findByLabelPrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the entries whose label starts with the specified prefix.
+     * @param prefix prefix of label
+     * @param limit maximum number of entries
+     * @return entries in the order of the codelist
+     */
+    public Map<String, String> findByLabelPrefix(String prefix, int limit) {
+        return findByPrefix(sortedLabelKeys, sortedLabelPositions, labelPositionTree, prefix,
+                limit);
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return number of entries
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Returns whether codes and labels are normalized.
+     * @return {@code true} if normalized by NFKC
+     */
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Normalizes the string for search keys.
+     * @param value string
+     * @return NFKC normalized string
+     */
+    public static String normalize(String value) {
+        return (value == null) ? null : Normalizer.normalize(value, Normalizer.Form.NFKC);
+    }
+
+    /**
+     * Returns the first entries in the order of the codelist among the matched entries.
+     * <p>
+     * The matched entries are in a range of the sorted keys. If all of them are returned, their
+     * positions are just sorted. Otherwise the entries are taken in the order of positions by
+     * splitting the range at the minimum position, so that only the returned entries are visited.
+     * </p>
+     */
+    private Map<String, String> findByPrefix(String[] sortedKeys, int[] positions, int[] tree,
+            String prefix, int limit) {
+        Assert.notNull(prefix, "prefix must not be null");
+        Assert.isTrue(limit > 0, "limit should be greater than 0");
+        String key = key(prefix);
+        int from = lowerBound(sortedKeys, key);
+        int to = prefixUpperBound(sortedKeys, key, from);
+        if (to - from <= limit) {
+            int[] matched = Arrays.copyOfRange(positions, from, to);
+            // restore the order of the codelist
+            Arrays.sort(matched);
+            Map<String, String> result = new LinkedHashMap<String, String>(matched.length * 2);
+            for (int p : matched) {
+                result.put(codes[p], labels[p]);
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        Map<String, String> result = new LinkedHashMap<String, String>(limit * 2);
+        // ranges {from, to, index of the minimum position} ordered by the minimum position
+        PriorityQueue<int[]> ranges = new PriorityQueue<int[]>(Comparator.comparingInt(
+                (int[] r) -> positions[r[2]]));
+        ranges.add(new int[] { from, to, minPositionIndex(positions, tree, from, to) });
+        while (result.size() < limit) {
+            int[] range = ranges.poll();
+            int min = range[2];
+            result.put(codes[positions[min]], labels[positions[min]]);
+            if (range[0] < min) {
+                ranges.add(new int[] { range[0], min, minPositionIndex(positions, tree, range[0],
+                        min) });
+            }
+            if (min + 1 < range[1]) {
+                ranges.add(new int[] { min + 1, range[1], minPositionIndex(positions, tree, min
+                        + 1, range[1]) });
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private String key(String value) {
+        return normalized ? normalize(value) : value;
+    }
+
+    private static int lowerBound(String[] sortedKeys, String key) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKeys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the end of the keys which start with the prefix, from the lower bound of the prefix.
+     */
+    private static int prefixUpperBound(String[] sortedKeys, String key, int from) {
+        int low = from;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKeys[mid].startsWith(key)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Builds a segment tree whose nodes hold the index of the minimum position in their ranges.
+     * Leaves are at {@code n + i}.
+     */
+    private static int[] minPositionTree(int[] positions) {
+        int n = positions.length;
+        int[] tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = minIndex(positions, tree[2 * i], tree[2 * i + 1]);
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the index of the minimum position in the range {@code [from, to)}.
+     */
+    private static int minPositionIndex(int[] positions, int[] tree, int from, int to) {
+        int n = positions.length;
+        int min = from;
+        for (int l = from + n, r = to + n; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                min = minIndex(positions, min, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                min = minIndex(positions, min, tree[--r]);
+            }
+        }
+        return min;
+    }
+
+    private static int minIndex(int[] positions, int i, int j) {
+        return (positions[i] <= positions[j]) ? i : j;
+    }
+
+    /**
+     * Returns positions of non-null keys sorted by keys.
+     */
+    private static int[] sortedPositions(String[] keys) {
+        List<Integer> positions = new ArrayList<Integer>(keys.length);
+        for (int p = 0; p < keys.length; p++) {
+            if (keys[p] != null) {
+                positions.add(p);
+            }
+        }
+        positions.sort(Comparator.comparing((Integer p) -> keys[p])
+                .thenComparing(Comparator.naturalOrder()));
+        return positions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String[] sortedKeys(String[] keys, int[] sortedPositions) {
+        String[] sorted = new String[sortedPositions.length];
+        for (int i = 0; i < sortedPositions.length; i++) {
+            sorted[i] = keys[sortedPositions[i]];
+        }
+        return sorted;
+    }
+}
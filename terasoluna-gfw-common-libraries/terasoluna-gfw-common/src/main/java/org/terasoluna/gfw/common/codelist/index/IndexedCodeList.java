@@ -0,0 +1,219 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.index;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.AbstractCodeList;
+import org.terasoluna.gfw.common.codelist.CodeList;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.VersionedCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.I18nCodeList;
+
+/**
+ * {@link CodeList} which provides {@link CodeListIndex} of the delegated codelist.
+ * <p>
+ * The index is built on first access and rebuilt only when the snapshot of the delegated codelist
+ * is changed. Whether the snapshot is changed is determined as follows.
+ * </p>
+ * <ul>
+ * <li>{@link VersionedCodeList} : the version is changed</li>
+ * <li>{@link ReloadableCodeList} : the instance of the map returned by {@code asMap()} is
+ * changed</li>
+ * <li>otherwise : never changed</li>
+ * </ul>
+ * <p>
+ * If the delegated codelist is {@link I18nCodeList}, the index is built per localized map, so that
+ * locales resolved to the same row share an index. Up to {@value #MAX_LOCALIZED_INDEXES} indexes
+ * are kept, and the least recently used one is discarded beyond that.
+ * </p>
+ * @since 5.12.0
+ */
+public class IndexedCodeList extends AbstractCodeList {
+
+    /**
+     * Maximum number of indexes of localized maps.
+     */
+    public static final int MAX_LOCALIZED_INDEXES = 32;
+
+    /**
+     * delegated codelist
+     */
+    private final CodeList codeList;
+
+    /**
+     * whether codes and labels are normalized
+     */
+    private final boolean normalized;
+
+    /**
+     * index of {@link CodeList#asMap()}
+     */
+    private volatile IndexHolder defaultIndex;
+
+    /**
+     * indexes of {@link I18nCodeList#asMap(Locale)} keyed by the identity of the localized map, in
+     * access order
+     */
+    private final Map<MapIdentity, CodeListIndex> localizedIndexes = Collections.synchronizedMap(
+            new LinkedHashMap<MapIdentity, CodeListIndex>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<MapIdentity, CodeListIndex> eldest) {
+                    return size() > MAX_LOCALIZED_INDEXES;
+                }
+            });
+
+    /**
+     * Constructor.
+     * @param codeList delegated codelist
+     */
+    public IndexedCodeList(CodeList codeList) {
+        this(codeList, false);
+    }
+
+    /**
+     * Constructor.
+     * @param codeList delegated codelist
+     * @param normalized whether codes and labels are normalized by NFKC
+     */
+    public IndexedCodeList(CodeList codeList, boolean normalized) {
+        Assert.notNull(codeList, "codeList must not be null");
+        this.codeList = codeList;
+        this.normalized = normalized;
+    }
+
+    /**
+     * Returns the codelist of the delegated codelist.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#asMap()
+     */
+    @Override
+    public Map<String, String> asMap() {
+        return codeList.asMap();
+    }
+
+    /**
+     * Returns the index of the delegated codelist.
+     * @return index
+     */
+    public CodeListIndex getIndex() {
+        long version = currentVersion();
+        IndexHolder holder = defaultIndex;
+        if (holder == null || holder.isStale(version, codeList)) {
+            holder = new IndexHolder(version, codeList.asMap(), normalized);
+            defaultIndex = holder;
+        }
+        return holder.index;
+    }
+
+    /**
+     * Returns the index of the localized codelist.
+     * @param locale locale of codelist
+     * @return index
+     * @throws IllegalStateException if the delegated codelist is not {@link I18nCodeList}
+     */
+    public CodeListIndex getIndex(Locale locale) {
+        Assert.notNull(locale, "locale must not be null");
+        Assert.state(codeList instanceof I18nCodeList,
+                "codeList must be I18nCodeList to get localized index");
+        // a refreshed codelist returns new maps, so the index of a map is never stale
+        Map<String, String> map = ((I18nCodeList) codeList).asMap(locale);
+        MapIdentity key = new MapIdentity(map);
+        CodeListIndex index = localizedIndexes.get(key);
+        if (index == null) {
+            index = CodeListIndex.of(map, normalized);
+            localizedIndexes.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the delegated codelist.
+     * @return delegated codelist
+     */
+    public CodeList getCodeList() {
+        return codeList;
+    }
+
+    /**
+     * Returns the version of the delegated codelist.
+     * <p>
+     * The version is read before the map so that an index built from a newer map is rebuilt once
+     * more instead of an index built from an older map being kept.
+     * </p>
+     * @return version. {@code 0} if not versioned
+     */
+    private long currentVersion() {
+        return (codeList instanceof VersionedCodeList) ? ((VersionedCodeList) codeList)
+                .getVersion() : 0L;
+    }
+
+    /**
+     * Index with the snapshot from which it was built.
+     */
+    private static final class IndexHolder {
+
+        private final long version;
+
+        private final Map<String, String> map;
+
+        private final CodeListIndex index;
+
+        IndexHolder(long version, Map<String, String> map, boolean normalized) {
+            this.version = version;
+            this.map = map;
+            this.index = CodeListIndex.of(map, normalized);
+        }
+
+        boolean isStale(long currentVersion, CodeList codeList) {
+            if (codeList instanceof VersionedCodeList) {
+                return version != currentVersion;
+            }
+            if (codeList instanceof ReloadableCodeList) {
+                return map != codeList.asMap();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Key which compares maps by identity.
+     */
+    private static final class MapIdentity {
+
+        private final Map<String, String> map;
+
+        MapIdentity(Map<String, String> map) {
+            this.map = map;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof MapIdentity && ((MapIdentity) obj).map == map;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(map);
+        }
+    }
+}
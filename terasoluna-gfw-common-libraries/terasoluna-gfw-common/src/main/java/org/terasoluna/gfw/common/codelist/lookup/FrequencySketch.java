@@ -0,0 +1,131 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.lookup;
+
+/**
+ * Count-Min sketch with 4-bit counters to estimate the access frequency of keys.
+ * <p>
+ * Each key is counted in 4 counters and its frequency is the minimum of them, up to 15. All
+ * counters are halved when the number of increments reaches 10 times the maximum size of the
+ * cache, so that the frequency reflects recent accesses. Not thread safe.
+ * </p>
+ * @since 5.12.0
+ */
+final class FrequencySketch {
+
+    /**
+     * seeds to derive 4 counters from a hash
+     */
+    private static final int[] SEEDS = {0x97CB3127, 0xB5A4D3E1, 0x8E1E2A31, 0xC2B2AE35};
+
+    /**
+     * mask to halve all 16 counters of a long
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * 16 counters per long
+     */
+    private final long[] table;
+
+    /**
+     * mask of the index of table
+     */
+    private final int tableMask;
+
+    /**
+     * number of increments to halve the counters
+     */
+    private final int sampleSize;
+
+    /**
+     * number of increments since the last halving
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     * @param maximumSize maximum number of keys of the cache
+     */
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 28)) - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(10L * Math.max(maximumSize, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the estimated frequency of the key.
+     * @param key key
+     * @return frequency from 0 to 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int h = indexHash(hash, i);
+            int count = (int) ((table[h & tableMask] >>> offset(h)) & 0xFL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the frequency of the key.
+     * @param key key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int h = indexHash(hash, i);
+            int index = h & tableMask;
+            int offset = offset(h);
+            if (((table[index] >>> offset) & 0xFL) != 0xFL) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves all counters.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private static int indexHash(int hash, int i) {
+        int h = (hash + SEEDS[i]) * SEEDS[i];
+        return h ^ (h >>> 17);
+    }
+
+    private static int offset(int h) {
+        // counter in the long chosen by the upper bits, independent of the index
+        return (h >>> 28) << 2;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.lookup;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.AbstractCodeList;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+
+/**
+ * Codelist which looks up each code from a database on demand, for reference data too large to
+ * be loaded fully.
+ * <p>
+ * {@link #querySql} selects the rows of the codes given by the named parameter {@code codes}, e.g.
+ * {@code SELECT code_id, code_name FROM m_item WHERE code_id IN (:codes)}. The looked up labels
+ * are held in a bounded cache with a frequency aware eviction policy, and the codes which do not
+ * exist are cached as well (negative caching).
+ * </p>
+ * <p>
+ * {@link #asMap()} returns a view supporting only lookups such as {@code get} and
+ * {@code containsKey}, which is enough for {@code @ExistInCodeList} and rendering labels. The
+ * codelist cannot be iterated, and {@code size()} of the view is the number of the existing codes
+ * cached at the moment, not the number of the rows in the database. To render many labels in a
+ * page, preload them by {@link #getAll(Collection)}, which loads the codes not cached by a query
+ * per {@link #setBatchSize(int) batchSize} codes.
+ * </p>
+ * <p>
+ * {@link #refresh()} discards all cached entries. The labels looked up by a query started before
+ * the refresh are not cached.
+ * </p>
+ * @since 5.12.0
+ */
+public class JdbcLookupCodeList extends AbstractCodeList
+        implements ReloadableCodeList, InitializingBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(JdbcLookupCodeList.class);
+
+    /**
+     * name of the parameter of the codes in the query
+     */
+    private static final String CODES_PARAMETER = "codes";
+
+    /**
+     * Database access information
+     */
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * SQL Query to look up the codes
+     */
+    private String querySql;
+
+    /**
+     * name of the column holding the value part of the codelist
+     */
+    private String valueColumn;
+
+    /**
+     * name of the column holding the label part of the codelist
+     */
+    private String labelColumn;
+
+    /**
+     * maximum number of cached codes (default 10000)
+     */
+    private int maximumSize = 10000;
+
+    /**
+     * maximum number of codes looked up by a query (default 100)
+     */
+    private int batchSize = 100;
+
+    /**
+     * cache of labels. empty for the codes which do not exist.
+     */
+    private TinyLfuCache<String, Optional<String>> cache;
+
+    /**
+     * number of refreshes. guarded by {@link #refreshLock} for writes.
+     */
+    private volatile long generation;
+
+    /**
+     * lock to cache the loaded labels and to refresh exclusively
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * view of the codelist
+     */
+    private final Map<String, String> lookupMap = new LookupMap();
+
+    /**
+     * number of hits
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * number of misses
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * number of queries
+     */
+    private final LongAdder loadCount = new LongAdder();
+
+    /**
+     * Returns the view of the codelist which looks up codes on demand.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#asMap()
+     */
+    @Override
+    public Map<String, String> asMap() {
+        return lookupMap;
+    }
+
+    /**
+     * Returns the label of the code.
+     * @param code code
+     * @return label. {@code null} if the code does not exist
+     */
+    public String getLabel(String code) {
+        if (code == null) {
+            return null;
+        }
+        Optional<String> label = cache.get(code);
+        if (label != null) {
+            hitCount.increment();
+            return label.orElse(null);
+        }
+        missCount.increment();
+        return load(Collections.singletonList(code)).get(code);
+    }
+
+    /**
+     * Returns the labels of the codes, loading the codes not cached in batches.
+     * @param codes codes
+     * @return labels of the existing codes in the order of the given codes
+     */
+    public Map<String, String> getAll(Collection<String> codes) {
+        Map<String, String> labels = new LinkedHashMap<String, String>();
+        List<String> missingCodes = new ArrayList<String>();
+        for (String code : new LinkedHashSet<String>(codes)) {
+            if (code == null) {
+                continue;
+            }
+            Optional<String> label = cache.get(code);
+            if (label == null) {
+                missCount.increment();
+                missingCodes.add(code);
+                labels.put(code, null);
+            } else {
+                hitCount.increment();
+                if (label.isPresent()) {
+                    labels.put(code, label.get());
+                }
+            }
+        }
+        if (!missingCodes.isEmpty()) {
+            Map<String, String> loaded = load(missingCodes);
+            for (String code : missingCodes) {
+                String label = loaded.get(code);
+                if (label == null) {
+                    labels.remove(code);
+                } else {
+                    labels.put(code, label);
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     * @return statistics
+     */
+    public LookupCodeListStats getStats() {
+        return new LookupCodeListStats(hitCount.sum(), missCount.sum(), loadCount.sum(), cache
+                .evictionCount(), cache.size());
+    }
+
+    /**
+     * Discards all cached entries.
+     * @see org.terasoluna.gfw.common.codelist.ReloadableCodeList#refresh()
+     */
+    @Override
+    public void refresh() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("refresh codelist codeListId={}", getCodeListId());
+        }
+        synchronized (refreshLock) {
+            generation++;
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Checks the properties and creates the cache.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.hasLength(querySql, "querySql is empty");
+        Assert.hasLength(valueColumn, "valueColumn is empty");
+        Assert.hasLength(labelColumn, "labelColumn is empty");
+        Assert.notNull(jdbcTemplate, "jdbcTemplate (or dataSource) is empty");
+        Assert.isTrue(maximumSize > 0, "maximumSize should be greater than 0");
+        Assert.isTrue(batchSize > 0, "batchSize should be greater than 0");
+        this.cache = new TinyLfuCache<String, Optional<String>>(maximumSize);
+    }
+
+    /**
+     * Looks up the codes from the database and caches them unless refreshed meanwhile.
+     * @param codes codes not cached
+     * @return labels of the existing codes
+     */
+    private Map<String, String> load(List<String> codes) {
+        long loadGeneration = generation;
+        Map<String, String> loaded = new HashMap<String, String>();
+        for (int from = 0; from < codes.size(); from += batchSize) {
+            List<String> batch = codes.subList(from, Math.min(from + batchSize, codes.size()));
+            loadCount.increment();
+            jdbcTemplate.query(querySql, Collections.singletonMap(CODES_PARAMETER, batch), rs -> {
+                Object key = rs.getObject(valueColumn);
+                Object value = rs.getObject(labelColumn);
+                if (key != null && value != null) {
+                    loaded.put(key.toString(), value.toString());
+                }
+            });
+        }
+        synchronized (refreshLock) {
+            if (generation == loadGeneration) {
+                for (String code : codes) {
+                    cache.put(code, Optional.ofNullable(loaded.get(code)));
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("looked up codelist codeListId={}, requested={}, found={}",
+                    getCodeListId(), codes.size(), loaded.size());
+        }
+        return loaded;
+    }
+
+    /**
+     * Sets DataSource.
+     * @param dataSource DataSource instance for looking up code list records
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate.
+     * @param jdbcTemplate JdbcTemplate instance for looking up code list records
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Setter method for querySql
+     * @param querySql sql for looking up code list records by the named parameter {@code codes}
+     */
+    public void setQuerySql(String querySql) {
+        this.querySql = querySql;
+    }
+
+    /**
+     * Setter method for valueColumn
+     * @param valueColumn column name for fetch code value
+     */
+    public void setValueColumn(String valueColumn) {
+        this.valueColumn = valueColumn;
+    }
+
+    /**
+     * Setter method for labelColumn
+     * @param labelColumn column name for fetch a code label
+     */
+    public void setLabelColumn(String labelColumn) {
+        this.labelColumn = labelColumn;
+    }
+
+    /**
+     * Sets the maximum number of cached codes, including the ones which do not exist.
+     * @param maximumSize maximum number of cached codes (default 10000)
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Sets the maximum number of codes looked up by a query.
+     * @param batchSize maximum number of codes in the IN list of a query (default 100)
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * View of the codelist supporting only lookups.
+     */
+    private final class LookupMap extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            return (key instanceof String) ? getLabel((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        /**
+         * Returns the number of the existing codes cached at the moment.
+         * @return number of the cached codes which exist
+         */
+        @Override
+        public int size() {
+            int size = 0;
+            for (Optional<String> label : cache.values()) {
+                if (label.isPresent()) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Returns whether no existing code is cached at the moment.
+         * @return {@code true} if no existing code is cached
+         */
+        @Override
+        public boolean isEmpty() {
+            for (Optional<String> label : cache.values()) {
+                if (label.isPresent()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Not supported because the codelist is not loaded fully.
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            throw new UnsupportedOperationException(
+                    "codelist looked up on demand cannot be iterated. codeListId="
+                            + getCodeListId());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return "JdbcLookupCodeList [codeListId=" + getCodeListId() + "]";
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.lookup;
+
+/**
+ * Statistics of {@link JdbcLookupCodeList}. Immutable.
+ * @since 5.12.0
+ */
+public final class LookupCodeListStats {
+
+    /**
+     * number of lookups answered by the cache
+     */
+    private final long hitCount;
+
+    /**
+     * number of lookups not answered by the cache
+     */
+    private final long missCount;
+
+    /**
+     * number of queries executed
+     */
+    private final long loadCount;
+
+    /**
+     * number of entries evicted from the cache
+     */
+    private final long evictionCount;
+
+    /**
+     * number of entries in the cache
+     */
+    private final int cacheSize;
+
+    /**
+     * Constructor.
+     * @param hitCount number of lookups answered by the cache
+     * @param missCount number of lookups not answered by the cache
+     * @param loadCount number of queries executed
+     * @param evictionCount number of entries evicted from the cache
+     * @param cacheSize number of entries in the cache
+     */
+    public LookupCodeListStats(long hitCount, long missCount, long loadCount, long evictionCount,
+            int cacheSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.evictionCount = evictionCount;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Returns the number of lookups answered by the cache, including the ones of absent codes.
+     * @return number of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups not answered by the cache.
+     * @return number of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of queries executed.
+     * @return number of queries
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Returns the number of entries evicted from the cache.
+     * @return number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     * @return number of entries
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Returns the ratio of hits to all lookups.
+     * @return hit rate. {@code 1.0} if not looked up yet
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LookupCodeListStats [hitCount=" + hitCount + ", missCount=" + missCount
+                + ", loadCount=" + loadCount + ", evictionCount=" + evictionCount
+                + ", cacheSize=" + cacheSize + "]";
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.lookup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded concurrent cache with a frequency aware eviction policy in the manner of W-TinyLFU.
+ * <p>
+ * A new entry is put into a small FIFO window (1% of the maximum size). An entry overflowing the
+ * window is admitted to the main space only if its estimated access frequency is higher than the
+ * one of a victim sampled from the main space, and otherwise discarded. So a scan over many cold
+ * keys does not flush the hot keys.
+ * </p>
+ * <p>
+ * Reads are lock free. Accesses are recorded to the {@link FrequencySketch} only when the lock is
+ * not contended, and dropped otherwise, which is enough to estimate the frequency of hot keys.
+ * </p>
+ * @param <K> type of keys
+ * @param <V> type of values
+ * @since 5.12.0
+ */
+final class TinyLfuCache<K, V> {
+
+    /**
+     * number of entries sampled to find the victim
+     */
+    private static final int SAMPLE_SIZE = 8;
+
+    /**
+     * all entries in the window and the main space
+     */
+    private final ConcurrentHashMap<K, V> data;
+
+    /**
+     * keys in the window in insertion order
+     */
+    private final ArrayDeque<K> window = new ArrayDeque<K>();
+
+    /**
+     * keys in the main space, indexed for random sampling
+     */
+    private final List<K> mainKeys = new ArrayList<K>();
+
+    /**
+     * positions of keys in {@link #mainKeys}
+     */
+    private final Map<K, Integer> mainPositions = new HashMap<K, Integer>();
+
+    /**
+     * maximum number of entries of the window
+     */
+    private final int windowMaximum;
+
+    /**
+     * maximum number of entries of the main space
+     */
+    private final int mainMaximum;
+
+    /**
+     * estimated access frequency
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * lock for writes and the sketch
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * random for sampling, used under the lock
+     */
+    private final Random random = new Random();
+
+    /**
+     * number of evicted entries
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param maximumSize maximum number of entries
+     */
+    TinyLfuCache(int maximumSize) {
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.mainMaximum = Math.max(0, maximumSize - windowMaximum);
+        this.data = new ConcurrentHashMap<K, V>(Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Returns the cached value and records the access.
+     * @param key key
+     * @return value. {@code null} if not cached
+     */
+    V get(K key) {
+        V value = data.get(key);
+        if (lock.tryLock()) {
+            try {
+                sketch.increment(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Caches the value. It may be evicted immediately if it is not admitted.
+     * @param key key
+     * @param value value
+     */
+    void put(K key, V value) {
+        lock.lock();
+        try {
+            if (data.replace(key, value) != null) {
+                return;
+            }
+            data.put(key, value);
+            window.addLast(key);
+            if (window.size() > windowMaximum) {
+                admit(window.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            mainKeys.clear();
+            mainPositions.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return number of entries
+     */
+    int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns the cached values. The view is weakly consistent like the one of
+     * {@link ConcurrentHashMap}.
+     * @return unmodifiable view of the cached values
+     */
+    Collection<V> values() {
+        return Collections.unmodifiableCollection(data.values());
+    }
+
+    /**
+     * Returns the number of evicted entries.
+     * @return number of evicted entries
+     */
+    long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Moves the candidate overflowing the window to the main space or discards it. Must be called
+     * with the lock held.
+     * @param candidate key overflowing the window
+     */
+    private void admit(K candidate) {
+        if (mainKeys.size() < mainMaximum) {
+            addMain(candidate);
+            return;
+        }
+        if (mainMaximum == 0) {
+            evict(candidate);
+            return;
+        }
+        K victim = sampleVictim();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            removeMain(victim);
+            evict(victim);
+            addMain(candidate);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    /**
+     * Returns the least frequent key among the sampled keys of the main space.
+     * @return victim
+     */
+    private K sampleVictim() {
+        K victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        int size = mainKeys.size();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            K key = mainKeys.get(random.nextInt(size));
+            int frequency = sketch.frequency(key);
+            if (frequency < victimFrequency) {
+                victim = key;
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    private void addMain(K key) {
+        mainPositions.put(key, mainKeys.size());
+        mainKeys.add(key);
+    }
+
+    private void removeMain(K key) {
+        int position = mainPositions.remove(key);
+        K last = mainKeys.remove(mainKeys.size() - 1);
+        if (position < mainKeys.size()) {
+            mainKeys.set(position, last);
+            mainPositions.put(last, position);
+        }
+    }
+
+    private void evict(K key) {
+        data.remove(key);
+        evictionCount.increment();
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * Codelist file mapped into memory.
+ * <p>
+ * The entries of the codelist are kept outside of the Java heap, so a huge codelist does not
+ * increase the heap and GC pauses. The file is mapped read only and can be shared by JVMs on the
+ * same host through the page cache.
+ * </p>
+ * <p>
+ * The file consists of the following sections. All numbers are big endian.
+ * </p>
+ * <ol>
+ * <li>header : magic, format version, number of entries, offset of the index (4 bytes each)</li>
+ * <li>data : entries in the order of the codelist. each entry is length of code, code, length of
+ * label and label. strings are encoded in UTF-8.</li>
+ * <li>index : pairs of hash of code and offset of the entry sorted by hash (4 bytes each)</li>
+ * </ol>
+ * <p>
+ * Lookup by code is a binary search over the index. The size of the file is limited to 2GB.<br>
+ * Instances are immutable and thread safe.
+ * </p>
+ * @since 5.12.0
+ * @see MappedCodeListFileWriter
+ */
+public final class MappedCodeListFile {
+
+    /**
+     * magic number ("TCL1")
+     */
+    static final int MAGIC = 0x54434C31;
+
+    /**
+     * version of the file format
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * size of the header
+     */
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * size of an entry of the index
+     */
+    static final int INDEX_ENTRY_SIZE = 8;
+
+    /**
+     * mapped file. only absolute methods are used, so it is shared between threads.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * number of entries
+     */
+    private final int count;
+
+    /**
+     * offset of the index
+     */
+    private final int indexOffset;
+
+    /**
+     * map view
+     */
+    private final Map<String, String> map = new MappedMap();
+
+    /**
+     * SHA-256 digest of the file calculated on the first use
+     */
+    private volatile byte[] digest;
+
+    private MappedCodeListFile(ByteBuffer buffer, int count, int indexOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Maps the codelist file into memory.
+     * @param file codelist file written by {@link MappedCodeListFileWriter}
+     * @return mapped file
+     * @throws IOException if failed to read the file
+     * @throws IllegalStateException if the file is not a valid codelist file
+     */
+    public static MappedCodeListFile open(Path file) throws IOException {
+        Assert.notNull(file, "file must not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("invalid size of codelist file. file=" + file
+                        + ", size=" + size);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IllegalStateException("not a codelist file or unsupported version. file="
+                        + file);
+            }
+            int count = buffer.getInt(8);
+            int indexOffset = buffer.getInt(12);
+            if (count < 0 || indexOffset < HEADER_SIZE || (long) indexOffset
+                    + (long) count * INDEX_ENTRY_SIZE != size) {
+                throw new IllegalStateException("codelist file is broken. file=" + file);
+            }
+            return new MappedCodeListFile(buffer, count, indexOffset);
+        }
+    }
+
+    /**
+     * Returns the unmodifiable map view of the codelist.
+     * <p>
+     * Iteration is in the order of entries written. {@code get} and {@code containsKey} search the
+     * index.
+     * </p>
+     * @return map view
+     */
+    public Map<String, String> asMap() {
+        return map;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the SHA-256 digest of the whole file.
+     * <p>
+     * Calculated on the first call by reading the mapped file directly, without decoding entries
+     * onto the heap. Files with the same digest have the same content.
+     * </p>
+     * @return digest. must not be modified
+     */
+    byte[] digest() {
+        byte[] current = digest;
+        if (current == null) {
+            MessageDigest md;
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            // duplicate not to change the position of the shared buffer
+            md.update(buffer.duplicate().clear());
+            current = md.digest();
+            digest = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the mapped file whose map view is the specified map.
+     * @param map map
+     * @return mapped file. {@code null} if the map is not a map view of a mapped file
+     */
+    static MappedCodeListFile of(Map<String, String> map) {
+        return (map instanceof MappedMap) ? ((MappedMap) map).file() : null;
+    }
+
+    /**
+     * Hash of code stored in the index.
+     * @param code code
+     * @return hash
+     */
+    static int hash(String code) {
+        int h = code.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the offset of the entry of the code.
+     * @param code code
+     * @return offset. {@code -1} if not found
+     */
+    private int find(String code) {
+        int hash = hash(code);
+        // lower bound of the hash
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (hashAt(mid) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        byte[] codeBytes = null;
+        for (int i = low; i < count && hashAt(i) == hash; i++) {
+            if (codeBytes == null) {
+                codeBytes = code.getBytes(StandardCharsets.UTF_8);
+            }
+            int offset = buffer.getInt(indexOffset + i * INDEX_ENTRY_SIZE + 4);
+            if (matches(offset, codeBytes)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private int hashAt(int i) {
+        return buffer.getInt(indexOffset + i * INDEX_ENTRY_SIZE);
+    }
+
+    private boolean matches(int offset, byte[] codeBytes) {
+        if (buffer.getInt(offset) != codeBytes.length) {
+            return false;
+        }
+        int start = offset + 4;
+        for (int i = 0; i < codeBytes.length; i++) {
+            if (buffer.get(start + i) != codeBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the string at the offset.
+     * @param offset offset of the length of the string
+     * @return string
+     */
+    private String readString(int offset) {
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unmodifiable map view of the file.
+     */
+    private final class MappedMap extends AbstractMap<String, String> {
+
+        private final Set<Map.Entry<String, String>> entrySet = new EntrySet();
+
+        MappedCodeListFile file() {
+            return MappedCodeListFile.this;
+        }
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int offset = find((String) key);
+            if (offset < 0) {
+                return null;
+            }
+            return readString(offset + 4 + buffer.getInt(offset));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String) && find((String) key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return entrySet;
+        }
+    }
+
+    /**
+     * Entries in the order of the data section.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int index = 0;
+
+                private int offset = HEADER_SIZE;
+
+                @Override
+                public boolean hasNext() {
+                    return index < count;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (index >= count) {
+                        throw new NoSuchElementException();
+                    }
+                    String code = readString(offset);
+                    offset += 4 + buffer.getInt(offset);
+                    String label = readString(offset);
+                    offset += 4 + buffer.getInt(offset);
+                    index++;
+                    return new AbstractMap.SimpleImmutableEntry<String, String>(code, label);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.mapped;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * Writer of {@link MappedCodeListFile}.
+ * <p>
+ * Entries are written to a temporary file in the same directory, and the temporary file is moved
+ * to the target file atomically by {@link #commit()}. Readers which have already mapped the
+ * previous file keep reading it until they open the file again.<br>
+ * Codes must be unique. If the same code is added twice, {@link #commit()} fails and the target
+ * file is not replaced.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ * @since 5.12.0
+ */
+public final class MappedCodeListFileWriter implements Closeable {
+
+    /**
+     * target file
+     */
+    private final Path file;
+
+    /**
+     * temporary file written until committed
+     */
+    private final Path tempFile;
+
+    /**
+     * channel of the temporary file
+     */
+    private final FileChannel channel;
+
+    /**
+     * output stream to the channel
+     */
+    private final DataOutputStream out;
+
+    /**
+     * hashes of codes in the order of entries
+     */
+    private int[] hashes = new int[1024];
+
+    /**
+     * offsets of entries
+     */
+    private int[] offsets = new int[1024];
+
+    /**
+     * number of entries
+     */
+    private int count = 0;
+
+    /**
+     * current offset in the file
+     */
+    private long position = MappedCodeListFile.HEADER_SIZE;
+
+    /**
+     * whether committed or closed
+     */
+    private boolean finished = false;
+
+    /**
+     * Creates a writer of the file.
+     * @param file target file. parent directories are created if not exist.
+     * @throws IOException if failed to create the temporary file
+     */
+    public MappedCodeListFileWriter(Path file) throws IOException {
+        Assert.notNull(file, "file must not be null");
+        this.file = file.toAbsolutePath();
+        Path dir = this.file.getParent();
+        Files.createDirectories(dir);
+        this.tempFile = Files.createTempFile(dir, this.file.getFileName().toString(), ".tmp");
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(
+                channel), 64 * 1024));
+        out.write(new byte[MappedCodeListFile.HEADER_SIZE]);
+    }
+
+    /**
+     * Adds an entry. Entries are kept in the order they are added.
+     * @param code code
+     * @param label label
+     * @throws IOException if failed to write
+     */
+    public void add(String code, String label) throws IOException {
+        Assert.notNull(code, "code must not be null");
+        Assert.notNull(label, "label must not be null");
+        Assert.state(!finished, "writer is already finished");
+        byte[] codeBytes = code.getBytes(StandardCharsets.UTF_8);
+        byte[] labelBytes = label.getBytes(StandardCharsets.UTF_8);
+        long entrySize = 8L + codeBytes.length + labelBytes.length;
+        if (position + entrySize + (count + 1L) * MappedCodeListFile.INDEX_ENTRY_SIZE
+                > Integer.MAX_VALUE) {
+            throw new IllegalStateException("codelist file exceeds the maximum size. file="
+                    + file);
+        }
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        hashes[count] = MappedCodeListFile.hash(code);
+        offsets[count] = (int) position;
+        out.writeInt(codeBytes.length);
+        out.write(codeBytes);
+        out.writeInt(labelBytes.length);
+        out.write(labelBytes);
+        position += entrySize;
+        count++;
+    }
+
+    /**
+     * Returns the number of entries added.
+     * @return number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes the index and replaces the target file with the written file.
+     * @throws IOException if failed to write or move
+     * @throws IllegalStateException if the same code is added twice
+     */
+    public void commit() throws IOException {
+        Assert.state(!finished, "writer is already finished");
+        finished = true;
+        boolean succeeded = false;
+        try {
+            long indexOffset = position;
+            // sort by hash, and by order of entries among the same hash
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = ((long) hashes[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            out.flush();
+            checkDuplicates(keys);
+            for (long key : keys) {
+                out.writeInt((int) (key >> 32));
+                out.writeInt(offsets[(int) key]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(MappedCodeListFile.HEADER_SIZE);
+            header.putInt(MappedCodeListFile.MAGIC);
+            header.putInt(MappedCodeListFile.FORMAT_VERSION);
+            header.putInt(count);
+            header.putInt((int) indexOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            channel.close();
+            move();
+            succeeded = true;
+        } finally {
+            if (!succeeded) {
+                discard();
+            }
+        }
+    }
+
+    /**
+     * Discards the written entries if not committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            finished = true;
+            discard();
+        }
+    }
+
+    /**
+     * Checks that no code is added twice by comparing codes which have the same hash.
+     * @param keys pairs of hash and index of entries sorted by hash
+     * @throws IOException if failed to read the written entries
+     */
+    private void checkDuplicates(long[] keys) throws IOException {
+        for (int i = 1; i < keys.length; i++) {
+            int hash = (int) (keys[i] >> 32);
+            for (int j = i - 1; j >= 0 && (int) (keys[j] >> 32) == hash; j--) {
+                byte[] code = readCode(offsets[(int) keys[i]]);
+                if (Arrays.equals(code, readCode(offsets[(int) keys[j]]))) {
+                    throw new IllegalStateException("duplicate code in codelist file. file="
+                            + file + ", code=" + new String(code, StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    private byte[] readCode(int offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(length, offset);
+        ByteBuffer code = ByteBuffer.allocate(length.getInt(0));
+        readFully(code, offset + 4L);
+        return code.array();
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IllegalStateException("unexpected end of codelist file. file="
+                        + tempFile);
+            }
+        }
+    }
+
+    private void move() throws IOException {
+        try {
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void discard() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
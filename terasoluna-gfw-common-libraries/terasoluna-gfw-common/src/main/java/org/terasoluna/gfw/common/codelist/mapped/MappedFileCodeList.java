@@ -0,0 +1,247 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.mapped;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.CodeListSnapshot;
+import org.terasoluna.gfw.common.codelist.CodeMembership;
+
+/**
+ * Reloadable codelist backed by a memory-mapped file.
+ * <p>
+ * The codelist is kept in a file written by {@link MappedCodeListFileWriter} and mapped into
+ * memory by {@link MappedCodeListFile}, so a codelist with millions of entries (e.g. postal codes)
+ * lives outside of the Java heap.
+ * </p>
+ * <p>
+ * If {@link #setQuerySql(String) querySql} is set, the results of the query are streamed into the
+ * file on each refresh, in the same manner as
+ * {@link org.terasoluna.gfw.common.codelist.JdbcCodeList} (rows whose value or label is
+ * {@code null} are skipped). The file is replaced atomically.<br>
+ * If not set, the file built by another process (e.g. another JVM on the same host) is just
+ * mapped on each refresh.
+ * </p>
+ * <p>
+ * Changes are detected by the digest of the file, and codes are tested by looking up the mapped
+ * file, so the entries are never decoded onto the heap as a whole on refreshing.
+ * </p>
+ * <p>
+ * <strong>Note that codes must be unique in the query results.</strong> If duplicated, refreshing
+ * fails and the previous codelist is kept. On Windows, the file can not be replaced while it is
+ * mapped, so each JVM should use its own file when building it.
+ * </p>
+ * @since 5.12.0
+ */
+public class MappedFileCodeList extends AbstractReloadableCodeList {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileCodeList.class);
+
+    /**
+     * codelist file
+     */
+    private Path file;
+
+    /**
+     * Database access information
+     */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * SQL Query to access the database
+     */
+    private String querySql;
+
+    /**
+     * name of the column holding the value part of the codelist
+     */
+    private String valueColumn;
+
+    /**
+     * name of the column holding the label part of the codelist
+     */
+    private String labelColumn;
+
+    /**
+     * Builds the file if query is set, and returns the map view of the mapped file.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#retrieveMap()
+     */
+    @Override
+    protected Map<String, String> retrieveMap() {
+        try {
+            if (querySql != null) {
+                buildFile();
+            }
+            MappedCodeListFile mappedFile = MappedCodeListFile.open(file);
+            if (logger.isDebugEnabled()) {
+                logger.debug("mapped codelist file. codeListId={}, file={}, size={}",
+                        getCodeListId(), file, mappedFile.size());
+            }
+            return mappedFile.asMap();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load codelist file. file=" + file, e);
+        }
+    }
+
+    /**
+     * Returns the map view of the mapped file as it is, not to copy it to the heap.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#toSnapshotMap(java.util.Map)
+     */
+    @Override
+    protected Map<String, String> toSnapshotMap(Map<String, String> retrieved) {
+        return retrieved;
+    }
+
+    /**
+     * Returns the hash of the digest of the mapped file instead of reading all entries.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#contentHashOf(java.util.Map)
+     */
+    @Override
+    protected long contentHashOf(Map<String, String> retrieved) {
+        MappedCodeListFile mappedFile = MappedCodeListFile.of(retrieved);
+        if (mappedFile == null) {
+            return CodeListSnapshot.contentHashOf(retrieved);
+        }
+        return ByteBuffer.wrap(mappedFile.digest()).getLong();
+    }
+
+    /**
+     * Compares the digests of the mapped files instead of reading all entries.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#hasSameContent(java.util.Map,
+     *      java.util.Map)
+     */
+    @Override
+    protected boolean hasSameContent(Map<String, String> current,
+            Map<String, String> retrieved) {
+        MappedCodeListFile currentFile = MappedCodeListFile.of(current);
+        MappedCodeListFile retrievedFile = MappedCodeListFile.of(retrieved);
+        if (currentFile == null || retrievedFile == null) {
+            return CodeListSnapshot.sameContent(current, retrieved);
+        }
+        return Arrays.equals(currentFile.digest(), retrievedFile.digest());
+    }
+
+    /**
+     * Returns the membership which looks up the mapped file, not to build it on the heap.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#createMembership(java.util.Map)
+     */
+    @Override
+    protected CodeMembership createMembership(Map<String, String> map) {
+        return CodeMembership.of(map);
+    }
+
+    /**
+     * Streams the results of the query into the file.
+     * @throws IOException if failed to write the file
+     */
+    private void buildFile() throws IOException {
+        try (MappedCodeListFileWriter writer = new MappedCodeListFileWriter(file)) {
+            jdbcTemplate.query(querySql, rs -> {
+                Object key = rs.getObject(valueColumn);
+                Object value = rs.getObject(labelColumn);
+                if (key != null && value != null) {
+                    try {
+                        writer.add(key.toString(), value.toString());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            writer.commit();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Checks whether the properties are set.
+     * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(file, "file is empty");
+        if (querySql != null) {
+            Assert.hasLength(querySql, "querySql is empty");
+            Assert.hasLength(valueColumn, "valueColumn is empty");
+            Assert.hasLength(labelColumn, "labelColumn is empty");
+            Assert.notNull(jdbcTemplate, "jdbcTemplate (or dataSource) is empty");
+        }
+        super.afterPropertiesSet();
+    }
+
+    /**
+     * Sets the codelist file.
+     * @param file codelist file
+     */
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Sets DataSource.
+     * @param dataSource DataSource instance for fetching code list records
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate. Setting 'fetch size' is recommended for a large codelist.
+     * @param jdbcTemplate JdbcTemplate instance for fetching code list records
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the sql for fetching code list records. If not set, the file is not built.
+     * @param querySql sql for fetching code list records from database
+     */
+    public void setQuerySql(String querySql) {
+        this.querySql = querySql;
+    }
+
+    /**
+     * Sets the column name for fetching code value.
+     * @param valueColumn column name for fetch code value
+     */
+    public void setValueColumn(String valueColumn) {
+        this.valueColumn = valueColumn;
+    }
+
+    /**
+     * Sets the column name for fetching code label.
+     * @param labelColumn column name for fetch a code label
+     */
+    public void setLabelColumn(String labelColumn) {
+        this.labelColumn = labelColumn;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+/**
+ * Channel that propagates the invalidation of codelists to all nodes.
+ * <p>
+ * When a codelist is invalidated by {@link #publish(String)} on a node, the subscribed listeners
+ * of all nodes are notified, so that every node refreshes the codelist.
+ * </p>
+ * @since 5.12.0
+ * @see CodeListRefreshCoordinator#setInvalidationChannel(CodeListInvalidationChannel)
+ */
+public interface CodeListInvalidationChannel {
+
+    /**
+     * Publishes the invalidation of the codelist to all nodes.
+     * @param codeListId ID of the invalidated codelist
+     */
+    void publish(String codeListId);
+
+    /**
+     * Subscribes the listener notified when a codelist is invalidated.
+     * @param listener listener
+     */
+    void subscribe(CodeListInvalidationListener listener);
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.ReloadableI18nCodeList;
+
+/**
+ * Coordinator that refreshes {@link ReloadableCodeList}s in the background.
+ * <p>
+ * Each codelist is refreshed on its own schedule by a small pool of daemon threads, so that
+ * request threads never load a codelist by themselves. The following rules are applied for each
+ * codelist.
+ * </p>
+ * <ul>
+ * <li>Only one refresh is in flight at a time. Refresh requests arriving while a refresh is in
+ * flight are coalesced into one more refresh after it.</li>
+ * <li>Readers keep seeing the previously loaded codelist until the refreshed one is
+ * published.</li>
+ * <li>When a refresh fails, the failure is logged and the next attempt is backed off exponentially
+ * from {@code refreshInterval} up to {@code maxBackoff}. The previously loaded codelist is kept.
+ * </li>
+ * </ul>
+ * <p>
+ * If {@link #setCodeLists(Collection) codeLists} is not set, all beans implementing
+ * {@link ReloadableCodeList} in the application context are the targets.
+ * </p>
+ * <p>
+ * If {@link #setInvalidationChannel(CodeListInvalidationChannel) invalidationChannel} is set,
+ * codelists are also refreshed when they are invalidated through the channel. In a multi-node
+ * deployment, {@link #invalidate(String)} on one node makes all nodes refresh the codelist, so
+ * the periodic refresh can be disabled by setting {@code refreshInterval} to {@code 0}.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;codeListRefreshCoordinator&quot;
+ *     class=&quot;org.terasoluna.gfw.common.codelist.refresh.CodeListRefreshCoordinator&quot;&gt;
+ *     &lt;property name=&quot;refreshInterval&quot; value=&quot;300000&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class CodeListRefreshCoordinator
+        implements ApplicationContextAware, InitializingBean, DisposableBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CodeListRefreshCoordinator.class);
+
+    /**
+     * application context
+     */
+    private ApplicationContext applicationContext;
+
+    /**
+     * codelists to be refreshed
+     */
+    private Collection<ReloadableCodeList> codeLists;
+
+    /**
+     * interval between refreshes in milliseconds (default 60000)
+     */
+    private long refreshInterval = 60000L;
+
+    /**
+     * delay before the first refresh in milliseconds (default same as refreshInterval)
+     */
+    private long initialDelay = -1L;
+
+    /**
+     * upper limit of the backed off interval after failures in milliseconds (default 600000)
+     */
+    private long maxBackoff = 600000L;
+
+    /**
+     * number of threads for refreshing (default 1)
+     */
+    private int poolSize = 1;
+
+    /**
+     * whether or not {@link ReloadableI18nCodeList} refreshes its codelists of each locale
+     */
+    private boolean refreshI18nCodeListRecursively = false;
+
+    /**
+     * channel to propagate invalidations of codelists
+     */
+    private CodeListInvalidationChannel invalidationChannel;
+
+    /**
+     * executor for refreshing
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * refresh tasks per codelist ID
+     */
+    private Map<String, RefreshTask> refreshTasks = Collections.emptyMap();
+
+    /**
+     * Starts scheduling the refresh of codelists.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.isTrue(poolSize > 0, "poolSize should be greater than 0");
+        Assert.isTrue(maxBackoff >= refreshInterval,
+                "maxBackoff should be greater than or equal to refreshInterval");
+        if (codeLists == null) {
+            Assert.notNull(applicationContext, "applicationContext is null.");
+            codeLists = BeanFactoryUtils.beansOfTypeIncludingAncestors(applicationContext,
+                    ReloadableCodeList.class, false, false).values();
+        }
+
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(poolSize,
+                createThreadFactory());
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        this.executor = scheduledExecutor;
+
+        Map<String, RefreshTask> tasks = new LinkedHashMap<String, RefreshTask>();
+        for (ReloadableCodeList codeList : codeLists) {
+            tasks.put(codeList.getCodeListId(), new RefreshTask(codeList));
+        }
+        this.refreshTasks = Collections.unmodifiableMap(tasks);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("registered codeList : {}", refreshTasks.keySet());
+        }
+
+        if (invalidationChannel != null) {
+            invalidationChannel.subscribe(this::requestRefresh);
+        }
+
+        long delay = (initialDelay < 0) ? refreshInterval : initialDelay;
+        if (refreshInterval > 0) {
+            for (RefreshTask task : refreshTasks.values()) {
+                task.scheduleNext(delay);
+            }
+        }
+    }
+
+    /**
+     * Stops refreshing codelists.
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Requests refreshing the specified codelist in the background.
+     * <p>
+     * Returns immediately. If a refresh of the codelist is in flight, the codelist is refreshed
+     * once more after it.
+     * </p>
+     * @param codeListId codelist ID
+     * @return {@code true} if the codelist is a target of this coordinator
+     */
+    public boolean requestRefresh(String codeListId) {
+        RefreshTask task = refreshTasks.get(codeListId);
+        if (task == null) {
+            return false;
+        }
+        task.request();
+        return true;
+    }
+
+    /**
+     * Invalidates the specified codelist on all nodes.
+     * <p>
+     * Publishes the invalidation to {@code invalidationChannel}, or requests refreshing the
+     * codelist on this node if {@code invalidationChannel} is not set.
+     * </p>
+     * @param codeListId codelist ID
+     */
+    public void invalidate(String codeListId) {
+        if (invalidationChannel != null) {
+            invalidationChannel.publish(codeListId);
+        } else {
+            requestRefresh(codeListId);
+        }
+    }
+
+    /**
+     * Requests refreshing all codelists in the background.
+     */
+    public void requestRefreshAll() {
+        for (RefreshTask task : refreshTasks.values()) {
+            task.request();
+        }
+    }
+
+    /**
+     * Returns IDs of codelists refreshed by this coordinator.
+     * @return codelist IDs
+     */
+    public Collection<String> getCodeListIds() {
+        return refreshTasks.keySet();
+    }
+
+    /**
+     * Returns the number of consecutive failures of refreshing the specified codelist.
+     * @param codeListId codelist ID
+     * @return number of consecutive failures. {@code 0} if last refresh succeeded or codelist is
+     *         not a target of this coordinator
+     */
+    public int getConsecutiveFailures(String codeListId) {
+        RefreshTask task = refreshTasks.get(codeListId);
+        return (task == null) ? 0 : task.consecutiveFailures;
+    }
+
+    /**
+     * Refreshes the codelist.
+     * @param codeList codelist
+     */
+    protected void refresh(ReloadableCodeList codeList) {
+        if (codeList instanceof ReloadableI18nCodeList) {
+            ((ReloadableI18nCodeList) codeList).refresh(refreshI18nCodeListRecursively);
+        } else {
+            codeList.refresh();
+        }
+    }
+
+    /**
+     * Calculates the delay until the next refresh.
+     * @param consecutiveFailures number of consecutive failures
+     * @return delay in milliseconds
+     */
+    long nextDelay(int consecutiveFailures) {
+        if (consecutiveFailures == 0) {
+            return refreshInterval;
+        }
+        long base = (refreshInterval > 0) ? refreshInterval : 1000L;
+        int shift = Math.min(consecutiveFailures, 30);
+        long delay = base << shift;
+        if (delay <= 0 || delay > maxBackoff) {
+            delay = maxBackoff;
+        }
+        return delay;
+    }
+
+    /**
+     * Creates the thread factory for refreshing threads.
+     * @return thread factory
+     */
+    private CustomizableThreadFactory createThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("codelist-refresh-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * Sets the application context.
+     * @see org.springframework.context.ApplicationContextAware#setApplicationContext(org.springframework.context.ApplicationContext)
+     */
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Sets the codelists to be refreshed.
+     * <p>
+     * Default behavior is to refresh all beans implementing {@link ReloadableCodeList}.
+     * </p>
+     * @param codeLists codelists
+     */
+    public void setCodeLists(Collection<ReloadableCodeList> codeLists) {
+        this.codeLists = new ArrayList<ReloadableCodeList>(codeLists);
+    }
+
+    /**
+     * Sets the interval between refreshes in milliseconds (default 60000).
+     * <p>
+     * If {@code 0} or less, codelists are refreshed only by {@link #requestRefresh(String)}.
+     * </p>
+     * @param refreshInterval interval in milliseconds
+     */
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Sets the delay before the first refresh in milliseconds (default same as refreshInterval).
+     * @param initialDelay delay in milliseconds
+     */
+    public void setInitialDelay(long initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    /**
+     * Sets the upper limit of the interval backed off after failures in milliseconds (default
+     * 600000).
+     * @param maxBackoff upper limit in milliseconds
+     */
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Sets the number of threads for refreshing (default 1).
+     * @param poolSize number of threads
+     */
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Sets the channel to propagate invalidations of codelists among nodes.
+     * @param invalidationChannel invalidation channel
+     * @see JdbcCodeListInvalidationChannel
+     * @see InMemoryCodeListInvalidationChannel
+     */
+    public void setInvalidationChannel(CodeListInvalidationChannel invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+
+    /**
+     * Sets whether or not {@link ReloadableI18nCodeList} refreshes its codelists of each locale
+     * (default false).
+     * <p>
+     * Default is {@code false}, assuming that the codelists of each locale are also targets of this
+     * coordinator.
+     * </p>
+     * @param refreshI18nCodeListRecursively whether or not to refresh recursively
+     */
+    public void setRefreshI18nCodeListRecursively(boolean refreshI18nCodeListRecursively) {
+        this.refreshI18nCodeListRecursively = refreshI18nCodeListRecursively;
+    }
+
+    /**
+     * Refresh state of a codelist.
+     */
+    private final class RefreshTask {
+
+        /**
+         * target codelist
+         */
+        private final ReloadableCodeList codeList;
+
+        /**
+         * whether a refresh is in flight
+         */
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+        /**
+         * whether a refresh is requested
+         */
+        private final AtomicBoolean requested = new AtomicBoolean(false);
+
+        /**
+         * next scheduled refresh
+         */
+        private ScheduledFuture<?> next;
+
+        /**
+         * number of consecutive failures
+         */
+        private volatile int consecutiveFailures = 0;
+
+        RefreshTask(ReloadableCodeList codeList) {
+            this.codeList = codeList;
+        }
+
+        /**
+         * Requests a refresh. Starts it unless a refresh is already in flight.
+         */
+        void request() {
+            requested.set(true);
+            if (inFlight.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // rejected on shutdown
+                    inFlight.set(false);
+                    logger.debug("refresh request is rejected. codeListId={}",
+                            codeList.getCodeListId(), e);
+                }
+            }
+        }
+
+        /**
+         * Refreshes the codelist while requested, then schedules the next refresh.
+         */
+        private void drain() {
+            try {
+                while (requested.getAndSet(false)) {
+                    refreshOnce();
+                }
+            } finally {
+                inFlight.set(false);
+            }
+            // a request may arrive between the end of loop and resetting inFlight
+            if (requested.get()) {
+                request();
+            }
+            if (refreshInterval > 0 || consecutiveFailures > 0) {
+                scheduleNext(nextDelay(consecutiveFailures));
+            }
+        }
+
+        private void refreshOnce() {
+            long start = System.nanoTime();
+            try {
+                refresh(codeList);
+                consecutiveFailures = 0;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("refreshed codelist codeListId={} ({} ms)",
+                            codeList.getCodeListId(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            } catch (RuntimeException e) {
+                int failures = ++consecutiveFailures;
+                logger.warn("Failed to refresh codelist. codeListId={}, consecutiveFailures={},"
+                        + " next attempt in {} ms. The previous codelist is used until then.",
+                        codeList.getCodeListId(), failures, nextDelay(failures), e);
+            }
+        }
+
+        /**
+         * Schedules the next refresh, replacing the currently scheduled one.
+         * @param delay delay in milliseconds
+         */
+        synchronized void scheduleNext(long delay) {
+            if (next != null) {
+                next.cancel(false);
+            }
+            try {
+                next = executor.schedule(this::request, delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // rejected on shutdown
+                logger.debug("refresh schedule is rejected. codeListId={}",
+                        codeList.getCodeListId(), e);
+            }
+        }
+    }
+}
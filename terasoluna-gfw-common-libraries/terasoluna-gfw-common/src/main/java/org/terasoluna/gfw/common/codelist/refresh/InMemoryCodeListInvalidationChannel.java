@@ -0,0 +1,74 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of {@link CodeListInvalidationChannel} which propagates invalidations within the
+ * JVM.
+ * <p>
+ * Listeners are notified synchronously by the thread which published the invalidation. It is
+ * intended for tests and single node deployments.
+ * </p>
+ * @since 5.12.0
+ */
+public class InMemoryCodeListInvalidationChannel implements CodeListInvalidationChannel {
+
+    /**
+     * logger
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(InMemoryCodeListInvalidationChannel.class);
+
+    /**
+     * subscribed listeners
+     */
+    private final List<CodeListInvalidationListener> listeners =
+            new CopyOnWriteArrayList<CodeListInvalidationListener>();
+
+    /**
+     * Notifies the invalidation to the subscribed listeners.
+     * @see org.terasoluna.gfw.common.codelist.refresh.CodeListInvalidationChannel#publish(java.lang.String)
+     */
+    @Override
+    public void publish(String codeListId) {
+        Assert.hasLength(codeListId, "codeListId must not be empty");
+        for (CodeListInvalidationListener listener : listeners) {
+            try {
+                listener.codeListInvalidated(codeListId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify the invalidation of codelist. codeListId={}",
+                        codeListId, e);
+            }
+        }
+    }
+
+    /**
+     * Subscribes the listener.
+     * @see org.terasoluna.gfw.common.codelist.refresh.CodeListInvalidationChannel#subscribe(org.terasoluna.gfw.common.codelist.refresh.CodeListInvalidationListener)
+     */
+    @Override
+    public void subscribe(CodeListInvalidationListener listener) {
+        Assert.notNull(listener, "listener must not be null");
+        listeners.add(listener);
+    }
+}
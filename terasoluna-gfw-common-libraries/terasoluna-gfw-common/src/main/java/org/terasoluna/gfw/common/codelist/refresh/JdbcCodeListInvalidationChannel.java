@@ -0,0 +1,277 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of {@link CodeListInvalidationChannel} which propagates invalidations through a
+ * version table of database.
+ * <p>
+ * {@link #publish(String)} increments the version of the codelist in the version table. Each node
+ * polls the whole version table periodically by one query shared by all codelists, and notifies
+ * the listeners of the codelists whose version is changed since the last poll. The first poll is
+ * used as the baseline and notifies nothing.
+ * </p>
+ * <p>
+ * Default queries assume the following table.
+ * </p>
+ *
+ * <pre>
+ * CREATE TABLE codelist_version (
+ *     codelist_id VARCHAR(128) PRIMARY KEY,
+ *     version BIGINT NOT NULL
+ * );
+ * </pre>
+ *
+ * <pre>
+ * &lt;bean id=&quot;codeListInvalidationChannel&quot;
+ *     class=&quot;org.terasoluna.gfw.common.codelist.refresh.JdbcCodeListInvalidationChannel&quot;&gt;
+ *     &lt;property name=&quot;dataSource&quot; ref=&quot;dataSource&quot; /&gt;
+ *     &lt;property name=&quot;pollInterval&quot; value=&quot;5000&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class JdbcCodeListInvalidationChannel
+        implements CodeListInvalidationChannel, InitializingBean, DisposableBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger =
+            LoggerFactory.getLogger(JdbcCodeListInvalidationChannel.class);
+
+    /**
+     * Database access information
+     */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Query to fetch IDs and versions of all codelists
+     */
+    private String versionQuery = "SELECT codelist_id, version FROM codelist_version";
+
+    /**
+     * Query to increment the version of a codelist
+     */
+    private String incrementQuery =
+            "UPDATE codelist_version SET version = version + 1 WHERE codelist_id = ?";
+
+    /**
+     * Query to insert the version of a codelist
+     */
+    private String insertQuery =
+            "INSERT INTO codelist_version (codelist_id, version) VALUES (?, 1)";
+
+    /**
+     * interval between polls in milliseconds (default 10000)
+     */
+    private long pollInterval = 10000L;
+
+    /**
+     * subscribed listeners
+     */
+    private final List<CodeListInvalidationListener> listeners =
+            new CopyOnWriteArrayList<CodeListInvalidationListener>();
+
+    /**
+     * versions of codelists at the last poll. {@code null} before the first poll.
+     */
+    private Map<String, Long> lastVersions;
+
+    /**
+     * executor for polling
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Starts polling the version table.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(jdbcTemplate, "jdbcTemplate (or dataSource) is empty");
+        Assert.hasLength(versionQuery, "versionQuery is empty");
+        Assert.hasLength(incrementQuery, "incrementQuery is empty");
+        Assert.hasLength(insertQuery, "insertQuery is empty");
+        Assert.isTrue(pollInterval > 0, "pollInterval should be greater than 0");
+
+        CustomizableThreadFactory threadFactory =
+                new CustomizableThreadFactory("codelist-invalidation-");
+        threadFactory.setDaemon(true);
+        executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.scheduleWithFixedDelay(this::pollQuietly, 0, pollInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling the version table.
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Increments the version of the codelist in the version table.
+     * <p>
+     * Inserts the version if the codelist is not registered in the version table.
+     * </p>
+     * @see org.terasoluna.gfw.common.codelist.refresh.CodeListInvalidationChannel#publish(java.lang.String)
+     */
+    @Override
+    public void publish(String codeListId) {
+        Assert.hasLength(codeListId, "codeListId must not be empty");
+        if (jdbcTemplate.update(incrementQuery, codeListId) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(insertQuery, codeListId);
+        } catch (DuplicateKeyException e) {
+            // inserted by another node concurrently
+            jdbcTemplate.update(incrementQuery, codeListId);
+        }
+    }
+
+    /**
+     * Subscribes the listener.
+     * @see org.terasoluna.gfw.common.codelist.refresh.CodeListInvalidationChannel#subscribe(org.terasoluna.gfw.common.codelist.refresh.CodeListInvalidationListener)
+     */
+    @Override
+    public void subscribe(CodeListInvalidationListener listener) {
+        Assert.notNull(listener, "listener must not be null");
+        listeners.add(listener);
+    }
+
+    /**
+     * Polls the version table and notifies the listeners of the changed codelists.
+     */
+    synchronized void poll() {
+        Map<String, Long> versions = new HashMap<String, Long>();
+        jdbcTemplate.query(versionQuery, rs -> {
+            versions.put(rs.getString(1), rs.getLong(2));
+        });
+
+        Map<String, Long> previous = lastVersions;
+        lastVersions = versions;
+        if (previous == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> e : versions.entrySet()) {
+            if (!e.getValue().equals(previous.get(e.getKey()))) {
+                notifyListeners(e.getKey());
+            }
+        }
+    }
+
+    /**
+     * Polls the version table. Any exception is logged not to cancel the periodic polling.
+     */
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to poll the version table of codelists.", e);
+        }
+    }
+
+    private void notifyListeners(String codeListId) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("codelist is invalidated codeListId={}", codeListId);
+        }
+        for (CodeListInvalidationListener listener : listeners) {
+            try {
+                listener.codeListInvalidated(codeListId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify the invalidation of codelist. codeListId={}",
+                        codeListId, e);
+            }
+        }
+    }
+
+    /**
+     * Sets DataSource.
+     * @param dataSource DataSource instance for accessing the version table
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate.
+     * @param jdbcTemplate JdbcTemplate instance for accessing the version table
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the query to fetch IDs and versions of all codelists.
+     * <p>
+     * The first column must be codelist ID and the second column must be version.
+     * </p>
+     * @param versionQuery query to fetch versions
+     */
+    public void setVersionQuery(String versionQuery) {
+        this.versionQuery = versionQuery;
+    }
+
+    /**
+     * Sets the query to increment the version of a codelist. It takes codelist ID as a parameter.
+     * @param incrementQuery query to increment the version
+     */
+    public void setIncrementQuery(String incrementQuery) {
+        this.incrementQuery = incrementQuery;
+    }
+
+    /**
+     * Sets the query to insert the version of a codelist. It takes codelist ID as a parameter.
+     * @param insertQuery query to insert the version
+     */
+    public void setInsertQuery(String insertQuery) {
+        this.insertQuery = insertQuery;
+    }
+
+    /**
+     * Sets the interval between polls in milliseconds (default 10000).
+     * @param pollInterval interval in milliseconds
+     */
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
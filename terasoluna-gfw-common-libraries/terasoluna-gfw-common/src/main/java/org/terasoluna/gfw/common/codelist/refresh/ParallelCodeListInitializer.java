@@ -0,0 +1,302 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.SimpleReloadableI18nCodeList;
+
+/**
+ * Initializer that loads {@link ReloadableCodeList}s concurrently at the startup of the
+ * application context.
+ * <p>
+ * By default, each codelist is loaded one by one in its own {@code afterPropertiesSet}. This
+ * initializer defers the loading of eagerly initialized {@link AbstractReloadableCodeList}s and
+ * {@link SimpleReloadableI18nCodeList}s, and loads them on a bounded pool of threads after all
+ * singletons are instantiated, in the following order.
+ * </p>
+ * <ol>
+ * <li>{@link AbstractReloadableCodeList}s are loaded concurrently.</li>
+ * <li>{@link SimpleReloadableI18nCodeList}s are built from the loaded codelists of each locale
+ * without reloading them.</li>
+ * </ol>
+ * <p>
+ * The startup of the application context completes only after all of them are loaded, and fails
+ * if one of them fails to be loaded, in the same way as they are loaded by themselves. The time
+ * taken to load each codelist is logged and available by {@link #getLoadTimes()}.<br>
+ * Codelists with {@code lazyInit} set to {@code true} are not affected. The {@code lazyInit} flag of
+ * the deferred codelists is set to {@code true} while deferring, and restored to {@code false}
+ * after loading. Codelists created after all singletons are instantiated (e.g. lazy-init beans)
+ * are loaded by themselves as usual.
+ * </p>
+ * <p>
+ * As this class is a {@link BeanPostProcessor}, define it with a {@code static} method when using
+ * Java configuration.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean class=&quot;org.terasoluna.gfw.common.codelist.refresh.ParallelCodeListInitializer&quot;&gt;
+ *     &lt;property name=&quot;parallelism&quot; value=&quot;4&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class ParallelCodeListInitializer
+        implements BeanPostProcessor, SmartInitializingSingleton {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(
+            ParallelCodeListInitializer.class);
+
+    /**
+     * maximum number of codelists loaded at the same time (default 4)
+     */
+    private int parallelism = 4;
+
+    /**
+     * codelists to be loaded
+     */
+    private final List<AbstractReloadableCodeList> codeLists =
+            new ArrayList<AbstractReloadableCodeList>();
+
+    /**
+     * i18n codelists to be built after the codelists are loaded
+     */
+    private final List<SimpleReloadableI18nCodeList> i18nCodeLists =
+            new ArrayList<SimpleReloadableI18nCodeList>();
+
+    /**
+     * whether all singletons are instantiated. codelists are no longer deferred after that.
+     */
+    private volatile boolean singletonsInstantiated = false;
+
+    /**
+     * time taken to load each codelist in milliseconds
+     */
+    private final Map<String, Long> loadTimes =
+            Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
+    /**
+     * Sets the maximum number of codelists loaded at the same time.
+     * <p>
+     * Typically it should not exceed the number of connections of the data source.
+     * </p>
+     * @param parallelism maximum number of codelists loaded at the same time (default 4)
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Defers the loading of eagerly initialized codelists.
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessBeforeInitialization(java.lang.Object,
+     *      java.lang.String)
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean,
+            String beanName) throws BeansException {
+        if (singletonsInstantiated) {
+            // nobody loads the codelist if deferred
+            return bean;
+        }
+        if (bean instanceof AbstractReloadableCodeList) {
+            AbstractReloadableCodeList codeList = (AbstractReloadableCodeList) bean;
+            if (!codeList.isLazyInit()) {
+                codeList.setLazyInit(true);
+                synchronized (codeLists) {
+                    codeLists.add(codeList);
+                }
+            }
+        } else if (bean instanceof SimpleReloadableI18nCodeList) {
+            SimpleReloadableI18nCodeList codeList = (SimpleReloadableI18nCodeList) bean;
+            if (!codeList.isLazyInit()) {
+                codeList.setLazyInit(true);
+                synchronized (i18nCodeLists) {
+                    i18nCodeLists.add(codeList);
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Loads the deferred codelists concurrently and waits for all of them to be loaded.
+     * <p>
+     * The {@code lazyInit} flag of the deferred codelists is restored whether loaded or not.
+     * </p>
+     * @throws IllegalStateException if one of the codelists fails to be loaded
+     * @see org.springframework.beans.factory.SmartInitializingSingleton#afterSingletonsInstantiated()
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Assert.isTrue(parallelism > 0, "parallelism should be greater than 0");
+        singletonsInstantiated = true;
+        List<AbstractReloadableCodeList> targets;
+        List<SimpleReloadableI18nCodeList> i18nTargets;
+        synchronized (codeLists) {
+            targets = new ArrayList<AbstractReloadableCodeList>(codeLists);
+            codeLists.clear();
+        }
+        synchronized (i18nCodeLists) {
+            i18nTargets = new ArrayList<SimpleReloadableI18nCodeList>(i18nCodeLists);
+            i18nCodeLists.clear();
+        }
+        if (targets.isEmpty() && i18nTargets.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("codelist-init-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(parallelism, Math.max(targets.size(), i18nTargets.size())),
+                threadFactory);
+        try {
+            List<LoadTask> tasks = new ArrayList<LoadTask>();
+            for (AbstractReloadableCodeList codeList : targets) {
+                tasks.add(new LoadTask(codeList.getCodeListId(), codeList::asMap));
+            }
+            invokeAll(executor, tasks);
+
+            tasks.clear();
+            for (SimpleReloadableI18nCodeList codeList : i18nTargets) {
+                tasks.add(new LoadTask(codeList.getCodeListId(), () -> codeList.refresh(false)));
+            }
+            invokeAll(executor, tasks);
+        } finally {
+            executor.shutdownNow();
+            restoreLazyInit(targets, i18nTargets);
+        }
+
+        logger.info("loaded {} codelists in {} ms", targets.size() + i18nTargets.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Returns the time taken to load each codelist in the order of completion.
+     * @return time in milliseconds per codelist ID
+     */
+    public Map<String, Long> getLoadTimes() {
+        synchronized (loadTimes) {
+            return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(loadTimes));
+        }
+    }
+
+    /**
+     * Restores the {@code lazyInit} flag of the deferred codelists, which were eager.
+     * @param targets deferred codelists
+     * @param i18nTargets deferred i18n codelists
+     */
+    private void restoreLazyInit(List<AbstractReloadableCodeList> targets,
+            List<SimpleReloadableI18nCodeList> i18nTargets) {
+        for (AbstractReloadableCodeList codeList : targets) {
+            codeList.setLazyInit(false);
+        }
+        for (SimpleReloadableI18nCodeList codeList : i18nTargets) {
+            codeList.setLazyInit(false);
+        }
+    }
+
+    /**
+     * Runs the tasks and waits for all of them to be completed.
+     * @param executor executor
+     * @param tasks tasks
+     * @throws IllegalStateException if one of the tasks fails
+     */
+    private void invokeAll(ExecutorService executor, List<LoadTask> tasks) {
+        List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+        for (LoadTask task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        IllegalStateException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                String codeListId = tasks.get(i).codeListId;
+                logger.error("Failed to load codelist. codeListId={}", codeListId, e.getCause());
+                if (failure == null) {
+                    failure = new IllegalStateException("Failed to load codelist. codeListId="
+                            + codeListId, e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading codelists.", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Task to load a codelist and record the time taken.
+     */
+    private final class LoadTask implements Runnable {
+
+        /**
+         * codelist ID
+         */
+        private final String codeListId;
+
+        /**
+         * loading of the codelist
+         */
+        private final Runnable loading;
+
+        /**
+         * Constructor.
+         * @param codeListId codelist ID
+         * @param loading loading of the codelist
+         */
+        LoadTask(String codeListId, Runnable loading) {
+            this.codeListId = codeListId;
+            this.loading = loading;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            loading.run();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            loadTimes.put(codeListId, elapsed);
+            logger.info("loaded codelist. codeListId={}, elapsed={} ms", codeListId, elapsed);
+        }
+    }
+}
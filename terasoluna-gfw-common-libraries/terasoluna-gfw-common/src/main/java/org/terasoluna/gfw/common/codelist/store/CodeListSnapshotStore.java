@@ -0,0 +1,45 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.store;
+
+import java.util.Map;
+
+/**
+ * Store of the last known content of codelists.
+ * <p>
+ * A reloadable codelist with a store starts from the stored content immediately and reconciles it
+ * with the source in the background, so that the startup does not wait for a slow source.
+ * </p>
+ * @since 5.12.0
+ * @see org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList#setSnapshotStore(CodeListSnapshotStore)
+ */
+public interface CodeListSnapshotStore {
+
+    /**
+     * Loads the stored content of the codelist.
+     * @param codeListId codelist ID
+     * @return stored content in the order of the codelist. {@code null} if not stored or the stored
+     *         content is not valid
+     */
+    Map<String, String> load(String codeListId);
+
+    /**
+     * Stores the content of the codelist.
+     * @param codeListId codelist ID
+     * @param codeList content of the codelist
+     */
+    void save(String codeListId, Map<String, String> codeList);
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CodeListSnapshotStore} which stores each codelist in a binary file of a local directory.
+ * <p>
+ * The file of a codelist is named after the codelist ID and consists of the following, followed
+ * by the CRC32 checksum of them. All numbers are big endian and strings are encoded in UTF-8 with
+ * the length ({@code -1} for {@code null}).
+ * </p>
+ * <ol>
+ * <li>magic and format version</li>
+ * <li>codelist ID</li>
+ * <li>number of entries</li>
+ * <li>code and label of each entry in the order of the codelist</li>
+ * </ol>
+ * <p>
+ * A file is written to a temporary file and moved atomically, so a reader never sees a partially
+ * written file. A file which is broken or whose checksum does not match is ignored.
+ * </p>
+ * @since 5.12.0
+ */
+public class FileCodeListSnapshotStore implements CodeListSnapshotStore {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(
+            FileCodeListSnapshotStore.class);
+
+    /**
+     * magic number ("TCLS")
+     */
+    private static final int MAGIC = 0x54434C53;
+
+    /**
+     * version of the file format
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * suffix of files
+     */
+    private static final String SUFFIX = ".snapshot";
+
+    /**
+     * directory of files
+     */
+    private final Path directory;
+
+    /**
+     * Constructor.
+     * @param directory directory of files. created if not exists.
+     */
+    public FileCodeListSnapshotStore(Path directory) {
+        Assert.notNull(directory, "directory must not be null");
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the codelist from the file.
+     * @see org.terasoluna.gfw.common.codelist.store.CodeListSnapshotStore#load(java.lang.String)
+     */
+    @Override
+    public Map<String, String> load(String codeListId) {
+        Path file = fileOf(codeListId);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            logger.debug("codelist snapshot is not stored. codeListId={}", codeListId);
+            return null;
+        } catch (IOException e) {
+            logger.warn("Failed to read codelist snapshot. codeListId={}, file={}", codeListId,
+                    file, e);
+            return null;
+        }
+        try {
+            return decode(codeListId, bytes);
+        } catch (IllegalStateException | BufferUnderflowException
+                | IndexOutOfBoundsException e) {
+            logger.warn("Ignored broken codelist snapshot. codeListId={}, file={}, cause={}",
+                    codeListId, file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the codelist to the file.
+     * @see org.terasoluna.gfw.common.codelist.store.CodeListSnapshotStore#save(java.lang.String,
+     *      java.util.Map)
+     */
+    @Override
+    public void save(String codeListId, Map<String, String> codeList) {
+        Assert.notNull(codeList, "codeList must not be null");
+        Path file = fileOf(codeListId);
+        try {
+            byte[] bytes = encode(codeListId, codeList);
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(),
+                    ".tmp");
+            try {
+                Files.write(tempFile, bytes);
+                try {
+                    Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save codelist snapshot. codeListId="
+                    + codeListId + ", file=" + file, e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("saved codelist snapshot. codeListId={}, file={}, size={}", codeListId,
+                    file, codeList.size());
+        }
+    }
+
+    /**
+     * Returns the file of the codelist.
+     * @param codeListId codelist ID
+     * @return file
+     */
+    Path fileOf(String codeListId) {
+        Assert.hasLength(codeListId, "codeListId must not be empty");
+        return directory.resolve(codeListId.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX);
+    }
+
+    private static byte[] encode(String codeListId,
+            Map<String, String> codeList) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, codeListId);
+        out.writeInt(codeList.size());
+        for (Map.Entry<String, String> e : codeList.entrySet()) {
+            writeString(out, e.getKey());
+            writeString(out, e.getValue());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, String> decode(String codeListId, byte[] bytes) {
+        if (bytes.length < 8) {
+            throw new IllegalStateException("too short");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        if (crc.getValue() != buffer.getLong(bytes.length - 8)) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+        buffer.limit(bytes.length - 8);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalStateException("unsupported format");
+        }
+        if (!codeListId.equals(readString(buffer))) {
+            throw new IllegalStateException("codeListId mismatch");
+        }
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IllegalStateException("invalid number of entries");
+        }
+        Map<String, String> codeList = new LinkedHashMap<String, String>();
+        for (int i = 0; i < count; i++) {
+            codeList.put(readString(buffer), readString(buffer));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("trailing bytes");
+        }
+        return codeList;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.tenant;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link TenantOverrideSource} which loads the entries of a tenant using JDBC.
+ * <p>
+ * {@link #querySql} selects the rows of the tenant given by the named parameter {@code tenant}
+ * as follows. Each row is loaded unless value or label of it is {@code null}.
+ * </p>
+ *
+ * <pre>
+ * SELECT code, label FROM m_code_tenant WHERE list_id = 'CL_STATUS' AND tenant_id = :tenant
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class JdbcTenantOverrideSource implements TenantOverrideSource, InitializingBean {
+
+    /**
+     * name of the parameter of the tenant in the query
+     */
+    private static final String TENANT_PARAMETER = "tenant";
+
+    /**
+     * Database access information
+     */
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * SQL Query to access the database
+     */
+    private String querySql;
+
+    /**
+     * name of the column holding the value part of the codelist
+     */
+    private String valueColumn;
+
+    /**
+     * name of the column holding the label part of the codelist
+     */
+    private String labelColumn;
+
+    /**
+     * Loads the entries of the tenant from the database.
+     * @see org.terasoluna.gfw.common.codelist.tenant.TenantOverrideSource#loadOverrides(java.lang.String)
+     */
+    @Override
+    public Map<String, String> loadOverrides(String tenant) {
+        Map<String, String> overrides = new LinkedHashMap<String, String>();
+        jdbcTemplate.query(querySql, Collections.singletonMap(TENANT_PARAMETER, tenant), rs -> {
+            Object key = rs.getObject(valueColumn);
+            Object value = rs.getObject(labelColumn);
+            if (key != null && value != null) {
+                overrides.put(key.toString(), value.toString());
+            }
+        });
+        return overrides;
+    }
+
+    /**
+     * Checks the properties.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.hasLength(querySql, "querySql is empty");
+        Assert.hasLength(valueColumn, "valueColumn is empty");
+        Assert.hasLength(labelColumn, "labelColumn is empty");
+        Assert.notNull(jdbcTemplate, "jdbcTemplate (or dataSource) is empty");
+    }
+
+    /**
+     * Sets DataSource.
+     * @param dataSource DataSource instance for fetching code list records
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate
+     * @param jdbcTemplate JdbcTemplate instance for fetching code list records
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Setter method for querySql
+     * @param querySql sql for fetching code list records of the tenant given by the named
+     *        parameter {@code tenant}
+     */
+    public void setQuerySql(String querySql) {
+        this.querySql = querySql;
+    }
+
+    /**
+     * Setter method for valueColumn
+     * @param valueColumn column name for fetch code value
+     */
+    public void setValueColumn(String valueColumn) {
+        this.valueColumn = valueColumn;
+    }
+
+    /**
+     * Setter method for labelColumn
+     * @param labelColumn column name for fetch a code label
+     */
+    public void setLabelColumn(String labelColumn) {
+        this.labelColumn = labelColumn;
+    }
+}
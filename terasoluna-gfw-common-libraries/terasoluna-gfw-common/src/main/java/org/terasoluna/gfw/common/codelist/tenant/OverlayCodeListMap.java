@@ -0,0 +1,143 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.tenant;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable view of a base codelist overlaid with the entries of a tenant.
+ * <p>
+ * The base map is shared without copying. Entries are iterated in the order of the base map with
+ * the overridden labels, followed by the entries added by the tenant.
+ * </p>
+ * @since 5.12.0
+ */
+final class OverlayCodeListMap extends AbstractMap<String, String> {
+
+    /**
+     * base codelist shared by all tenants
+     */
+    final Map<String, String> base;
+
+    /**
+     * entries of the tenant
+     */
+    private final Map<String, String> overrides;
+
+    /**
+     * number of entries
+     */
+    private final int size;
+
+    /**
+     * Constructor.
+     * @param base base codelist
+     * @param overrides entries of the tenant
+     */
+    OverlayCodeListMap(Map<String, String> base, Map<String, String> overrides) {
+        this.base = base;
+        this.overrides = overrides;
+        int added = 0;
+        for (String key : overrides.keySet()) {
+            if (!base.containsKey(key)) {
+                added++;
+            }
+        }
+        this.size = base.size() + added;
+    }
+
+    @Override
+    public String get(Object key) {
+        String label = overrides.get(key);
+        return (label != null) ? label : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overrides.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new OverlayIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterator over the base entries followed by the added entries.
+     */
+    private final class OverlayIterator implements Iterator<Map.Entry<String, String>> {
+
+        private final Iterator<Map.Entry<String, String>> baseIterator = base.entrySet()
+                .iterator();
+
+        private final Iterator<Map.Entry<String, String>> overrideIterator = overrides
+                .entrySet().iterator();
+
+        private Map.Entry<String, String> next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (baseIterator.hasNext()) {
+                Map.Entry<String, String> e = baseIterator.next();
+                String label = overrides.get(e.getKey());
+                next = (label == null) ? e : new SimpleImmutableEntry<String, String>(e.getKey(),
+                        label);
+                return true;
+            }
+            while (overrideIterator.hasNext()) {
+                Map.Entry<String, String> e = overrideIterator.next();
+                if (!base.containsKey(e.getKey())) {
+                    next = e;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, String> e = next;
+            next = null;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.tenant;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.terasoluna.gfw.common.codelist.AbstractCodeList;
+import org.terasoluna.gfw.common.codelist.CodeList;
+import org.terasoluna.gfw.common.codelist.CompactCodeListMap;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Codelist whose entries are overridden per tenant.
+ * <p>
+ * {@link #asMap()} returns the base codelist overlaid with the entries of the tenant resolved by
+ * {@link TenantResolver}, or the base codelist itself if no tenant is bound or the tenant has no
+ * overrides. The entries of the base codelist are shared by all tenants without copying, so only
+ * the overrides of each tenant occupy the heap.
+ * </p>
+ * <p>
+ * The overrides are loaded by {@link TenantOverrideSource} on the first access of each tenant and
+ * cached in a LRU cache bounded by the total number of the overridden entries
+ * ({@link #setMaximumWeight(long) maximumWeight}). When the base codelist is reloaded, the overlay
+ * follows it without reloading the overrides. {@link #refresh()} discards the cached overrides.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;CL_STATUS&quot; class=&quot;org.terasoluna.gfw.common.codelist.tenant.TenantAwareCodeList&quot;&gt;
+ *     &lt;property name=&quot;baseCodeList&quot; ref=&quot;CL_STATUS_BASE&quot; /&gt;
+ *     &lt;property name=&quot;tenantResolver&quot; ref=&quot;tenantResolver&quot; /&gt;
+ *     &lt;property name=&quot;overrideSource&quot; ref=&quot;statusOverrideSource&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class TenantAwareCodeList extends AbstractCodeList
+        implements ReloadableCodeList, InitializingBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TenantAwareCodeList.class);
+
+    /**
+     * base codelist shared by all tenants
+     */
+    private CodeList baseCodeList;
+
+    /**
+     * resolver of the current tenant
+     */
+    private TenantResolver tenantResolver;
+
+    /**
+     * source of the overrides of each tenant
+     */
+    private TenantOverrideSource overrideSource;
+
+    /**
+     * maximum total number of cached overridden entries (default 100000)
+     */
+    private long maximumWeight = 100000L;
+
+    /**
+     * overrides per tenant
+     */
+    private Cache<String, TenantOverlay> cache;
+
+    /**
+     * Returns the codelist of the current tenant.
+     * @see org.terasoluna.gfw.common.codelist.CodeList#asMap()
+     */
+    @Override
+    public Map<String, String> asMap() {
+        String tenant = tenantResolver.resolveTenant();
+        if (tenant == null) {
+            return baseCodeList.asMap();
+        }
+        return asMap(tenant);
+    }
+
+    /**
+     * Returns the codelist of the tenant.
+     * @param tenant tenant ID
+     * @return codelist of the tenant in the form of an Immutable Thread-safe Map
+     */
+    public Map<String, String> asMap(String tenant) {
+        Assert.notNull(tenant, "tenant must not be null");
+        Map<String, String> base = baseCodeList.asMap();
+        TenantOverlay overlay;
+        try {
+            overlay = cache.get(tenant, () -> loadOverlay(tenant, base));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to load overrides. tenant=" + tenant, e
+                    .getCause());
+        }
+        return overlay.mapOf(base);
+    }
+
+    /**
+     * Discards the cached overrides of all tenants.
+     * @see org.terasoluna.gfw.common.codelist.ReloadableCodeList#refresh()
+     */
+    @Override
+    public void refresh() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("refresh codelist codeListId={}", getCodeListId());
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * Checks the properties and creates the cache.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(baseCodeList, "baseCodeList is empty");
+        Assert.notNull(tenantResolver, "tenantResolver is empty");
+        Assert.notNull(overrideSource, "overrideSource is empty");
+        Assert.isTrue(maximumWeight > 0, "maximumWeight should be greater than 0");
+        this.cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+                .<String, TenantOverlay> weigher((tenant, overlay) -> overlay.overrides.size() + 1)
+                .build();
+    }
+
+    /**
+     * Loads the overrides of the tenant.
+     * @param tenant tenant ID
+     * @param base current base codelist
+     * @return overlay of the tenant
+     */
+    private TenantOverlay loadOverlay(String tenant, Map<String, String> base) {
+        Map<String, String> overrides = CompactCodeListMap.copyOf(overrideSource.loadOverrides(
+                tenant));
+        if (logger.isDebugEnabled()) {
+            logger.debug("loaded overrides of codelist codeListId={}, tenant={}, size={}",
+                    getCodeListId(), tenant, overrides.size());
+        }
+        return new TenantOverlay(overrides, base);
+    }
+
+    /**
+     * Sets the base codelist shared by all tenants.
+     * @param baseCodeList base codelist
+     */
+    public void setBaseCodeList(CodeList baseCodeList) {
+        this.baseCodeList = baseCodeList;
+    }
+
+    /**
+     * Sets the resolver of the current tenant.
+     * @param tenantResolver resolver of the current tenant
+     */
+    public void setTenantResolver(TenantResolver tenantResolver) {
+        this.tenantResolver = tenantResolver;
+    }
+
+    /**
+     * Sets the source of the overrides of each tenant.
+     * @param overrideSource source of the overrides
+     */
+    public void setOverrideSource(TenantOverrideSource overrideSource) {
+        this.overrideSource = overrideSource;
+    }
+
+    /**
+     * Sets the maximum total number of cached overridden entries. Each tenant weighs the number of
+     * its overrides plus one, and the least recently used tenants are evicted when exceeded.
+     * @param maximumWeight maximum total number of cached overridden entries (default 100000)
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Overrides of a tenant and the overlay built on the latest base codelist.
+     */
+    private static final class TenantOverlay {
+
+        /**
+         * overrides of the tenant
+         */
+        private final Map<String, String> overrides;
+
+        /**
+         * overlay on the latest base codelist. {@code null} if the tenant has no overrides.
+         */
+        private volatile OverlayCodeListMap overlay;
+
+        TenantOverlay(Map<String, String> overrides, Map<String, String> base) {
+            this.overrides = overrides;
+            this.overlay = overrides.isEmpty() ? null : new OverlayCodeListMap(base, overrides);
+        }
+
+        /**
+         * Returns the codelist of the tenant on the base codelist, rebuilding the overlay if the
+         * base codelist is reloaded.
+         * @param base current base codelist
+         * @return codelist of the tenant
+         */
+        Map<String, String> mapOf(Map<String, String> base) {
+            if (overrides.isEmpty()) {
+                return base;
+            }
+            OverlayCodeListMap current = overlay;
+            if (current.base != base) {
+                current = new OverlayCodeListMap(base, overrides);
+                overlay = current;
+            }
+            return current;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.support.ApplicationObjectSupport;
 import org.springframework.util.StringUtils;
 import org.terasoluna.gfw.common.codelist.CodeList;
+import org.terasoluna.gfw.common.codelist.CodeMembership;
 import org.terasoluna.gfw.common.codelist.ExistInCodeList;
 import org.terasoluna.gfw.common.codelist.NumberRangeCodeList;
 
@@ -80,15 +81,29 @@ public abstract class AbstractExistInCodeListValidator<T> extends ApplicationObj
      */
     @Override
     public boolean isValid(T value, ConstraintValidatorContext constraintContext) {
-        String code = getCode(value);
-
-        if (!StringUtils.hasLength(code)) {
+        if (value == null) {
             return true;
         }
         if (logger.isTraceEnabled()) {
-            logger.trace("check if {} exists in {}", code, codeList.getCodeListId());
+            logger.trace("check if {} exists in {}", value, codeList.getCodeListId());
         }
-        return codeList.asMap().containsKey(code);
+        return isMember(codeList.getMembership(), value);
+    }
+
+    /**
+     * Returns whether the input value is a valid code.
+     * <p>
+     * By default, tests the code returned by {@link #getCode(Object)}. An empty code is valid.
+     * Override this method to test the value without converting it to String.
+     * </p>
+     * @param membership membership of the codelist
+     * @param value input value. not {@code null}
+     * @return if valid value, return true.
+     * @since 5.12.0
+     */
+    protected boolean isMember(CodeMembership membership, T value) {
+        String code = getCode(value);
+        return !StringUtils.hasLength(code) || membership.contains(code);
     }
 
 }
@@ -15,6 +15,8 @@
  */
 package org.terasoluna.gfw.common.codelist.validator;
 
+import org.terasoluna.gfw.common.codelist.CodeMembership;
+
 /**
  * Concrete validation implementation class for
  * {@link org.terasoluna.gfw.common.codelist.ExistInCodeList} custom annotation.
@@ -40,4 +42,15 @@ public class ExistInCodeListValidatorForCharacter
     protected String getCode(Character value) {
         return value == null ? null : value.toString();
     }
+
+    /**
+     * Tests the character without converting it to String.
+     * @see org.terasoluna.gfw.common.codelist.validator.AbstractExistInCodeListValidator#isMember(CodeMembership,
+     *      Object)
+     * @since 5.12.0
+     */
+    @Override
+    protected boolean isMember(CodeMembership membership, Character value) {
+        return membership.contains(value.charValue());
+    }
 }
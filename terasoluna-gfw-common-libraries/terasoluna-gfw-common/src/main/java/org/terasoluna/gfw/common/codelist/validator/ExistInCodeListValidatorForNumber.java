@@ -15,6 +15,12 @@
  */
 package org.terasoluna.gfw.common.codelist.validator;
 
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.terasoluna.gfw.common.codelist.CodeMembership;
+
 /**
  * Concrete validation implementation class for
  * {@link org.terasoluna.gfw.common.codelist.ExistInCodeList} custom annotation.
@@ -41,4 +47,36 @@ public class ExistInCodeListValidatorForNumber extends AbstractExistInCodeListVa
                 : valueFormat == null ? value.toString() : String.format(valueFormat, value);
     }
 
+    /**
+     * Tests integral values without converting them to String.
+     * <p>
+     * Integral values are tested as {@code long}, except that only {@link Integer} is for
+     * {@link org.terasoluna.gfw.common.codelist.NumberRangeCodeList} because the code formatted by
+     * the value format may depend on the type. The other values are tested by the code returned by
+     * {@link #getCode(Number)}.
+     * </p>
+     * @see org.terasoluna.gfw.common.codelist.validator.AbstractExistInCodeListValidator#isMember(CodeMembership,
+     *      Object)
+     * @since 5.12.0
+     */
+    @Override
+    protected boolean isMember(CodeMembership membership, Number value) {
+        if (value instanceof Integer || (valueFormat == null && isLongValue(value))) {
+            return membership.contains(value.longValue());
+        }
+        return super.isMember(membership, value);
+    }
+
+    /**
+     * Returns whether the value is an integral value whose string form is the same as
+     * {@link Long#toString(long)} of {@link Number#longValue()}.
+     * @param value value
+     * @return {@code true} if represented exactly by {@code long}
+     */
+    private static boolean isLongValue(Number value) {
+        return value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicInteger || value instanceof AtomicLong
+                || (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64);
+    }
+
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.context.support.ApplicationObjectSupport;
+import org.springframework.util.StringUtils;
+import org.terasoluna.gfw.common.codelist.ExistInHierarchicalCodeList;
+import org.terasoluna.gfw.common.codelist.HierarchicalCodeList;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validation implementation class for {@link ExistInHierarchicalCodeList} custom annotation.
+ * <p>
+ * Validates whether the code of the child field is a child of the code of the parent field in the
+ * {@link HierarchicalCodeList} specified as a parameter to the annotation.
+ * </p>
+ * @since 5.12.0
+ */
+public class ExistInHierarchicalCodeListValidator extends ApplicationObjectSupport
+        implements ConstraintValidator<ExistInHierarchicalCodeList, Object> {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * codelist
+     */
+    private HierarchicalCodeList codeList;
+
+    /**
+     * name of the property holding the code of the parent
+     */
+    private String parentField;
+
+    /**
+     * name of the property holding the code of the child
+     */
+    private String childField;
+
+    /**
+     * message template
+     */
+    private String message;
+
+    /**
+     * Initialize.
+     * <p>
+     * Get the codelist from applicationContext.
+     * </p>
+     */
+    @Override
+    public void initialize(ExistInHierarchicalCodeList constraint) {
+        this.codeList = getApplicationContext().getBean(constraint.codeListId(),
+                HierarchicalCodeList.class);
+        this.parentField = constraint.parentField();
+        this.childField = constraint.childField();
+        this.message = constraint.message();
+    }
+
+    /**
+     * Validate.
+     * @param value target bean.
+     * @param constraintContext constraint context.
+     * @return if valid pair, return true.
+     */
+    @Override
+    public boolean isValid(Object value, ConstraintValidatorContext constraintContext) {
+        if (value == null) {
+            return true;
+        }
+        BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(value);
+        String parentCode = toCode(beanWrapper.getPropertyValue(parentField));
+        String childCode = toCode(beanWrapper.getPropertyValue(childField));
+        if (!StringUtils.hasLength(parentCode) || !StringUtils.hasLength(childCode)) {
+            return true;
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("check if {} is a child of {} in {}", childCode, parentCode, codeList
+                    .getCodeListId());
+        }
+        if (codeList.asMap(parentCode).containsKey(childCode)) {
+            return true;
+        }
+        constraintContext.disableDefaultConstraintViolation();
+        constraintContext.buildConstraintViolationWithTemplate(message).addPropertyNode(
+                childField).addConstraintViolation();
+        return false;
+    }
+
+    private static String toCode(Object value) {
+        return (value == null) ? null : value.toString();
+    }
+}
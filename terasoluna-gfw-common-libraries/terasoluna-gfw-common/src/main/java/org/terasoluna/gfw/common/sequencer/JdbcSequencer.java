@@ -15,19 +15,50 @@
  */
 package org.terasoluna.gfw.common.sequencer;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.util.Assert;
+import org.springframework.util.NumberUtils;
 
 /**
  * Implementation class for the Sequencing Functionality Uses JDBC to query the database to fetch
  * the next value in a sequence
+ * <p>
+ * If {@code allocationSize} is greater than 1, values are allocated in blocks (pooled-lo). The
+ * sequence must be incremented by {@code allocationSize}, and a value {@code v} returned by
+ * {@code nextValueQuery} reserves the block from {@code v} to {@code v + allocationSize - 1}.
+ * Values in the block are issued from memory without accessing the database, and the next block
+ * is fetched only when the block is exhausted.
+ * </p>
+ * <p>
+ * In block mode, values are unique but have gaps: the rest of the block is lost when the
+ * application stops or crashes, and the next block starts from the next sequence value. Values
+ * issued by multiple instances (e.g. multiple application servers) are interleaved by block, so
+ * they are not in the order of issue.
+ * </p>
+ * <p>
+ * If {@code bulkNextValueQuery} is set, {@link #getNext(int)} fetches multiple sequence values in
+ * one round trip. The query takes the number of values as the parameter and returns a sequence
+ * value per row, for example:
+ * </p>
+ * <ul>
+ * <li>PostgreSQL : {@code SELECT nextval('ORDER_SEQ') FROM generate_series(1, ?)}</li>
+ * <li>Oracle : {@code SELECT ORDER_SEQ.NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?}</li>
+ * </ul>
  * @param <T> type of sequence value
  */
 public class JdbcSequencer<T> implements Sequencer<T>, InitializingBean {
 
+    /**
+     * Block which has not been allocated.
+     */
+    private static final Block EMPTY_BLOCK = new Block(0L, 0L);
+
     /**
      * DataSource information to access the database. must not be <code>null</code>
      */
@@ -49,26 +80,186 @@ public class JdbcSequencer<T> implements Sequencer<T>, InitializingBean {
      */
     private Class<T> sequenceClass;
 
+    /**
+     * Query for fetching multiple next values of the sequence. optional
+     */
+    private String bulkNextValueQuery;
+
+    /**
+     * Number of values allocated by a fetch. 1 means no block allocation (default 1)
+     */
+    private int allocationSize = 1;
+
+    /**
+     * Block of values being issued in block mode.
+     */
+    private volatile Block block = EMPTY_BLOCK;
+
+    /**
+     * Lock to allow only one fetch of a block at a time.
+     */
+    private final Object allocationLock = new Object();
+
     /**
      * fetches the next value in a sequence by executing the query
+     * <p>
+     * In block mode, issues the next value in the allocated block and executes the query only
+     * when the block is exhausted.
+     * </p>
      * @return T next value in the sequence
      * @see org.terasoluna.gfw.common.sequencer.Sequencer#getNext()
      */
     @Override
     public T getNext() {
-        T seq = jdbcTemplate.queryForObject(nextValueQuery, sequenceClass);
-        return seq;
+        if (allocationSize == 1) {
+            T seq = jdbcTemplate.queryForObject(nextValueQuery, sequenceClass);
+            return seq;
+        }
+        return toSequenceValue(nextValueInBlock());
+    }
+
+    /**
+     * fetches the specified number of next values in a sequence
+     * <p>
+     * If {@code bulkNextValueQuery} is set, values (or blocks of values in block mode) are fetched
+     * in one round trip. Otherwise fetches them one by one.
+     * </p>
+     * @param count number of values. must not be negative
+     * @return next values in the sequence
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getNext(int)
+     * @since 5.12.0
+     */
+    @Override
+    public long[] getNext(int count) {
+        Assert.isTrue(count >= 0, "count must not be negative");
+        if (allocationSize > 1) {
+            return nextValuesInBlock(count);
+        }
+        if (bulkNextValueQuery == null || count == 0) {
+            return Sequencer.super.getNext(count);
+        }
+        return queryNextValues(count);
     }
 
     /**
      * fetches the current value in a sequence by executing the query
+     * <p>
+     * In block mode, returns the value last issued by this sequencer. If no value has been issued
+     * yet, executes the query.
+     * </p>
      * @return T current value in the sequence
      * @see org.terasoluna.gfw.common.sequencer.Sequencer#getCurrent()
      */
     @Override
     public T getCurrent() {
-        T seq = jdbcTemplate.queryForObject(currentValueQuery, sequenceClass);
-        return seq;
+        Block current = block;
+        if (allocationSize == 1 || current == EMPTY_BLOCK) {
+            T seq = jdbcTemplate.queryForObject(currentValueQuery, sequenceClass);
+            return seq;
+        }
+        return toSequenceValue(current.lastIssued());
+    }
+
+    /**
+     * Issues the next value in the block, and fetches a new block if exhausted.
+     * @return next value
+     */
+    private long nextValueInBlock() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.limit) {
+                return value;
+            }
+            synchronized (allocationLock) {
+                // another thread may have fetched a new block while waiting for the lock
+                if (block == current) {
+                    block = fetchBlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Issues the values in the block, and fetches new blocks while exhausted.
+     * <p>
+     * If more than one block is needed and {@code bulkNextValueQuery} is set, the full blocks are
+     * fetched in one round trip and issued without being shared with the other threads.
+     * </p>
+     * @param count number of values
+     * @return next values
+     */
+    private long[] nextValuesInBlock(int count) {
+        long[] values = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Block current = block;
+            int wanted = count - filled;
+            long start = current.next.getAndAdd(wanted);
+            if (start < current.limit) {
+                long end = Math.min(start + wanted, current.limit);
+                for (long value = start; value < end; value++) {
+                    values[filled++] = value;
+                }
+                continue;
+            }
+            synchronized (allocationLock) {
+                if (block != current) {
+                    continue;
+                }
+                int fullBlocks = (count - filled) / allocationSize;
+                if (fullBlocks > 1 && bulkNextValueQuery != null) {
+                    for (long blockStart : queryNextValues(fullBlocks)) {
+                        for (int i = 0; i < allocationSize; i++) {
+                            values[filled++] = blockStart + i;
+                        }
+                    }
+                } else {
+                    block = fetchBlock();
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Fetches the next values of the sequence by executing the bulk query.
+     * @param count number of values
+     * @return sequence values
+     */
+    private long[] queryNextValues(int count) {
+        List<Long> fetched = jdbcTemplate.queryForList(bulkNextValueQuery, Long.class, count);
+        Assert.state(fetched.size() == count, () -> "bulkNextValueQuery must return " + count
+                + " rows, but returned " + fetched.size() + " rows");
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = fetched.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * Fetches a new block by executing the query.
+     * @return block
+     */
+    private Block fetchBlock() {
+        Long start = jdbcTemplate.queryForObject(nextValueQuery, Long.class);
+        Assert.state(start != null, "nextValueQuery must return a value");
+        return new Block(start, start + allocationSize);
+    }
+
+    /**
+     * Converts the value to the type of the sequence value.
+     * @param value value
+     * @return sequence value
+     */
+    @SuppressWarnings("unchecked")
+    private T toSequenceValue(long value) {
+        if (sequenceClass == String.class) {
+            return (T) Long.toString(value);
+        }
+        return (T) NumberUtils.convertNumberToTargetClass(value,
+                (Class<? extends Number>) sequenceClass);
     }
 
     /**
@@ -79,6 +270,18 @@ public class JdbcSequencer<T> implements Sequencer<T>, InitializingBean {
         this.nextValueQuery = nextValueQuery;
     }
 
+    /**
+     * Sets the query which is executed to fetch multiple next values in a sequence. optional
+     * <p>
+     * The query takes the number of values as the only parameter and returns a value per row.
+     * </p>
+     * @param bulkNextValueQuery query used for fetching multiple next values in the sequence
+     * @since 5.12.0
+     */
+    public void setBulkNextValueQuery(String bulkNextValueQuery) {
+        this.bulkNextValueQuery = bulkNextValueQuery;
+    }
+
     /**
      * Sets the query which is executed to fetch the current value in a sequence. must not be empty
      * @param currentValueQuery query used for fetching the current value in the sequence
@@ -96,6 +299,20 @@ public class JdbcSequencer<T> implements Sequencer<T>, InitializingBean {
         this.sequenceClass = sequenceClass;
     }
 
+    /**
+     * Sets the number of values allocated by a fetch (default 1).
+     * <p>
+     * If greater than 1, the sequence must be incremented by this size and {@code sequenceClass}
+     * must be {@link String} or a subclass of {@link Number}. See the class description for the
+     * gaps of values.
+     * </p>
+     * @param allocationSize number of values allocated by a fetch
+     * @since 5.12.0
+     */
+    public void setAllocationSize(int allocationSize) {
+        this.allocationSize = allocationSize;
+    }
+
     /**
      * Sets the DataSource information used for accessing the database for fetching the next value
      * of the sequence. must not be null
@@ -122,6 +339,8 @@ public class JdbcSequencer<T> implements Sequencer<T>, InitializingBean {
      * <li>{@link #nextValueQuery} is empty</li>
      * <li>{@link #currentValueQuery} is empty</li>
      * <li>{@link #sequenceClass} is null</li>
+     * <li>{@link #allocationSize} is less than 1</li>
+     * <li>{@link #sequenceClass} is neither String nor Number in block mode</li>
      * </ul>
      * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
      */
@@ -131,5 +350,35 @@ public class JdbcSequencer<T> implements Sequencer<T>, InitializingBean {
         Assert.hasLength(nextValueQuery, "nextValueQuery must not be empty");
         Assert.hasLength(currentValueQuery, "currentValueQuery must not be empty");
         Assert.notNull(sequenceClass, "sequenceClass must not be null");
+        Assert.isTrue(allocationSize > 0, "allocationSize must be greater than 0");
+        if (allocationSize > 1) {
+            Assert.isTrue(sequenceClass == String.class || Number.class.isAssignableFrom(
+                    sequenceClass), "sequenceClass must be String or Number in block mode");
+        }
+    }
+
+    /**
+     * Range of values allocated by a fetch.
+     */
+    private static final class Block {
+
+        /**
+         * next value to issue. may exceed {@link #limit} when exhausted.
+         */
+        private final AtomicLong next;
+
+        /**
+         * exclusive end of the block
+         */
+        private final long limit;
+
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+
+        long lastIssued() {
+            return Math.min(next.get(), limit) - 1;
+        }
     }
 }
@@ -0,0 +1,385 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Sequencer} decorator which prefetches values of the delegate sequencer in the background.
+ * <p>
+ * Values are issued from the active buffer. When the number of remaining values falls to
+ * {@code lowWaterMark}, the standby buffer is filled with {@code prefetchSize} values of the
+ * delegate by a background thread, and the buffers are swapped when the active buffer is
+ * exhausted. So {@link #getNext()} does not wait for the delegate as long as the refill keeps up
+ * with the consumption.
+ * </p>
+ * <p>
+ * If the standby buffer is not ready when the active buffer is exhausted (a stall), the value is
+ * fetched from the delegate directly. Values are unique as long as those of the delegate are, but
+ * they are not issued in the order of the delegate. Prefetched values are lost when the
+ * application stops, so the sequence has gaps.
+ * </p>
+ * <p>
+ * After a refill fails, the next refill is not started until a backoff delay elapses, which starts
+ * at {@code retryDelay} and doubles on each consecutive failure up to {@code maxRetryDelay}.
+ * Meanwhile values are fetched from the delegate directly.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;orderIdSequencer&quot;
+ *     class=&quot;org.terasoluna.gfw.common.sequencer.PrefetchingSequencer&quot;&gt;
+ *     &lt;property name=&quot;delegate&quot; ref=&quot;orderIdJdbcSequencer&quot; /&gt;
+ *     &lt;property name=&quot;prefetchSize&quot; value=&quot;1000&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @param <T> type of sequence value
+ * @since 5.12.0
+ */
+public class PrefetchingSequencer<T> implements Sequencer<T>, InitializingBean, DisposableBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingSequencer.class);
+
+    /**
+     * sequencer to prefetch values from
+     */
+    private Sequencer<T> delegate;
+
+    /**
+     * number of values fetched by a refill (default 100)
+     */
+    private int prefetchSize = 100;
+
+    /**
+     * number of remaining values to start a refill (default a quarter of prefetchSize)
+     */
+    private int lowWaterMark = -1;
+
+    /**
+     * delay in milliseconds before retrying a refill after the first failure (default 1000)
+     */
+    private long retryDelay = 1000L;
+
+    /**
+     * maximum delay in milliseconds before retrying a refill (default 60000)
+     */
+    private long maxRetryDelay = 60000L;
+
+    /**
+     * executor for refilling
+     */
+    private ExecutorService executor;
+
+    /**
+     * Lock to swap the buffers. The delegate is never called in it.
+     */
+    private final Object bufferLock = new Object();
+
+    /**
+     * buffer which values are issued from
+     */
+    private Buffer active = new Buffer(new Object[0]);
+
+    /**
+     * filled buffer which replaces the active buffer when exhausted. {@code null} if not ready.
+     */
+    private Buffer standby;
+
+    /**
+     * whether or not a refill is in flight
+     */
+    private boolean refilling;
+
+    /**
+     * number of consecutive failures of refills
+     */
+    private int consecutiveFailures;
+
+    /**
+     * {@link System#nanoTime()} until which no refill is started after a failure
+     */
+    private long nextRefillAllowedAt;
+
+    /**
+     * last issued value
+     */
+    private volatile T lastIssued;
+
+    private final AtomicLong refillCount = new AtomicLong();
+
+    private final AtomicLong refillFailureCount = new AtomicLong();
+
+    private final AtomicLong totalRefillNanos = new AtomicLong();
+
+    private final AtomicLong maxRefillNanos = new AtomicLong();
+
+    private final AtomicLong stallCount = new AtomicLong();
+
+    /**
+     * Returns the next value.
+     * <p>
+     * Takes the value from the buffer, and from the delegate only on a stall.
+     * </p>
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getNext()
+     */
+    @Override
+    public T getNext() {
+        T value = null;
+        boolean startRefill;
+        synchronized (bufferLock) {
+            if (!active.hasRemaining() && standby != null) {
+                active = standby;
+                standby = null;
+            }
+            if (active.hasRemaining()) {
+                value = active.take();
+            }
+            startRefill = !refilling && standby == null && active.remaining() <= lowWaterMark
+                    && (consecutiveFailures == 0 || System.nanoTime()
+                            - nextRefillAllowedAt >= 0);
+            if (startRefill) {
+                refilling = true;
+            }
+        }
+        if (startRefill) {
+            startRefill();
+        }
+        if (value == null) {
+            stallCount.incrementAndGet();
+            value = delegate.getNext();
+        }
+        lastIssued = value;
+        return value;
+    }
+
+    /**
+     * Returns the value last issued by this sequencer.
+     * <p>
+     * If no value has been issued yet, returns the current value of the delegate.
+     * </p>
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getCurrent()
+     */
+    @Override
+    public T getCurrent() {
+        T value = lastIssued;
+        return (value == null) ? delegate.getCurrent() : value;
+    }
+
+    /**
+     * Returns the statistics of prefetching.
+     * @return statistics
+     */
+    public PrefetchingSequencerStats getStats() {
+        int buffered;
+        synchronized (bufferLock) {
+            buffered = active.remaining() + ((standby == null) ? 0 : standby.remaining());
+        }
+        return new PrefetchingSequencerStats(refillCount.get(), refillFailureCount.get(),
+                totalRefillNanos.get(), maxRefillNanos.get(), stallCount.get(), buffered);
+    }
+
+    /**
+     * Submits a refill. If not accepted (e.g. after destroyed), values are fetched from the
+     * delegate directly.
+     */
+    private void startRefill() {
+        try {
+            executor.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            synchronized (bufferLock) {
+                refilling = false;
+            }
+            logger.debug("refill is rejected. delegate={}", delegate);
+        }
+    }
+
+    /**
+     * Fills the standby buffer with values of the delegate.
+     */
+    private void refill() {
+        Buffer filled = null;
+        long start = System.nanoTime();
+        try {
+            Object[] values = new Object[prefetchSize];
+            for (int i = 0; i < prefetchSize; i++) {
+                values[i] = delegate.getNext();
+            }
+            filled = new Buffer(values);
+        } catch (RuntimeException e) {
+            refillFailureCount.incrementAndGet();
+            logger.warn("Failed to prefetch sequence values. delegate={}", delegate, e);
+        } finally {
+            synchronized (bufferLock) {
+                standby = filled;
+                refilling = false;
+                if (filled == null) {
+                    consecutiveFailures++;
+                    nextRefillAllowedAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                            nextDelay(consecutiveFailures));
+                } else {
+                    consecutiveFailures = 0;
+                }
+            }
+        }
+        if (filled != null) {
+            long elapsed = System.nanoTime() - start;
+            refillCount.incrementAndGet();
+            totalRefillNanos.addAndGet(elapsed);
+            maxRefillNanos.accumulateAndGet(elapsed, Math::max);
+            if (logger.isDebugEnabled()) {
+                logger.debug("prefetched {} sequence values in {} us", prefetchSize,
+                        TimeUnit.NANOSECONDS.toMicros(elapsed));
+            }
+        }
+    }
+
+    /**
+     * Calculates the delay before retrying a refill.
+     * @param consecutiveFailures number of consecutive failures. greater than 0
+     * @return delay in milliseconds
+     */
+    long nextDelay(int consecutiveFailures) {
+        int shift = Math.min(consecutiveFailures - 1, 30);
+        long delay = retryDelay << shift;
+        if (delay < 0 || delay > maxRetryDelay) {
+            delay = maxRetryDelay;
+        }
+        return delay;
+    }
+
+    /**
+     * Sets the sequencer to prefetch values from. must not be null
+     * @param delegate sequencer
+     */
+    public void setDelegate(Sequencer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Sets the number of values fetched by a refill (default 100).
+     * @param prefetchSize number of values
+     */
+    public void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * Sets the number of remaining values to start a refill (default a quarter of prefetchSize).
+     * <p>
+     * Should be large enough for the values consumed while a refill is in flight.
+     * </p>
+     * @param lowWaterMark number of values
+     */
+    public void setLowWaterMark(int lowWaterMark) {
+        this.lowWaterMark = lowWaterMark;
+    }
+
+    /**
+     * Sets the delay before retrying a refill after the first failure (default 1000).
+     * @param retryDelay delay in milliseconds
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Sets the maximum delay before retrying a refill after consecutive failures (default 60000).
+     * @param maxRetryDelay delay in milliseconds
+     */
+    public void setMaxRetryDelay(long maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    /**
+     * Starts the refill thread and the first refill.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.isTrue(prefetchSize > 0, "prefetchSize must be greater than 0");
+        if (lowWaterMark < 0) {
+            lowWaterMark = prefetchSize / 4;
+        }
+        Assert.isTrue(lowWaterMark < prefetchSize, "lowWaterMark must be less than prefetchSize");
+        Assert.isTrue(retryDelay >= 0, "retryDelay must not be negative");
+        Assert.isTrue(maxRetryDelay >= retryDelay,
+                "maxRetryDelay must not be less than retryDelay");
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+                "sequencer-prefetch-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+        synchronized (bufferLock) {
+            refilling = true;
+        }
+        startRefill();
+    }
+
+    /**
+     * Stops the refill thread.
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Prefetched values. Guarded by {@link #bufferLock}.
+     */
+    private final class Buffer {
+
+        private final Object[] values;
+
+        private int position;
+
+        Buffer(Object[] values) {
+            this.values = values;
+        }
+
+        boolean hasRemaining() {
+            return position < values.length;
+        }
+
+        int remaining() {
+            return values.length - position;
+        }
+
+        @SuppressWarnings("unchecked")
+        T take() {
+            T value = (T) values[position];
+            values[position++] = null;
+            return value;
+        }
+    }
+}
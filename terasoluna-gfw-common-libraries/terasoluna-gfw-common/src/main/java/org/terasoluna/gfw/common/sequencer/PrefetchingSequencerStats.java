@@ -0,0 +1,134 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of {@link PrefetchingSequencer}. Immutable.
+ * @since 5.12.0
+ */
+public final class PrefetchingSequencerStats {
+
+    /**
+     * number of completed refills
+     */
+    private final long refillCount;
+
+    /**
+     * number of failed refills
+     */
+    private final long refillFailureCount;
+
+    /**
+     * total time of completed refills in nanoseconds
+     */
+    private final long totalRefillNanos;
+
+    /**
+     * longest time of completed refills in nanoseconds
+     */
+    private final long maxRefillNanos;
+
+    /**
+     * number of values fetched from the delegate directly
+     */
+    private final long stallCount;
+
+    /**
+     * number of values prefetched and not issued yet
+     */
+    private final int bufferedCount;
+
+    /**
+     * Constructor.
+     * @param refillCount number of completed refills
+     * @param refillFailureCount number of failed refills
+     * @param totalRefillNanos total time of completed refills in nanoseconds
+     * @param maxRefillNanos longest time of completed refills in nanoseconds
+     * @param stallCount number of values fetched from the delegate directly
+     * @param bufferedCount number of values prefetched and not issued yet
+     */
+    public PrefetchingSequencerStats(long refillCount, long refillFailureCount,
+            long totalRefillNanos, long maxRefillNanos, long stallCount, int bufferedCount) {
+        this.refillCount = refillCount;
+        this.refillFailureCount = refillFailureCount;
+        this.totalRefillNanos = totalRefillNanos;
+        this.maxRefillNanos = maxRefillNanos;
+        this.stallCount = stallCount;
+        this.bufferedCount = bufferedCount;
+    }
+
+    /**
+     * Returns the number of completed refills.
+     * @return number of refills
+     */
+    public long getRefillCount() {
+        return refillCount;
+    }
+
+    /**
+     * Returns the number of failed refills.
+     * @return number of failures
+     */
+    public long getRefillFailureCount() {
+        return refillFailureCount;
+    }
+
+    /**
+     * Returns the average time of completed refills.
+     * @param unit time unit
+     * @return average time. {@code 0} if not refilled yet
+     */
+    public long getAverageRefillTime(TimeUnit unit) {
+        return (refillCount == 0) ? 0L : unit.convert(totalRefillNanos / refillCount,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the longest time of completed refills.
+     * @param unit time unit
+     * @return longest time
+     */
+    public long getMaxRefillTime(TimeUnit unit) {
+        return unit.convert(maxRefillNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of values fetched from the delegate directly because no prefetched value
+     * was available.
+     * @return number of stalls
+     */
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    /**
+     * Returns the number of values prefetched and not issued yet.
+     * @return number of values
+     */
+    public int getBufferedCount() {
+        return bufferedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PrefetchingSequencerStats [refillCount=" + refillCount + ", refillFailureCount="
+                + refillFailureCount + ", totalRefillNanos=" + totalRefillNanos
+                + ", maxRefillNanos=" + maxRefillNanos + ", stallCount=" + stallCount
+                + ", bufferedCount=" + bufferedCount + "]";
+    }
+}
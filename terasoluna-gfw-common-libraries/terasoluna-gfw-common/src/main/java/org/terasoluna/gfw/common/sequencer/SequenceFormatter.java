@@ -0,0 +1,116 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Formatter of sequence values with a prefix and zero padding (e.g. {@code "ORD-00000123"}).
+ * <p>
+ * Writes digits into the given {@link StringBuilder} directly, without {@link String#format} or
+ * intermediate strings, so a buffer can be reused to format many values. Thread safe.
+ * </p>
+ *
+ * <pre>
+ * SequenceFormatter formatter = new SequenceFormatter(&quot;ORD-&quot;, 8);
+ * StringBuilder buffer = new StringBuilder(formatter.maxLength());
+ * for (long id : sequencer.getNext(count)) {
+ *     buffer.setLength(0);
+ *     formatter.appendTo(buffer, id);
+ *     ...
+ * }
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public final class SequenceFormatter {
+
+    /**
+     * number of digits of {@link Long#MAX_VALUE}
+     */
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * prefix
+     */
+    private final String prefix;
+
+    /**
+     * minimum number of digits
+     */
+    private final int width;
+
+    /**
+     * Constructor.
+     * @param prefix prefix. must not be null
+     * @param width minimum number of digits. values with fewer digits are padded with zeros
+     */
+    public SequenceFormatter(String prefix, int width) {
+        Assert.notNull(prefix, "prefix must not be null");
+        Assert.isTrue(width >= 0, "width must not be negative");
+        this.prefix = prefix;
+        this.width = width;
+    }
+
+    /**
+     * Appends the formatted value to the buffer.
+     * @param buffer buffer
+     * @param value value. must not be negative
+     * @return the buffer
+     */
+    public StringBuilder appendTo(StringBuilder buffer, long value) {
+        Assert.isTrue(value >= 0, "value must not be negative");
+        buffer.append(prefix);
+        int digits = digitsOf(value);
+        for (int i = digits; i < width; i++) {
+            buffer.append('0');
+        }
+        int start = buffer.length();
+        buffer.setLength(start + digits);
+        long remaining = value;
+        for (int i = start + digits - 1; i >= start; i--) {
+            buffer.setCharAt(i, (char) ('0' + (remaining % 10)));
+            remaining /= 10;
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the formatted value.
+     * @param value value. must not be negative
+     * @return formatted value
+     */
+    public String format(long value) {
+        return appendTo(new StringBuilder(maxLength()), value).toString();
+    }
+
+    /**
+     * Returns the maximum length of formatted values, which is suitable for the capacity of a
+     * buffer.
+     * @return maximum length
+     */
+    public int maxLength() {
+        return prefix.length() + Math.max(width, MAX_DIGITS);
+    }
+
+    private static int digitsOf(long value) {
+        int digits = 1;
+        for (long limit = 10; digits < MAX_DIGITS && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+}
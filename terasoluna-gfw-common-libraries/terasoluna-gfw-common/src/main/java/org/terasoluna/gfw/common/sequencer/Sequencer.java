@@ -32,4 +32,28 @@ public interface Sequencer<T> {
      * @return T current value in that sequence
      */
     T getCurrent();
+
+    /**
+     * Returns the specified number of next values in the sequence.
+     * <p>
+     * By default, calls {@link #getNext()} for each value and converts it to {@code long}. The
+     * value must be a {@link Number} or a {@link String} representing a number. Implementations
+     * may fetch the values at once.
+     * </p>
+     * @param count number of values. must not be negative
+     * @return next values in that sequence
+     * @since 5.12.0
+     */
+    default long[] getNext(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            T value = getNext();
+            values[i] = (value instanceof Number) ? ((Number) value).longValue()
+                    : Long.parseLong(String.valueOf(value));
+        }
+        return values;
+    }
 }
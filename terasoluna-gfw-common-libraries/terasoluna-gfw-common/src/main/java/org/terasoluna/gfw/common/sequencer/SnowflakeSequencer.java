@@ -0,0 +1,312 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Sequencer} which generates time-ordered unique IDs without database (Snowflake style).
+ * <p>
+ * An ID is a positive {@code long} consisting of the following fields from the most significant
+ * bit.
+ * </p>
+ * <ul>
+ * <li>41 bits : milliseconds since the epoch (default 2024-01-01T00:00:00Z), about 69 years</li>
+ * <li>10 bits : node ID (0 to 1023)</li>
+ * <li>12 bits : counter in the millisecond (0 to 4095)</li>
+ * </ul>
+ * <p>
+ * IDs are generated by a compare-and-set of a single {@link AtomicLong} without locks. IDs of a
+ * node are strictly increasing, up to 4096 IDs per millisecond. If the counter overflows in a
+ * millisecond, or the clock moves backwards by up to {@code maxClockBackwardMillis}, generating
+ * waits for the clock to catch up with the last issued timestamp. If the clock moves back further,
+ * {@link #getNext()} throws {@link IllegalStateException} until the clock catches up, so duplicate
+ * IDs are never generated in a process. {@link #getNext(int)} reserves the IDs at once and may
+ * advance the timestamp ahead of the clock, up to {@code maxClockBackwardMillis}.
+ * </p>
+ * <p>
+ * IDs are unique across nodes only if each node has a unique node ID. Set {@code nodeId}
+ * explicitly in a multi-node deployment. If not set, the node ID is derived from the host name and
+ * the process ID, which may collide.
+ * </p>
+ * @since 5.12.0
+ */
+public class SnowflakeSequencer implements Sequencer<Long>, InitializingBean {
+
+    /**
+     * number of bits of the counter
+     */
+    static final int COUNTER_BITS = 12;
+
+    /**
+     * number of bits of the node ID
+     */
+    static final int NODE_ID_BITS = 10;
+
+    /**
+     * maximum node ID
+     */
+    public static final int MAX_NODE_ID = (1 << NODE_ID_BITS) - 1;
+
+    /**
+     * maximum timestamp field
+     */
+    private static final long MAX_TIMESTAMP = (1L << (63 - NODE_ID_BITS - COUNTER_BITS)) - 1;
+
+    /**
+     * default epoch (2024-01-01T00:00:00Z)
+     */
+    private static final long DEFAULT_EPOCH_MILLIS = 1704067200000L;
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeSequencer.class);
+
+    /**
+     * last issued state, which is (timestamp &lt;&lt; COUNTER_BITS | counter). {@code -1} if not issued.
+     */
+    private final AtomicLong state = new AtomicLong(-1L);
+
+    /**
+     * clock
+     */
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * epoch in milliseconds
+     */
+    private long epochMillis = DEFAULT_EPOCH_MILLIS;
+
+    /**
+     * node ID. derived if negative.
+     */
+    private int nodeId = -1;
+
+    /**
+     * maximum milliseconds to wait for the clock which moved backwards, and which the timestamp
+     * field may be ahead of the clock (default 5000)
+     */
+    private long maxClockBackwardMillis = 5000L;
+
+    /**
+     * node ID shifted to its field
+     */
+    private long nodeBits;
+
+    /**
+     * Generates the next ID.
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getNext()
+     * @throws IllegalStateException if the clock moved backwards more than
+     *         {@code maxClockBackwardMillis}
+     */
+    @Override
+    public Long getNext() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * Generates the specified number of IDs by a single compare-and-set.
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getNext(int)
+     * @throws IllegalStateException if the clock moved backwards more than
+     *         {@code maxClockBackwardMillis}
+     */
+    @Override
+    public long[] getNext(int count) {
+        Assert.isTrue(count >= 0, "count must not be negative");
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        long first = reserve(count) - count + 1;
+        for (int i = 0; i < count; i++) {
+            ids[i] = toId(first + i);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ID last generated by this sequencer.
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getCurrent()
+     * @throws IllegalStateException if no ID has been generated yet
+     */
+    @Override
+    public Long getCurrent() {
+        long current = state.get();
+        Assert.state(current >= 0, "no ID has been generated yet");
+        return toId(current);
+    }
+
+    /**
+     * Returns the node ID of this sequencer.
+     * @return node ID
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns the time when the ID was generated.
+     * @param id ID generated by a sequencer with the same epoch
+     * @return time truncated to milliseconds
+     */
+    public Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_ID_BITS + COUNTER_BITS)) + epochMillis);
+    }
+
+    /**
+     * Reserves the specified number of consecutive states.
+     * @param count number of states
+     * @return last reserved state
+     */
+    private long reserve(int count) {
+        while (true) {
+            long now = clock.millis() - epochMillis;
+            long prev = state.get();
+            long first = Math.max(prev + 1, now << COUNTER_BITS);
+            long ahead = (first >>> COUNTER_BITS) - now;
+            if (ahead > 0) {
+                // the counter overflowed in this millisecond, or the clock moved backwards
+                awaitClock(ahead);
+                continue;
+            }
+            long last = first + count - 1;
+            long timestamp = last >>> COUNTER_BITS;
+            if (timestamp - now > maxClockBackwardMillis) {
+                throw new IllegalStateException("too many IDs are requested at once. count="
+                        + count);
+            }
+            if (timestamp > MAX_TIMESTAMP) {
+                throw new IllegalStateException("timestamp overflowed. epoch is too old.");
+            }
+            if (state.compareAndSet(prev, last)) {
+                return last;
+            }
+        }
+    }
+
+    /**
+     * Waits for the clock to catch up with the last issued timestamp.
+     * @param ahead milliseconds which the last issued timestamp is ahead of the clock
+     * @throws IllegalStateException if ahead more than {@code maxClockBackwardMillis}
+     */
+    private void awaitClock(long ahead) {
+        if (ahead > maxClockBackwardMillis) {
+            throw new IllegalStateException("clock moved backwards by " + ahead
+                    + " ms, which exceeds maxClockBackwardMillis");
+        }
+        if (ahead == 1) {
+            Thread.onSpinWait();
+            return;
+        }
+        try {
+            Thread.sleep(ahead - 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the clock", e);
+        }
+    }
+
+    /**
+     * Composes the ID from the state.
+     * @param value state
+     * @return ID
+     */
+    private long toId(long value) {
+        long timestamp = value >>> COUNTER_BITS;
+        long counter = value & ((1L << COUNTER_BITS) - 1);
+        return (timestamp << (NODE_ID_BITS + COUNTER_BITS)) | nodeBits | counter;
+    }
+
+    /**
+     * Sets the clock (default {@link Clock#systemUTC()}).
+     * @param clock clock
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the epoch in milliseconds (default 2024-01-01T00:00:00Z). Must not be changed after IDs
+     * are issued.
+     * @param epochMillis epoch in milliseconds since 1970-01-01T00:00:00Z
+     */
+    public void setEpochMillis(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    /**
+     * Sets the node ID (0 to {@value #MAX_NODE_ID}). Must be unique in the nodes generating IDs.
+     * @param nodeId node ID. derived from the host name and the process ID if negative
+     */
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Sets the maximum milliseconds to wait for the clock which moved backwards, and which the
+     * timestamp field may be ahead of the clock by {@link #getNext(int)} (default 5000).
+     * @param maxClockBackwardMillis maximum milliseconds
+     */
+    public void setMaxClockBackwardMillis(long maxClockBackwardMillis) {
+        this.maxClockBackwardMillis = maxClockBackwardMillis;
+    }
+
+    /**
+     * Checks properties and determines the node ID.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(clock, "clock must not be null");
+        Assert.isTrue(epochMillis <= clock.millis(), "epochMillis must not be in the future");
+        Assert.isTrue(nodeId <= MAX_NODE_ID, "nodeId must be less than or equal to "
+                + MAX_NODE_ID);
+        Assert.isTrue(maxClockBackwardMillis >= 0, "maxClockBackwardMillis must not be negative");
+        if (nodeId < 0) {
+            nodeId = deriveNodeId();
+            logger.warn("nodeId is not set. derived nodeId={} from the host name and the process"
+                    + " ID. Set nodeId explicitly to guarantee the uniqueness across nodes.",
+                    nodeId);
+        }
+        this.nodeBits = (long) nodeId << COUNTER_BITS;
+    }
+
+    /**
+     * Derives the node ID from the host name and the process ID.
+     * @return node ID
+     */
+    static int deriveNodeId() {
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            hostName = "unknown";
+        }
+        String source = hostName + "/" + ProcessHandle.current().pid();
+        int hash = source.hashCode() * 0x9E3779B9;
+        return (hash >>> (Integer.SIZE - NODE_ID_BITS)) & MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Sequencer} backed by a counter table for databases without native sequences.
+ * <p>
+ * The counter is striped across {@code stripeCount} rows to avoid the contention on a single row
+ * lock. The row of stripe {@code i} issues the values congruent to its initial value modulo
+ * {@code stripeCount}, so the values of the stripes never overlap. Each stripe reserves
+ * {@code blockSize} values by a single update in a separate transaction, and issues them from
+ * memory. Threads use the stripes by their thread IDs.
+ * </p>
+ * <p>
+ * The table must have a row for each stripe from {@code 0} to {@code stripeCount - 1}, whose
+ * initial value is {@code start + stripe}. For example, with 4 stripes starting from 1:
+ * </p>
+ *
+ * <pre>
+ * CREATE TABLE order_id_counter (stripe INTEGER PRIMARY KEY, next_value BIGINT NOT NULL);
+ * INSERT INTO order_id_counter VALUES (0, 1), (1, 2), (2, 3), (3, 4);
+ *
+ * &lt;bean id=&quot;orderIdSequencer&quot;
+ *     class=&quot;org.terasoluna.gfw.common.sequencer.StripedTableSequencer&quot;&gt;
+ *     &lt;property name=&quot;dataSource&quot; ref=&quot;dataSource&quot; /&gt;
+ *     &lt;property name=&quot;tableName&quot; value=&quot;order_id_counter&quot; /&gt;
+ *     &lt;property name=&quot;stripeCount&quot; value=&quot;4&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * <p>
+ * Values are unique but not issued in order, and the rest of the reserved blocks is lost when the
+ * application stops, so the sequence has gaps. The number of stripes must not be changed once
+ * values are issued.
+ * </p>
+ * @since 5.12.0
+ */
+public class StripedTableSequencer implements Sequencer<Long>, InitializingBean {
+
+    /**
+     * JdbcTemplate to access the counter table. must not be <code>null</code>
+     */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * transaction manager to reserve blocks in separate transactions. must not be
+     * <code>null</code>
+     */
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * name of the counter table. must not be empty
+     */
+    private String tableName;
+
+    /**
+     * column of the stripe number (default stripe)
+     */
+    private String stripeColumn = "stripe";
+
+    /**
+     * column of the next value of the stripe (default next_value)
+     */
+    private String valueColumn = "next_value";
+
+    /**
+     * number of stripes (default 8)
+     */
+    private int stripeCount = 8;
+
+    /**
+     * number of values reserved by a stripe at once (default 100)
+     */
+    private int blockSize = 100;
+
+    /**
+     * stripes
+     */
+    private Stripe[] stripes;
+
+    /**
+     * transaction template which requires a new transaction
+     */
+    private TransactionTemplate transactionTemplate;
+
+    private String updateSql;
+
+    private String selectSql;
+
+    /**
+     * last issued value. {@code Long.MIN_VALUE} if not issued.
+     */
+    private volatile long lastIssued = Long.MIN_VALUE;
+
+    /**
+     * Issues the next value from the stripe of the current thread.
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getNext()
+     */
+    @Override
+    public Long getNext() {
+        long id = Thread.currentThread().getId();
+        Stripe stripe = stripes[(int) ((id ^ (id >>> 32)) & Integer.MAX_VALUE) % stripes.length];
+        long value = stripe.next();
+        lastIssued = value;
+        return value;
+    }
+
+    /**
+     * Returns the value last issued by this sequencer.
+     * @see org.terasoluna.gfw.common.sequencer.Sequencer#getCurrent()
+     * @throws IllegalStateException if no value has been issued yet
+     */
+    @Override
+    public Long getCurrent() {
+        long value = lastIssued;
+        Assert.state(value != Long.MIN_VALUE, "no value has been issued yet");
+        return value;
+    }
+
+    /**
+     * Reserves a block of the stripe in a new transaction.
+     * @param stripe stripe number
+     * @return first value of the block
+     */
+    private long reserveBlock(int stripe) {
+        long reserved = (long) stripeCount * blockSize;
+        Long next = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update(updateSql, reserved, stripe);
+            Assert.state(updated == 1, () -> "row of stripe " + stripe + " is not found in "
+                    + tableName);
+            return jdbcTemplate.queryForObject(selectSql, Long.class, stripe);
+        });
+        Assert.state(next != null, "next value must not be null");
+        return next - reserved;
+    }
+
+    /**
+     * Sets the DataSource to access the counter table. must not be null
+     * <p>
+     * JdbcTemplate and the transaction manager are created from it.
+     * </p>
+     * @param dataSource DataSource
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * Sets JdbcTemplate directly. must not be null
+     * @param jdbcTemplate JdbcTemplate
+     */
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the transaction manager directly. must not be null
+     * @param transactionManager transaction manager
+     */
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Sets the name of the counter table. must not be empty
+     * @param tableName table name
+     */
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * Sets the column of the stripe number (default stripe).
+     * @param stripeColumn column name
+     */
+    public void setStripeColumn(String stripeColumn) {
+        this.stripeColumn = stripeColumn;
+    }
+
+    /**
+     * Sets the column of the next value of the stripe (default next_value).
+     * @param valueColumn column name
+     */
+    public void setValueColumn(String valueColumn) {
+        this.valueColumn = valueColumn;
+    }
+
+    /**
+     * Sets the number of stripes (default 8). Must be the same as the number of rows.
+     * @param stripeCount number of stripes
+     */
+    public void setStripeCount(int stripeCount) {
+        this.stripeCount = stripeCount;
+    }
+
+    /**
+     * Sets the number of values reserved by a stripe at once (default 100).
+     * @param blockSize number of values
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Checks properties and builds the queries.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(jdbcTemplate, "jdbcTemplate must not be null");
+        Assert.notNull(transactionManager, "transactionManager must not be null");
+        Assert.hasLength(tableName, "tableName must not be empty");
+        Assert.hasLength(stripeColumn, "stripeColumn must not be empty");
+        Assert.hasLength(valueColumn, "valueColumn must not be empty");
+        Assert.isTrue(stripeCount > 0, "stripeCount must be greater than 0");
+        Assert.isTrue(blockSize > 0, "blockSize must be greater than 0");
+
+        this.updateSql = "UPDATE " + tableName + " SET " + valueColumn + " = " + valueColumn
+                + " + ? WHERE " + stripeColumn + " = ?";
+        this.selectSql = "SELECT " + valueColumn + " FROM " + tableName + " WHERE "
+                + stripeColumn + " = ?";
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate = template;
+        Stripe[] created = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            created[i] = new Stripe(i);
+        }
+        this.stripes = created;
+    }
+
+    /**
+     * Values reserved by a row of the counter table.
+     */
+    private final class Stripe {
+
+        private final int number;
+
+        /**
+         * block being issued. exhausted at first.
+         */
+        private volatile Block block = new Block(0L, blockSize);
+
+        Stripe(int number) {
+            this.number = number;
+        }
+
+        long next() {
+            while (true) {
+                Block current = block;
+                long i = current.index.getAndIncrement();
+                if (i < blockSize) {
+                    return current.start + i * stripeCount;
+                }
+                synchronized (this) {
+                    // another thread may have reserved a new block while waiting for the lock
+                    if (block == current) {
+                        block = new Block(reserveBlock(number), 0L);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Block of values reserved by a stripe.
+     */
+    private static final class Block {
+
+        /**
+         * first value of the block
+         */
+        private final long start;
+
+        /**
+         * index of the next value in the block. may exceed the block size when exhausted.
+         */
+        private final AtomicLong index;
+
+        Block(long start, long index) {
+            this.start = start;
+            this.index = new AtomicLong(index);
+        }
+    }
+}
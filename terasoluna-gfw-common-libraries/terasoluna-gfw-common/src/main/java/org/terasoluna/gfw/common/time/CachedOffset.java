@@ -0,0 +1,147 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Offset from the system clock, which is fetched once and resynchronized in the background.
+ * <p>
+ * The offset is fetched on the first access. After the resync interval has elapsed, the next
+ * access starts a resync in a daemon thread and keeps returning the current offset until the
+ * resync completes. A change of the offset greater than {@link #JUMP_THRESHOLD} is logged as a
+ * warning. If a resync fails, the current offset is kept until the next interval.
+ * </p>
+ * @since 5.12.0
+ */
+final class CachedOffset {
+
+    /**
+     * change of the offset logged as a jump
+     */
+    static final Duration JUMP_THRESHOLD = Duration.ofSeconds(1);
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CachedOffset.class);
+
+    /**
+     * name of the resync thread
+     */
+    private final String name;
+
+    /**
+     * source of the offset
+     */
+    private final Supplier<Duration> source;
+
+    /**
+     * resync interval in nanoseconds
+     */
+    private final long resyncIntervalNanos;
+
+    /**
+     * whether or not a resync is in flight
+     */
+    private final AtomicBoolean resyncing = new AtomicBoolean();
+
+    /**
+     * current offset. {@code null} if not fetched yet.
+     */
+    private volatile Duration offset;
+
+    /**
+     * {@link System#nanoTime()} of the last resync
+     */
+    private volatile long syncedAt;
+
+    /**
+     * Constructor.
+     * @param name name of the resync thread
+     * @param source source of the offset
+     * @param resyncInterval resync interval. must be positive
+     */
+    CachedOffset(String name, Supplier<Duration> source, Duration resyncInterval) {
+        if (resyncInterval == null || resyncInterval.isNegative() || resyncInterval.isZero()) {
+            throw new IllegalArgumentException("resyncInterval must be positive");
+        }
+        this.name = name;
+        this.source = source;
+        this.resyncIntervalNanos = resyncInterval.toNanos();
+    }
+
+    /**
+     * Returns the current offset.
+     * @return offset
+     */
+    Duration get() {
+        Duration current = offset;
+        if (current == null) {
+            synchronized (this) {
+                if (offset == null) {
+                    sync();
+                }
+                return offset;
+            }
+        }
+        if (System.nanoTime() - syncedAt >= resyncIntervalNanos && resyncing.compareAndSet(
+                false, true)) {
+            Thread thread = new Thread(this::resync, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return current;
+    }
+
+    /**
+     * Resynchronizes the offset in the background.
+     */
+    private void resync() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // retry after the next interval
+            syncedAt = System.nanoTime();
+            logger.warn("Failed to resync clock offset. The current offset {} is used.", offset,
+                    e);
+        } finally {
+            resyncing.set(false);
+        }
+    }
+
+    /**
+     * Fetches the offset from the source.
+     */
+    private void sync() {
+        Duration fetched = source.get();
+        Duration previous = offset;
+        offset = fetched;
+        syncedAt = System.nanoTime();
+        if (previous == null) {
+            logger.debug("clock offset is {}", fetched);
+        } else if (fetched.minus(previous).abs().compareTo(JUMP_THRESHOLD) > 0) {
+            logger.warn("clock offset jumped from {} to {}", previous, fetched);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("clock offset is resynced from {} to {}", previous, fetched);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.Assert;
+
+/**
+ * Interceptor that opens a scope of {@link ScopedClockFactory} around the method invocation.
+ * <p>
+ * Typically applied to the services with the transaction boundary, so that the business time is
+ * consistent in a transaction. An invocation in a scope joins the scope.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean id=&quot;clockFactory&quot; class=&quot;org.terasoluna.gfw.common.time.ScopedClockFactory&quot;&gt;
+ *   &lt;constructor-arg&gt;
+ *     &lt;bean class=&quot;org.terasoluna.gfw.common.time.JdbcClockFactory&quot;&gt;
+ *       &lt;!-- ... --&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/constructor-arg&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean id=&quot;clockScopeInterceptor&quot; class=&quot;org.terasoluna.gfw.common.time.ClockScopeInterceptor&quot;&gt;
+ *   &lt;constructor-arg ref=&quot;clockFactory&quot; /&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;aop:config&gt;
+ *   &lt;aop:advisor advice-ref=&quot;clockScopeInterceptor&quot;
+ *     pointcut=&quot;&#064;within(org.springframework.stereotype.Service)&quot; /&gt;
+ * &lt;/aop:config&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class ClockScopeInterceptor implements MethodInterceptor {
+
+    /**
+     * clock factory to open scopes
+     */
+    private final ScopedClockFactory clockFactory;
+
+    /**
+     * Set up the clock factory.
+     * @param clockFactory clock factory to open scopes
+     */
+    public ClockScopeInterceptor(ScopedClockFactory clockFactory) {
+        Assert.notNull(clockFactory, "clockFactory must not be null");
+        this.clockFactory = clockFactory;
+    }
+
+    /**
+     * Invokes the method in a scope.
+     * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ScopedClockFactory.Scope scope = clockFactory.openScope();
+        try {
+            return invocation.proceed();
+        } finally {
+            scope.close();
+        }
+    }
+}
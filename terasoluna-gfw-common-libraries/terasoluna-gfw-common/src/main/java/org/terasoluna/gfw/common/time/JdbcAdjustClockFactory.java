@@ -27,6 +27,10 @@ import org.springframework.jdbc.core.JdbcTemplate;
 /**
  * Implementation of {@link ClockFactory} that obtain a Clock adjusted specific duration using value
  * of database column and unit from system default clock.
+ * <p>
+ * If the resync interval is specified, the value is cached and resynchronized in the background
+ * after the interval, so clocks are obtained without querying the database.
+ * </p>
  * @since 5.8.0
  * @author Atsushi Yoshikawa
  */
@@ -38,6 +42,11 @@ public class JdbcAdjustClockFactory implements ClockFactory {
 
     private final TemporalUnit adjustedValueUnit;
 
+    /**
+     * adjusted duration. {@code null} if not cached.
+     */
+    private final CachedOffset cachedOffset;
+
     /**
      * Set up data source and query to get duration value to be adjusted.
      * @param dataSource data source used in {@link JdbcTemplate}
@@ -49,6 +58,24 @@ public class JdbcAdjustClockFactory implements ClockFactory {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.adjustedValueQuery = adjustedValueQuery;
         this.adjustedValueUnit = adjustedValueUnit;
+        this.cachedOffset = null;
+    }
+
+    /**
+     * Set up data source and query to get duration value to be adjusted, and cache the value.
+     * @param dataSource data source used in {@link JdbcTemplate}
+     * @param adjustedValueQuery query to get duration value to be adjusted
+     * @param adjustedValueUnit estimable duration units of the value to be adjusted
+     * @param resyncInterval interval to resync the value. must be positive
+     * @since 5.12.0
+     */
+    public JdbcAdjustClockFactory(DataSource dataSource, String adjustedValueQuery,
+            TemporalUnit adjustedValueUnit, Duration resyncInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.adjustedValueQuery = adjustedValueQuery;
+        this.adjustedValueUnit = adjustedValueUnit;
+        this.cachedOffset = new CachedOffset("clock-resync-jdbc-adjust",
+                this::adjustedDuration, resyncInterval);
     }
 
     /**
@@ -65,7 +92,16 @@ public class JdbcAdjustClockFactory implements ClockFactory {
     @Override
     public Clock tick(ZoneId zone) {
         Clock systemClock = Clock.system(zone);
-        return Clock.offset(systemClock, Duration.of(adjustedValue(), adjustedValueUnit));
+        return Clock.offset(systemClock, (cachedOffset == null) ? adjustedDuration()
+                : cachedOffset.get());
+    }
+
+    /**
+     * Obtain a duration to be adjusted based on database column.
+     * @return duration to be adjusted
+     */
+    private Duration adjustedDuration() {
+        return Duration.of(adjustedValue(), adjustedValueUnit);
     }
 
     /**
@@ -19,13 +19,21 @@ import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import javax.sql.DataSource;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * Implementation of {@link ClockFactory} that obtain a clock based on database column of time
  * stamp.
+ * <p>
+ * If the resync interval is specified, the offset of the database time stamp from the system
+ * clock is cached, and clocks are obtained from the system clock plus the offset without querying
+ * the database. The offset is resynchronized in the background after the interval. This assumes
+ * that the database time stamp advances at the same rate as the system clock.
+ * </p>
  * @since 5.8.0
  * @author Atsushi Yoshikawa
  */
@@ -35,6 +43,11 @@ public class JdbcClockFactory implements ClockFactory {
 
     private final String currentTimestampQuery;
 
+    /**
+     * offset of the database time stamp from the system clock in UTC. {@code null} if not cached.
+     */
+    private final CachedOffset cachedOffset;
+
     /**
      * Set up data source and query to get current time stamp.
      * @param dataSource data source used in {@link JdbcTemplate}
@@ -43,6 +56,23 @@ public class JdbcClockFactory implements ClockFactory {
     public JdbcClockFactory(DataSource dataSource, String currentTimestampQuery) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.currentTimestampQuery = currentTimestampQuery;
+        this.cachedOffset = null;
+    }
+
+    /**
+     * Set up data source and query to get current time stamp, and cache the offset of the time
+     * stamp from the system clock.
+     * @param dataSource data source used in {@link JdbcTemplate}
+     * @param currentTimestampQuery query to get current time stamp
+     * @param resyncInterval interval to resync the offset. must be positive
+     * @since 5.12.0
+     */
+    public JdbcClockFactory(DataSource dataSource, String currentTimestampQuery,
+            Duration resyncInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.currentTimestampQuery = currentTimestampQuery;
+        this.cachedOffset = new CachedOffset("clock-resync-jdbc", this::fetchOffset,
+                resyncInterval);
     }
 
     /**
@@ -68,11 +98,39 @@ public class JdbcClockFactory implements ClockFactory {
      * @return instant of date and time
      */
     private Instant instant(ZoneId zone) {
+        if (cachedOffset != null) {
+            LocalDateTime local = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC).plus(
+                    cachedOffset.get());
+            return local.atZone(zone).toInstant();
+        }
+        return currentTimestamp().atZone(zone).toInstant();
+    }
+
+    /**
+     * Obtain a current time stamp from database.
+     * @return current time stamp
+     */
+    private LocalDateTime currentTimestamp() {
         Timestamp timestamp = jdbcTemplate.queryForObject(currentTimestampQuery,
                 (rs, rowNum) -> rs.getTimestamp(1));
         if (timestamp == null) {
             throw new IllegalStateException("Failed to retrieve current timestamp from database");
         }
-        return timestamp.toLocalDateTime().atZone(zone).toInstant();
+        return timestamp.toLocalDateTime();
+    }
+
+    /**
+     * Obtain the offset of the database time stamp from the system clock in UTC.
+     * <p>
+     * The time stamp is regarded as the one at the middle of the round trip.
+     * </p>
+     * @return offset
+     */
+    private Duration fetchOffset() {
+        long start = System.nanoTime();
+        Instant before = Instant.now();
+        LocalDateTime timestamp = currentTimestamp();
+        Instant middle = before.plusNanos((System.nanoTime() - start) / 2);
+        return Duration.between(LocalDateTime.ofInstant(middle, ZoneOffset.UTC), timestamp);
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Decorator of {@link ClockFactory} that captures the instant once per scope (e.g. a request or a
+ * transaction) and serves it to all callers in the scope.
+ * <p>
+ * In a scope opened by {@link #openScope()}, the instant is obtained from the delegate on the
+ * first call of {@link #fixed(ZoneId)} or {@link #tick(ZoneId)} for each zone, because the
+ * delegate may interpret its time in the given zone (e.g. {@link ConfigurableClockFactory}). After
+ * that, {@link #fixed(ZoneId)} returns a clock fixed to the same instant, and {@link #tick(ZoneId)}
+ * returns a clock which advances from the same instant, without calling the delegate. Outside a
+ * scope, calls are delegated as is.
+ * </p>
+ * <p>
+ * Scopes are bound to the current thread. A scope opened in a scope joins the outer one. Scopes
+ * are opened by {@link ClockScopeInterceptor} or a servlet filter in the web module.
+ * </p>
+ *
+ * <pre>
+ * ScopedClockFactory.Scope scope = clockFactory.openScope();
+ * try {
+ *     // all callers see the same business time
+ * } finally {
+ *     scope.close();
+ * }
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class ScopedClockFactory implements ClockFactory {
+
+    /**
+     * delegate
+     */
+    private final ClockFactory delegate;
+
+    /**
+     * scope bound to the current thread
+     */
+    private final ThreadLocal<ScopeState> currentScope = new ThreadLocal<ScopeState>();
+
+    /**
+     * Set up the delegate.
+     * @param delegate clock factory to obtain the instant from
+     */
+    public ScopedClockFactory(ClockFactory delegate) {
+        Assert.notNull(delegate, "delegate must not be null");
+        this.delegate = delegate;
+    }
+
+    /**
+     * Opens a scope bound to the current thread.
+     * <p>
+     * If a scope is already open, joins it and closing the returned scope does nothing.
+     * </p>
+     * @return scope to be closed at the end
+     */
+    public Scope openScope() {
+        if (currentScope.get() != null) {
+            return () -> {
+            };
+        }
+        ScopeState state = new ScopeState();
+        currentScope.set(state);
+        return () -> {
+            if (currentScope.get() == state) {
+                currentScope.remove();
+            }
+        };
+    }
+
+    /**
+     * Returns whether a scope is open in the current thread.
+     * @return {@code true} if in a scope
+     */
+    public boolean isInScope() {
+        return currentScope.get() != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Clock fixed(ZoneId zone) {
+        ScopeState state = currentScope.get();
+        if (state == null) {
+            return delegate.fixed(zone);
+        }
+        return Clock.fixed(state.capture(zone).instant, zone);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Clock tick(ZoneId zone) {
+        ScopeState state = currentScope.get();
+        if (state == null) {
+            return delegate.tick(zone);
+        }
+        return Clock.offset(Clock.system(zone), state.capture(zone).offset);
+    }
+
+    /**
+     * Scope opened by {@link ScopedClockFactory#openScope()}.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * Closes the scope.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Instants captured in a scope. Used only by the thread of the scope.
+     */
+    private final class ScopeState {
+
+        /**
+         * captured instants keyed by zone. a few zones are used in a scope at most.
+         */
+        private final Map<ZoneId, CapturedInstant> captured =
+                new HashMap<ZoneId, CapturedInstant>(4);
+
+        CapturedInstant capture(ZoneId zone) {
+            CapturedInstant capturedInstant = captured.get(zone);
+            if (capturedInstant == null) {
+                Instant system = Instant.now();
+                Instant instant = delegate.fixed(zone).instant();
+                capturedInstant = new CapturedInstant(instant, Duration.between(system,
+                        instant));
+                captured.put(zone, capturedInstant);
+            }
+            return capturedInstant;
+        }
+    }
+
+    /**
+     * Instant captured for a zone.
+     */
+    private static final class CapturedInstant {
+
+        private final Instant instant;
+
+        /**
+         * offset of the captured instant from the system clock at the capture
+         */
+        private final Duration offset;
+
+        CapturedInstant(Instant instant, Duration offset) {
+            this.instant = instant;
+            this.offset = offset;
+        }
+    }
+}
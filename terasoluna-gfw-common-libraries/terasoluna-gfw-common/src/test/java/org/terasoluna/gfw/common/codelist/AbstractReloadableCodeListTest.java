@@ -15,10 +15,22 @@
  */
 package org.terasoluna.gfw.common.codelist;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.terasoluna.gfw.common.codelist.store.FileCodeListSnapshotStore;
 import org.terasoluna.gfw.common.logback.LogLevelChangeUtil;
 
 import ch.qos.logback.classic.Logger;
@@ -145,6 +157,248 @@ public class AbstractReloadableCodeListTest {
         LogLevelChangeUtil.resetLogLevel();
     }
 
+    @Test
+    public void testVersionAndChangeListener() throws Exception {
+        AbstractReloadableCodeList reloadableCodeList = new ExtendedReloadableCodelist();
+        reloadableCodeList.setBeanName("CL_TEST");
+        reloadableCodeList.setLazyInit(true);
+        reloadableCodeList.afterPropertiesSet();
+
+        List<CodeListChangeEvent> events = new ArrayList<CodeListChangeEvent>();
+        CodeListChangeListener listener = events::add;
+        reloadableCodeList.addChangeListener(listener);
+        assertThat(reloadableCodeList.getVersion()).isEqualTo(0L);
+
+        // first load
+        CodeListSnapshot first = reloadableCodeList.getSnapshot();
+        assertThat(first.getVersion()).isEqualTo(1L);
+        assertThat(reloadableCodeList.getVersion()).isEqualTo(1L);
+
+        // changed
+        reloadableCodeList.refresh();
+        CodeListSnapshot second = reloadableCodeList.getSnapshot();
+        assertThat(second.getVersion()).isEqualTo(2L);
+        assertThat(second.getContentHash()).isNotEqualTo(first.getContentHash());
+
+        // not changed
+        reloadableCodeList.refresh();
+        assertThat(reloadableCodeList.getSnapshot()).isSameAs(second);
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getVersion()).isEqualTo(1L);
+        assertThat(events.get(1).getVersion()).isEqualTo(2L);
+        assertThat(events.get(1).getContentHash()).isEqualTo(second.getContentHash());
+        assertThat(events.get(1).getCodeList()).isSameAs(reloadableCodeList);
+
+        reloadableCodeList.removeChangeListener(listener);
+        reloadableCodeList.refresh();
+        assertThat(events).hasSize(2);
+    }
+
+    @Test
+    public void testChangeListenerThrowsException() throws Exception {
+        AbstractReloadableCodeList reloadableCodeList = new ExtendedReloadableCodelist();
+        reloadableCodeList.setLazyInit(true);
+
+        List<CodeListChangeEvent> events = new ArrayList<CodeListChangeEvent>();
+        reloadableCodeList.addChangeListener(event -> {
+            throw new IllegalStateException("error in listener");
+        });
+        reloadableCodeList.addChangeListener(events::add);
+
+        reloadableCodeList.refresh();
+
+        assertThat(reloadableCodeList.getVersion()).isEqualTo(1L);
+        assertThat(events).hasSize(1);
+    }
+
+    /**
+     * In case LazyInit is set to true, listeners are notified of the first load outside of the lock
+     * @throws Exception
+     */
+    @Test
+    public void testChangeListenerNotifiedOutsideOfLockOnFirstAccess() throws Exception {
+        AbstractReloadableCodeList reloadableCodeList = new ExtendedReloadableCodelist();
+        reloadableCodeList.setLazyInit(true);
+        reloadableCodeList.afterPropertiesSet();
+        Object refreshLock = ReflectionTestUtils.getField(reloadableCodeList, "refreshLock");
+
+        List<Boolean> lockHeld = new ArrayList<Boolean>();
+        reloadableCodeList.addChangeListener(event -> lockHeld.add(Thread.holdsLock(
+                refreshLock)));
+
+        reloadableCodeList.asMap();
+
+        assertThat(lockHeld).containsExactly(false);
+    }
+
+    /**
+     * In case LazyInit is set to true and asMap is called concurrently for the first time
+     * @throws Exception
+     */
+    @Test
+    public void testAsMapConcurrentlyLoadsOnlyOnce() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        AbstractReloadableCodeList reloadableCodeList = new AbstractReloadableCodeList() {
+            @Override
+            protected Map<String, String> retrieveMap() {
+                count.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Map<String, String> map = new HashMap<String, String>();
+                map.put("001", "label001");
+                return map;
+            }
+        };
+        reloadableCodeList.setLazyInit(true);
+        reloadableCodeList.afterPropertiesSet();
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<String, String>>> futures = new ArrayList<Future<Map<String, String>>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return reloadableCodeList.asMap();
+                }));
+            }
+            start.countDown();
+            for (Future<Map<String, String>> future : futures) {
+                assertThat(future.get()).containsEntry("001", "label001");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(count.get()).isEqualTo(1);
+    }
+
+    /**
+     * In case the snapshot is stored, starts from it and reconciles it with the source.
+     */
+    @Test
+    public void testRestoreSnapshotAndReconcile(@TempDir Path directory) {
+        FileCodeListSnapshotStore store = new FileCodeListSnapshotStore(directory);
+        Map<String, String> stored = new HashMap<String, String>();
+        stored.put("001", "storedLabel001");
+        store.save("CL_TEST", stored);
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        AbstractReloadableCodeList reloadableCodeList = new ExtendedReloadableCodelist();
+        reloadableCodeList.setBeanName("CL_TEST");
+        reloadableCodeList.setSnapshotStore(store);
+        reloadableCodeList.setReconcileExecutor(tasks::add);
+        reloadableCodeList.afterPropertiesSet();
+
+        // starts from the stored snapshot without retrieving
+        assertThat(reloadableCodeList.asMap()).isEqualTo(stored);
+        assertThat(reloadableCodeList.getVersion()).isEqualTo(1L);
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+
+        assertThat(reloadableCodeList.asMap()).containsEntry("001", "firstRetrieve001");
+        assertThat(reloadableCodeList.getVersion()).isEqualTo(2L);
+        assertThat(store.load("CL_TEST")).isEqualTo(reloadableCodeList.asMap());
+    }
+
+    /**
+     * In case many snapshots are restored, reconciliations are run by the bounded default executor.
+     * @throws Exception
+     */
+    @Test
+    public void testReconcileByDefaultExecutor(@TempDir Path directory) throws Exception {
+        FileCodeListSnapshotStore store = new FileCodeListSnapshotStore(directory);
+        int codeLists = 6;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch reconciled = new CountDownLatch(codeLists);
+        // counts the snapshots stored by reconciling, so that no write remains after the test
+        FileCodeListSnapshotStore reconcilingStore = new FileCodeListSnapshotStore(directory) {
+            @Override
+            public void save(String codeListId, Map<String, String> map) {
+                super.save(codeListId, map);
+                reconciled.countDown();
+            }
+        };
+        for (int i = 0; i < codeLists; i++) {
+            store.save("CL_TEST" + i, Map.of("001", "storedLabel001"));
+            AbstractReloadableCodeList reloadableCodeList = new AbstractReloadableCodeList() {
+                @Override
+                protected Map<String, String> retrieveMap() {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return Map.of("001", "label001");
+                }
+            };
+            reloadableCodeList.setBeanName("CL_TEST" + i);
+            reloadableCodeList.setSnapshotStore(reconcilingStore);
+            reloadableCodeList.afterPropertiesSet();
+        }
+
+        assertThat(reconciled.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isBetween(1,
+                AbstractReloadableCodeList.DEFAULT_RECONCILE_THREADS);
+    }
+
+    /**
+     * In case the snapshot is not stored, loads from the source and stores it.
+     */
+    @Test
+    public void testSnapshotNotStored(@TempDir Path directory) {
+        FileCodeListSnapshotStore store = new FileCodeListSnapshotStore(directory);
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        AbstractReloadableCodeList reloadableCodeList = new ExtendedReloadableCodelist();
+        reloadableCodeList.setBeanName("CL_TEST");
+        reloadableCodeList.setSnapshotStore(store);
+        reloadableCodeList.setReconcileExecutor(tasks::add);
+        reloadableCodeList.afterPropertiesSet();
+
+        assertThat(tasks).isEmpty();
+        assertThat(reloadableCodeList.asMap()).containsEntry("001", "firstRetrieve001");
+        assertThat(store.load("CL_TEST")).isEqualTo(reloadableCodeList.asMap());
+
+        reloadableCodeList.refresh();
+
+        assertThat(store.load("CL_TEST")).containsEntry("001", "secondRetrieve001");
+    }
+
+    /**
+     * In case reconciling fails, keeps the restored snapshot.
+     */
+    @Test
+    public void testReconcileFailure(@TempDir Path directory) {
+        FileCodeListSnapshotStore store = new FileCodeListSnapshotStore(directory);
+        Map<String, String> stored = new HashMap<String, String>();
+        stored.put("001", "storedLabel001");
+        store.save("CL_TEST", stored);
+
+        AbstractReloadableCodeList reloadableCodeList = new AbstractReloadableCodeList() {
+            @Override
+            protected Map<String, String> retrieveMap() {
+                throw new IllegalStateException("source is not available");
+            }
+        };
+        reloadableCodeList.setBeanName("CL_TEST");
+        reloadableCodeList.setSnapshotStore(store);
+        reloadableCodeList.setReconcileExecutor(Runnable::run);
+        reloadableCodeList.setLazyInit(true);
+        reloadableCodeList.afterPropertiesSet();
+
+        assertThat(reloadableCodeList.asMap()).isEqualTo(stored);
+        assertThat(reloadableCodeList.getVersion()).isEqualTo(1L);
+    }
+
 }
 
 
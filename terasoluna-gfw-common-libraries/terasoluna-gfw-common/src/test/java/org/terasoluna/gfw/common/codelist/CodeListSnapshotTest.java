@@ -0,0 +1,83 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CodeListSnapshotTest {
+
+    @Test
+    public void testSnapshot() {
+        Map<String, String> map = linkedMap("1", "a", "2", "b");
+        CodeListSnapshot snapshot = new CodeListSnapshot(Collections.unmodifiableMap(map), 3L);
+
+        assertThat(snapshot.asMap()).isEqualTo(map);
+        assertThat(snapshot.getVersion()).isEqualTo(3L);
+        assertThat(snapshot.getContentHash()).isEqualTo(CodeListSnapshot.contentHashOf(map));
+        assertThat(snapshot.toString()).contains("version=3", "size=2");
+    }
+
+    @Test
+    public void testHasSameContent() {
+        CodeListSnapshot snapshot = new CodeListSnapshot(linkedMap("1", "a", "2", "b"), 1L);
+
+        assertThat(snapshot.hasSameContent(linkedMap("1", "a", "2", "b"))).isTrue();
+        // order differs
+        assertThat(snapshot.hasSameContent(linkedMap("2", "b", "1", "a"))).isFalse();
+        // label differs
+        assertThat(snapshot.hasSameContent(linkedMap("1", "a", "2", "c"))).isFalse();
+        // size differs
+        assertThat(snapshot.hasSameContent(linkedMap("1", "a", "2", "b", "3", "c"))).isFalse();
+        assertThat(snapshot.hasSameContent(new HashMap<String, String>())).isFalse();
+    }
+
+    @Test
+    public void testContentHashDependsOnOrder() {
+        long hash1 = CodeListSnapshot.contentHashOf(linkedMap("1", "a", "2", "b"));
+        long hash2 = CodeListSnapshot.contentHashOf(linkedMap("2", "b", "1", "a"));
+        long hash3 = CodeListSnapshot.contentHashOf(linkedMap("1", "b", "2", "a"));
+
+        assertThat(hash1).isNotEqualTo(hash2);
+        assertThat(hash1).isNotEqualTo(hash3);
+        assertThat(CodeListSnapshot.contentHashOf(linkedMap("1", "a", "2", "b")))
+                .isEqualTo(hash1);
+    }
+
+    @Test
+    public void testSameContentWithNullLabel() {
+        Map<String, String> map1 = linkedMap("1", null);
+        Map<String, String> map2 = linkedMap("1", null);
+
+        assertThat(CodeListSnapshot.sameContent(map1, map2)).isTrue();
+        assertThat(CodeListSnapshot.sameContent(map1, linkedMap("1", "a"))).isFalse();
+        assertThat(CodeListSnapshot.sameContent(map1, map1)).isTrue();
+    }
+
+    private static Map<String, String> linkedMap(String... keyValues) {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class CodeMembershipTest {
+
+    @Test
+    public void testCompileDenseNumbers() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (int i = -5; i <= 100; i += 5) {
+            map.put(String.valueOf(i), "label" + i);
+        }
+
+        CodeMembership membership = CodeMembership.compile(CompactCodeListMap.copyOf(map));
+
+        assertThat(membership.contains(-5L)).isTrue();
+        assertThat(membership.contains(0L)).isTrue();
+        assertThat(membership.contains(100L)).isTrue();
+        assertThat(membership.contains(1L)).isFalse();
+        assertThat(membership.contains(-10L)).isFalse();
+        assertThat(membership.contains(105L)).isFalse();
+        assertThat(membership.contains(Long.MIN_VALUE)).isFalse();
+        assertThat(membership.contains("100")).isTrue();
+        assertThat(membership.contains("0100")).isFalse();
+    }
+
+    @Test
+    public void testCompileSparseNumbers() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put(String.valueOf(Long.MIN_VALUE), "min");
+        map.put("7", "seven");
+        map.put(String.valueOf(Long.MAX_VALUE), "max");
+
+        CodeMembership membership = CodeMembership.compile(map);
+
+        assertThat(membership.contains(Long.MIN_VALUE)).isTrue();
+        assertThat(membership.contains(7L)).isTrue();
+        assertThat(membership.contains(Long.MAX_VALUE)).isTrue();
+        assertThat(membership.contains(8L)).isFalse();
+        assertThat(membership.contains(Long.MAX_VALUE - 1)).isFalse();
+    }
+
+    @Test
+    public void testCompileIgnoresNonCanonicalNumbers() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("01", "leading zero");
+        map.put("-0", "negative zero");
+        map.put("+2", "plus");
+        map.put("9223372036854775808", "overflow");
+        map.put("A", "alpha");
+
+        CodeMembership membership = CodeMembership.compile(map);
+
+        assertThat(membership.contains(1L)).isFalse();
+        assertThat(membership.contains(0L)).isFalse();
+        assertThat(membership.contains(2L)).isFalse();
+        assertThat(membership.contains("01")).isTrue();
+        assertThat(membership.contains("9223372036854775808")).isTrue();
+    }
+
+    @Test
+    public void testCompileCharacters() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("A", "alpha");
+        map.put("あ", "a");
+        map.put("7", "seven");
+        map.put("BC", "two characters");
+
+        CodeMembership membership = CodeMembership.compile(map);
+
+        assertThat(membership.contains('A')).isTrue();
+        assertThat(membership.contains('あ')).isTrue();
+        assertThat(membership.contains('7')).isTrue();
+        assertThat(membership.contains(7L)).isTrue();
+        assertThat(membership.contains('B')).isFalse();
+        assertThat(membership.contains("BC")).isTrue();
+    }
+
+    @Test
+    public void testOf() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        CodeMembership membership = CodeMembership.of(map);
+
+        assertThat(membership.contains(1L)).isFalse();
+
+        map.put("1", "one");
+        map.put("X", "x");
+
+        assertThat(membership.contains(1L)).isTrue();
+        assertThat(membership.contains('X')).isTrue();
+        assertThat(membership.contains("X")).isTrue();
+    }
+
+    @Test
+    public void testSimpleMapCodeListRecompilesOnSetMap() {
+        SimpleMapCodeList codeList = new SimpleMapCodeList();
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("1", "one");
+        codeList.setMap(map);
+
+        assertThat(codeList.getMembership().contains(1L)).isTrue();
+        assertThat(codeList.getMembership()).isSameAs(codeList.getMembership());
+
+        map.clear();
+        map.put("2", "two");
+        codeList.setMap(map);
+
+        assertThat(codeList.getMembership().contains(1L)).isFalse();
+        assertThat(codeList.getMembership().contains(2L)).isTrue();
+    }
+
+    @Test
+    public void testNumberRangeCodeList() {
+        NumberRangeCodeList codeList = new NumberRangeCodeList();
+        codeList.setFrom(10);
+        codeList.setTo(0);
+        codeList.setInterval(2);
+        codeList.setValueFormat("%02d");
+        codeList.afterPropertiesSet();
+
+        CodeMembership membership = codeList.getMembership();
+
+        assertThat(membership.contains(10L)).isTrue();
+        assertThat(membership.contains(4L)).isTrue();
+        assertThat(membership.contains(0L)).isTrue();
+        assertThat(membership.contains(5L)).isFalse();
+        assertThat(membership.contains(12L)).isFalse();
+        assertThat(membership.contains(1L << 32)).isFalse();
+        assertThat(membership.contains("04")).isTrue();
+        assertThat(membership.contains("4")).isFalse();
+    }
+
+    @Test
+    public void testNumberRangeCodeListNotParsable() {
+        NumberRangeCodeList codeList = new NumberRangeCodeList();
+        codeList.setFrom(1);
+        codeList.setTo(3);
+        codeList.setValueFormat("%d-%1$d");
+        codeList.afterPropertiesSet();
+
+        CodeMembership membership = codeList.getMembership();
+
+        assertThat(membership.contains(2L)).isTrue();
+        assertThat(membership.contains(4L)).isFalse();
+        assertThat(membership.contains("2-2")).isTrue();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Benchmark of the memory footprint of {@link CompactCodeListMap}.
+ * <p>
+ * Compares the heap used by {@code Collections.unmodifiableMap(LinkedHashMap)} and
+ * {@link CompactCodeListMap} holding the same entries. Keys and labels are shared by both, so only
+ * the overhead of the maps is measured. Run with a fixed heap size (e.g. {@code -Xms1g -Xmx1g}) for
+ * stable results.
+ * </p>
+ *
+ * <pre>
+ * java -cp ... org.terasoluna.gfw.common.codelist.CompactCodeListMapFootprint [maps] [entries]
+ * </pre>
+ */
+public class CompactCodeListMapFootprint {
+
+    public static void main(String[] args) {
+        int maps = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int entries = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+
+        Map<String, String> source = new LinkedHashMap<String, String>();
+        for (int i = 0; i < entries; i++) {
+            source.put(String.format("%05d", i), "label" + i);
+        }
+
+        long linked = measure(maps, source,
+                m -> Collections.unmodifiableMap(new LinkedHashMap<String, String>(m)));
+        long compact = measure(maps, source, m -> CompactCodeListMap.copyOf(m));
+
+        System.out.printf("maps=%d, entries=%d%n", maps, entries);
+        System.out.printf("unmodifiable LinkedHashMap : %,d bytes (%.1f bytes/entry)%n", linked,
+                (double) linked / maps / entries);
+        System.out.printf("CompactCodeListMap         : %,d bytes (%.1f bytes/entry)%n", compact,
+                (double) compact / maps / entries);
+    }
+
+    private static long measure(int maps, Map<String, String> source,
+            Function<Map<String, String>, Map<String, String>> factory) {
+        List<Map<String, String>> holder = new ArrayList<Map<String, String>>(maps);
+        long before = usedMemory();
+        for (int i = 0; i < maps; i++) {
+            holder.add(factory.apply(source));
+        }
+        long after = usedMemory();
+        if (holder.size() != maps) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactCodeListMapTest {
+
+    @Test
+    public void testCopyOf() {
+        Map<String, String> source = new LinkedHashMap<String, String>();
+        for (int i = 1000; i > 0; i--) {
+            source.put(String.valueOf(i), "label" + i);
+        }
+
+        CompactCodeListMap map = CompactCodeListMap.copyOf(source);
+
+        assertThat(map).isEqualTo(source);
+        assertThat(map.hashCode()).isEqualTo(source.hashCode());
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(new ArrayList<String>(map.keySet())).isEqualTo(new ArrayList<String>(source
+                .keySet()));
+        assertThat(new ArrayList<String>(map.values())).isEqualTo(new ArrayList<String>(source
+                .values()));
+        for (int i = 1; i <= 1000; i++) {
+            assertThat(map.get(String.valueOf(i))).isEqualTo("label" + i);
+        }
+        assertThat(map.get("0")).isNull();
+        assertThat(map.containsKey("1001")).isFalse();
+        assertThat(map.get(1)).isNull();
+        assertThat(map.toString()).isEqualTo(source.toString());
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // "Aa" and "BB" have the same hash code
+        Map<String, String> source = new LinkedHashMap<String, String>();
+        source.put("Aa", "1");
+        source.put("BB", "2");
+        source.put("AaBB", "3");
+        source.put("BBAa", "4");
+
+        CompactCodeListMap map = CompactCodeListMap.copyOf(source);
+
+        assertThat(map).containsExactly(Map.entry("Aa", "1"), Map.entry("BB", "2"), Map.entry(
+                "AaBB", "3"), Map.entry("BBAa", "4"));
+        assertThat(map.get("AaAa")).isNull();
+    }
+
+    @Test
+    public void testNullKeyAndValue() {
+        Map<String, String> source = new HashMap<String, String>();
+        source.put(null, "null key");
+        source.put("null value", null);
+
+        CompactCodeListMap map = CompactCodeListMap.copyOf(source);
+
+        assertThat(map.get(null)).isEqualTo("null key");
+        assertThat(map.containsKey("null value")).isTrue();
+        assertThat(map.get("null value")).isNull();
+        assertThat(map).isEqualTo(source);
+    }
+
+    @Test
+    public void testEmpty() {
+        CompactCodeListMap map = CompactCodeListMap.copyOf(Collections.<String, String> emptyMap());
+
+        assertThat(map).isEmpty();
+        assertThat(map.get("a")).isNull();
+        assertThat(map.get(null)).isNull();
+    }
+
+    @Test
+    public void testCopyOfCompactMap() {
+        CompactCodeListMap map = CompactCodeListMap.copyOf(Map.of("1", "a"));
+
+        assertThat(CompactCodeListMap.copyOf(map)).isSameAs(map);
+    }
+
+    @Test
+    public void testUnmodifiable() {
+        CompactCodeListMap map = CompactCodeListMap.copyOf(Map.of("1", "a"));
+
+        assertThrows(UnsupportedOperationException.class, () -> {
+            map.put("2", "b");
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            map.remove("1");
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            map.entrySet().iterator().next().setValue("b");
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            map.keySet().clear();
+        });
+    }
+
+    @Test
+    public void testCopyOfNull() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            CompactCodeListMap.copyOf(null);
+        });
+    }
+}
@@ -184,7 +184,6 @@ public class JdbcCodeListTest {
      * In case LazyInit is set to false
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     @Test
     public void testAfterPropertiesSet01() throws Exception {
         // create target
@@ -198,25 +197,24 @@ public class JdbcCodeListTest {
 
         // fetch exposed map for the first time
 
-        Field f = ReflectionUtils.findField(JdbcCodeList.class, "exposedMap");
+        Field f = ReflectionUtils.findField(JdbcCodeList.class, "snapshot");
         ReflectionUtils.makeAccessible(f);
-        Map<String, String> exposedMapFirstFetch = (Map<String, String>) f.get(jdbcCodeList);
+        CodeListSnapshot exposedMapFirstFetch = (CodeListSnapshot) f.get(jdbcCodeList);
 
         // assert
         assertThat(exposedMapFirstFetch).isNull();
 
         jdbcCodeList.afterPropertiesSet();
 
-        Map<String, String> exposedMapSecondFetch = (Map<String, String>) f.get(jdbcCodeList);
+        CodeListSnapshot exposedMapSecondFetch = (CodeListSnapshot) f.get(jdbcCodeList);
         // assert
-        assertThat(exposedMapSecondFetch).isEqualTo(mapInput);
+        assertThat(exposedMapSecondFetch.asMap()).isEqualTo(mapInput);
     }
 
     /**
      * In case LazyInit is set to true
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     @Test
     public void testAfterPropertiesSet02() throws Exception {
         // create target
@@ -231,9 +229,9 @@ public class JdbcCodeListTest {
 
         // fetch exposed map for the first time
 
-        Field f = ReflectionUtils.findField(JdbcCodeList.class, "exposedMap");
+        Field f = ReflectionUtils.findField(JdbcCodeList.class, "snapshot");
         ReflectionUtils.makeAccessible(f);
-        Map<String, String> exposedMapFirstFetch = (Map<String, String>) f.get(jdbcCodeList);
+        CodeListSnapshot exposedMapFirstFetch = (CodeListSnapshot) f.get(jdbcCodeList);
 
         // assert
         assertThat(exposedMapFirstFetch).isNull();
@@ -0,0 +1,181 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+public class JdbcHierarchicalCodeListTest {
+
+    DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:hierarchical-codelist;DB_CLOSE_DELAY=-1", "sa", "");
+
+    JdbcTemplate jdbcTemplate;
+
+    private Locale originalLocale;
+
+    @BeforeEach
+    public void before() {
+        originalLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE m_area(parent_code VARCHAR(5), code VARCHAR(5), name VARCHAR(20), sort_order INT)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES (NULL, '13', 'Tokyo', 2)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES (NULL, '01', 'Hokkaido', 1)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('13', '13101', 'Chiyoda', 3)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('13', '13102', 'Chuo', 4)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('01', '01100', 'Sapporo', 5)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('13101', '001', 'Marunouchi', 6)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('13102', '001', 'Ginza', 7)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('13', '13103', NULL, 8)");
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.execute("DROP TABLE m_area");
+        Locale.setDefault(originalLocale);
+    }
+
+    @Test
+    public void testAsMap() {
+        JdbcHierarchicalCodeList codeList = createCodeList();
+        codeList.afterPropertiesSet();
+
+        assertThat(codeList.asMap()).containsExactly(Map.entry("01", "Hokkaido"), Map.entry("13",
+                "Tokyo"));
+        assertThat(codeList.asMap("13")).containsExactly(Map.entry("13101", "Chiyoda"), Map
+                .entry("13102", "Chuo"));
+        // same code under different parents
+        assertThat(codeList.asMap("13101")).containsExactly(Map.entry("001", "Marunouchi"));
+        assertThat(codeList.asMap("13102")).containsExactly(Map.entry("001", "Ginza"));
+        assertThat(codeList.asMap("99")).isEmpty();
+        assertThat(codeList.asMap("13")).isSameAs(codeList.asMap("13"));
+    }
+
+    @Test
+    public void testRefresh() {
+        JdbcHierarchicalCodeList codeList = createCodeList();
+        codeList.setLazyInit(true);
+        codeList.afterPropertiesSet();
+        assertThat(codeList.asMap("01")).hasSize(1);
+
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('01', '01202', 'Hakodate', 9)");
+        assertThat(codeList.asMap("01")).hasSize(1);
+        codeList.refresh();
+
+        assertThat(codeList.asMap("01")).containsOnlyKeys("01100", "01202");
+    }
+
+    @Test
+    public void testParentCodeUnderMoreThanOneParent() {
+        JdbcHierarchicalCodeList codeList = createCodeList();
+        codeList.setBeanName("CL_AREA");
+        codeList.afterPropertiesSet();
+
+        // city 001 under two prefectures, whose districts would be merged
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('13', '001', 'City A', 10)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('01', '001', 'City B', 11)");
+        jdbcTemplate.update("INSERT INTO m_area VALUES ('001', '00101', 'District', 12)");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            codeList.refresh();
+        });
+        assertThat(e).hasMessageContaining("code=001").hasMessageContaining("CL_AREA");
+        // the previously loaded hierarchy is kept
+        assertThat(codeList.asMap("13101")).containsExactly(Map.entry("001", "Marunouchi"));
+        assertThat(codeList.asMap("001")).isEmpty();
+    }
+
+    @Test
+    public void testAfterPropertiesSetParentColumnIsEmpty() {
+        JdbcHierarchicalCodeList codeList = createCodeList();
+        codeList.setParentColumn("");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            codeList.afterPropertiesSet();
+        });
+    }
+
+    @Test
+    public void testExistInHierarchicalCodeList() {
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean("CL_AREA", JdbcHierarchicalCodeList.class, this::createCodeList);
+            context.registerBean("validator", LocalValidatorFactoryBean.class);
+            context.refresh();
+            Validator validator = context.getBean(Validator.class);
+
+            assertThat(validator.validate(new AddressForm("13", "13101"))).isEmpty();
+            assertThat(validator.validate(new AddressForm("13", null))).isEmpty();
+            assertThat(validator.validate(new AddressForm(null, "13101"))).isEmpty();
+
+            Set<ConstraintViolation<AddressForm>> violations = validator.validate(
+                    new AddressForm("01", "13101"));
+            assertThat(violations).hasSize(1);
+            ConstraintViolation<AddressForm> violation = violations.iterator().next();
+            assertThat(violation.getPropertyPath().toString()).isEqualTo("city");
+            assertThat(violation.getMessage()).isEqualTo("Does not exist in CL_AREA");
+        }
+    }
+
+    private JdbcHierarchicalCodeList createCodeList() {
+        JdbcHierarchicalCodeList codeList = new JdbcHierarchicalCodeList();
+        codeList.setDataSource(dataSource);
+        codeList.setQuerySql("SELECT parent_code, code, name FROM m_area ORDER BY sort_order");
+        codeList.setParentColumn("parent_code");
+        codeList.setValueColumn("code");
+        codeList.setLabelColumn("name");
+        return codeList;
+    }
+
+    @ExistInHierarchicalCodeList(codeListId = "CL_AREA", parentField = "prefecture", childField = "city")
+    public static class AddressForm {
+
+        private String prefecture;
+
+        private String city;
+
+        AddressForm(String prefecture, String city) {
+            this.prefecture = prefecture;
+            this.city = city;
+        }
+
+        public String getPrefecture() {
+            return prefecture;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+}
@@ -291,4 +291,97 @@ public class NumberRangeCodeListTest {
                 () -> numberRangeCodeList.afterPropertiesSet());
         assertThat(ex).hasMessage("labelFormat must not be empty");
     }
+
+    @Test
+    public void testVirtualMapContainsKey() {
+
+        NumberRangeCodeList numberRangeCodeList = new NumberRangeCodeList();
+        numberRangeCodeList.setFrom(1900);
+        numberRangeCodeList.setTo(2100);
+        numberRangeCodeList.setInterval(5);
+        numberRangeCodeList.setValueFormat("Y%d");
+        numberRangeCodeList.setLabelFormat("%d年");
+        numberRangeCodeList.afterPropertiesSet();
+
+        Map<String, String> map = numberRangeCodeList.asMap();
+        assertThat(map).isNotInstanceOf(LinkedHashMap.class);
+        assertThat(map).hasSize(41);
+        assertThat(map.containsKey("Y1900")).isTrue();
+        assertThat(map.containsKey("Y2100")).isTrue();
+        assertThat(map.get("Y2025")).isEqualTo("2025年");
+        // not on the interval
+        assertThat(map.containsKey("Y2024")).isFalse();
+        // out of range
+        assertThat(map.containsKey("Y1895")).isFalse();
+        assertThat(map.containsKey("Y2105")).isFalse();
+        // not formatted exactly
+        assertThat(map.containsKey("Y02025")).isFalse();
+        assertThat(map.containsKey("Y 2025")).isFalse();
+        assertThat(map.containsKey("Y+2025")).isFalse();
+        assertThat(map.containsKey("2025")).isFalse();
+        assertThat(map.containsKey("Yabc")).isFalse();
+        assertThat(map.containsKey(2025)).isFalse();
+        assertThat(map.get("Y2024")).isNull();
+    }
+
+    @Test
+    public void testVirtualMapEqualsMaterializedMap() {
+
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        for (int i = 10; i >= -10; i -= 3) {
+            expected.put(String.format("%04d", i), String.format("label%s", i));
+        }
+
+        NumberRangeCodeList numberRangeCodeList = new NumberRangeCodeList();
+        numberRangeCodeList.setFrom(10);
+        numberRangeCodeList.setTo(-10);
+        numberRangeCodeList.setInterval(3);
+        numberRangeCodeList.setValueFormat("%04d");
+        numberRangeCodeList.setLabelFormat("label%s");
+        numberRangeCodeList.afterPropertiesSet();
+
+        Map<String, String> map = numberRangeCodeList.asMap();
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(new ArrayList<String>(map.keySet())).isEqualTo(new ArrayList<String>(expected
+                .keySet()));
+        assertThat(map.containsKey("-008")).isTrue();
+        assertThat(map.containsKey("-0008")).isFalse();
+        assertThrows(UnsupportedOperationException.class, () -> {
+            map.put("0011", "label11");
+        });
+    }
+
+    @Test
+    public void testLargeRangeIsNotMaterialized() {
+
+        NumberRangeCodeList numberRangeCodeList = new NumberRangeCodeList();
+        numberRangeCodeList.setFrom(Integer.MIN_VALUE);
+        numberRangeCodeList.setTo(Integer.MAX_VALUE);
+        numberRangeCodeList.afterPropertiesSet();
+
+        Map<String, String> map = numberRangeCodeList.asMap();
+        assertThat(map.size()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(map.containsKey(String.valueOf(Integer.MIN_VALUE))).isTrue();
+        assertThat(map.containsKey(String.valueOf(Integer.MAX_VALUE))).isTrue();
+        assertThat(map.containsKey("2147483648")).isFalse();
+        assertThat(map.keySet().iterator().next()).isEqualTo(String.valueOf(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void testNotParsableValueFormatIsMaterialized() {
+
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("a", "label10");
+        expected.put("b", "label11");
+
+        NumberRangeCodeList numberRangeCodeList = new NumberRangeCodeList();
+        numberRangeCodeList.setFrom(10);
+        numberRangeCodeList.setTo(11);
+        numberRangeCodeList.setValueFormat("%x");
+        numberRangeCodeList.setLabelFormat("label%s");
+        numberRangeCodeList.afterPropertiesSet();
+
+        assertThat(numberRangeCodeList.asMap()).isEqualTo(expected);
+    }
 }
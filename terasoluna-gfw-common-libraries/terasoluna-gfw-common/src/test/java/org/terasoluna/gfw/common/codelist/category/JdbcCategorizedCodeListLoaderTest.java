@@ -0,0 +1,252 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.category;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class JdbcCategorizedCodeListLoaderTest {
+
+    DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:categorized-codelist;DB_CLOSE_DELAY=-1", "sa", "");
+
+    JdbcTemplate jdbcTemplate;
+
+    AtomicInteger queryCount = new AtomicInteger();
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE m_code(category VARCHAR(10), code VARCHAR(3), label VARCHAR(20), sort_order INT)");
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('COLOR', 'R', 'Red', 2)");
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('COLOR', 'B', 'Blue', 1)");
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('SIZE', 'S', 'Small', 1)");
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('SIZE', 'M', NULL, 2)");
+        jdbcTemplate.update("INSERT INTO m_code VALUES (NULL, 'X', 'Unknown', 1)");
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.execute("DROP TABLE m_code");
+    }
+
+    @Test
+    public void testLoadCategories() {
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.afterPropertiesSet();
+
+        assertThat(loader.getCategories()).containsOnlyKeys("COLOR", "SIZE");
+        assertThat(loader.getCategory("COLOR")).containsExactly(Map.entry("B", "Blue"), Map.entry(
+                "R", "Red"));
+        assertThat(loader.getCategory("SIZE")).containsExactly(Map.entry("S", "Small"));
+        assertThat(loader.getCategory("UNKNOWN")).isEmpty();
+        assertThat(queryCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCodeListsShareOneQuery() {
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.afterPropertiesSet();
+        CategorizedCodeList color = createCodeList(loader, "CL_COLOR", "COLOR");
+        CategorizedCodeList size = createCodeList(loader, "CL_SIZE", "SIZE");
+
+        assertThat(color.asMap()).containsOnlyKeys("B", "R");
+        assertThat(color.asMap()).isSameAs(loader.getCategory("COLOR"));
+        assertThat(size.asMap()).containsOnlyKeys("S");
+        assertThat(queryCount.get()).isEqualTo(1);
+
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('SIZE', 'L', 'Large', 3)");
+        loader.refresh();
+
+        assertThat(queryCount.get()).isEqualTo(2);
+        assertThat(size.asMap()).containsOnlyKeys("S", "L");
+        assertThat(size.getVersion()).isEqualTo(2L);
+        // not changed
+        assertThat(color.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testRefreshCodeListReloadsCategories() {
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.setMinReloadInterval(0L);
+        loader.afterPropertiesSet();
+        CategorizedCodeList color = createCodeList(loader, "CL_COLOR", "COLOR");
+        CategorizedCodeList size = createCodeList(loader, "CL_SIZE", "SIZE");
+        assertThat(queryCount.get()).isEqualTo(1);
+
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('SIZE', 'L', 'Large', 3)");
+        // e.g. refreshed by CodeListRefreshCoordinator
+        size.refresh();
+
+        assertThat(queryCount.get()).isEqualTo(2);
+        assertThat(size.asMap()).containsOnlyKeys("S", "L");
+        assertThat(size.getVersion()).isEqualTo(2L);
+        assertThat(loader.getCategory("SIZE")).containsOnlyKeys("S", "L");
+
+        color.refresh();
+        assertThat(queryCount.get()).isEqualTo(3);
+        assertThat(color.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testSequentialRefreshesShareRecentReload() throws Exception {
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.setMinReloadInterval(200L);
+        loader.afterPropertiesSet();
+        List<CategorizedCodeList> codeLists = new ArrayList<CategorizedCodeList>();
+        for (int i = 0; i < 10; i++) {
+            codeLists.add(createCodeList(loader, "CL_SIZE" + i, "SIZE"));
+        }
+        jdbcTemplate.update("INSERT INTO m_code VALUES ('SIZE', 'L', 'Large', 3)");
+        Thread.sleep(300);
+
+        // e.g. refreshed one after another by CodeListRefreshCoordinator
+        for (CategorizedCodeList codeList : codeLists) {
+            codeList.refresh();
+        }
+
+        assertThat(queryCount.get()).isEqualTo(2);
+        for (CategorizedCodeList codeList : codeLists) {
+            assertThat(codeList.asMap()).containsOnlyKeys("S", "L");
+            assertThat(codeList.getVersion()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    public void testConcurrentRefreshesShareOneQuery() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger blockingQueries = new AtomicInteger();
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.setMinReloadInterval(0L);
+        loader.afterPropertiesSet();
+        CategorizedCodeList color = createCodeList(loader, "CL_COLOR", "COLOR");
+        CategorizedCodeList size = createCodeList(loader, "CL_SIZE", "SIZE");
+        loader.setJdbcTemplate(new JdbcTemplate(dataSource) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                queryCount.incrementAndGet();
+                if (blockingQueries.getAndIncrement() == 0) {
+                    queryStarted.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.query(sql, rch);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // a reload in flight before the refreshes are requested
+            Future<?> inFlight = executor.submit(loader::refresh);
+            assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> colorRefresh = executor.submit(color::refresh);
+            Future<?> sizeRefresh = executor.submit(size::refresh);
+            Thread.sleep(100);
+            release.countDown();
+            inFlight.get(5, TimeUnit.SECONDS);
+            colorRefresh.get(5, TimeUnit.SECONDS);
+            sizeRefresh.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        // the in-flight reload and one more reload shared by both refreshes
+        assertThat(queryCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testLazyInit() {
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.setLazyInit(true);
+        loader.afterPropertiesSet();
+        assertThat(queryCount.get()).isEqualTo(0);
+
+        assertThat(loader.getCategory("COLOR")).hasSize(2);
+        assertThat(loader.getCategory("SIZE")).hasSize(1);
+        assertThat(queryCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAfterPropertiesSetCategoryColumnIsEmpty() {
+        JdbcCategorizedCodeListLoader loader = createLoader();
+        loader.setCategoryColumn("");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            loader.afterPropertiesSet();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSetCategoryIsEmpty() {
+        CategorizedCodeList codeList = new CategorizedCodeList();
+        codeList.setLoader(createLoader());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            codeList.afterPropertiesSet();
+        });
+    }
+
+    private JdbcCategorizedCodeListLoader createLoader() {
+        JdbcCategorizedCodeListLoader loader = new JdbcCategorizedCodeListLoader();
+        loader.setJdbcTemplate(new JdbcTemplate(dataSource) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                queryCount.incrementAndGet();
+                super.query(sql, rch);
+            }
+        });
+        loader.setQuerySql(
+                "SELECT category, code, label FROM m_code ORDER BY category, sort_order");
+        loader.setCategoryColumn("category");
+        loader.setValueColumn("code");
+        loader.setLabelColumn("label");
+        return loader;
+    }
+
+    private CategorizedCodeList createCodeList(JdbcCategorizedCodeListLoader loader,
+            String codeListId, String category) {
+        CategorizedCodeList codeList = new CategorizedCodeList();
+        codeList.setBeanName(codeListId);
+        codeList.setLoader(loader);
+        codeList.setCategory(category);
+        codeList.afterPropertiesSet();
+        return codeList;
+    }
+}
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 import org.junit.jupiter.api.AfterAll;
@@ -33,6 +34,7 @@ import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.support.ApplicationObjectSupport;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -134,19 +136,19 @@ public class SimpleI18nCodeListTest extends ApplicationObjectSupport {
 
     @Test
     public void testSetRows() {
-        assertThat(testSetRows.codeListTable.size()).isEqualTo(14); // 2 rows x 7
+        assertThat(cellCount(testSetRows)).isEqualTo(14); // 2 rows x 7
         // columns
     }
 
     @Test
     public void testSetRowsByCodeList() {
-        assertThat(testSetRowsByCodeList.codeListTable.size()).isEqualTo(14); // 2 rows x 7
+        assertThat(cellCount(testSetRowsByCodeList)).isEqualTo(14); // 2 rows x 7
         // columns
     }
 
     @Test
     public void testSetColumns() {
-        assertThat(testSetColumns.codeListTable.size()).isEqualTo(14); // 2 rows x 7
+        assertThat(cellCount(testSetColumns)).isEqualTo(14); // 2 rows x 7
         // columns
     }
 
@@ -158,7 +160,7 @@ public class SimpleI18nCodeListTest extends ApplicationObjectSupport {
         // load lazy-init bean.
         SimpleI18nCodeList testDuplicateCodeListTable = getApplicationContext()
                 .getBean("CL_testDuplicateCodeListTable", SimpleI18nCodeList.class);
-        assertThat(testDuplicateCodeListTable.codeListTable.size()).isEqualTo(14); // 2 rows x 7
+        assertThat(cellCount(testDuplicateCodeListTable)).isEqualTo(14); // 2 rows x 7
         // columns
         verify(mockAppender, times(2))
                 .doAppend(argThat(argument -> argument.getLevel().equals(Level.WARN)));
@@ -248,4 +250,42 @@ public class SimpleI18nCodeListTest extends ApplicationObjectSupport {
         assertThat(testResolveLocale.resolveLocale(Locale.CANADA)).isEqualTo(Locale.GERMAN);
     }
 
+    @Test
+    public void testAsMapReturnsPrecomputedRow() {
+        assertThat(testSetRows.asMap(Locale.JAPANESE)).isSameAs(testSetRows.asMap(
+                Locale.JAPAN));
+        assertThat(testSetRows.asMap(Locale.ENGLISH)).isSameAs(testSetRows.asMap(
+                Locale.ENGLISH));
+    }
+
+    @Test
+    public void testResolveLocaleCached() {
+        SimpleI18nCodeList codeList = new SimpleI18nCodeList();
+        codeList.setRows(Collections.singletonMap(Locale.ENGLISH, Collections.singletonMap("0",
+                "Sun.")));
+        codeList.setFallbackTo(Locale.ENGLISH);
+        codeList.afterPropertiesSet();
+
+        assertThat(codeList.resolveLocale(Locale.US)).isEqualTo(Locale.ENGLISH);
+        assertThat(codeList.resolveLocale(Locale.US)).isEqualTo(Locale.ENGLISH);
+        assertThat(codeList.resolveLocale(Locale.FRENCH)).isEqualTo(Locale.ENGLISH);
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(codeList, "resolvedLocales"))
+                .hasSize(2);
+
+        // the number of cached locales is bounded
+        for (int i = 0; i < AbstractI18nCodeList.MAX_RESOLVED_LOCALES + 10; i++) {
+            assertThat(codeList.resolveLocale(new Locale("en", "X" + i))).isEqualTo(
+                    Locale.ENGLISH);
+        }
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(codeList, "resolvedLocales"))
+                .hasSize(AbstractI18nCodeList.MAX_RESOLVED_LOCALES);
+    }
+
+    private static int cellCount(SimpleI18nCodeList codeList) {
+        int count = 0;
+        for (Map<String, String> row : codeList.codeListRows.values()) {
+            count += row.size();
+        }
+        return count;
+    }
 }
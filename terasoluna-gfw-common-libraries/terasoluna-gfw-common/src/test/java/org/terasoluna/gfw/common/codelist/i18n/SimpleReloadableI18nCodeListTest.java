@@ -17,6 +17,8 @@ package org.terasoluna.gfw.common.codelist.i18n;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,6 +32,7 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.terasoluna.gfw.common.codelist.CodeListChangeEvent;
 import org.terasoluna.gfw.common.codelist.JdbcCodeList;
 import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
 import com.google.common.collect.HashBasedTable;
@@ -161,6 +164,33 @@ public class SimpleReloadableI18nCodeListTest {
         assertCodeListMap(11);
     }
 
+    @Test
+    public void testRefreshRecursivelyPublishesOneVersion() {
+
+        afterPropertiesSet();
+        assertThat(reloadableI18nCodeList.getVersion()).isEqualTo(1L);
+
+        List<CodeListChangeEvent> events = new ArrayList<CodeListChangeEvent>();
+        List<Boolean> lockHeld = new ArrayList<Boolean>();
+        Object refreshLock = ReflectionTestUtils.getField(reloadableI18nCodeList, "refreshLock");
+        reloadableI18nCodeList.addChangeListener(event -> {
+            events.add(event);
+            lockHeld.add(Thread.holdsLock(refreshLock));
+        });
+
+        // update tables of database. both locales are changed.
+        updateRegisteredCodeLists(11);
+
+        reloadableI18nCodeList.refresh(true);
+
+        // the table is rebuilt once after refreshing all locales
+        assertCodeListMap(11);
+        assertThat(reloadableI18nCodeList.getVersion()).isEqualTo(2L);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getVersion()).isEqualTo(2L);
+        assertThat(lockHeld).containsExactly(false);
+    }
+
     @Test
     public void testRefreshNonRecursively() {
 
@@ -179,13 +209,53 @@ public class SimpleReloadableI18nCodeListTest {
         assertCodeListMap(10);
     }
 
+    @Test
+    public void testRefreshChildCodeList() {
+
+        afterPropertiesSet();
+        assertThat(reloadableI18nCodeList.getVersion()).isEqualTo(1L);
+
+        List<CodeListChangeEvent> events = new ArrayList<CodeListChangeEvent>();
+        reloadableI18nCodeList.addChangeListener(events::add);
+
+        // update tables of database.
+        updateRegisteredCodeLists(11);
+
+        // refresh only registered codelists.
+        codeListEnglish.refresh();
+        codeListJapanese.refresh();
+
+        // reflect changes of registered codelists.
+        assertCodeListMap(11);
+        assertThat(reloadableI18nCodeList.getVersion()).isEqualTo(3L);
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1).getVersion()).isEqualTo(3L);
+        assertThat(events.get(1).getCodeList()).isSameAs(reloadableI18nCodeList);
+    }
+
+    @Test
+    public void testRefreshWithoutChange() {
+
+        afterPropertiesSet();
+        Map<String, String> before = reloadableI18nCodeList.asMap(Locale.ENGLISH);
+
+        List<CodeListChangeEvent> events = new ArrayList<CodeListChangeEvent>();
+        reloadableI18nCodeList.addChangeListener(events::add);
+
+        reloadableI18nCodeList.refresh();
+
+        assertThat(reloadableI18nCodeList.getVersion()).isEqualTo(1L);
+        assertThat(reloadableI18nCodeList.asMap(Locale.ENGLISH)).isEqualTo(before);
+        assertThat(events).isEmpty();
+    }
+
     @Test
     public void testLazyInit() {
 
         reloadableI18nCodeList.setLazyInit(true);
         afterPropertiesSet();
 
-        assertThat(ReflectionTestUtils.getField(reloadableI18nCodeList, "codeListTable")).isNull();
+        assertThat(ReflectionTestUtils.getField(reloadableI18nCodeList, "snapshot")).isNull();
         assertCodeListMap(10);
     }
 
@@ -0,0 +1,145 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CodeListIndexTest {
+
+    @Test
+    public void testFindCodeByLabel() {
+        CodeListIndex index = CodeListIndex.of(linkedMap("1", "Red", "2", "Blue", "3", "Red"));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.findCodeByLabel("Red")).isEqualTo("1");
+        assertThat(index.findCodesByLabel("Red")).containsExactly("1", "3");
+        assertThat(index.findCodeByLabel("Blue")).isEqualTo("2");
+        assertThat(index.findCodeByLabel("Green")).isNull();
+        assertThat(index.findCodesByLabel("Green")).isEmpty();
+        assertThat(index.findCodeByLabel(null)).isNull();
+    }
+
+    @Test
+    public void testFindByCodePrefix() {
+        CodeListIndex index = CodeListIndex.of(linkedMap("130", "c", "100", "a", "12", "b",
+                "200", "d", "1", "e"));
+
+        // ordered by the codelist
+        assertThat(index.findByCodePrefix("1")).containsExactly(entry("130", "c"), entry("100",
+                "a"), entry("12", "b"), entry("1", "e"));
+        assertThat(index.findByCodePrefix("10")).containsExactly(entry("100", "a"));
+        assertThat(index.findByCodePrefix("3")).isEmpty();
+        assertThat(index.findByCodePrefix("")).hasSize(5);
+        assertThat(index.findByCodePrefix("1", 2)).containsExactly(entry("130", "c"), entry(
+                "100", "a"));
+    }
+
+    @Test
+    public void testFindByCodePrefixWithLimit() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        Random random = new Random(1);
+        while (map.size() < 500) {
+            String code = Integer.toString(random.nextInt(100000));
+            map.put(code, "label" + code);
+        }
+        CodeListIndex index = CodeListIndex.of(map);
+
+        for (String prefix : new String[] { "", "1", "12", "9", "999" }) {
+            List<String> expected = new ArrayList<String>();
+            for (String code : map.keySet()) {
+                if (code.startsWith(prefix)) {
+                    expected.add(code);
+                }
+            }
+            for (int limit : new int[] { 1, 3, 10, 100, 1000 }) {
+                // the first entries in the order of the codelist
+                assertThat(index.findByCodePrefix(prefix, limit).keySet())
+                        .containsExactlyElementsOf(expected.subList(0, Math.min(limit, expected
+                                .size())));
+            }
+        }
+    }
+
+    @Test
+    public void testFindByLabelPrefix() {
+        CodeListIndex index = CodeListIndex.of(linkedMap("01", "Tokyo", "02", "Osaka", "03",
+                "Toyama", "04", null, "05", "Tottori"));
+
+        assertThat(index.findByLabelPrefix("To")).containsExactly(entry("01", "Tokyo"), entry(
+                "03", "Toyama"), entry("05", "Tottori"));
+        assertThat(index.findByLabelPrefix("Tot")).containsExactly(entry("05", "Tottori"));
+        assertThat(index.findByLabelPrefix("Z")).isEmpty();
+        // null label is not indexed
+        assertThat(index.findByLabelPrefix("")).hasSize(4);
+    }
+
+    @Test
+    public void testNormalized() {
+        CodeListIndex index = CodeListIndex.of(linkedMap("ＡＢ１", "ｶﾞｽ", "AB2", "ガス会社"), true);
+
+        assertThat(index.isNormalized()).isTrue();
+        assertThat(index.findByCodePrefix("AB")).containsExactly(entry("ＡＢ１", "ｶﾞｽ"), entry(
+                "AB2", "ガス会社"));
+        assertThat(index.findByLabelPrefix("ガス")).hasSize(2);
+        assertThat(index.findCodeByLabel("ガス")).isEqualTo("ＡＢ１");
+        assertThat(index.findCodeByLabel("ｶﾞｽ会社")).isEqualTo("AB2");
+    }
+
+    @Test
+    public void testNotNormalized() {
+        CodeListIndex index = CodeListIndex.of(linkedMap("ＡＢ１", "ｶﾞｽ"));
+
+        assertThat(index.isNormalized()).isFalse();
+        assertThat(index.findByCodePrefix("AB")).isEmpty();
+        assertThat(index.findCodeByLabel("ガス")).isNull();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        CodeListIndex index = CodeListIndex.of(linkedMap("1", "a"));
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            CodeListIndex.of(null);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            index.findByCodePrefix(null);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            index.findByLabelPrefix("a", 0);
+        });
+    }
+
+    private static Map.Entry<String, String> entry(String key, String value) {
+        return Map.entry(key, value);
+    }
+
+    static Map<String, String> linkedMap(String... keyValues) {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.SimpleMapCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.I18nCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.SimpleI18nCodeList;
+
+public class IndexedCodeListTest {
+
+    @Test
+    public void testRebuildOnlyWhenVersionChanged() {
+        MutableCodeList codeList = new MutableCodeList();
+        codeList.map = CodeListIndexTest.linkedMap("1", "a");
+        codeList.afterPropertiesSet();
+        IndexedCodeList indexed = new IndexedCodeList(codeList);
+
+        CodeListIndex index1 = indexed.getIndex();
+        assertThat(index1.findCodeByLabel("a")).isEqualTo("1");
+
+        // refresh without change
+        codeList.refresh();
+        assertThat(indexed.getIndex()).isSameAs(index1);
+
+        // refresh with change
+        codeList.map = CodeListIndexTest.linkedMap("1", "a", "2", "b");
+        codeList.refresh();
+        CodeListIndex index2 = indexed.getIndex();
+        assertThat(index2).isNotSameAs(index1);
+        assertThat(index2.findCodeByLabel("b")).isEqualTo("2");
+        assertThat(indexed.getIndex()).isSameAs(index2);
+        assertThat(indexed.asMap()).isEqualTo(codeList.map);
+        assertThat(indexed.getCodeList()).isSameAs(codeList);
+    }
+
+    @Test
+    public void testStaticCodeList() {
+        SimpleMapCodeList codeList = new SimpleMapCodeList();
+        codeList.setMap(CodeListIndexTest.linkedMap("1", "a"));
+        IndexedCodeList indexed = new IndexedCodeList(codeList, true);
+
+        CodeListIndex index = indexed.getIndex();
+        assertThat(index.isNormalized()).isTrue();
+        assertThat(indexed.getIndex()).isSameAs(index);
+    }
+
+    @Test
+    public void testLocalizedIndex() {
+        SimpleI18nCodeList codeList = new SimpleI18nCodeList();
+        codeList.setRows(Map.of(Locale.ENGLISH, CodeListIndexTest.linkedMap("1", "Red"),
+                Locale.JAPANESE, CodeListIndexTest.linkedMap("1", "赤")));
+        codeList.afterPropertiesSet();
+        IndexedCodeList indexed = new IndexedCodeList(codeList);
+
+        CodeListIndex english = indexed.getIndex(Locale.ENGLISH);
+        assertThat(english.findCodeByLabel("Red")).isEqualTo("1");
+        assertThat(indexed.getIndex(Locale.JAPANESE).findCodeByLabel("赤")).isEqualTo("1");
+        assertThat(indexed.getIndex(Locale.ENGLISH)).isSameAs(english);
+    }
+
+    @Test
+    public void testLocalizedIndexSharedByResolvedLocale() {
+        SimpleI18nCodeList codeList = new SimpleI18nCodeList();
+        codeList.setRows(Map.of(Locale.ENGLISH, CodeListIndexTest.linkedMap("1", "Red"),
+                Locale.JAPANESE, CodeListIndexTest.linkedMap("1", "赤")));
+        codeList.setFallbackTo(Locale.ENGLISH);
+        codeList.afterPropertiesSet();
+        IndexedCodeList indexed = new IndexedCodeList(codeList);
+
+        CodeListIndex english = indexed.getIndex(Locale.ENGLISH);
+        assertThat(indexed.getIndex(Locale.US)).isSameAs(english);
+        assertThat(indexed.getIndex(Locale.JAPAN)).isSameAs(indexed.getIndex(
+                Locale.JAPANESE));
+        // unknown locales fall back to the same row and do not add indexes
+        for (int i = 0; i < IndexedCodeList.MAX_LOCALIZED_INDEXES * 2; i++) {
+            assertThat(indexed.getIndex(new Locale("x" + i))).isSameAs(english);
+        }
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(indexed, "localizedIndexes"))
+                .hasSize(2);
+    }
+
+    @Test
+    public void testLocalizedIndexIsBounded() {
+        I18nCodeList codeList = new I18nCodeList() {
+            @Override
+            public Map<String, String> asMap() {
+                return asMap(Locale.ENGLISH);
+            }
+
+            @Override
+            public Map<String, String> asMap(Locale locale) {
+                // new map for each call
+                return CodeListIndexTest.linkedMap("1", locale.toString());
+            }
+
+            @Override
+            public String getCodeListId() {
+                return "CL_TEST";
+            }
+        };
+        IndexedCodeList indexed = new IndexedCodeList(codeList);
+
+        for (int i = 0; i < IndexedCodeList.MAX_LOCALIZED_INDEXES * 2; i++) {
+            assertThat(indexed.getIndex(new Locale("x" + i)).findCodeByLabel("x" + i))
+                    .isEqualTo("1");
+        }
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(indexed, "localizedIndexes"))
+                .hasSize(IndexedCodeList.MAX_LOCALIZED_INDEXES);
+    }
+
+    @Test
+    public void testLocalizedIndexOfNonI18nCodeList() {
+        IndexedCodeList indexed = new IndexedCodeList(new SimpleMapCodeList());
+
+        assertThrows(IllegalStateException.class, () -> {
+            indexed.getIndex(Locale.ENGLISH);
+        });
+    }
+
+    static class MutableCodeList extends AbstractReloadableCodeList {
+
+        volatile Map<String, String> map;
+
+        @Override
+        protected Map<String, String> retrieveMap() {
+            return map;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class JdbcLookupCodeListTest {
+
+    DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:lookup-codelist;DB_CLOSE_DELAY=-1", "sa", "");
+
+    JdbcTemplate jdbcTemplate;
+
+    AtomicInteger queryCount = new AtomicInteger();
+
+    Runnable onQuery = () -> {
+    };
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE m_item(code VARCHAR(5) PRIMARY KEY, name VARCHAR(20))");
+        for (int i = 0; i < 250; i++) {
+            jdbcTemplate.update("INSERT INTO m_item VALUES (?, ?)", String.format("%05d", i),
+                    "item" + i);
+        }
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.execute("DROP TABLE m_item");
+    }
+
+    @Test
+    public void testLookup() {
+        JdbcLookupCodeList codeList = createCodeList();
+        Map<String, String> map = codeList.asMap();
+
+        assertThat(map.get("00001")).isEqualTo("item1");
+        assertThat(map.get("00001")).isEqualTo("item1");
+        assertThat(map.containsKey("00002")).isTrue();
+        assertThat(map.get(null)).isNull();
+        assertThat(map.get(1)).isNull();
+
+        assertThat(queryCount.get()).isEqualTo(2);
+        LookupCodeListStats stats = codeList.getStats();
+        assertThat(stats.getHitCount()).isEqualTo(1L);
+        assertThat(stats.getMissCount()).isEqualTo(2L);
+        assertThat(stats.getLoadCount()).isEqualTo(2L);
+        assertThat(stats.getCacheSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNegativeCaching() {
+        JdbcLookupCodeList codeList = createCodeList();
+
+        assertThat(codeList.asMap().containsKey("99999")).isFalse();
+        assertThat(codeList.asMap().get("99999")).isNull();
+
+        assertThat(queryCount.get()).isEqualTo(1);
+        assertThat(codeList.getStats().getHitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testGetAllInBatches() {
+        JdbcLookupCodeList codeList = createCodeList();
+        codeList.asMap().get("00003");
+        queryCount.set(0);
+
+        String[] codes = new String[250];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = String.format("%05d", 249 - i);
+        }
+        Map<String, String> labels = codeList.getAll(Arrays.asList(codes));
+
+        assertThat(labels).hasSize(250);
+        assertThat(labels.keySet()).startsWith("00249", "00248");
+        // 249 codes not cached are looked up in batches of 100
+        assertThat(queryCount.get()).isEqualTo(3);
+
+        labels = codeList.getAll(Arrays.asList("00010", "99999", "00020"));
+        assertThat(labels).containsExactly(Map.entry("00010", "item10"), Map.entry("00020",
+                "item20"));
+        assertThat(queryCount.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testRefresh() {
+        JdbcLookupCodeList codeList = createCodeList();
+        assertThat(codeList.asMap().get("99999")).isNull();
+
+        jdbcTemplate.update("INSERT INTO m_item VALUES ('99999', 'new item')");
+        codeList.refresh();
+
+        assertThat(codeList.asMap().get("99999")).isEqualTo("new item");
+    }
+
+    @Test
+    public void testRefreshDuringLoad() {
+        JdbcLookupCodeList codeList = createCodeList();
+        onQuery = codeList::refresh;
+
+        // the label looked up before the refresh is returned but not cached
+        assertThat(codeList.asMap().get("00001")).isEqualTo("item1");
+        assertThat(codeList.getStats().getCacheSize()).isEqualTo(0);
+
+        onQuery = () -> {
+        };
+        assertThat(codeList.asMap().get("00001")).isEqualTo("item1");
+        assertThat(codeList.getStats().getCacheSize()).isEqualTo(1);
+        assertThat(queryCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSizeAndIsEmpty() {
+        JdbcLookupCodeList codeList = createCodeList();
+        Map<String, String> map = codeList.asMap();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.isEmpty()).isTrue();
+
+        map.get("00001");
+        map.get("99999");
+
+        // the codes which do not exist are not counted
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.isEmpty()).isFalse();
+
+        codeList.refresh();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testIterationNotSupported() {
+        JdbcLookupCodeList codeList = createCodeList();
+
+        assertThrows(UnsupportedOperationException.class, () -> {
+            codeList.asMap().entrySet();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSetQuerySqlIsEmpty() {
+        JdbcLookupCodeList codeList = new JdbcLookupCodeList();
+        codeList.setDataSource(dataSource);
+        codeList.setValueColumn("code");
+        codeList.setLabelColumn("name");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            codeList.afterPropertiesSet();
+        });
+    }
+
+    private JdbcLookupCodeList createCodeList() {
+        JdbcLookupCodeList codeList = new JdbcLookupCodeList();
+        codeList.setBeanName("CL_ITEM");
+        codeList.setJdbcTemplate(new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                queryCount.incrementAndGet();
+                super.query(psc, rch);
+                onQuery.run();
+            }
+        });
+        codeList.setQuerySql("SELECT code, name FROM m_item WHERE code IN (:codes)");
+        codeList.setValueColumn("code");
+        codeList.setLabelColumn("name");
+        codeList.setMaximumSize(1000);
+        codeList.afterPropertiesSet();
+        return codeList;
+    }
+}
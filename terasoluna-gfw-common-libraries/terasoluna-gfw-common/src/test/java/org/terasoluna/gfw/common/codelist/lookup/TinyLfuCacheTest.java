@@ -0,0 +1,85 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testPutAndGet() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10);
+        cache.put("a", "A");
+        cache.put("a", "AA");
+
+        assertThat(cache.get("a")).isEqualTo("AA");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBounded() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<Integer, Integer>(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.evictionCount()).isEqualTo(1000 - cache.size());
+    }
+
+    @Test
+    public void testHotKeysSurviveScan() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<Integer, Integer>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+
+        // scan over cold keys accessed only once, while the hot keys keep being accessed
+        for (int i = 1000; i < 11000; i++) {
+            cache.get(i % 50);
+            if (cache.get(i) == null) {
+                cache.put(i, i);
+            }
+        }
+
+        int hotKeys = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                hotKeys++;
+            }
+        }
+        assertThat(hotKeys).isEqualTo(50);
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10);
+        cache.put("a", "A");
+        cache.invalidateAll();
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.mapped;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedCodeListFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        for (int i = 9999; i >= 0; i--) {
+            expected.put(String.format("%07d", i), "label" + i);
+        }
+        expected.put("東京", "とうきょう");
+        expected.put("", "empty");
+        Path file = dir.resolve("codelist.dat");
+
+        write(file, expected);
+        MappedCodeListFile mappedFile = MappedCodeListFile.open(file);
+        Map<String, String> map = mappedFile.asMap();
+
+        assertThat(mappedFile.size()).isEqualTo(expected.size());
+        assertThat(map).isEqualTo(expected);
+        // ordered by the written order
+        assertThat(new ArrayList<String>(map.keySet())).isEqualTo(new ArrayList<String>(expected
+                .keySet()));
+        assertThat(map.get("0000123")).isEqualTo("label123");
+        assertThat(map.get("東京")).isEqualTo("とうきょう");
+        assertThat(map.get("")).isEqualTo("empty");
+        assertThat(map.containsKey("0010000")).isFalse();
+        assertThat(map.get("0010000")).isNull();
+        assertThat(map.get(123)).isNull();
+        assertThat(Files.list(dir)).containsExactly(file);
+    }
+
+    @Test
+    public void testCollidingHashes() throws IOException {
+        // "Aa" and "BB" have the same hash code
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("Aa", "1");
+        expected.put("BB", "2");
+        expected.put("AaAa", "3");
+        expected.put("BBBB", "4");
+        Path file = dir.resolve("codelist.dat");
+
+        write(file, expected);
+        Map<String, String> map = MappedCodeListFile.open(file).asMap();
+
+        assertThat(map.get("Aa")).isEqualTo("1");
+        assertThat(map.get("BB")).isEqualTo("2");
+        assertThat(map.get("AaAa")).isEqualTo("3");
+        assertThat(map.get("BBBB")).isEqualTo("4");
+        assertThat(map.get("AaBB")).isNull();
+    }
+
+    @Test
+    public void testDuplicateCode() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        try (MappedCodeListFileWriter writer = new MappedCodeListFileWriter(file)) {
+            writer.add("Aa", "1");
+            writer.add("BB", "2");
+            writer.add("Aa", "3");
+
+            IllegalStateException e = assertThrows(IllegalStateException.class, writer::commit);
+            assertThat(e.getMessage()).contains("code=Aa");
+        }
+
+        assertThat(Files.list(dir)).isEmpty();
+    }
+
+    @Test
+    public void testDigest() throws IOException {
+        Path file1 = dir.resolve("codelist1.dat");
+        Path file2 = dir.resolve("codelist2.dat");
+        write(file1, Map.of("1", "a"));
+        write(file2, Map.of("1", "a"));
+        MappedCodeListFile mappedFile = MappedCodeListFile.open(file1);
+
+        assertThat(mappedFile.digest()).hasSize(32).isEqualTo(MappedCodeListFile.open(file2)
+                .digest());
+        write(file2, Map.of("1", "b"));
+        assertThat(mappedFile.digest()).isNotEqualTo(MappedCodeListFile.open(file2).digest());
+        assertThat(MappedCodeListFile.of(mappedFile.asMap())).isSameAs(mappedFile);
+        assertThat(MappedCodeListFile.of(Map.of("1", "a"))).isNull();
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+
+        write(file, new LinkedHashMap<String, String>());
+        Map<String, String> map = MappedCodeListFile.open(file).asMap();
+
+        assertThat(map).isEmpty();
+        assertThat(map.get("a")).isNull();
+    }
+
+    @Test
+    public void testReplace() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        write(file, Map.of("1", "a"));
+        MappedCodeListFile before = MappedCodeListFile.open(file);
+
+        write(file, Map.of("2", "b"));
+        MappedCodeListFile after = MappedCodeListFile.open(file);
+
+        // the mapped previous file is still readable
+        assertThat(before.asMap()).containsExactly(Map.entry("1", "a"));
+        assertThat(after.asMap()).containsExactly(Map.entry("2", "b"));
+    }
+
+    @Test
+    public void testCloseWithoutCommit() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        try (MappedCodeListFileWriter writer = new MappedCodeListFileWriter(file)) {
+            writer.add("1", "a");
+            assertThat(writer.size()).isEqualTo(1);
+        }
+
+        assertThat(Files.list(dir)).isEmpty();
+    }
+
+    @Test
+    public void testUnmodifiable() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        write(file, Map.of("1", "a"));
+        Map<String, String> map = MappedCodeListFile.open(file).asMap();
+
+        assertThrows(UnsupportedOperationException.class, () -> {
+            map.put("2", "b");
+        });
+    }
+
+    @Test
+    public void testOpenInvalidFile() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        Files.write(file, "not a codelist file".getBytes());
+
+        assertThrows(IllegalStateException.class, () -> {
+            MappedCodeListFile.open(file);
+        });
+    }
+
+    @Test
+    public void testAddAfterCommit() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        MappedCodeListFileWriter writer = new MappedCodeListFileWriter(file);
+        writer.commit();
+
+        assertThrows(IllegalStateException.class, () -> {
+            writer.add("1", "a");
+        });
+    }
+
+    static void write(Path file, Map<String, String> map) throws IOException {
+        try (MappedCodeListFileWriter writer = new MappedCodeListFileWriter(file)) {
+            for (Map.Entry<String, String> e : map.entrySet()) {
+                writer.add(e.getKey(), e.getValue());
+            }
+            writer.commit();
+        }
+    }
+}
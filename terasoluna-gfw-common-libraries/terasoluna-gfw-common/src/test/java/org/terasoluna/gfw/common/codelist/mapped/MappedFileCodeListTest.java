@@ -0,0 +1,159 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.mapped;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.terasoluna.gfw.common.codelist.CodeListSnapshot;
+
+public class MappedFileCodeListTest {
+
+    DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:mapped-codelist;DB_CLOSE_DELAY=-1", "sa", "");
+
+    JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE postal_code(code VARCHAR(7) PRIMARY KEY, name VARCHAR(50))");
+        jdbcTemplate.update("INSERT INTO postal_code VALUES ('1000001', 'Chiyoda')");
+        jdbcTemplate.update("INSERT INTO postal_code VALUES ('1000002', 'Kokyogaien')");
+        jdbcTemplate.update("INSERT INTO postal_code VALUES ('1000003', NULL)");
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.execute("DROP TABLE postal_code");
+    }
+
+    @Test
+    public void testBuildFromQuery() {
+        MappedFileCodeList codeList = createCodeList();
+        codeList.afterPropertiesSet();
+
+        assertThat(codeList.asMap()).containsExactly(Map.entry("1000001", "Chiyoda"), Map.entry(
+                "1000002", "Kokyogaien"));
+        assertThat(codeList.getVersion()).isEqualTo(1L);
+
+        jdbcTemplate.update("INSERT INTO postal_code VALUES ('1000004', 'Otemachi')");
+        codeList.refresh();
+
+        assertThat(codeList.asMap()).hasSize(3).containsEntry("1000004", "Otemachi");
+        assertThat(codeList.getVersion()).isEqualTo(2L);
+
+        // not changed
+        codeList.refresh();
+        assertThat(codeList.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testChangeDetectedByDigest() {
+        MappedFileCodeList codeList = createCodeList();
+        codeList.afterPropertiesSet();
+        CodeListSnapshot first = codeList.getSnapshot();
+
+        assertThat(first.getContentHash()).isEqualTo(ByteBuffer.wrap(MappedCodeListFile.of(first
+                .asMap()).digest()).getLong());
+        // tested by looking up the mapped file, not compiled onto the heap
+        assertThat(codeList.getMembership().getClass().getSimpleName()).isEqualTo(
+                "MapCodeMembership");
+        assertThat(codeList.getMembership().contains(1000001L)).isTrue();
+        assertThat(codeList.getMembership().contains("1000003")).isFalse();
+
+        // the file is rebuilt with the same content
+        codeList.refresh();
+        assertThat(codeList.getSnapshot()).isSameAs(first);
+    }
+
+    @Test
+    public void testMapExistingFile() throws IOException {
+        Path file = dir.resolve("codelist.dat");
+        MappedCodeListFileTest.write(file, Map.of("1", "a"));
+
+        MappedFileCodeList codeList = new MappedFileCodeList();
+        codeList.setFile(file);
+        codeList.afterPropertiesSet();
+
+        assertThat(codeList.asMap()).containsExactly(Map.entry("1", "a"));
+
+        // built by another process
+        MappedCodeListFileTest.write(file, Map.of("2", "b"));
+        codeList.refresh();
+
+        assertThat(codeList.asMap()).containsExactly(Map.entry("2", "b"));
+    }
+
+    @Test
+    public void testFileNotFound() {
+        MappedFileCodeList codeList = new MappedFileCodeList();
+        codeList.setFile(dir.resolve("notfound.dat"));
+
+        assertThrows(UncheckedIOException.class, () -> {
+            codeList.afterPropertiesSet();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSet_fileIsNull() {
+        MappedFileCodeList codeList = createCodeList();
+        codeList.setFile(null);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            codeList.afterPropertiesSet();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSet_valueColumnIsEmpty() {
+        MappedFileCodeList codeList = createCodeList();
+        codeList.setValueColumn("");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            codeList.afterPropertiesSet();
+        });
+    }
+
+    private MappedFileCodeList createCodeList() {
+        MappedFileCodeList codeList = new MappedFileCodeList();
+        codeList.setBeanName("CL_POSTAL_CODE");
+        codeList.setFile(dir.resolve("postal_code.dat"));
+        codeList.setDataSource(dataSource);
+        codeList.setQuerySql("SELECT code, name FROM postal_code ORDER BY code");
+        codeList.setValueColumn("code");
+        codeList.setLabelColumn("name");
+        return codeList;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.SimpleReloadableI18nCodeList;
+
+public class CodeListRefreshCoordinatorTest {
+
+    private CodeListRefreshCoordinator coordinator;
+
+    @AfterEach
+    public void after() {
+        if (coordinator != null) {
+            coordinator.destroy();
+        }
+    }
+
+    @Test
+    public void testScheduledRefresh() throws Exception {
+        CountingCodeList codeList = new CountingCodeList("CL_TEST", 3);
+        codeList.afterPropertiesSet();
+        assertThat(codeList.asMap()).containsEntry("value", "1");
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(codeList));
+        coordinator.setRefreshInterval(10);
+        coordinator.afterPropertiesSet();
+
+        assertThat(codeList.loaded.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitValue(codeList, "3");
+        assertThat(codeList.asMap()).containsEntry("value", "3");
+        assertThat(coordinator.getCodeListIds()).containsExactly("CL_TEST");
+    }
+
+    @Test
+    public void testRequestRefresh() throws Exception {
+        CountingCodeList codeList = new CountingCodeList("CL_TEST", 2);
+        codeList.afterPropertiesSet();
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(codeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.afterPropertiesSet();
+
+        assertThat(coordinator.requestRefresh("CL_TEST")).isTrue();
+        assertThat(coordinator.requestRefresh("CL_UNKNOWN")).isFalse();
+
+        assertThat(codeList.loaded.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitValue(codeList, "2");
+        assertThat(codeList.asMap()).containsEntry("value", "2");
+    }
+
+    @Test
+    public void testRequestRefreshCoalescedWhileInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCodeList codeList = new BlockingCodeList(started, release);
+        codeList.setBeanName("CL_TEST");
+        codeList.setLazyInit(true);
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(codeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.afterPropertiesSet();
+
+        coordinator.requestRefresh("CL_TEST");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // requested while in flight
+        for (int i = 0; i < 10; i++) {
+            coordinator.requestRefresh("CL_TEST");
+        }
+        release.countDown();
+
+        for (int i = 0; i < 500 && codeList.count.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        // one in flight and one coalesced
+        assertThat(codeList.count.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailureIsBackedOff() throws Exception {
+        FailingCodeList codeList = new FailingCodeList();
+        codeList.setBeanName("CL_FAIL");
+        codeList.setLazyInit(true);
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(codeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.setMaxBackoff(60000);
+        coordinator.afterPropertiesSet();
+
+        coordinator.requestRefresh("CL_FAIL");
+        for (int i = 0; i < 100 && coordinator.getConsecutiveFailures("CL_FAIL") == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(coordinator.getConsecutiveFailures("CL_FAIL")).isEqualTo(1);
+        assertThat(coordinator.getConsecutiveFailures("CL_UNKNOWN")).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidateThroughChannel() throws Exception {
+        CountingCodeList codeList = new CountingCodeList("CL_TEST", 2);
+        codeList.afterPropertiesSet();
+        InMemoryCodeListInvalidationChannel channel = new InMemoryCodeListInvalidationChannel();
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(codeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.setInvalidationChannel(channel);
+        coordinator.afterPropertiesSet();
+
+        // invalidated on another node
+        channel.publish("CL_TEST");
+
+        assertThat(codeList.loaded.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitValue(codeList, "2");
+        assertThat(codeList.asMap()).containsEntry("value", "2");
+    }
+
+    @Test
+    public void testInvalidateWithoutChannel() throws Exception {
+        CountingCodeList codeList = new CountingCodeList("CL_TEST", 2);
+        codeList.afterPropertiesSet();
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(codeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.afterPropertiesSet();
+
+        coordinator.invalidate("CL_TEST");
+
+        assertThat(codeList.loaded.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitValue(codeList, "2");
+        assertThat(codeList.asMap()).containsEntry("value", "2");
+    }
+
+    @Test
+    public void testNextDelay() {
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setRefreshInterval(1000);
+        coordinator.setMaxBackoff(10000);
+
+        assertThat(coordinator.nextDelay(0)).isEqualTo(1000);
+        assertThat(coordinator.nextDelay(1)).isEqualTo(2000);
+        assertThat(coordinator.nextDelay(3)).isEqualTo(8000);
+        assertThat(coordinator.nextDelay(4)).isEqualTo(10000);
+        assertThat(coordinator.nextDelay(100)).isEqualTo(10000);
+    }
+
+    @Test
+    public void testDiscoverFromApplicationContext() {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("CL_A", CountingCodeList.class);
+        context.registerSingleton("CL_B", CountingCodeList.class);
+        context.refresh();
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setApplicationContext(context);
+        coordinator.setRefreshInterval(0);
+        coordinator.afterPropertiesSet();
+
+        assertThat(coordinator.getCodeListIds()).containsExactlyInAnyOrder("CL_A", "CL_B");
+        context.close();
+    }
+
+    @Test
+    public void testRefreshI18nCodeList() throws Exception {
+        CountingCodeList en = new CountingCodeList("CL_EN", 2);
+        en.afterPropertiesSet();
+        SimpleReloadableI18nCodeList i18nCodeList = new SimpleReloadableI18nCodeList();
+        i18nCodeList.setBeanName("CL_I18N");
+        Map<Locale, ReloadableCodeList> rows = new HashMap<Locale, ReloadableCodeList>();
+        rows.put(Locale.ENGLISH, en);
+        i18nCodeList.setRowsByCodeList(rows);
+        i18nCodeList.setFallbackTo(Locale.ENGLISH);
+        i18nCodeList.afterPropertiesSet();
+        assertThat(i18nCodeList.asMap(Locale.ENGLISH)).containsEntry("value", "2");
+
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList(i18nCodeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.setRefreshI18nCodeListRecursively(true);
+        coordinator.afterPropertiesSet();
+
+        coordinator.requestRefreshAll();
+        assertThat(en.loaded.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 100
+                && !"3".equals(i18nCodeList.asMap(Locale.ENGLISH).get("value")); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(i18nCodeList.asMap(Locale.ENGLISH)).containsEntry("value", "3");
+    }
+
+    @Test
+    public void testInvalidPoolSize() {
+        coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(Arrays.asList());
+        coordinator.setPoolSize(0);
+        assertThrows(IllegalArgumentException.class, () -> coordinator.afterPropertiesSet());
+    }
+
+    private static void awaitValue(ReloadableCodeList codeList,
+            String expected) throws InterruptedException {
+        for (int i = 0; i < 500 && !expected.equals(codeList.asMap().get("value")); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    static class CountingCodeList extends AbstractReloadableCodeList {
+        final AtomicInteger count = new AtomicInteger();
+
+        final CountDownLatch loaded;
+
+        CountingCodeList() {
+            this("CL_COUNT", 1);
+        }
+
+        CountingCodeList(String codeListId, int loads) {
+            setBeanName(codeListId);
+            this.loaded = new CountDownLatch(loads);
+        }
+
+        @Override
+        protected Map<String, String> retrieveMap() {
+            Map<String, String> map = new HashMap<String, String>();
+            map.put("value", String.valueOf(count.incrementAndGet()));
+            loaded.countDown();
+            return map;
+        }
+    }
+
+    static class BlockingCodeList extends AbstractReloadableCodeList {
+        final AtomicInteger count = new AtomicInteger();
+
+        final CountDownLatch started;
+
+        final CountDownLatch release;
+
+        BlockingCodeList(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        protected Map<String, String> retrieveMap() {
+            count.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HashMap<String, String>();
+        }
+    }
+
+    static class FailingCodeList extends AbstractReloadableCodeList {
+        @Override
+        protected Map<String, String> retrieveMap() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class InMemoryCodeListInvalidationChannelTest {
+
+    @Test
+    public void testPublish() {
+        InMemoryCodeListInvalidationChannel channel = new InMemoryCodeListInvalidationChannel();
+        List<String> invalidated1 = new ArrayList<String>();
+        List<String> invalidated2 = new ArrayList<String>();
+        channel.subscribe(invalidated1::add);
+        channel.subscribe(codeListId -> {
+            throw new IllegalStateException("error in listener");
+        });
+        channel.subscribe(invalidated2::add);
+
+        channel.publish("CL_A");
+        channel.publish("CL_B");
+
+        assertThat(invalidated1).containsExactly("CL_A", "CL_B");
+        assertThat(invalidated2).containsExactly("CL_A", "CL_B");
+    }
+
+    @Test
+    public void testPublishEmptyCodeListId() {
+        InMemoryCodeListInvalidationChannel channel = new InMemoryCodeListInvalidationChannel();
+        assertThrows(IllegalArgumentException.class, () -> channel.publish(""));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class JdbcCodeListInvalidationChannelTest {
+
+    // shared by the polling thread, so keep the database while the connections are closed
+    DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:codelist-invalidation;DB_CLOSE_DELAY=-1", "sa", "");
+
+    JdbcTemplate jdbcTemplate;
+
+    JdbcCodeListInvalidationChannel channel;
+
+    List<String> invalidated;
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE codelist_version(codelist_id VARCHAR(128) PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO codelist_version VALUES ('CL_A', 1)");
+
+        invalidated = new ArrayList<String>();
+        channel = new JdbcCodeListInvalidationChannel();
+        channel.setDataSource(dataSource);
+        // poll manually in tests
+        channel.setPollInterval(3600000L);
+        channel.subscribe(invalidated::add);
+    }
+
+    @AfterEach
+    public void after() {
+        channel.destroy();
+        jdbcTemplate.execute("DROP TABLE codelist_version");
+    }
+
+    @Test
+    public void testPublishAndPoll() {
+        // baseline
+        channel.poll();
+        assertThat(invalidated).isEmpty();
+
+        channel.publish("CL_A");
+        channel.publish("CL_B");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT version FROM codelist_version WHERE codelist_id = 'CL_A'", Long.class))
+                        .isEqualTo(2L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT version FROM codelist_version WHERE codelist_id = 'CL_B'", Long.class))
+                        .isEqualTo(1L);
+
+        channel.poll();
+        assertThat(invalidated).containsExactlyInAnyOrder("CL_A", "CL_B");
+
+        // not changed
+        channel.poll();
+        assertThat(invalidated).hasSize(2);
+    }
+
+    @Test
+    public void testPollInBackground() throws Exception {
+        channel.setPollInterval(10L);
+        channel.afterPropertiesSet();
+        Thread.sleep(100);
+
+        channel.publish("CL_A");
+        for (int i = 0; i < 500 && invalidated.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(invalidated).contains("CL_A");
+    }
+
+    @Test
+    public void testPollingContinuesAfterFailure() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        channel.setJdbcTemplate(new JdbcTemplate(dataSource) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                if (queries.incrementAndGet() == 2) {
+                    throw new IllegalStateException("failure");
+                }
+                super.query(sql, rch);
+            }
+        });
+        AtomicInteger notified = new AtomicInteger();
+        channel.subscribe(codeListId -> {
+            if (notified.incrementAndGet() == 1) {
+                throw new IllegalStateException("failure");
+            }
+        });
+        channel.setPollInterval(10L);
+        channel.afterPropertiesSet();
+        // polled again after the failed poll
+        for (int i = 0; i < 500 && queries.get() < 3; i++) {
+            Thread.sleep(10);
+        }
+
+        channel.publish("CL_A");
+        for (int i = 0; i < 500 && notified.get() < 1; i++) {
+            Thread.sleep(10);
+        }
+        channel.publish("CL_A");
+        for (int i = 0; i < 500 && notified.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        // neither the failed poll nor the throwing listener stops the polling
+        assertThat(notified.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNotifyCoordinator() throws Exception {
+        CodeListRefreshCoordinatorTest.CountingCodeList codeList =
+                new CodeListRefreshCoordinatorTest.CountingCodeList("CL_A", 2);
+        codeList.afterPropertiesSet();
+
+        CodeListRefreshCoordinator coordinator = new CodeListRefreshCoordinator();
+        coordinator.setCodeLists(List.of(codeList));
+        coordinator.setRefreshInterval(0);
+        coordinator.setInvalidationChannel(channel);
+        coordinator.afterPropertiesSet();
+        try {
+            channel.poll();
+            coordinator.invalidate("CL_A");
+            channel.poll();
+
+            for (int i = 0; i < 500 && !"2".equals(codeList.asMap().get("value")); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(codeList.asMap()).containsEntry("value", "2");
+        } finally {
+            coordinator.destroy();
+        }
+    }
+
+    @Test
+    public void testAfterPropertiesSetWithoutJdbcTemplate() {
+        JdbcCodeListInvalidationChannel target = new JdbcCodeListInvalidationChannel();
+        assertThrows(IllegalArgumentException.class, () -> target.afterPropertiesSet());
+    }
+}
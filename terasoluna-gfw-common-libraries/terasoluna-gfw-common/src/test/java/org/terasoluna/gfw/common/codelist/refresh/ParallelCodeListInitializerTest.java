@@ -0,0 +1,193 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.refresh;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.ReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.SimpleReloadableI18nCodeList;
+
+public class ParallelCodeListInitializerTest {
+
+    private GenericApplicationContext context;
+
+    @AfterEach
+    public void after() {
+        if (context != null && context.isActive()) {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testLoadConcurrently() {
+        // each codelist waits until the other starts loading
+        CountDownLatch started = new CountDownLatch(2);
+        ParallelCodeListInitializer initializer = new ParallelCodeListInitializer();
+        initializer.setParallelism(2);
+
+        context = new GenericApplicationContext();
+        context.registerBean("parallelCodeListInitializer", ParallelCodeListInitializer.class,
+                () -> initializer);
+        context.registerBean("CL_A", WaitingCodeList.class, () -> new WaitingCodeList(started));
+        context.registerBean("CL_B", WaitingCodeList.class, () -> new WaitingCodeList(started));
+        context.refresh();
+
+        WaitingCodeList codeListA = context.getBean("CL_A", WaitingCodeList.class);
+        WaitingCodeList codeListB = context.getBean("CL_B", WaitingCodeList.class);
+        assertThat(codeListA.concurrent).isTrue();
+        assertThat(codeListB.concurrent).isTrue();
+        assertThat(codeListA.getVersion()).isEqualTo(1L);
+        assertThat(codeListB.getVersion()).isEqualTo(1L);
+        assertThat(codeListA.retrieved.get()).isEqualTo(1);
+        assertThat(initializer.getLoadTimes()).containsOnlyKeys("CL_A", "CL_B");
+        // restored after loading
+        assertThat(codeListA.isLazyInit()).isFalse();
+        assertThat(codeListB.isLazyInit()).isFalse();
+    }
+
+    @Test
+    public void testBuildI18nCodeListAfterRows() {
+        CountDownLatch started = new CountDownLatch(2);
+        ParallelCodeListInitializer initializer = new ParallelCodeListInitializer();
+
+        context = new GenericApplicationContext();
+        context.registerBean("parallelCodeListInitializer", ParallelCodeListInitializer.class,
+                () -> initializer);
+        WaitingCodeList codeListEn = new WaitingCodeList(started);
+        WaitingCodeList codeListJa = new WaitingCodeList(started);
+        context.registerBean("CL_EN", WaitingCodeList.class, () -> codeListEn);
+        context.registerBean("CL_JA", WaitingCodeList.class, () -> codeListJa);
+        context.registerBean("CL_I18N", SimpleReloadableI18nCodeList.class, () -> {
+            SimpleReloadableI18nCodeList codeList = new SimpleReloadableI18nCodeList();
+            Map<Locale, ReloadableCodeList> rows = new LinkedHashMap<Locale, ReloadableCodeList>();
+            rows.put(Locale.ENGLISH, codeListEn);
+            rows.put(Locale.JAPANESE, codeListJa);
+            codeList.setRowsByCodeList(rows);
+            return codeList;
+        });
+        context.refresh();
+
+        SimpleReloadableI18nCodeList i18nCodeList = context.getBean("CL_I18N",
+                SimpleReloadableI18nCodeList.class);
+        assertThat(i18nCodeList.getVersion()).isEqualTo(1L);
+        assertThat(i18nCodeList.asMap(Locale.ENGLISH)).containsEntry("value", "1");
+        // codelists of each locale are loaded only once
+        assertThat(codeListEn.retrieved.get()).isEqualTo(1);
+        assertThat(codeListJa.retrieved.get()).isEqualTo(1);
+        assertThat(initializer.getLoadTimes().keySet()).containsExactlyInAnyOrder("CL_EN",
+                "CL_JA", "CL_I18N");
+        assertThat(i18nCodeList.isLazyInit()).isFalse();
+    }
+
+    @Test
+    public void testCodeListCreatedAfterSingletons() {
+        context = new GenericApplicationContext();
+        context.registerBean("parallelCodeListInitializer", ParallelCodeListInitializer.class);
+        context.registerBean("CL_LATE", WaitingCodeList.class, () -> new WaitingCodeList(
+                new CountDownLatch(0)), bd -> bd.setLazyInit(true));
+        context.refresh();
+
+        // loaded by itself in afterPropertiesSet
+        WaitingCodeList codeList = context.getBean("CL_LATE", WaitingCodeList.class);
+        assertThat(codeList.isLazyInit()).isFalse();
+        assertThat(codeList.getVersion()).isEqualTo(1L);
+        assertThat(context.getBean(ParallelCodeListInitializer.class).getLoadTimes()).isEmpty();
+    }
+
+    @Test
+    public void testLazyInitCodeListNotLoaded() {
+        context = new GenericApplicationContext();
+        context.registerBean("parallelCodeListInitializer", ParallelCodeListInitializer.class);
+        context.registerBean("CL_LAZY", WaitingCodeList.class, () -> {
+            WaitingCodeList codeList = new WaitingCodeList(new CountDownLatch(0));
+            codeList.setLazyInit(true);
+            return codeList;
+        });
+        context.refresh();
+
+        WaitingCodeList codeList = context.getBean("CL_LAZY", WaitingCodeList.class);
+        assertThat(codeList.getVersion()).isEqualTo(0L);
+        assertThat(context.getBean(ParallelCodeListInitializer.class).getLoadTimes()).isEmpty();
+    }
+
+    @Test
+    public void testLoadFailure() {
+        context = new GenericApplicationContext();
+        context.registerBean("parallelCodeListInitializer", ParallelCodeListInitializer.class);
+        WaitingCodeList codeListOk = new WaitingCodeList(new CountDownLatch(0));
+        context.registerBean("CL_OK", WaitingCodeList.class, () -> codeListOk);
+        context.registerBean("CL_FAIL", AbstractReloadableCodeList.class,
+                () -> new AbstractReloadableCodeList() {
+                    @Override
+                    protected Map<String, String> retrieveMap() {
+                        throw new IllegalStateException("failed to load");
+                    }
+                });
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            context.refresh();
+        });
+        assertThat(e).hasMessageContaining("CL_FAIL");
+        assertThat(codeListOk.isLazyInit()).isFalse();
+    }
+
+    @Test
+    public void testParallelismIsZero() {
+        ParallelCodeListInitializer initializer = new ParallelCodeListInitializer();
+        initializer.setParallelism(0);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            initializer.afterSingletonsInstantiated();
+        });
+    }
+
+    static class WaitingCodeList extends AbstractReloadableCodeList {
+
+        final CountDownLatch started;
+
+        final AtomicInteger retrieved = new AtomicInteger();
+
+        volatile boolean concurrent;
+
+        WaitingCodeList(CountDownLatch started) {
+            this.started = started;
+        }
+
+        @Override
+        protected Map<String, String> retrieveMap() {
+            started.countDown();
+            try {
+                concurrent = started.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonMap("value", String.valueOf(retrieved.incrementAndGet()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileCodeListSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    FileCodeListSnapshotStore store;
+
+    @BeforeEach
+    public void before() {
+        store = new FileCodeListSnapshotStore(directory.resolve("codelists"));
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        Map<String, String> codeList = new LinkedHashMap<String, String>();
+        codeList.put("3", "三");
+        codeList.put("1", "one");
+        codeList.put("2", null);
+
+        store.save("CL_TEST", codeList);
+        Map<String, String> loaded = store.load("CL_TEST");
+
+        assertThat(loaded).isEqualTo(codeList);
+        assertThat(loaded.keySet()).containsExactly("3", "1", "2");
+    }
+
+    @Test
+    public void testSaveEmpty() {
+        store.save("CL_TEST", Collections.<String, String> emptyMap());
+
+        assertThat(store.load("CL_TEST")).isEmpty();
+    }
+
+    @Test
+    public void testSaveOverwrites() {
+        store.save("CL_TEST", Collections.singletonMap("1", "one"));
+        store.save("CL_TEST", Collections.singletonMap("2", "two"));
+
+        assertThat(store.load("CL_TEST")).containsOnlyKeys("2");
+    }
+
+    @Test
+    public void testLoadNotStored() {
+        assertThat(store.load("CL_TEST")).isNull();
+    }
+
+    @Test
+    public void testLoadChecksumMismatch() throws Exception {
+        store.save("CL_TEST", Collections.singletonMap("1", "one"));
+        Path file = store.fileOf("CL_TEST");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 9] ^= 1;
+        Files.write(file, bytes);
+
+        assertThat(store.load("CL_TEST")).isNull();
+    }
+
+    @Test
+    public void testLoadTruncated() throws Exception {
+        store.save("CL_TEST", Collections.singletonMap("1", "one"));
+        Path file = store.fileOf("CL_TEST");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, 6));
+
+        assertThat(store.load("CL_TEST")).isNull();
+    }
+
+    @Test
+    public void testLoadCodeListIdMismatch() throws Exception {
+        // "CL/TEST" and "CL_TEST" share the same file name
+        store.save("CL/TEST", Collections.singletonMap("1", "one"));
+
+        assertThat(store.fileOf("CL/TEST")).isEqualTo(store.fileOf("CL_TEST"));
+        assertThat(store.load("CL_TEST")).isNull();
+        assertThat(store.load("CL/TEST")).containsEntry("1", "one");
+    }
+
+    @Test
+    public void testCodeListIdIsEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            store.load("");
+        });
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.codelist.tenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+
+public class TenantAwareCodeListTest {
+
+    static final ThreadLocal<String> currentTenant = new ThreadLocal<String>();
+
+    Map<String, String> baseSource;
+
+    Map<String, Map<String, String>> overrideSource;
+
+    List<String> loadedTenants;
+
+    BaseCodeList baseCodeList;
+
+    TenantAwareCodeList codeList;
+
+    @BeforeEach
+    public void before() {
+        baseSource = new LinkedHashMap<String, String>();
+        baseSource.put("1", "Received");
+        baseSource.put("2", "Sent");
+        baseCodeList = new BaseCodeList();
+        baseCodeList.afterPropertiesSet();
+
+        overrideSource = new HashMap<String, Map<String, String>>();
+        Map<String, String> overridesA = new LinkedHashMap<String, String>();
+        overridesA.put("9", "Returned");
+        overridesA.put("2", "Shipped");
+        overrideSource.put("A", overridesA);
+        loadedTenants = new ArrayList<String>();
+
+        codeList = new TenantAwareCodeList();
+        codeList.setBeanName("CL_STATUS");
+        codeList.setBaseCodeList(baseCodeList);
+        codeList.setTenantResolver(currentTenant::get);
+        codeList.setOverrideSource(tenant -> {
+            loadedTenants.add(tenant);
+            return overrideSource.getOrDefault(tenant, Map.of());
+        });
+        codeList.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void after() {
+        currentTenant.remove();
+    }
+
+    @Test
+    public void testNoTenant() {
+        assertThat(codeList.asMap()).isSameAs(baseCodeList.asMap());
+        assertThat(loadedTenants).isEmpty();
+    }
+
+    @Test
+    public void testTenantWithOverrides() {
+        currentTenant.set("A");
+        Map<String, String> map = codeList.asMap();
+
+        assertThat(map).containsExactly(Map.entry("1", "Received"), Map.entry("2", "Shipped"), Map
+                .entry("9", "Returned"));
+        assertThat(map.get("2")).isEqualTo("Shipped");
+        assertThat(map.containsKey("9")).isTrue();
+        assertThat(map).hasSize(3);
+        assertThat(map).isEqualTo(Map.of("1", "Received", "2", "Shipped", "9", "Returned"));
+        assertThat(codeList.asMap()).isSameAs(map);
+        assertThat(loadedTenants).containsExactly("A");
+    }
+
+    @Test
+    public void testTenantWithoutOverridesSharesBase() {
+        currentTenant.set("B");
+
+        assertThat(codeList.asMap()).isSameAs(baseCodeList.asMap());
+        assertThat(codeList.asMap("B")).isSameAs(baseCodeList.asMap());
+        assertThat(loadedTenants).containsExactly("B");
+    }
+
+    @Test
+    public void testFollowsReloadedBase() {
+        Map<String, String> before = codeList.asMap("A");
+
+        baseSource.put("3", "Delivered");
+        baseCodeList.refresh();
+        Map<String, String> after = codeList.asMap("A");
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after).containsOnlyKeys("1", "2", "3", "9");
+        assertThat(after.get("2")).isEqualTo("Shipped");
+        assertThat(loadedTenants).containsExactly("A");
+    }
+
+    @Test
+    public void testRefreshReloadsOverrides() {
+        codeList.asMap("A");
+        overrideSource.get("A").put("1", "Accepted");
+        codeList.refresh();
+
+        assertThat(codeList.asMap("A").get("1")).isEqualTo("Accepted");
+        assertThat(loadedTenants).containsExactly("A", "A");
+    }
+
+    @Test
+    public void testEvictedByMaximumWeight() {
+        codeList.setMaximumWeight(3);
+        codeList.afterPropertiesSet();
+
+        // tenant A weighs 3
+        codeList.asMap("A");
+        codeList.asMap("B");
+        codeList.asMap("A");
+
+        assertThat(loadedTenants).containsExactly("A", "B", "A");
+    }
+
+    @Test
+    public void testAfterPropertiesSetBaseCodeListIsNull() {
+        TenantAwareCodeList target = new TenantAwareCodeList();
+        target.setTenantResolver(currentTenant::get);
+        target.setOverrideSource(tenant -> Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            target.afterPropertiesSet();
+        });
+    }
+
+    class BaseCodeList extends AbstractReloadableCodeList {
+        @Override
+        protected Map<String, String> retrieveMap() {
+            return new LinkedHashMap<String, String>(baseSource);
+        }
+    }
+}
@@ -17,7 +17,17 @@ package org.terasoluna.gfw.common.sequencer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
 import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,6 +54,11 @@ public class JdbcSequencerTest {
                 .execute("CREATE SEQUENCE TEST_SEQ START WITH 1 INCREMENT BY 1");
     }
 
+    @AfterEach
+    public void after() throws Exception {
+        jdbcTemplate.getJdbcOperations().execute("DROP SEQUENCE IF EXISTS BLOCK_SEQ");
+    }
+
     @Test
     public void testGetNext01() {
         // create target
@@ -164,4 +179,154 @@ public class JdbcSequencerTest {
             jdbcSequencer.afterPropertiesSet();
         });
     }
+
+    @Test
+    public void testGetNextInBlock() {
+        jdbcTemplate.getJdbcOperations()
+                .execute("CREATE SEQUENCE BLOCK_SEQ START WITH 1 INCREMENT BY 10");
+        JdbcSequencer<Long> jdbcSequencer = createBlockSequencer(Long.class);
+
+        for (long i = 1; i <= 25; i++) {
+            assertThat(jdbcSequencer.getNext()).isEqualTo(i);
+        }
+        assertThat(jdbcSequencer.getCurrent()).isEqualTo(25L);
+        // 3 blocks are fetched
+        assertThat(jdbcTemplate.getJdbcOperations().queryForObject(
+                "SELECT currval('BLOCK_SEQ')", Long.class)).isEqualTo(21L);
+
+        // another instance starts from the next block
+        JdbcSequencer<String> another = createBlockSequencer(String.class);
+        assertThat(another.getNext()).isEqualTo("31");
+    }
+
+    @Test
+    public void testGetNextInBlockConcurrently() throws Exception {
+        // a sequence incremented by 50 without database, as the test transaction locks the schema
+        AtomicLong sequence = new AtomicLong(-49);
+        AtomicInteger fetchCount = new AtomicInteger();
+        JdbcSequencer<Long> jdbcSequencer = new JdbcSequencer<Long>();
+        jdbcSequencer.setJdbcTemplate(new JdbcTemplate(dataSource) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <V> V queryForObject(String sql, Class<V> requiredType) {
+                fetchCount.incrementAndGet();
+                return (V) Long.valueOf(sequence.addAndGet(50));
+            }
+        });
+        jdbcSequencer.setNextValueQuery("SELECT nextval('BLOCK_SEQ')");
+        jdbcSequencer.setCurrentValueQuery("SELECT currval('BLOCK_SEQ')");
+        jdbcSequencer.setSequenceClass(Long.class);
+        jdbcSequencer.setAllocationSize(50);
+        jdbcSequencer.afterPropertiesSet();
+
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        assertThat(issued.add(jdbcSequencer.getNext())).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(issued).hasSize(4000);
+        assertThat(issued).allMatch(v -> v >= 1 && v <= 4000);
+        assertThat(fetchCount.get()).isEqualTo(80);
+    }
+
+    @Test
+    public void testGetNextBulk() {
+        JdbcSequencer<Long> jdbcSequencer = new JdbcSequencer<Long>();
+        jdbcSequencer.setDataSource(dataSource);
+        jdbcSequencer.setNextValueQuery("SELECT nextval('TEST_SEQ')");
+        jdbcSequencer.setCurrentValueQuery("SELECT currval('TEST_SEQ')");
+        jdbcSequencer.setBulkNextValueQuery(
+                "SELECT nextval('TEST_SEQ') FROM SYSTEM_RANGE(1, ?)");
+        jdbcSequencer.setSequenceClass(Long.class);
+        jdbcSequencer.afterPropertiesSet();
+
+        assertThat(jdbcSequencer.getNext(5)).containsExactly(1, 2, 3, 4, 5);
+        assertThat(jdbcSequencer.getNext()).isEqualTo(6L);
+        assertThat(jdbcSequencer.getNext(0)).isEmpty();
+    }
+
+    @Test
+    public void testGetNextBulkWithoutBulkQuery() {
+        JdbcSequencer<String> jdbcSequencer = new JdbcSequencer<String>();
+        jdbcSequencer.setDataSource(dataSource);
+        jdbcSequencer.setNextValueQuery("SELECT nextval('TEST_SEQ')");
+        jdbcSequencer.setCurrentValueQuery("SELECT currval('TEST_SEQ')");
+        jdbcSequencer.setSequenceClass(String.class);
+        jdbcSequencer.afterPropertiesSet();
+
+        assertThat(jdbcSequencer.getNext(3)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void testGetNextBulkInBlock() {
+        jdbcTemplate.getJdbcOperations()
+                .execute("CREATE SEQUENCE BLOCK_SEQ START WITH 1 INCREMENT BY 10");
+        JdbcSequencer<Long> jdbcSequencer = createBlockSequencer(Long.class);
+        jdbcSequencer.setBulkNextValueQuery(
+                "SELECT nextval('BLOCK_SEQ') FROM SYSTEM_RANGE(1, ?)");
+
+        assertThat(jdbcSequencer.getNext()).isEqualTo(1L);
+        long[] values = jdbcSequencer.getNext(35);
+
+        // 9 values of the current block, 2 blocks in bulk and 6 values of a new block
+        assertThat(values).hasSize(35);
+        for (int i = 0; i < 35; i++) {
+            assertThat(values[i]).isEqualTo(i + 2);
+        }
+        assertThat(jdbcSequencer.getNext()).isEqualTo(37L);
+        assertThat(jdbcTemplate.getJdbcOperations().queryForObject(
+                "SELECT currval('BLOCK_SEQ')", Long.class)).isEqualTo(31L);
+    }
+
+    @Test
+    public void testAfterPropertiesSet_allocationSizeIsZero() {
+        JdbcSequencer<Long> jdbcSequencer = new JdbcSequencer<Long>();
+        jdbcSequencer.setJdbcTemplate(new JdbcTemplate(dataSource));
+        jdbcSequencer.setNextValueQuery("SELECT nextval('TEST_SEQ')");
+        jdbcSequencer.setCurrentValueQuery("SELECT currval('TEST_SEQ')");
+        jdbcSequencer.setSequenceClass(Long.class);
+        jdbcSequencer.setAllocationSize(0);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            jdbcSequencer.afterPropertiesSet();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSet_sequenceClassIsNotNumberInBlockMode() {
+        JdbcSequencer<Object> jdbcSequencer = new JdbcSequencer<Object>();
+        jdbcSequencer.setJdbcTemplate(new JdbcTemplate(dataSource));
+        jdbcSequencer.setNextValueQuery("SELECT nextval('TEST_SEQ')");
+        jdbcSequencer.setCurrentValueQuery("SELECT currval('TEST_SEQ')");
+        jdbcSequencer.setSequenceClass(Object.class);
+        jdbcSequencer.setAllocationSize(10);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            jdbcSequencer.afterPropertiesSet();
+        });
+    }
+
+    private <T> JdbcSequencer<T> createBlockSequencer(Class<T> sequenceClass) {
+        JdbcSequencer<T> jdbcSequencer = new JdbcSequencer<T>();
+        jdbcSequencer.setDataSource(dataSource);
+        jdbcSequencer.setNextValueQuery("SELECT nextval('BLOCK_SEQ')");
+        jdbcSequencer.setCurrentValueQuery("SELECT currval('BLOCK_SEQ')");
+        jdbcSequencer.setSequenceClass(sequenceClass);
+        jdbcSequencer.setAllocationSize(10);
+        jdbcSequencer.afterPropertiesSet();
+        return jdbcSequencer;
+    }
 }
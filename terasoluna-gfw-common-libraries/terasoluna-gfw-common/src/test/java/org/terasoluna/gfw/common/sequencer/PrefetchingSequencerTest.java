@@ -0,0 +1,228 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class PrefetchingSequencerTest {
+
+    private PrefetchingSequencer<Long> sequencer;
+
+    @AfterEach
+    public void after() {
+        if (sequencer != null) {
+            sequencer.destroy();
+        }
+    }
+
+    @Test
+    public void testGetNextFromPrefetchedValues() throws Exception {
+        CountingSequencer delegate = new CountingSequencer();
+        sequencer = createSequencer(delegate, 10);
+
+        awaitBuffered(10);
+        for (long i = 1; i <= 30; i++) {
+            assertThat(sequencer.getNext()).isEqualTo(i);
+            // refills keep up as the delegate does not block
+            awaitBuffered(1);
+        }
+
+        PrefetchingSequencerStats stats = sequencer.getStats();
+        assertThat(stats.getStallCount()).isEqualTo(0L);
+        assertThat(stats.getRefillCount()).isGreaterThanOrEqualTo(3L);
+        assertThat(stats.getMaxRefillTime(TimeUnit.NANOSECONDS)).isGreaterThan(0L);
+        assertThat(sequencer.getCurrent()).isEqualTo(30L);
+    }
+
+    @Test
+    public void testGetNextStallsWhileRefilling() throws Exception {
+        CountingSequencer delegate = new CountingSequencer();
+        delegate.blockPrefetch = new CountDownLatch(1);
+        sequencer = createSequencer(delegate, 10);
+
+        // the refill is blocked, so the values are fetched directly
+        assertThat(sequencer.getNext()).isEqualTo(1L);
+        assertThat(sequencer.getNext()).isEqualTo(2L);
+        assertThat(sequencer.getStats().getStallCount()).isEqualTo(2L);
+
+        delegate.blockPrefetch.countDown();
+        awaitBuffered(10);
+        long next = sequencer.getNext();
+        assertThat(next).isGreaterThan(2L);
+        assertThat(sequencer.getStats().getStallCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testRefillFailure() throws Exception {
+        Sequencer<Long> delegate = new CountingSequencer() {
+            @Override
+            public Long getNext() {
+                if (Thread.currentThread().getName().startsWith("sequencer-prefetch-")) {
+                    throw new IllegalStateException("failure");
+                }
+                return super.getNext();
+            }
+        };
+        sequencer = createSequencer(delegate, 10);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sequencer.getStats().getRefillFailureCount() == 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(sequencer.getStats().getRefillFailureCount()).isGreaterThan(0L);
+        assertThat(sequencer.getNext()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testRefillBackoffAfterFailure() throws Exception {
+        AtomicLong prefetchCalls = new AtomicLong();
+        Sequencer<Long> delegate = new CountingSequencer() {
+            @Override
+            public Long getNext() {
+                if (Thread.currentThread().getName().startsWith("sequencer-prefetch-")) {
+                    prefetchCalls.incrementAndGet();
+                    throw new IllegalStateException("failure");
+                }
+                return super.getNext();
+            }
+        };
+        sequencer = new PrefetchingSequencer<Long>();
+        sequencer.setDelegate(delegate);
+        sequencer.setPrefetchSize(10);
+        sequencer.setRetryDelay(300L);
+        sequencer.afterPropertiesSet();
+        awaitRefillFailures(1);
+
+        // no refill is started in the backoff, and values are fetched directly
+        for (long i = 1; i <= 50; i++) {
+            assertThat(sequencer.getNext()).isEqualTo(i);
+        }
+        Thread.sleep(50);
+        assertThat(sequencer.getStats().getRefillFailureCount()).isEqualTo(1L);
+        assertThat(prefetchCalls.get()).isEqualTo(1L);
+
+        // retried after the backoff
+        Thread.sleep(300);
+        sequencer.getNext();
+        awaitRefillFailures(2);
+        assertThat(prefetchCalls.get()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testNextDelay() {
+        PrefetchingSequencer<Long> target = new PrefetchingSequencer<Long>();
+        target.setRetryDelay(1000L);
+        target.setMaxRetryDelay(5000L);
+
+        assertThat(target.nextDelay(1)).isEqualTo(1000L);
+        assertThat(target.nextDelay(2)).isEqualTo(2000L);
+        assertThat(target.nextDelay(3)).isEqualTo(4000L);
+        assertThat(target.nextDelay(4)).isEqualTo(5000L);
+        assertThat(target.nextDelay(100)).isEqualTo(5000L);
+    }
+
+    @Test
+    public void testGetCurrentBeforeIssued() {
+        CountingSequencer delegate = new CountingSequencer();
+        delegate.blockPrefetch = new CountDownLatch(1);
+        sequencer = createSequencer(delegate, 10);
+
+        assertThat(sequencer.getCurrent()).isEqualTo(0L);
+        delegate.blockPrefetch.countDown();
+    }
+
+    @Test
+    public void testAfterPropertiesSet_delegateIsNull() {
+        PrefetchingSequencer<Long> target = new PrefetchingSequencer<Long>();
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            target.afterPropertiesSet();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSet_lowWaterMarkIsNotLessThanPrefetchSize() {
+        PrefetchingSequencer<Long> target = new PrefetchingSequencer<Long>();
+        target.setDelegate(new CountingSequencer());
+        target.setPrefetchSize(10);
+        target.setLowWaterMark(10);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            target.afterPropertiesSet();
+        });
+    }
+
+    private PrefetchingSequencer<Long> createSequencer(Sequencer<Long> delegate,
+            int prefetchSize) {
+        PrefetchingSequencer<Long> target = new PrefetchingSequencer<Long>();
+        target.setDelegate(delegate);
+        target.setPrefetchSize(prefetchSize);
+        target.afterPropertiesSet();
+        return target;
+    }
+
+    private void awaitRefillFailures(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sequencer.getStats().getRefillFailureCount() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(sequencer.getStats().getRefillFailureCount()).isEqualTo(count);
+    }
+
+    private void awaitBuffered(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sequencer.getStats().getBufferedCount() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(sequencer.getStats().getBufferedCount()).isGreaterThanOrEqualTo(count);
+    }
+
+    static class CountingSequencer implements Sequencer<Long> {
+
+        final AtomicLong sequence = new AtomicLong();
+
+        volatile CountDownLatch blockPrefetch;
+
+        @Override
+        public Long getNext() {
+            CountDownLatch latch = blockPrefetch;
+            if (latch != null && Thread.currentThread().getName().startsWith(
+                    "sequencer-prefetch-")) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return sequence.incrementAndGet();
+        }
+
+        @Override
+        public Long getCurrent() {
+            return sequence.get();
+        }
+    }
+}
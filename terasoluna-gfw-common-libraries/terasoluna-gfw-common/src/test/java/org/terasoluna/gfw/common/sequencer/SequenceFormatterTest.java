@@ -0,0 +1,59 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class SequenceFormatterTest {
+
+    @Test
+    public void testFormat() {
+        SequenceFormatter formatter = new SequenceFormatter("ORD-", 8);
+
+        assertThat(formatter.format(0)).isEqualTo("ORD-00000000");
+        assertThat(formatter.format(123)).isEqualTo("ORD-00000123");
+        assertThat(formatter.format(12345678)).isEqualTo("ORD-12345678");
+        assertThat(formatter.format(123456789)).isEqualTo("ORD-123456789");
+        assertThat(formatter.format(Long.MAX_VALUE)).isEqualTo("ORD-" + Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testAppendToReusedBuffer() {
+        SequenceFormatter formatter = new SequenceFormatter("", 3);
+        StringBuilder buffer = new StringBuilder(formatter.maxLength());
+
+        for (long value : new long[] { 7, 42, 1000 }) {
+            buffer.setLength(0);
+            formatter.appendTo(buffer, value);
+            assertThat(buffer.toString()).isEqualTo(String.format("%03d", value));
+        }
+
+        buffer.setLength(0);
+        buffer.append("id=");
+        assertThat(formatter.appendTo(buffer, 5).toString()).isEqualTo("id=005");
+    }
+
+    @Test
+    public void testFormatNegativeValue() {
+        SequenceFormatter formatter = new SequenceFormatter("", 3);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            formatter.format(-1);
+        });
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Benchmark of the throughput of {@link SnowflakeSequencer} and {@link JdbcSequencer}.
+ * <p>
+ * Generates IDs by the specified number of threads for the specified duration and prints the
+ * throughput of each sequencer. {@link JdbcSequencer} uses an in-memory H2 sequence, so the
+ * throughput against a remote database is far lower because of the round trips.
+ * </p>
+ *
+ * <pre>
+ * java -cp ... org.terasoluna.gfw.common.sequencer.SnowflakeSequencerBenchmark [threads] [seconds]
+ * </pre>
+ */
+public class SnowflakeSequencerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        SnowflakeSequencer snowflake = new SnowflakeSequencer();
+        snowflake.setNodeId(1);
+        snowflake.afterPropertiesSet();
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:sequencer-benchmark;MODE=PostgreSQL", "sa", "", true);
+        new JdbcTemplate(dataSource).execute("CREATE SEQUENCE BENCH_SEQ");
+        JdbcSequencer<Long> jdbc = new JdbcSequencer<Long>();
+        jdbc.setDataSource(dataSource);
+        jdbc.setNextValueQuery("SELECT nextval('BENCH_SEQ')");
+        jdbc.setCurrentValueQuery("SELECT currval('BENCH_SEQ')");
+        jdbc.setSequenceClass(Long.class);
+        jdbc.afterPropertiesSet();
+
+        System.out.printf("threads=%d, seconds=%d%n", threads, seconds);
+        // warm up
+        run(snowflake, threads, 1);
+        run(jdbc, threads, 1);
+        System.out.printf("SnowflakeSequencer : %,d ids/s%n", run(snowflake, threads, seconds));
+        System.out.printf("JdbcSequencer (H2) : %,d ids/s%n", run(jdbc, threads, seconds));
+        dataSource.destroy();
+    }
+
+    private static long run(Sequencer<Long> sequencer, int threads,
+            int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try {
+            List<Future<Long>> futures = new ArrayList<Future<Long>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    long count = 0;
+                    long sink = 0;
+                    while (System.nanoTime() < deadline) {
+                        sink ^= sequencer.getNext();
+                        count++;
+                    }
+                    if (sink == 42) {
+                        System.out.print("");
+                    }
+                    return count;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            return total / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
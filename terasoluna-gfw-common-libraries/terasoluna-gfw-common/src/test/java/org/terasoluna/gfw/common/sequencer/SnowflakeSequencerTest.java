@@ -0,0 +1,204 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class SnowflakeSequencerTest {
+
+    private static final long NOW = 1735689600000L; // 2025-01-01T00:00:00Z
+
+    @Test
+    public void testGetNext() {
+        MutableClock clock = new MutableClock(NOW);
+        SnowflakeSequencer sequencer = createSequencer(clock, 5);
+
+        long id1 = sequencer.getNext();
+        long id2 = sequencer.getNext();
+        clock.millis.addAndGet(1);
+        long id3 = sequencer.getNext();
+
+        assertThat(id2).isEqualTo(id1 + 1);
+        assertThat(id3).isGreaterThan(id2);
+        assertThat(id1 & 0xFFF).isEqualTo(0L);
+        assertThat((id1 >>> 12) & 0x3FF).isEqualTo(5L);
+        assertThat(sequencer.timestampOf(id1)).isEqualTo(Instant.ofEpochMilli(NOW));
+        assertThat(sequencer.timestampOf(id3)).isEqualTo(Instant.ofEpochMilli(NOW + 1));
+        assertThat(sequencer.getCurrent()).isEqualTo(id3);
+    }
+
+    @Test
+    public void testCounterOverflowBorrowsNextMillisecond() {
+        MutableClock clock = new MutableClock(NOW);
+        SnowflakeSequencer sequencer = createSequencer(clock, 1);
+
+        long[] ids = sequencer.getNext(4097);
+
+        for (int i = 1; i < ids.length; i++) {
+            assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+        }
+        assertThat(sequencer.timestampOf(ids[4095])).isEqualTo(Instant.ofEpochMilli(NOW));
+        assertThat(sequencer.timestampOf(ids[4096])).isEqualTo(Instant.ofEpochMilli(NOW + 1));
+    }
+
+    @Test
+    public void testCounterOverflowWaitsForNextMillisecond() {
+        MutableClock clock = new MutableClock(NOW);
+        clock.tick = 1;
+        SnowflakeSequencer sequencer = createSequencer(clock, 1);
+        sequencer.getNext(4096);
+
+        long id = sequencer.getNext();
+
+        assertThat(sequencer.timestampOf(id)).isAfter(Instant.ofEpochMilli(NOW));
+        assertThat(id & 0xFFF).isEqualTo(0L);
+    }
+
+    @Test
+    public void testClockMovedBackwards() {
+        MutableClock clock = new MutableClock(NOW);
+        SnowflakeSequencer sequencer = createSequencer(clock, 1);
+        sequencer.setMaxClockBackwardMillis(100);
+
+        long id1 = sequencer.getNext();
+        clock.millis.addAndGet(-1000);
+        assertThrows(IllegalStateException.class, () -> {
+            sequencer.getNext();
+        });
+
+        // waits for the clock within the tolerance
+        clock.millis.addAndGet(1000 - 50);
+        clock.tick = 1;
+        long id2 = sequencer.getNext();
+
+        assertThat(id2).isGreaterThan(id1);
+        assertThat(sequencer.timestampOf(id2)).isAfterOrEqualTo(Instant.ofEpochMilli(NOW));
+    }
+
+    @Test
+    public void testGetNextConcurrently() throws Exception {
+        SnowflakeSequencer sequencer = new SnowflakeSequencer();
+        sequencer.setNodeId(1);
+        sequencer.afterPropertiesSet();
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    long prev = -1;
+                    for (int i = 0; i < 10000; i++) {
+                        long id = sequencer.getNext();
+                        assertThat(id).isGreaterThan(prev);
+                        prev = id;
+                        ids.add(id);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(80000);
+    }
+
+    @Test
+    public void testGetCurrentBeforeGenerated() {
+        SnowflakeSequencer sequencer = createSequencer(new MutableClock(NOW), 1);
+
+        assertThrows(IllegalStateException.class, () -> {
+            sequencer.getCurrent();
+        });
+    }
+
+    @Test
+    public void testDeriveNodeId() {
+        SnowflakeSequencer sequencer = new SnowflakeSequencer();
+        sequencer.afterPropertiesSet();
+
+        assertThat(sequencer.getNodeId()).isBetween(0, SnowflakeSequencer.MAX_NODE_ID);
+        assertThat(sequencer.getNodeId()).isEqualTo(SnowflakeSequencer.deriveNodeId());
+    }
+
+    @Test
+    public void testAfterPropertiesSet_nodeIdIsTooLarge() {
+        SnowflakeSequencer sequencer = new SnowflakeSequencer();
+        sequencer.setNodeId(1024);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            sequencer.afterPropertiesSet();
+        });
+    }
+
+    private SnowflakeSequencer createSequencer(Clock clock, int nodeId) {
+        SnowflakeSequencer sequencer = new SnowflakeSequencer();
+        sequencer.setClock(clock);
+        sequencer.setNodeId(nodeId);
+        sequencer.afterPropertiesSet();
+        return sequencer;
+    }
+
+    static class MutableClock extends Clock {
+
+        final AtomicLong millis;
+
+        /**
+         * milliseconds advanced on each read
+         */
+        volatile long tick;
+
+        MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis.getAndAdd(tick);
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
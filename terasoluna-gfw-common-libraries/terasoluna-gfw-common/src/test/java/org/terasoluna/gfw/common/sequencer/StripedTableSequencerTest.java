@@ -0,0 +1,168 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.sequencer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class StripedTableSequencerTest {
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void before() {
+        // not in the test transaction, as blocks are reserved in separate transactions
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:striped-sequencer;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(
+                "CREATE TABLE id_counter (stripe INTEGER PRIMARY KEY, next_value BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO id_counter VALUES (0, 1), (1, 2), (2, 3), (3, 4)");
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.execute("DROP TABLE id_counter");
+    }
+
+    @Test
+    public void testGetNext() {
+        StripedTableSequencer sequencer = createSequencer(4, 10);
+
+        long first = sequencer.getNext();
+        long second = sequencer.getNext();
+
+        // values of a stripe are congruent modulo the number of stripes
+        assertThat(second - first).isEqualTo(4L);
+        assertThat(sequencer.getCurrent()).isEqualTo(second);
+        // one block of 10 values is reserved in the row
+        long stripe = (first - 1) % 4;
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT next_value FROM id_counter WHERE stripe = ?", Long.class, stripe))
+                .isEqualTo(first + 40);
+    }
+
+    @Test
+    public void testGetNextReservesNextBlock() {
+        StripedTableSequencer sequencer = createSequencer(4, 3);
+
+        long[] values = sequencer.getNext(7);
+
+        // blocks reserved by a single instance are contiguous in the stripe
+        for (int i = 1; i < values.length; i++) {
+            assertThat(values[i] - values[i - 1]).isEqualTo(4L);
+        }
+        // 3 blocks of 3 values are reserved for 7 values
+        long stripe = (values[0] - 1) % 4;
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT next_value FROM id_counter WHERE stripe = ?", Long.class, stripe))
+                .isEqualTo(values[0] + 4 * 3 * 3);
+    }
+
+    @Test
+    public void testGetNextConcurrently() throws Exception {
+        StripedTableSequencer sequencer = createSequencer(4, 50);
+
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        assertThat(values.add(sequencer.getNext())).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(values).hasSize(8000);
+        assertThat(values).allMatch(v -> v > 0);
+    }
+
+    @Test
+    public void testGetNextWithoutRow() {
+        jdbcTemplate.update("DELETE FROM id_counter");
+        StripedTableSequencer sequencer = createSequencer(4, 10);
+
+        assertThrows(IllegalStateException.class, () -> {
+            sequencer.getNext();
+        });
+    }
+
+    @Test
+    public void testGetNextWithBadColumn() {
+        StripedTableSequencer sequencer = new StripedTableSequencer();
+        sequencer.setDataSource(dataSource);
+        sequencer.setTableName("id_counter");
+        sequencer.setValueColumn("unknown");
+        sequencer.afterPropertiesSet();
+
+        assertThrows(DataAccessException.class, () -> {
+            sequencer.getNext();
+        });
+    }
+
+    @Test
+    public void testGetCurrentBeforeIssued() {
+        StripedTableSequencer sequencer = createSequencer(4, 10);
+
+        assertThrows(IllegalStateException.class, () -> {
+            sequencer.getCurrent();
+        });
+    }
+
+    @Test
+    public void testAfterPropertiesSet_tableNameIsEmpty() {
+        StripedTableSequencer sequencer = new StripedTableSequencer();
+        sequencer.setDataSource(dataSource);
+        sequencer.setTableName("");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            sequencer.afterPropertiesSet();
+        });
+    }
+
+    private StripedTableSequencer createSequencer(int stripeCount, int blockSize) {
+        StripedTableSequencer sequencer = new StripedTableSequencer();
+        sequencer.setDataSource(dataSource);
+        sequencer.setTableName("id_counter");
+        sequencer.setStripeCount(stripeCount);
+        sequencer.setBlockSize(blockSize);
+        sequencer.afterPropertiesSet();
+        return sequencer;
+    }
+}
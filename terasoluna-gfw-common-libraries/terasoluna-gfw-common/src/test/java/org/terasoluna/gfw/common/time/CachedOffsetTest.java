@@ -0,0 +1,83 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+public class CachedOffsetTest {
+
+    @Test
+    public void testGetFetchesOnce() {
+        AtomicInteger fetchCount = new AtomicInteger();
+        CachedOffset offset = new CachedOffset("test", () -> {
+            fetchCount.incrementAndGet();
+            return Duration.ofMinutes(5);
+        }, Duration.ofHours(1));
+
+        assertThat(offset.get()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(offset.get()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(fetchCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testResyncInBackground() throws Exception {
+        AtomicReference<Duration> source = new AtomicReference<Duration>(Duration.ofSeconds(1));
+        CachedOffset offset = new CachedOffset("test", source::get, Duration.ofMillis(10));
+
+        assertThat(offset.get()).isEqualTo(Duration.ofSeconds(1));
+        source.set(Duration.ofSeconds(10));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!offset.get().equals(Duration.ofSeconds(10))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(offset.get()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testResyncFailureKeepsOffset() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        CachedOffset offset = new CachedOffset("test", () -> {
+            if (fetchCount.incrementAndGet() > 1) {
+                throw new IllegalStateException("failure");
+            }
+            return Duration.ofSeconds(3);
+        }, Duration.ofMillis(10));
+
+        assertThat(offset.get()).isEqualTo(Duration.ofSeconds(3));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (fetchCount.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+            offset.get();
+        }
+
+        assertThat(fetchCount.get()).isGreaterThanOrEqualTo(2);
+        assertThat(offset.get()).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    public void testResyncIntervalIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CachedOffset("test", () -> Duration.ZERO, Duration.ZERO);
+        });
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmark of the cost of reading the time by {@link CoarseClockFactory} and the system clock.
+ * <p>
+ * Reads the time by the specified number of threads for the specified duration and prints the
+ * throughput of each way.
+ * </p>
+ *
+ * <pre>
+ * java -cp ... org.terasoluna.gfw.common.time.CoarseClockFactoryBenchmark [threads] [seconds]
+ * </pre>
+ */
+public class CoarseClockFactoryBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        Clock systemClock = Clock.systemUTC();
+        try (CoarseClockFactory factory = new CoarseClockFactory()) {
+            Clock coarseClock = factory.tick(ZoneOffset.UTC);
+
+            System.out.printf("threads=%d, seconds=%d%n", threads, seconds);
+            // warm up
+            run(System::currentTimeMillis, threads, 1);
+            run(() -> systemClock.instant().toEpochMilli(), threads, 1);
+            run(coarseClock::millis, threads, 1);
+            run(() -> coarseClock.instant().toEpochMilli(), threads, 1);
+
+            System.out.printf("System.currentTimeMillis() : %,d calls/s%n", run(
+                    System::currentTimeMillis, threads, seconds));
+            System.out.printf("Clock.systemUTC().instant(): %,d calls/s%n", run(() -> systemClock
+                    .instant().toEpochMilli(), threads, seconds));
+            System.out.printf("coarse clock millis()      : %,d calls/s%n", run(
+                    coarseClock::millis, threads, seconds));
+            System.out.printf("coarse clock instant()     : %,d calls/s%n", run(() -> coarseClock
+                    .instant().toEpochMilli(), threads, seconds));
+        }
+    }
+
+    private static long run(LongSupplier time, int threads, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try {
+            List<Future<Long>> futures = new ArrayList<Future<Long>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    long count = 0;
+                    long sink = 0;
+                    // check the deadline per batch not to measure System.nanoTime()
+                    while (System.nanoTime() < deadline) {
+                        for (int j = 0; j < BATCH_SIZE; j++) {
+                            sink ^= time.getAsLong();
+                        }
+                        count += BATCH_SIZE;
+                    }
+                    if (sink == 42) {
+                        System.out.print("");
+                    }
+                    return count;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            return total / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
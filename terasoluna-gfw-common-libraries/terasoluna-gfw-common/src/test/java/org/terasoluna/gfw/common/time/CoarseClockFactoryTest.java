@@ -0,0 +1,103 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class CoarseClockFactoryTest {
+
+    private CoarseClockFactory factory;
+
+    @AfterEach
+    public void after() {
+        if (factory != null) {
+            factory.close();
+        }
+    }
+
+    @Test
+    public void testTick() throws Exception {
+        factory = new CoarseClockFactory();
+        Clock clock = factory.tick(ZoneOffset.UTC);
+
+        long before = System.currentTimeMillis();
+        long first = clock.millis();
+        assertThat(first).isBetween(before - 1000, before + 1000);
+        assertThat(clock.instant().toEpochMilli()).isGreaterThanOrEqualTo(first);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (clock.millis() == first && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(clock.millis()).isGreaterThan(first);
+    }
+
+    @Test
+    public void testTickWithZone() {
+        factory = new CoarseClockFactory();
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        Clock clock = factory.tick(ZoneOffset.UTC);
+
+        assertThat(clock.getZone()).isEqualTo(ZoneOffset.UTC);
+        assertThat(clock.withZone(ZoneOffset.UTC)).isSameAs(clock);
+        Clock tokyoClock = clock.withZone(tokyo);
+        assertThat(tokyoClock.getZone()).isEqualTo(tokyo);
+        assertThat(tokyoClock.millis()).isGreaterThanOrEqualTo(clock.millis() - 1000);
+    }
+
+    @Test
+    public void testFixed() throws Exception {
+        factory = new CoarseClockFactory();
+        Clock clock = factory.fixed(ZoneOffset.UTC);
+        long fixed = clock.millis();
+
+        Thread.sleep(20);
+        assertThat(clock.millis()).isEqualTo(fixed);
+        assertThat(factory.currentTimeMillis()).isGreaterThan(fixed);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        factory = new CoarseClockFactory(Duration.ofMillis(5));
+        factory.close();
+        Thread.sleep(50);
+        long stopped = factory.currentTimeMillis();
+
+        Thread.sleep(50);
+        assertThat(factory.currentTimeMillis()).isEqualTo(stopped);
+    }
+
+    @Test
+    public void testResolutionIsShorterThanMillisecond() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CoarseClockFactory(Duration.ofNanos(100_000));
+        });
+    }
+
+    @Test
+    public void testResolutionIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CoarseClockFactory(null);
+        });
+    }
+}
@@ -18,6 +18,7 @@ package org.terasoluna.gfw.common.time;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
@@ -113,4 +114,23 @@ public class JdbcAdjustClockFactoryTest {
         assertThat(now.withNano(0).isEqual(standard.withNano(0))).isTrue();
         assertThat(now.getZone()).isEqualTo(standard.getZone());
     }
+
+    @Test
+    public void testTickCached() throws Exception {
+        clockFactory = new JdbcAdjustClockFactory(dataSource,
+                "SELECT diff FROM system_adjusted_date", ChronoUnit.DAYS, Duration.ofHours(1));
+
+        Clock clock = clockFactory.tick();
+        ZonedDateTime standard = ZonedDateTime.now().plusDays(30);
+        assertThat(Duration.between(standard, ZonedDateTime.now(clock)).abs()).isLessThan(
+                Duration.ofSeconds(1));
+
+        // not queried again
+        jdbcTemplate.getJdbcOperations().execute("DELETE FROM system_adjusted_date");
+
+        Clock clock2 = clockFactory.tick();
+        ZonedDateTime standard2 = ZonedDateTime.now().plusDays(30);
+        assertThat(Duration.between(standard2, ZonedDateTime.now(clock2)).abs()).isLessThan(
+                Duration.ofSeconds(1));
+    }
 }
@@ -18,6 +18,7 @@ package org.terasoluna.gfw.common.time;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -140,6 +141,25 @@ public class JdbcClockFactoryTest {
         assertThat(now2.isAfter(now)).isTrue();
     }
 
+    @Test
+    public void testFixedCached() throws Exception {
+        clockFactory = new JdbcClockFactory(dataSource, "SELECT now FROM system_date", Duration
+                .ofHours(1));
+
+        ZonedDateTime now = ZonedDateTime.now(clockFactory.fixed(ZoneOffset.UTC));
+        assertThat(now.toLocalDateTime()).isBetween(LocalDateTime.of(2012, 9, 11, 2, 25, 14),
+                LocalDateTime.of(2012, 9, 11, 2, 25, 16));
+        assertThat(now.getZone()).isEqualTo(ZoneOffset.UTC);
+
+        // not queried again, so the time advances with the system clock
+        jdbcTemplate.getJdbcOperations().execute("DELETE FROM system_date");
+        Thread.sleep(100);
+
+        ZonedDateTime now2 = ZonedDateTime.now(clockFactory.fixed(ZoneOffset.UTC));
+        assertThat(now2.isAfter(now)).isTrue();
+        assertThat(Duration.between(now, now2)).isLessThan(Duration.ofSeconds(5));
+    }
+
     @Test
     public void testInstantNull() throws Exception {
         clockFactory = new JdbcClockFactory(dataSource, "SELECT null FROM system_date");
@@ -0,0 +1,160 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.common.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class ScopedClockFactoryTest {
+
+    private static final Instant BASE = Instant.parse("2012-09-11T02:25:15Z");
+
+    private final AtomicInteger delegateCount = new AtomicInteger();
+
+    private final ScopedClockFactory clockFactory = new ScopedClockFactory(new ClockFactory() {
+        @Override
+        public Clock fixed(ZoneId zone) {
+            return Clock.fixed(BASE.plusSeconds(delegateCount.getAndIncrement()), zone);
+        }
+
+        @Override
+        public Clock tick(ZoneId zone) {
+            return Clock.offset(Clock.system(zone), Duration.between(Instant.now(), fixed(zone)
+                    .instant()));
+        }
+    });
+
+    @Test
+    public void testFixedInScope() {
+        ScopedClockFactory.Scope scope = clockFactory.openScope();
+        try {
+            Clock clock1 = clockFactory.fixed(ZoneOffset.UTC);
+            Clock clock2 = clockFactory.fixed(ZoneOffset.UTC);
+
+            assertThat(clock1.instant()).isEqualTo(BASE);
+            assertThat(clock2.instant()).isEqualTo(BASE);
+            assertThat(clock2.getZone()).isEqualTo(ZoneOffset.UTC);
+        } finally {
+            scope.close();
+        }
+        assertThat(delegateCount.get()).isEqualTo(1);
+
+        // a new scope captures a new instant
+        scope = clockFactory.openScope();
+        try {
+            assertThat(clockFactory.fixed(ZoneOffset.UTC).instant()).isEqualTo(BASE.plusSeconds(
+                    1));
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Test
+    public void testFixedInScopeCapturedPerZone() {
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        ConfigurableClockFactory configurable = new ConfigurableClockFactory(
+                "2012-09-11T02:25:15");
+        ScopedClockFactory scoped = new ScopedClockFactory(configurable);
+
+        ScopedClockFactory.Scope scope = scoped.openScope();
+        try {
+            // same as the delegate, which interprets the local date time in the given zone
+            assertThat(scoped.fixed(ZoneOffset.UTC).instant()).isEqualTo(configurable.fixed(
+                    ZoneOffset.UTC).instant());
+            assertThat(scoped.fixed(tokyo).instant()).isEqualTo(configurable.fixed(tokyo)
+                    .instant());
+            assertThat(scoped.fixed(ZoneOffset.UTC).instant()).isEqualTo(Instant.parse(
+                    "2012-09-11T02:25:15Z"));
+            assertThat(scoped.fixed(tokyo).instant()).isEqualTo(Instant.parse(
+                    "2012-09-10T17:25:15Z"));
+            assertThat(scoped.tick(tokyo).instant()).isAfterOrEqualTo(Instant.parse(
+                    "2012-09-10T17:25:15Z")).isBefore(Instant.parse("2012-09-11T02:25:15Z"));
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Test
+    public void testTickInScope() throws Exception {
+        ScopedClockFactory.Scope scope = clockFactory.openScope();
+        try {
+            Instant fixed = clockFactory.fixed().instant();
+            Thread.sleep(50);
+            Instant ticked = clockFactory.tick().instant();
+
+            assertThat(ticked).isAfter(fixed);
+            assertThat(Duration.between(fixed, ticked)).isLessThan(Duration.ofSeconds(5));
+        } finally {
+            scope.close();
+        }
+        assertThat(delegateCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOutOfScope() {
+        assertThat(clockFactory.isInScope()).isFalse();
+        assertThat(clockFactory.fixed().instant()).isEqualTo(BASE);
+        assertThat(clockFactory.fixed().instant()).isEqualTo(BASE.plusSeconds(1));
+    }
+
+    @Test
+    public void testNestedScopeJoinsOuter() {
+        ScopedClockFactory.Scope outer = clockFactory.openScope();
+        try {
+            Instant instant = clockFactory.fixed().instant();
+            ScopedClockFactory.Scope inner = clockFactory.openScope();
+            try {
+                assertThat(clockFactory.fixed().instant()).isEqualTo(instant);
+            } finally {
+                inner.close();
+            }
+            assertThat(clockFactory.isInScope()).isTrue();
+            assertThat(clockFactory.fixed().instant()).isEqualTo(instant);
+        } finally {
+            outer.close();
+        }
+        assertThat(clockFactory.isInScope()).isFalse();
+    }
+
+    @Test
+    public void testInterceptor() throws Throwable {
+        ClockScopeInterceptor interceptor = new ClockScopeInterceptor(clockFactory);
+        MethodInvocation invocation = Mockito.mock(MethodInvocation.class);
+        Mockito.when(invocation.proceed()).then(i -> {
+            assertThat(clockFactory.isInScope()).isTrue();
+            return clockFactory.fixed().instant().equals(clockFactory.fixed().instant());
+        });
+
+        assertThat(interceptor.invoke(invocation)).isEqualTo(true);
+        assertThat(clockFactory.isInScope()).isFalse();
+    }
+
+    @Test
+    public void testDelegateIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ScopedClockFactory(null);
+        });
+    }
+}
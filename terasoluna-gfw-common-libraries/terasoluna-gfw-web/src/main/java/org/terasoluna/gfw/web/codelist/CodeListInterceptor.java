@@ -18,7 +18,10 @@ package org.terasoluna.gfw.web.codelist;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
@@ -27,7 +30,10 @@ import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.util.Assert;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 import org.terasoluna.gfw.common.codelist.CodeList;
@@ -44,6 +50,16 @@ import jakarta.servlet.http.HttpServletResponse;
  * to {@link #setCodeListIdPattern(Pattern)} method.
  * </p>
  * <p>
+ * If the attribute name is set by {@link #setLazyAttributeName(String)}, only one attribute which
+ * is a map of codelists keyed by codelist ID is set instead. Each codelist is resolved only when
+ * the view references it (e.g. {@code ${CL.CL_ORDERSTATUS}}).
+ * </p>
+ * <p>
+ * If the handler method or its class is annotated with {@link ExposedCodeLists}, only the
+ * specified codelists are exposed for the handler. The codelists for each handler method are
+ * determined once and cached.
+ * </p>
+ * <p>
  * <b>Note: </b>Locale resolution is implemented in I18nCodeList.
  * </p>
  * @see org.terasoluna.gfw.common.codelist.i18n.I18nCodeList
@@ -72,6 +88,23 @@ public class CodeListInterceptor
      */
     private Pattern codeListIdPattern;
 
+    /**
+     * map of {@link CodeList} keyed by codelist ID
+     */
+    private Map<String, CodeList> codeListMap;
+
+    /**
+     * Attribute name of the lazy map of codelists. {@code null} if codelists are exposed
+     * individually.
+     */
+    private String lazyAttributeName;
+
+    /**
+     * cache of codelists exposed per handler method
+     */
+    private final ConcurrentMap<MethodClassKey, Map<String, CodeList>> handlerCodeListsCache =
+            new ConcurrentHashMap<MethodClassKey, Map<String, CodeList>>();
+
     /**
      * Sets codelist to the attribute of {@link HttpServletRequest}
      * <p>
@@ -91,7 +124,15 @@ public class CodeListInterceptor
             return;
         }
 
-        for (CodeList codeList : codeLists) {
+        Map<String, CodeList> handlerCodeLists = getHandlerCodeLists(handler);
+        if (lazyAttributeName != null) {
+            request.setAttribute(lazyAttributeName, new LazyCodeListMap(handlerCodeLists));
+            return;
+        }
+
+        Collection<CodeList> targetCodeLists = (handlerCodeLists == codeListMap) ? codeLists
+                : handlerCodeLists.values();
+        for (CodeList codeList : targetCodeLists) {
             String attributeName = codeList.getCodeListId();
             request.setAttribute(attributeName, codeList.asMap());
         }
@@ -133,10 +174,62 @@ public class CodeListInterceptor
             logger.debug("registered codeList : {}", targetCodeLists.keySet());
         }
 
+        this.codeListMap = Collections.unmodifiableMap(targetCodeLists);
         this.codeLists = Collections.unmodifiableCollection(targetCodeLists.values());
 
     }
 
+    /**
+     * Returns the codelists exposed for the handler.
+     * @param handler handler
+     * @return codelists keyed by codelist ID
+     */
+    private Map<String, CodeList> getHandlerCodeLists(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return codeListMap;
+        }
+        MethodClassKey key = new MethodClassKey(handlerMethod.getMethod(), handlerMethod
+                .getBeanType());
+        Map<String, CodeList> handlerCodeLists = handlerCodeListsCache.get(key);
+        if (handlerCodeLists == null) {
+            handlerCodeLists = findHandlerCodeLists(handlerMethod);
+            handlerCodeListsCache.put(key, handlerCodeLists);
+        }
+        return handlerCodeLists;
+    }
+
+    /**
+     * Finds the codelists specified by {@link ExposedCodeLists} of the handler method.
+     * @param handlerMethod handler method
+     * @return codelists keyed by codelist ID. all the codelists if not annotated
+     */
+    private Map<String, CodeList> findHandlerCodeLists(HandlerMethod handlerMethod) {
+        ExposedCodeLists exposedCodeLists = AnnotatedElementUtils.findMergedAnnotation(
+                handlerMethod.getMethod(), ExposedCodeLists.class);
+        if (exposedCodeLists == null) {
+            exposedCodeLists = AnnotatedElementUtils.findMergedAnnotation(handlerMethod
+                    .getBeanType(), ExposedCodeLists.class);
+        }
+        if (exposedCodeLists == null) {
+            return codeListMap;
+        }
+        Map<String, CodeList> handlerCodeLists = new LinkedHashMap<String, CodeList>();
+        for (String codeListId : exposedCodeLists.value()) {
+            CodeList codeList = codeListMap.get(codeListId);
+            if (codeList == null) {
+                logger.warn("codelist is not registered. codeListId={}, handler={}",
+                        codeListId, handlerMethod);
+                continue;
+            }
+            handlerCodeLists.put(codeListId, codeList);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("exposed codeList : {}, handler={}", handlerCodeLists.keySet(),
+                    handlerMethod);
+        }
+        return Collections.unmodifiableMap(handlerCodeLists);
+    }
+
     /**
      * Set the ApplicationContext.
      * @see org.springframework.context.ApplicationContextAware#setApplicationContext(org.springframework.context.ApplicationContext)
@@ -158,6 +251,21 @@ public class CodeListInterceptor
         this.codeListIdPattern = codeListIdPattern;
     }
 
+    /**
+     * Sets the attribute name of the lazy map of codelists.
+     * <p>
+     * If set, only one attribute which is a map of codelists keyed by codelist ID is set to
+     * {@link HttpServletRequest}, and each codelist is resolved only when it is referenced.
+     * Default is {@code null} which means that each codelist is set to the attribute
+     * individually.
+     * </p>
+     * @param lazyAttributeName attribute name (e.g. {@code "CL"})
+     * @since 5.12.0
+     */
+    public void setLazyAttributeName(String lazyAttributeName) {
+        this.lazyAttributeName = lazyAttributeName;
+    }
+
     /**
      * Returns the list of codelists which are to be set to attribute of {@link HttpServletRequest}
      * @return list of codelists
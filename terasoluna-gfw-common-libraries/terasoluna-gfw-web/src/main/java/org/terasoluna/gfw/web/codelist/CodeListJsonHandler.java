@@ -0,0 +1,387 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.util.UrlPathHelper;
+import org.terasoluna.gfw.common.codelist.CodeList;
+import org.terasoluna.gfw.common.codelist.VersionedCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.I18nCodeList;
+import org.terasoluna.gfw.common.codelist.lookup.JdbcLookupCodeList;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * {@link HttpRequestHandler} which serves codelists as JSON.
+ * <p>
+ * The codelist ID is the last segment of the request path, e.g. {@code CL_ORDERSTATUS} of
+ * {@code /codelists/CL_ORDERSTATUS}. {@link I18nCodeList} is served in the locale of the request resolved by
+ * {@link RequestContextUtils#getLocale(HttpServletRequest)}, and its response carries
+ * {@code Vary: Accept-Language}.<br>
+ * A codelist is serialized as an array of objects in the order of the codelist as follows, because
+ * the order of the properties of an object is not kept for integer-like codes in JavaScript.
+ * </p>
+ *
+ * <pre>
+ * [{&quot;value&quot;:&quot;1&quot;,&quot;label&quot;:&quot;Received&quot;},{&quot;value&quot;:&quot;2&quot;,&quot;label&quot;:&quot;Sent&quot;}]
+ * </pre>
+ * <p>
+ * The serialized bytes are cached and regenerated only when the codelist is changed, that is when
+ * the version of {@link VersionedCodeList} is incremented or a different map is returned by the
+ * codelist. Requested locales resolved to the same row of {@link I18nCodeList} share one cached
+ * JSON. Each response carries a strong ETag derived from the version and the content, and
+ * {@code 304 Not Modified} is returned for a request with the matching {@code If-None-Match}.
+ * </p>
+ * <p>
+ * Among the beans implementing {@link CodeList}, only the ones whose codelist ID matches
+ * {@link #setCodeListIdPattern(Pattern) codeListIdPattern} are served. {@link JdbcLookupCodeList}
+ * is not served because it cannot be iterated. Requests for other codelists are responded with
+ * {@code 404 Not Found}.
+ * </p>
+ *
+ * <pre>
+ * &lt;bean name=&quot;/codelists/*&quot; class=&quot;org.terasoluna.gfw.web.codelist.CodeListJsonHandler&quot;&gt;
+ *     &lt;property name=&quot;codeListIdPattern&quot; value=&quot;CL_.+&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class CodeListJsonHandler
+        implements HttpRequestHandler, ApplicationContextAware, InitializingBean {
+
+    /**
+     * logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CodeListJsonHandler.class);
+
+    /**
+     * Maximum number of cached JSON. The least recently used one is evicted when exceeded.
+     */
+    private static final int MAX_CACHED_ENTRIES = 1024;
+
+    /**
+     * supported methods
+     */
+    private static final List<String> SUPPORTED_METHODS = List.of(HttpMethod.GET.name(),
+            HttpMethod.HEAD.name());
+
+    /**
+     * application context
+     */
+    private ApplicationContext applicationContext;
+
+    /**
+     * Pattern of Codelist IDs (Bean IDs) of codelists which are served.
+     */
+    private Pattern codeListIdPattern;
+
+    /**
+     * value of Cache-Control header (default "no-cache")
+     */
+    private String cacheControl = "no-cache";
+
+    /**
+     * map of {@link CodeList} keyed by codelist ID
+     */
+    private Map<String, CodeList> codeListMap = Collections.emptyMap();
+
+    /**
+     * helper to extract the codelist ID from the request path without path parameters such as
+     * {@code ;jsessionid=}
+     */
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    /**
+     * cache of serialized codelists in access order
+     */
+    private final Map<CacheKey, CodeListJson> cache = Collections.synchronizedMap(
+            new LinkedHashMap<CacheKey, CodeListJson>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, CodeListJson> eldest) {
+                    return size() > MAX_CACHED_ENTRIES;
+                }
+            });
+
+    /**
+     * Writes the codelist of the request as JSON.
+     * @see org.springframework.web.HttpRequestHandler#handleRequest(jakarta.servlet.http.HttpServletRequest,
+     *      jakarta.servlet.http.HttpServletResponse)
+     */
+    @Override
+    public void handleRequest(HttpServletRequest request,
+            HttpServletResponse response) throws ServletException, IOException {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            throw new HttpRequestMethodNotSupportedException(method, SUPPORTED_METHODS);
+        }
+
+        String path = urlPathHelper.getPathWithinApplication(request);
+        String codeListId = path.substring(path.lastIndexOf('/') + 1);
+        CodeList codeList = codeListMap.get(codeListId);
+        if (codeList == null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("codelist is not found. codeListId={}", codeListId);
+            }
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Locale locale = null;
+        if (codeList instanceof I18nCodeList) {
+            locale = RequestContextUtils.getLocale(request);
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+        }
+        CodeListJson json = getJson(codeList, locale);
+
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(json.etag)) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(json.body.length);
+        response.getOutputStream().write(json.body);
+    }
+
+    /**
+     * Returns the serialized codelist, regenerating it if the codelist is changed.
+     * @param codeList codelist
+     * @param locale locale for {@link I18nCodeList}. {@code null} for others
+     * @return serialized codelist
+     */
+    CodeListJson getJson(CodeList codeList, Locale locale) {
+        // read the version first, so that a change while reading the map is detected next time
+        long version = (codeList instanceof VersionedCodeList) ? ((VersionedCodeList) codeList)
+                .getVersion() : 0L;
+        Map<String, String> map = (locale == null) ? codeList.asMap()
+                : ((I18nCodeList) codeList).asMap(locale);
+        // keyed by the map returned, so that locales resolved to the same row share the entry
+        CacheKey key = new CacheKey(codeList.getCodeListId(), map);
+        CodeListJson json = cache.get(key);
+        if (json != null && json.version == version) {
+            return json;
+        }
+        json = new CodeListJson(version, toJson(map));
+        cache.put(key, json);
+        return json;
+    }
+
+    /**
+     * Extracts the {@code CodeList}s which are served.
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(applicationContext, "applicationContext is null.");
+        if (this.codeListIdPattern == null) {
+            this.codeListIdPattern = Pattern.compile(".+");
+        }
+        Map<String, CodeList> definedCodeLists = BeanFactoryUtils.beansOfTypeIncludingAncestors(
+                applicationContext, CodeList.class, false, false);
+        Map<String, CodeList> targetCodeLists = new HashMap<String, CodeList>();
+        for (CodeList codeList : definedCodeLists.values()) {
+            String codeListId = codeList.getCodeListId();
+            if (codeListId != null && !(codeList instanceof JdbcLookupCodeList)
+                    && codeListIdPattern.matcher(codeListId).matches()) {
+                targetCodeLists.put(codeListId, codeList);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("registered codeList : {}", targetCodeLists.keySet());
+        }
+        this.codeListMap = Collections.unmodifiableMap(targetCodeLists);
+    }
+
+    /**
+     * Sets the application context.
+     * @see org.springframework.context.ApplicationContextAware#setApplicationContext(org.springframework.context.ApplicationContext)
+     */
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Sets the pattern of Codelist IDs (Bean IDs) of codelists which are served.
+     * @param codeListIdPattern pattern (default all codelists)
+     */
+    public void setCodeListIdPattern(Pattern codeListIdPattern) {
+        this.codeListIdPattern = codeListIdPattern;
+    }
+
+    /**
+     * Sets the value of Cache-Control header.
+     * @param cacheControl value of Cache-Control header. not set if {@code null} (default
+     *        "no-cache", which makes clients revalidate by ETag every time)
+     */
+    public void setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Serializes the codelist to JSON.
+     * @param map codelist
+     * @return UTF-8 bytes of JSON
+     */
+    static byte[] toJson(Map<String, String> map) {
+        StringBuilder sb = new StringBuilder(32 + map.size() * 32);
+        sb.append('[');
+        boolean first = true;
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"value\":");
+            appendString(sb, e.getKey());
+            sb.append(",\"label\":");
+            appendString(sb, e.getValue());
+            sb.append('}');
+        }
+        sb.append(']');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the JSON string literal. HTML sensitive characters are escaped too.
+     * @param sb destination
+     * @param value string
+     */
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == '\u2028'
+                        || c == '\u2029') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Key of the cache. The map is compared by identity.
+     */
+    private static final class CacheKey {
+
+        private final String codeListId;
+
+        private final Map<String, String> map;
+
+        CacheKey(String codeListId, Map<String, String> map) {
+            this.codeListId = codeListId;
+            this.map = map;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return map == other.map && codeListId.equals(other.codeListId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * codeListId.hashCode() + System.identityHashCode(map);
+        }
+    }
+
+    /**
+     * Serialized codelist.
+     */
+    static final class CodeListJson {
+
+        /**
+         * version of the codelist when serialized
+         */
+        final long version;
+
+        /**
+         * UTF-8 bytes of JSON
+         */
+        final byte[] body;
+
+        /**
+         * strong ETag
+         */
+        final String etag;
+
+        CodeListJson(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            this.etag = "\"" + Long.toHexString(version) + "-" + Long.toHexString(crc.getValue())
+                    + "\"";
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation that specifies the codelists which are used by the view of the handler.
+ * <p>
+ * {@link CodeListInterceptor} exposes only the specified codelists for the handler annotated with
+ * this annotation, instead of all the registered codelists.<br>
+ * This annotation can be applied at class level as well as method level. The method level
+ * annotation takes precedence over the class level one.
+ * </p>
+ * @since 5.12.0
+ * @see CodeListInterceptor
+ */
+@Documented
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExposedCodeLists {
+
+    /**
+     * @return Codelist IDs (Bean IDs) of the codelists used by the view
+     */
+    String[] value();
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.terasoluna.gfw.common.codelist.CodeList;
+
+/**
+ * Map of codelists keyed by codelist ID which resolves a codelist only when it is referenced.
+ * <p>
+ * The resolved codelist is kept in the instance, so {@link CodeList#asMap()} is called at most
+ * once per codelist. An instance is created per request and is not thread safe.
+ * </p>
+ * @since 5.12.0
+ */
+final class LazyCodeListMap extends AbstractMap<String, Map<String, String>> {
+
+    /**
+     * codelists keyed by codelist ID
+     */
+    private final Map<String, CodeList> codeLists;
+
+    /**
+     * resolved codelists
+     */
+    private final Map<String, Map<String, String>> resolved =
+            new HashMap<String, Map<String, String>>();
+
+    /**
+     * Constructor.
+     * @param codeLists codelists keyed by codelist ID
+     */
+    LazyCodeListMap(Map<String, CodeList> codeLists) {
+        this.codeLists = codeLists;
+    }
+
+    @Override
+    public Map<String, String> get(Object key) {
+        Map<String, String> codeListMap = resolved.get(key);
+        if (codeListMap == null) {
+            CodeList codeList = codeLists.get(key);
+            if (codeList == null) {
+                return null;
+            }
+            codeListMap = codeList.asMap();
+            resolved.put(codeList.getCodeListId(), codeListMap);
+        }
+        return codeListMap;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return codeLists.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return codeLists.size();
+    }
+
+    /**
+     * Returns the entries. The codelists are resolved while iterating.
+     */
+    @Override
+    public Set<Map.Entry<String, Map<String, String>>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Map<String, String>>>() {
+            @Override
+            public Iterator<Map.Entry<String, Map<String, String>>> iterator() {
+                Iterator<String> ids = codeLists.keySet().iterator();
+                return new Iterator<Map.Entry<String, Map<String, String>>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return ids.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Map<String, String>> next() {
+                        String id = ids.next();
+                        return new AbstractMap.SimpleImmutableEntry<String, Map<String, String>>(
+                                id, get(id));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return codeLists.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.time;
+
+import java.io.IOException;
+
+import org.springframework.util.Assert;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.terasoluna.gfw.common.time.ScopedClockFactory;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter class that opens a scope of {@link ScopedClockFactory} for each request.
+ * <p>
+ * The business time is captured once per request and all callers in the request see the same
+ * instant. The clock factory is set by the constructor, or looked up from the root
+ * WebApplicationContext by the bean name specified as {@code clockFactoryBeanName} init-param
+ * (default {@code "clockFactory"}).
+ * </p>
+ *
+ * <pre>
+ * &lt;filter&gt;
+ *     &lt;filter-name&gt;clockScopeFilter&lt;/filter-name&gt;
+ *     &lt;filter-class&gt;org.terasoluna.gfw.web.time.ClockScopeFilter&lt;/filter-class&gt;
+ * &lt;/filter&gt;
+ * </pre>
+ *
+ * @since 5.12.0
+ */
+public class ClockScopeFilter extends OncePerRequestFilter {
+
+    /**
+     * default bean name of the clock factory
+     */
+    public static final String DEFAULT_CLOCK_FACTORY_BEAN_NAME = "clockFactory";
+
+    /**
+     * bean name of the clock factory
+     */
+    private String clockFactoryBeanName = DEFAULT_CLOCK_FACTORY_BEAN_NAME;
+
+    /**
+     * clock factory to open scopes
+     */
+    private ScopedClockFactory clockFactory;
+
+    /**
+     * Constructor which looks up the clock factory from the root WebApplicationContext.
+     */
+    public ClockScopeFilter() {
+    }
+
+    /**
+     * Constructor with the clock factory.
+     * @param clockFactory clock factory to open scopes
+     */
+    public ClockScopeFilter(ScopedClockFactory clockFactory) {
+        Assert.notNull(clockFactory, "clockFactory must not be null");
+        this.clockFactory = clockFactory;
+    }
+
+    /**
+     * Sets the bean name of the clock factory (default {@code "clockFactory"}).
+     * @param clockFactoryBeanName bean name
+     */
+    public void setClockFactoryBeanName(String clockFactoryBeanName) {
+        this.clockFactoryBeanName = clockFactoryBeanName;
+    }
+
+    /**
+     * Processes the request in a scope.
+     * @param request {@link HttpServletRequest}
+     * @param response {@link HttpServletResponse}
+     * @param filterChain {@link FilterChain}
+     * @throws ServletException If {@link ServletException} occurs further in the execution chain.
+     * @throws IOException If IOException {@link IOException} occurs further in the execution chain.
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(jakarta.servlet.http.HttpServletRequest,
+     *      jakarta.servlet.http.HttpServletResponse, jakarta.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        ScopedClockFactory.Scope scope = getClockFactory().openScope();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Returns the clock factory, and looks it up on the first call if not set.
+     * @return clock factory
+     */
+    protected ScopedClockFactory getClockFactory() {
+        if (clockFactory == null) {
+            WebApplicationContext context = WebApplicationContextUtils
+                    .getRequiredWebApplicationContext(getServletContext());
+            clockFactory = context.getBean(clockFactoryBeanName, ScopedClockFactory.class);
+        }
+        return clockFactory;
+    }
+}
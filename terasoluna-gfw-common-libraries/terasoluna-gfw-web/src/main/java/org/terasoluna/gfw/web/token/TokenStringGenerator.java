@@ -18,6 +18,7 @@ package org.terasoluna.gfw.web.token;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Clock;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -36,6 +37,8 @@ public class TokenStringGenerator {
 
     private final String algorithm;
 
+    private final Clock clock;
+
     /**
      * Constructor.
      * <p>
@@ -53,6 +56,23 @@ public class TokenStringGenerator {
      * @throws IllegalArgumentException algorithm is null or invalid
      */
     public TokenStringGenerator(final String algorithm) {
+        this(algorithm, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor. Algorithm and clock to be used for generating the token value can be passed as
+     * arguments<br>
+     * <p>
+     * The clock only has to return a different time from time to time, so a coarse-grained clock
+     * such as {@code org.terasoluna.gfw.common.time.CoarseClockFactory} can be used to reduce the
+     * cost of reading the time.
+     * </p>
+     * @param algorithm Algorithm to be used for generating the token value (must not be null)
+     * @param clock Clock to be used for generating the token value (must not be null)
+     * @throws IllegalArgumentException algorithm is null or invalid, or clock is null
+     * @since 5.12.0
+     */
+    public TokenStringGenerator(final String algorithm, final Clock clock) {
         if (algorithm == null) {
             throw new IllegalArgumentException("algorithm must not be null");
         }
@@ -62,7 +82,11 @@ public class TokenStringGenerator {
             throw new IllegalArgumentException(
                     "The given algorithm is invalid. algorithm=" + algorithm, e);
         }
+        if (clock == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
         this.algorithm = algorithm;
+        this.clock = clock;
         this.internalSeed = Long.toHexString(new SecureRandom().nextLong());
     }
 
@@ -80,7 +104,7 @@ public class TokenStringGenerator {
         if (seed == null) {
             throw new IllegalArgumentException("seed must not be null");
         }
-        long time = System.currentTimeMillis();
+        long time = clock.millis();
 
         StringBuilder sb = new StringBuilder(1000);
         sb.append(internalSeed).append(seed).append(time).append(counter.getAndIncrement());
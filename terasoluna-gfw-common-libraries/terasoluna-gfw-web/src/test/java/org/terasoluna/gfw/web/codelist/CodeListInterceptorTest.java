@@ -33,6 +33,7 @@ import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.method.HandlerMethod;
 import org.terasoluna.gfw.common.codelist.CodeList;
 import org.terasoluna.gfw.common.codelist.SimpleMapCodeList;
 import org.terasoluna.gfw.common.codelist.i18n.SimpleI18nCodeList;
@@ -349,4 +350,139 @@ public class CodeListInterceptorTest extends ApplicationObjectSupport {
 
     }
 
+
+    /**
+     * [postHandle] Case of lazy attribute name is set.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>set only one attribute which resolves CodeList when referenced.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPostHandle_lazy() throws Exception {
+
+        // do setup.
+        StaticApplicationContext mockApplicationContext = new StaticApplicationContext();
+        mockApplicationContext.registerSingleton("CL_A", SimpleMapCodeList.class);
+        mockApplicationContext.registerSingleton("CL_B", SimpleMapCodeList.class);
+        mockApplicationContext.getBean("CL_A", SimpleMapCodeList.class).setMap(Collections
+                .singletonMap("a", "A"));
+
+        testTarget.setApplicationContext(mockApplicationContext);
+        testTarget.setLazyAttributeName("CL");
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        testTarget.postHandle(mockRequest, mockResponse, null, null);
+
+        // do assert.
+        Enumeration<String> actualAttributeNames = mockRequest.getAttributeNames();
+        assertThat(actualAttributeNames.nextElement()).isEqualTo("CL");
+        assertThat(actualAttributeNames.hasMoreElements()).isFalse();
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, String>> codeListMap = (Map<String, Map<String, String>>) mockRequest
+                .getAttribute("CL");
+        assertThat(codeListMap).containsOnlyKeys("CL_A", "CL_B");
+        assertThat(codeListMap.get("CL_A")).containsEntry("a", "A");
+        assertThat(codeListMap.get("CL_A")).isSameAs(codeListMap.get("CL_A"));
+        assertThat(codeListMap.get("CL_C")).isNull();
+        assertThat(codeListMap.containsKey("CL_C")).isFalse();
+    }
+
+    /**
+     * [postHandle] Case of handler is annotated with ExposedCodeLists.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>set only CodeLists specified by the annotation.</li>
+     * <li>method level annotation takes precedence over class level one.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPostHandle_exposedCodeLists() throws Exception {
+
+        // do setup.
+        StaticApplicationContext mockApplicationContext = new StaticApplicationContext();
+        mockApplicationContext.registerSingleton("CL_A", SimpleMapCodeList.class);
+        mockApplicationContext.registerSingleton("CL_B", SimpleMapCodeList.class);
+        mockApplicationContext.registerSingleton("CL_C", SimpleMapCodeList.class);
+        for (SimpleMapCodeList codeList : mockApplicationContext.getBeansOfType(
+                SimpleMapCodeList.class).values()) {
+            codeList.setMap(Collections.singletonMap("key", "value"));
+        }
+
+        testTarget.setApplicationContext(mockApplicationContext);
+        testTarget.afterPropertiesSet();
+
+        TestController controller = new TestController();
+
+        // do test.
+        testTarget.postHandle(mockRequest, mockResponse, new HandlerMethod(controller,
+                "classLevel"), null);
+        MockHttpServletRequest methodLevelRequest = new MockHttpServletRequest();
+        testTarget.postHandle(methodLevelRequest, mockResponse, new HandlerMethod(controller,
+                "methodLevel"), null);
+        // cached
+        MockHttpServletRequest cachedRequest = new MockHttpServletRequest();
+        testTarget.postHandle(cachedRequest, mockResponse, new HandlerMethod(controller,
+                "methodLevel"), null);
+
+        // do assert.
+        assertThat(Collections.list(mockRequest.getAttributeNames())).containsOnly("CL_A");
+        assertThat(Collections.list(methodLevelRequest.getAttributeNames())).containsOnly("CL_B",
+                "CL_C");
+        assertThat(Collections.list(cachedRequest.getAttributeNames())).containsOnly("CL_B",
+                "CL_C");
+    }
+
+    /**
+     * [postHandle] Case of handler is annotated with ExposedCodeLists in lazy mode.
+     * <p>
+     * [Expected Result]
+     * <ol>
+     * <li>the lazy map contains only CodeLists specified by the annotation.</li>
+     * </ol>
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPostHandle_exposedCodeLists_lazy() throws Exception {
+
+        // do setup.
+        StaticApplicationContext mockApplicationContext = new StaticApplicationContext();
+        mockApplicationContext.registerSingleton("CL_A", SimpleMapCodeList.class);
+        mockApplicationContext.registerSingleton("CL_B", SimpleMapCodeList.class);
+
+        testTarget.setApplicationContext(mockApplicationContext);
+        testTarget.setLazyAttributeName("CL");
+        testTarget.afterPropertiesSet();
+
+        // do test.
+        testTarget.postHandle(mockRequest, mockResponse, new HandlerMethod(new TestController(),
+                "classLevel"), null);
+
+        // do assert.
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, String>> codeListMap = (Map<String, Map<String, String>>) mockRequest
+                .getAttribute("CL");
+        assertThat(codeListMap).containsOnlyKeys("CL_A");
+    }
+
+    @ExposedCodeLists("CL_A")
+    static class TestController {
+
+        public String classLevel() {
+            return "view";
+        }
+
+        @ExposedCodeLists({ "CL_B", "CL_C", "CL_UNKNOWN" })
+        public String methodLevel() {
+            return "view";
+        }
+    }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.codelist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.i18n.FixedLocaleResolver;
+import org.terasoluna.gfw.common.codelist.AbstractReloadableCodeList;
+import org.terasoluna.gfw.common.codelist.SimpleMapCodeList;
+import org.terasoluna.gfw.common.codelist.i18n.SimpleI18nCodeList;
+import org.terasoluna.gfw.common.codelist.lookup.JdbcLookupCodeList;
+
+public class CodeListJsonHandlerTest {
+
+    private CodeListJsonHandler testTarget;
+
+    private SimpleI18nCodeList i18nCodeList;
+
+    private Map<String, String> source;
+
+    private MutableCodeList reloadableCodeList;
+
+    @BeforeEach
+    public void before() {
+        StaticApplicationContext context = new StaticApplicationContext();
+
+        SimpleMapCodeList mapCodeList = new SimpleMapCodeList();
+        mapCodeList.setBeanName("CL_MAP");
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("2", "Two \"quoted\"");
+        map.put("1", "<One>\n");
+        mapCodeList.setMap(map);
+        context.getBeanFactory().registerSingleton("CL_MAP", mapCodeList);
+
+        i18nCodeList = new SimpleI18nCodeList();
+        i18nCodeList.setBeanName("CL_I18N");
+        Map<Locale, Map<String, String>> rows = new LinkedHashMap<Locale, Map<String, String>>();
+        rows.put(Locale.ENGLISH, Map.of("1", "one"));
+        rows.put(Locale.JAPANESE, Map.of("1", "いち"));
+        i18nCodeList.setRows(rows);
+        i18nCodeList.afterPropertiesSet();
+        context.getBeanFactory().registerSingleton("CL_I18N", i18nCodeList);
+
+        source = new LinkedHashMap<String, String>();
+        source.put("A", "a");
+        reloadableCodeList = new MutableCodeList();
+        reloadableCodeList.setBeanName("CL_RELOADABLE");
+        reloadableCodeList.afterPropertiesSet();
+        context.getBeanFactory().registerSingleton("CL_RELOADABLE", reloadableCodeList);
+
+        JdbcLookupCodeList lookupCodeList = new JdbcLookupCodeList();
+        lookupCodeList.setBeanName("CL_LOOKUP");
+        context.getBeanFactory().registerSingleton("CL_LOOKUP", lookupCodeList);
+
+        SimpleMapCodeList hiddenCodeList = new SimpleMapCodeList();
+        hiddenCodeList.setBeanName("HIDDEN");
+        hiddenCodeList.setMap(Map.of("1", "one"));
+        context.getBeanFactory().registerSingleton("HIDDEN", hiddenCodeList);
+
+        testTarget = new CodeListJsonHandler();
+        testTarget.setApplicationContext(context);
+        testTarget.setCodeListIdPattern(Pattern.compile("CL_.+"));
+        testTarget.afterPropertiesSet();
+    }
+
+    @Test
+    public void testHandleRequest() throws Exception {
+        MockHttpServletResponse response = handle(request("CL_MAP"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).startsWith("application/json");
+        assertThat(response.getHeader("ETag")).startsWith("\"");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("no-cache");
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(
+                "[{\"value\":\"2\",\"label\":\"Two \\\"quoted\\\"\"},"
+                        + "{\"value\":\"1\",\"label\":\"\\u003cOne\\u003e\\n\"}]");
+    }
+
+    @Test
+    public void testHandleRequestNotModified() throws Exception {
+        String etag = handle(request("CL_MAP")).getHeader("ETag");
+
+        MockHttpServletRequest request = request("CL_MAP");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = handle(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader("ETag")).isEqualTo(etag);
+    }
+
+    @Test
+    public void testHandleRequestI18n() throws Exception {
+        MockHttpServletRequest request = request("CL_I18N");
+        request.setAttribute(DispatcherServlet.LOCALE_RESOLVER_ATTRIBUTE, new FixedLocaleResolver(
+                Locale.JAPANESE));
+        MockHttpServletResponse responseJa = handle(request);
+
+        request = request("CL_I18N");
+        request.setAttribute(DispatcherServlet.LOCALE_RESOLVER_ATTRIBUTE, new FixedLocaleResolver(
+                Locale.ENGLISH));
+        MockHttpServletResponse responseEn = handle(request);
+
+        assertThat(responseJa.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(
+                "[{\"value\":\"1\",\"label\":\"いち\"}]");
+        assertThat(responseEn.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(
+                "[{\"value\":\"1\",\"label\":\"one\"}]");
+        assertThat(responseJa.getHeader("ETag")).isNotEqualTo(responseEn.getHeader("ETag"));
+        assertThat(responseJa.getHeader("Vary")).isEqualTo("Accept-Language");
+        assertThat(responseEn.getHeader("Vary")).isEqualTo("Accept-Language");
+        assertThat(handle(request("CL_MAP")).getHeader("Vary")).isNull();
+    }
+
+    @Test
+    public void testHandleRequestI18nNotModifiedHasVary() throws Exception {
+        String etag = handle(request("CL_I18N")).getHeader("ETag");
+
+        MockHttpServletRequest request = request("CL_I18N");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = handle(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Language");
+    }
+
+    @Test
+    public void testCachedByResolvedRow() {
+        CodeListJsonHandler.CodeListJson english = testTarget.getJson(i18nCodeList,
+                Locale.ENGLISH);
+
+        // resolved to the same row as Locale.ENGLISH
+        assertThat(testTarget.getJson(i18nCodeList, Locale.US)).isSameAs(english);
+        assertThat(testTarget.getJson(i18nCodeList, Locale.UK)).isSameAs(english);
+        assertThat(testTarget.getJson(i18nCodeList, Locale.JAPANESE)).isNotSameAs(english);
+    }
+
+    @Test
+    public void testHandleRequestWithPathParameter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+                "/app/codelists/CL_MAP;jsessionid=0123456789ABCDEF");
+        request.setContextPath("/app");
+        MockHttpServletResponse response = handle(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).startsWith(
+                "[{\"value\":\"2\"");
+    }
+
+    @Test
+    public void testRegeneratedOnlyWhenChanged() throws Exception {
+        CodeListJsonHandler.CodeListJson first = testTarget.getJson(reloadableCodeList, null);
+        reloadableCodeList.refresh();
+        assertThat(testTarget.getJson(reloadableCodeList, null)).isSameAs(first);
+
+        source.put("B", "b");
+        reloadableCodeList.refresh();
+        CodeListJsonHandler.CodeListJson second = testTarget.getJson(reloadableCodeList, null);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.etag).isNotEqualTo(first.etag);
+        assertThat(new String(second.body, StandardCharsets.UTF_8)).contains("\"B\"");
+    }
+
+    @Test
+    public void testHandleRequestNotFound() throws Exception {
+        assertThat(handle(request("CL_UNKNOWN")).getStatus()).isEqualTo(404);
+        // not matched with codeListIdPattern
+        assertThat(handle(request("HIDDEN")).getStatus()).isEqualTo(404);
+        // cannot be iterated
+        assertThat(handle(request("CL_LOOKUP")).getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void testHandleRequestMethodNotSupported() {
+        MockHttpServletRequest request = request("CL_MAP");
+        request.setMethod("POST");
+
+        assertThrows(HttpRequestMethodNotSupportedException.class, () -> {
+            handle(request);
+        });
+    }
+
+    private MockHttpServletRequest request(String codeListId) {
+        return new MockHttpServletRequest("GET", "/codelists/" + codeListId);
+    }
+
+    private MockHttpServletResponse handle(
+            MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        testTarget.handleRequest(request, response);
+        return response;
+    }
+
+    class MutableCodeList extends AbstractReloadableCodeList {
+        @Override
+        protected Map<String, String> retrieveMap() {
+            return new LinkedHashMap<String, String>(source);
+        }
+    }
+}
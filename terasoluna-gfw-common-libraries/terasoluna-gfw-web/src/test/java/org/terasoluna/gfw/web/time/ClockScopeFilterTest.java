@@ -0,0 +1,103 @@
+/*
+ * Copyright(c) 2024 NTT DATA Group Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.gfw.web.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.terasoluna.gfw.common.time.ClockFactory;
+import org.terasoluna.gfw.common.time.ScopedClockFactory;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class ClockScopeFilterTest {
+
+    private final AtomicInteger delegateCount = new AtomicInteger();
+
+    private final ScopedClockFactory clockFactory = new ScopedClockFactory(new ClockFactory() {
+        @Override
+        public Clock fixed(ZoneId zone) {
+            return Clock.fixed(Instant.ofEpochSecond(delegateCount.incrementAndGet()), zone);
+        }
+
+        @Override
+        public Clock tick(ZoneId zone) {
+            return Clock.system(zone);
+        }
+    });
+
+    @Test
+    public void testDoFilterInScope() throws Exception {
+        ClockScopeFilter filter = new ClockScopeFilter(clockFactory);
+        AtomicReference<Instant> first = new AtomicReference<Instant>();
+        AtomicReference<Instant> second = new AtomicReference<Instant>();
+        AtomicReference<Boolean> inScope = new AtomicReference<Boolean>();
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                        inScope.set(clockFactory.isInScope());
+                        first.set(clockFactory.fixed().instant());
+                        second.set(clockFactory.fixed().instant());
+                    }
+                }));
+
+        assertThat(inScope.get()).isTrue();
+        assertThat(second.get()).isEqualTo(first.get());
+        assertThat(delegateCount.get()).isEqualTo(1);
+        assertThat(clockFactory.isInScope()).isFalse();
+    }
+
+    @Test
+    public void testDoFilterLooksUpClockFactory() throws Exception {
+        MockServletContext servletContext = new MockServletContext();
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.getBeanFactory().registerSingleton("businessClockFactory", clockFactory);
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE,
+                context);
+
+        ClockScopeFilter filter = new ClockScopeFilter();
+        filter.setClockFactoryBeanName("businessClockFactory");
+        filter.setServletContext(servletContext);
+        AtomicReference<Boolean> inScope = new AtomicReference<Boolean>();
+
+        filter.doFilter(new MockHttpServletRequest(servletContext), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                        inScope.set(clockFactory.isInScope());
+                    }
+                }));
+
+        assertThat(inScope.get()).isTrue();
+    }
+}
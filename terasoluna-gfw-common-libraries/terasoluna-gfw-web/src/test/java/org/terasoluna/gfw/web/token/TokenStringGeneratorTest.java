@@ -18,6 +18,9 @@ package org.terasoluna.gfw.web.token;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -82,4 +85,23 @@ public class TokenStringGeneratorTest {
         assertThrows(IllegalStateException.class, () -> generator.generate("hoge"));
     }
 
+    @Test
+    public void testGenerate_withClock() {
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(1000), ZoneOffset.UTC);
+        TokenStringGenerator generator = new TokenStringGenerator("MD5", clock);
+        String first = generator.generate("hoge");
+        String second = generator.generate("hoge");
+        assertThat(first).hasSize(32);
+        // differs by the counter even if the time is the same
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    public void testNullTokenGeneratorClock() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+            new TokenStringGenerator("MD5", null);
+        });
+        assertThat(e.getMessage()).isEqualTo("clock must not be null");
+    }
+
 }